@@ -0,0 +1,83 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.client.Sender;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.std.Rnd;
+
+/**
+ * Same load as {@link LineTCPSenderMain}, but rows are published through the asynchronous Sender.
+ * Pass "sync" as the first argument to run the blocking Sender for comparison. The reported rate
+ * is what the publishing thread sees, i.e. it excludes the time the IO thread spends draining
+ * the last batch on close.
+ */
+public class LineTCPSenderMainAsync {
+    public static void main(String[] args) {
+        final boolean async = args.length == 0 || !"sync".equals(args[0]);
+        int n = 3;
+        final SOCountDownLatch haltLatch = new SOCountDownLatch(n);
+        for (int i = 0; i < n; i++) {
+            int k = i;
+            new Thread(() -> doSend(k, async, haltLatch)).start();
+        }
+        haltLatch.await();
+    }
+
+    private static void doSend(int k, boolean async, SOCountDownLatch haltLatch) {
+        final long count = 30_000_000;
+        String address = "127.0.0.1:9009";
+        int bufferCapacity = 64 * 1024;
+
+        final Rnd rnd = new Rnd();
+        String tab = "weather" + k;
+        Sender.LineSenderBuilder builder = Sender.builder()
+                .address(address)
+                .bufferCapacity(bufferCapacity)
+                .autoFlushRows(1_000)
+                .autoFlushIntervalMillis(100);
+        if (async) {
+            builder.enableAsync();
+        }
+        long start;
+        long elapsed;
+        try (Sender sender = builder.build()) {
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                sender.table(tab)
+                        .symbol("location", "london")
+                        .symbol("by", "blah")
+                        .longColumn("temp", rnd.nextPositiveLong())
+                        .longColumn("ok", rnd.nextPositiveInt())
+                        .atNow();
+            }
+            sender.flush();
+            elapsed = System.nanoTime() - start;
+        }
+        System.out.println((async ? "async" : "sync") + " publisher rate: " + (count * 1_000_000_000L / elapsed)
+                + ", rate including close: " + (count * 1_000_000_000L / (System.nanoTime() - start)));
+        haltLatch.countDown();
+    }
+}
@@ -44,60 +44,50 @@ import java.util.concurrent.TimeUnit;
 public class LineTcpParserBenchmark {
 
     private static final long BUFFER_SIZE = 32768;
-    private final long bufHi;
-    private final long bufLo;
-    private final LineTcpParser parser;
+    private final LineTcpParser parser = new LineTcpParser(false, false);
+    private long bufHi;
+    private long bufLo;
+    // narrow lines are the TSBS cpu-only workload, wide lines have long tag values,
+    // long field names and a string field, i.e. long runs of bytes without separators
+    @Param({"narrow", "wide"})
+    private String shape;
 
-    public LineTcpParserBenchmark() {
-        this.bufLo = Unsafe.malloc(BUFFER_SIZE, MemoryTag.NATIVE_DEFAULT);
-        this.parser = new LineTcpParser(false, false);
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(LineTcpParserBenchmark.class.getSimpleName())
+                .warmupIterations(1)
+                .measurementIterations(3)
+                // Uncomment to collect a flame graph via async-profiler:
+//                .addProfiler(AsyncProfiler.class, "output=flamegraph")
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
 
+    @Setup(Level.Trial)
+    public void setUp() {
+        bufLo = Unsafe.malloc(BUFFER_SIZE, MemoryTag.NATIVE_DEFAULT);
         Rnd rnd = new Rnd();
         long lineLenEstimate = 0;
         DirectUnboundedByteSink sink = new DirectUnboundedByteSink();
         sink.of(bufLo);
         while (sink.length() < (BUFFER_SIZE - lineLenEstimate)) {
-            sink.put("cpu")
-                    .put(",hostname=host_").put(String.valueOf(rnd.nextInt(1000)))
-                    .put(",region=central_").put(rnd.nextString(32))
-                    .put(",rack=").put(String.valueOf(rnd.nextInt(16)))
-                    .put(",os=").put(rnd.nextString(3))
-                    .put(",arch=").put(rnd.nextString(3))
-                    .put(",team=").put(rnd.nextString(3))
-                    .put(",service=").put(String.valueOf(rnd.nextInt(100)))
-                    .put(",service_version=").put(String.valueOf(rnd.nextInt(10)))
-                    .put(",service_environment=").put(rnd.nextString(5))
-                    .put(" ")
-                    .put("usage_user=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_system=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_idle=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_nice=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_iowait=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_irq=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_softirq=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_steal=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_guest=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(",usage_guest_nice=").put(String.valueOf(rnd.nextInt(100))).put("i")
-                    .put(" 1451606400000000000\n");
+            if ("wide".equals(shape)) {
+                putWideLine(sink, rnd);
+            } else {
+                putNarrowLine(sink, rnd);
+            }
             if (lineLenEstimate == 0) {
                 lineLenEstimate = 3L * sink.length();
             }
         }
-
-        this.bufHi = bufLo + sink.length();
+        bufHi = bufLo + sink.length();
     }
 
-    public static void main(String[] args) throws RunnerException {
-        Options opt = new OptionsBuilder()
-                .include(LineTcpParserBenchmark.class.getSimpleName())
-                .warmupIterations(1)
-                .measurementIterations(3)
-                // Uncomment to collect a flame graph via async-profiler:
-//                .addProfiler(AsyncProfiler.class, "output=flamegraph")
-                .forks(1)
-                .build();
-
-        new Runner(opt).run();
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bufLo = Unsafe.free(bufLo, BUFFER_SIZE, MemoryTag.NATIVE_DEFAULT);
     }
 
     @Benchmark
@@ -127,4 +117,47 @@ public class LineTcpParserBenchmark {
             bufPos = parser.getBufferAddress();
         }
     }
+
+    private static void putNarrowLine(DirectUnboundedByteSink sink, Rnd rnd) {
+        sink.put("cpu")
+                .put(",hostname=host_").put(String.valueOf(rnd.nextInt(1000)))
+                .put(",region=central_").put(rnd.nextString(32))
+                .put(",rack=").put(String.valueOf(rnd.nextInt(16)))
+                .put(",os=").put(rnd.nextString(3))
+                .put(",arch=").put(rnd.nextString(3))
+                .put(",team=").put(rnd.nextString(3))
+                .put(",service=").put(String.valueOf(rnd.nextInt(100)))
+                .put(",service_version=").put(String.valueOf(rnd.nextInt(10)))
+                .put(",service_environment=").put(rnd.nextString(5))
+                .put(" ")
+                .put("usage_user=").put(String.valueOf(rnd.nextInt(100))).put("i")
+                .put(",usage_system=").put(String.valueOf(rnd.nextInt(100))).put("i")
+                .put(",usage_idle=").put(String.valueOf(rnd.nextInt(100))).put("i")
+                .put(",usage_nice=").put(String.valueOf(rnd.nextInt(100))).put("i")
+                .put(",usage_iowait=").put(String.valueOf(rnd.nextInt(100))).put("i")
+                .put(",usage_irq=").put(String.valueOf(rnd.nextInt(100))).put("i")
+                .put(",usage_softirq=").put(String.valueOf(rnd.nextInt(100))).put("i")
+                .put(",usage_steal=").put(String.valueOf(rnd.nextInt(100))).put("i")
+                .put(",usage_guest=").put(String.valueOf(rnd.nextInt(100))).put("i")
+                .put(",usage_guest_nice=").put(String.valueOf(rnd.nextInt(100))).put("i")
+                .put(" 1451606400000000000\n");
+    }
+
+    private static void putWideLine(DirectUnboundedByteSink sink, Rnd rnd) {
+        sink.put("application_performance_metrics")
+                .put(",kubernetes_cluster_name=production_").put(rnd.nextString(24))
+                .put(",kubernetes_namespace=payments_").put(rnd.nextString(16))
+                .put(",kubernetes_pod_name=payment_gateway_deployment_").put(rnd.nextString(32))
+                .put(",container_image=registry_example_com_payments_gateway_").put(rnd.nextString(40))
+                .put(" ");
+        for (int i = 0; i < 16; i++) {
+            if (i > 0) {
+                sink.put(',');
+            }
+            sink.put("http_server_request_duration_percentile_").put(String.valueOf(i))
+                    .put('=').put(String.valueOf(rnd.nextLong())).put('i');
+        }
+        sink.put(",last_error_message=\"").put(rnd.nextString(64)).put('"')
+                .put(" 1451606400000000000\n");
+    }
 }
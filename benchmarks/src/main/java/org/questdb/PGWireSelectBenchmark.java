@@ -0,0 +1,126 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.Bootstrap;
+import io.questdb.ServerMain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.*;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures PG wire result set throughput with text and binary column encoding.
+ * The driver requests binary format for every column it can decode when binary
+ * transfer is enabled, otherwise all values are formatted as text on the server.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PGWireSelectBenchmark {
+    private static final int ROW_COUNT = 100_000;
+    @Param({"false", "true"})
+    public boolean binaryTransfer;
+    private Connection connection;
+    private ServerMain serverMain;
+    private PreparedStatement statement;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PGWireSelectBenchmark.class.getSimpleName())
+                .warmupIterations(2)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, SQLException {
+        final String root = Files.createTempDirectory("pg-select").toString();
+        serverMain = new ServerMain("-d", root, Bootstrap.SWITCH_USE_DEFAULT_LOG_FACTORY_CONFIGURATION);
+        serverMain.start();
+
+        final Properties properties = new Properties();
+        properties.setProperty("user", "admin");
+        properties.setProperty("password", "quest");
+        properties.setProperty("sslmode", "disable");
+        properties.setProperty("binaryTransfer", Boolean.toString(binaryTransfer));
+        // use server-side prepared statement from the first execution, binary format is negotiated on Bind
+        properties.setProperty("prepareThreshold", "-1");
+        connection = DriverManager.getConnection("jdbc:postgresql://127.0.0.1:8812/qdb", properties);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("create table if not exists x as (select" +
+                    " rnd_double() d," +
+                    " rnd_float() f," +
+                    " rnd_long() l," +
+                    " rnd_int() i," +
+                    " rnd_short() s," +
+                    " rnd_boolean() b," +
+                    " rnd_char() c," +
+                    " rnd_uuid4() u," +
+                    " rnd_geohash(40) g," +
+                    " rnd_date(to_date('2020', 'yyyy'), to_date('2023', 'yyyy'), 0) dt," +
+                    " timestamp_sequence(0, 1000) ts" +
+                    " from long_sequence(" + ROW_COUNT + ")) timestamp(ts)");
+        }
+        statement = connection.prepareStatement("x");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        statement.close();
+        connection.close();
+        serverMain.close();
+    }
+
+    @Benchmark
+    public void testSelect(Blackhole bh) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getDouble(1));
+                bh.consume(rs.getFloat(2));
+                bh.consume(rs.getLong(3));
+                bh.consume(rs.getInt(4));
+                bh.consume(rs.getShort(5));
+                bh.consume(rs.getBoolean(6));
+                bh.consume(rs.getString(7));
+                bh.consume(rs.getObject(8));
+                bh.consume(rs.getString(9));
+                bh.consume(rs.getTimestamp(10));
+                bh.consume(rs.getTimestamp(11));
+            }
+        }
+    }
+}
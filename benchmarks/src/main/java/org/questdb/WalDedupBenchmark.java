@@ -0,0 +1,152 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.questdb;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.wal.ApplyWal2TableJob;
+import io.questdb.cairo.wal.WalWriter;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Rnd;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures WAL apply throughput of out-of-order transactions with and without
+ * DEDUP KEYS. With non-zero replay share, that part of every transaction repeats rows
+ * of the previous one, the way a producer retrying after a timeout would. Zero replay
+ * share shows the cost of duplicate detection alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WalDedupBenchmark {
+    private static final long PARTITION_SPREAD_MICROS = 2 * 24 * 3600 * 1_000_000L;
+    private static final int ROWS_PER_TXN = 200_000;
+    private static final String[] SYMBOLS = new String[16];
+    private static final int TXN_COUNT = 4;
+    private final long[] prevTimestamps = new long[ROWS_PER_TXN];
+    private final int[] prevSymbols = new int[ROWS_PER_TXN];
+    private final Rnd rnd = new Rnd();
+    @Param({"false", "true"})
+    public boolean dedup;
+    @Param({"0", "50"})
+    public int replayPercent;
+    private SqlExecutionContext context;
+    private CairoEngine engine;
+    private ApplyWal2TableJob job;
+    private TableToken tableToken;
+    private long timestampLo;
+
+    static {
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            SYMBOLS[i] = "sym" + i;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(WalDedupBenchmark.class.getSimpleName())
+                .warmupIterations(2)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Benchmark
+    public void testApplyWal() {
+        job.drain(0);
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException, SqlException {
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(Files.createTempDirectory("wal-dedup").toString());
+        LogFactory.haltInstance();
+        engine = new CairoEngine(configuration);
+        context = new SqlExecutionContextImpl(engine, 1).with(AllowAllCairoSecurityContext.INSTANCE, null, null, -1, null);
+        try (SqlCompiler compiler = new SqlCompiler(engine)) {
+            compiler.compile(
+                    "create table x (ts timestamp, sym symbol, v long) timestamp(ts) partition by DAY WAL" + (dedup ? " dedup keys(ts, sym)" : ""),
+                    context
+            );
+        }
+        tableToken = engine.getTableToken("x");
+        job = new ApplyWal2TableJob(engine, 1, 1, null);
+        timestampLo = 0;
+        rnd.reset();
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        try (WalWriter walWriter = engine.getWalWriter(AllowAllCairoSecurityContext.INSTANCE, tableToken)) {
+            for (int t = 0; t < TXN_COUNT; t++) {
+                for (int i = 0; i < ROWS_PER_TXN; i++) {
+                    final long timestamp;
+                    final int symbol;
+                    if (timestampLo > 0 && i < ROWS_PER_TXN / 100 * replayPercent) {
+                        timestamp = prevTimestamps[i];
+                        symbol = prevSymbols[i];
+                    } else {
+                        timestamp = timestampLo + rnd.nextPositiveLong() % PARTITION_SPREAD_MICROS;
+                        symbol = rnd.nextInt(16);
+                    }
+                    prevTimestamps[i] = timestamp;
+                    prevSymbols[i] = symbol;
+
+                    TableWriter.Row row = walWriter.newRow(timestamp);
+                    row.putSym(1, SYMBOLS[symbol]);
+                    row.putLong(2, i);
+                    row.append();
+                }
+                walWriter.commit();
+                timestampLo += PARTITION_SPREAD_MICROS / 4;
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        job.close();
+        engine.close();
+    }
+}
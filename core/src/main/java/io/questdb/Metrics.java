@@ -29,6 +29,7 @@ import io.questdb.cairo.wal.WalMetrics;
 import io.questdb.cutlass.http.processors.JsonQueryMetrics;
 import io.questdb.cutlass.pgwire.PGWireMetrics;
 import io.questdb.metrics.*;
+import io.questdb.network.IODispatcher;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Os;
 import io.questdb.std.Unsafe;
@@ -68,6 +69,33 @@ public class Metrics implements Scrapable {
         return new Metrics(true, new MetricsRegistryImpl());
     }
 
+    /**
+     * Exposes per reactor connection count and IO queue latency of the dispatcher.
+     * Latency and event count are cumulative, the rate of the former divided by the
+     * rate of the latter gives average time events wait for a worker.
+     */
+    public void addDispatcher(CharSequence name, IODispatcher<?> dispatcher) {
+        final int n = dispatcher.getReactorCount();
+        final CharSequence[] reactorLabels = new CharSequence[n];
+        final VirtualLongGauge.StatProvider[] connections = new VirtualLongGauge.StatProvider[n];
+        final VirtualLongGauge.StatProvider[] events = new VirtualLongGauge.StatProvider[n];
+        final VirtualLongGauge.StatProvider[] latencies = new VirtualLongGauge.StatProvider[n];
+        for (int i = 0; i < n; i++) {
+            final IODispatcher<?> reactor = dispatcher.getReactor(i);
+            reactorLabels[i] = Integer.toString(i);
+            connections[i] = reactor::getConnectionCount;
+            events[i] = reactor::getIOEventCount;
+            latencies[i] = reactor::getIOEventLatencyNanos;
+        }
+        metricsRegistry.addScrapable(new VirtualLongGaugeWithOneLabel(name + "_connections", "reactor", reactorLabels, connections));
+        metricsRegistry.addScrapable(new VirtualLongGaugeWithOneLabel(name + "_io_events", "reactor", reactorLabels, events));
+        metricsRegistry.addScrapable(new VirtualLongGaugeWithOneLabel(name + "_io_event_latency_nanos", "reactor", reactorLabels, latencies));
+    }
+
+    public void addScrapable(Scrapable scrapable) {
+        metricsRegistry.addScrapable(scrapable);
+    }
+
     public WalMetrics getWalMetrics() {
         return walMetrics;
     }
@@ -29,6 +29,7 @@ import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
 import io.questdb.cutlass.http.*;
 import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
+import io.questdb.cutlass.http.processors.LineHttpProcessorConfiguration;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
 import io.questdb.cutlass.json.JsonException;
 import io.questdb.cutlass.json.JsonLexer;
@@ -67,6 +68,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     public static final String CONFIG_DIRECTORY = "conf";
     public static final String DB_DIRECTORY = "db";
     public static final String SNAPSHOT_DIRECTORY = "snapshot";
+    public static final String SPILL_DIRECTORY = ".spill";
     public static final String TMP_DIRECTORY = "tmp";
     private static final Map<PropertyKey, String> DEPRECATED_SETTINGS = new HashMap<>();
     private static final Map<String, String> OBSOLETE_SETTINGS = new HashMap<>();
@@ -119,6 +121,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int httpSqlCacheBlockCount;
     private final boolean httpSqlCacheEnabled;
     private final int httpSqlCacheRowCount;
+    private final boolean httpSqlResultCacheEnabled;
+    private final long httpSqlResultCacheMemoryLimit;
+    private final long httpSqlResultCachePageSize;
     private final WaitProcessorConfiguration httpWaitProcessorConfiguration = new PropWaitProcessorConfiguration();
     private final long idleCheckInterval;
     private final boolean ilpAutoCreateNewColumns;
@@ -134,6 +139,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean isReadOnlyInstance;
     private final JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new PropJsonQueryProcessorConfiguration();
     private final int latestByQueueCapacity;
+    private final LineHttpProcessorConfiguration lineHttpProcessorConfiguration = new PropLineHttpProcessorConfiguration();
     private final boolean lineTcpEnabled;
     private final WorkerPoolConfiguration lineTcpIOWorkerPoolConfiguration = new PropLineTcpIOWorkerPoolConfiguration();
     private final LineTcpReceiverConfiguration lineTcpReceiverConfiguration = new PropLineTcpReceiverConfiguration();
@@ -251,6 +257,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlPageFrameMinRows;
     private final boolean sqlParallelFilterEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
+    private final boolean sqlParallelGroupByEnabled;
     private final int sqlRenameTableModelPoolCapacity;
     private final int sqlSmallMapKeyCapacity;
     private final int sqlSmallMapPageSize;
@@ -259,6 +266,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlSortLightValueMaxPages;
     private final long sqlSortLightValuePageSize;
     private final int sqlSortValueMaxPages;
+    private final boolean sqlSpillEnabled;
+    private final String sqlSpillRoot;
     private final int sqlSortValuePageSize;
     private final int sqlStrFunctionBufferMaxSize;
     private final int sqlTxnScoreboardEntryCount;
@@ -300,6 +309,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long writerFileOpenOpts;
     private final long writerMiscAppendPageSize;
     private final int writerTickRowsCountMod;
+    private final boolean zoneMapEnabled;
     private long cairoSqlCopyMaxIndexChunkSize;
     private int connectionPoolInitialCapacity;
     private int connectionStringPoolCapacity;
@@ -324,6 +334,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int httpNetBindIPv4Address;
     private int httpNetBindPort;
     private boolean httpNetConnectionHint;
+    private int httpNetDispatcherCount;
+    private boolean httpNetIOURingEnabled;
     private int httpNetConnectionLimit;
     private long httpNetConnectionQueueTimeout;
     private int httpNetConnectionRcvBuf;
@@ -347,6 +359,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int jsonQueryDoubleScale;
     private int jsonQueryFloatScale;
     private String keepAliveHeader;
+    private boolean lineHttpEnabled;
+    private long lineHttpMaxRequestSize;
     private String lineTcpAuthDbPath;
     private long lineTcpCommitIntervalDefault;
     private double lineTcpCommitIntervalFraction;
@@ -365,12 +379,15 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int lineTcpNetBindPort;
     private long lineTcpNetConnectionHeartbeatInterval;
     private boolean lineTcpNetConnectionHint;
+    private int lineTcpNetDispatcherCount;
+    private boolean lineTcpNetIOURingEnabled;
     private int lineTcpNetConnectionLimit;
     private long lineTcpNetConnectionQueueTimeout;
     private int lineTcpNetConnectionRcvBuf;
     private long lineTcpNetConnectionTimeout;
     private LineProtoTimestampAdapter lineTcpTimestampAdapter;
     private int lineTcpWriterQueueCapacity;
+    private long lineTcpWriterRebalanceInterval;
     private int[] lineTcpWriterWorkerAffinity;
     private int lineTcpWriterWorkerCount;
     private boolean lineTcpWriterWorkerPoolHaltOnError;
@@ -392,6 +409,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int pgCharacterStoreCapacity;
     private int pgCharacterStorePoolCapacity;
     private int pgConnectionPoolInitialCapacity;
+    private int pgCopyBufferSize;
     private boolean pgDaemonPool;
     private DateLocale pgDefaultLocale;
     private boolean pgHaltOnError;
@@ -405,6 +423,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int pgNetBindIPv4Address;
     private int pgNetBindPort;
     private boolean pgNetConnectionHint;
+    private int pgNetDispatcherCount;
+    private boolean pgNetIOURingEnabled;
     private int pgNetConnectionLimit;
     private long pgNetConnectionQueueTimeout;
     private int pgNetConnectionRcvBuf;
@@ -467,6 +487,7 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.walTxnNotificationQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_WAL_TXN_NOTIFICATION_QUEUE_CAPACITY, 4096);
         this.walRecreateDistressedSequencerAttempts = getInt(properties, env, PropertyKey.CAIRO_WAL_RECREATE_DISTRESSED_SEQUENCER_ATTEMPTS, 3);
         this.walSupported = getBoolean(properties, env, PropertyKey.CAIRO_WAL_SUPPORTED, true);
+        this.zoneMapEnabled = getBoolean(properties, env, PropertyKey.CAIRO_ZONE_MAP_ENABLED, true);
         this.walSegmentRolloverRowCount = getLong(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_ROLLOVER_ROW_COUNT, 200_000);
         this.walCommitSquashRowLimit = getInt(properties, env, PropertyKey.CAIRO_WAL_COMMIT_SQUASH_ROW_LIMIT, 512 * 1024);
         this.walApplyLookAheadTransactionCount = getInt(properties, env, PropertyKey.CAIRO_WAL_APPLY_LOOK_AHEAD_TXN_COUNT, 20);
@@ -609,6 +630,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.httpNetConnectionLimit = getInt(properties, env, PropertyKey.HTTP_NET_ACTIVE_CONNECTION_LIMIT, 64);
                 this.httpNetConnectionLimit = getInt(properties, env, PropertyKey.HTTP_NET_CONNECTION_LIMIT, this.httpNetConnectionLimit);
                 this.httpNetConnectionHint = getBoolean(properties, env, PropertyKey.HTTP_NET_CONNECTION_HINT, false);
+                this.httpNetIOURingEnabled = getBoolean(properties, env, PropertyKey.HTTP_NET_IO_URING_ENABLED, false);
+                this.httpNetDispatcherCount = getInt(properties, env, PropertyKey.HTTP_NET_DISPATCHER_COUNT, 1);
                 // deprecated
                 this.httpNetConnectionTimeout = getLong(properties, env, PropertyKey.HTTP_NET_IDLE_CONNECTION_TIMEOUT, 5 * 60 * 1000L);
                 this.httpNetConnectionTimeout = getLong(properties, env, PropertyKey.HTTP_NET_CONNECTION_TIMEOUT, this.httpNetConnectionTimeout);
@@ -645,6 +668,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.httpReadOnlySecurityContext = getBoolean(properties, env, PropertyKey.HTTP_SECURITY_READONLY, false);
                 this.maxHttpQueryResponseRowLimit = getLong(properties, env, PropertyKey.HTTP_SECURITY_MAX_RESPONSE_ROWS, Long.MAX_VALUE);
                 this.interruptOnClosedConnection = getBoolean(properties, env, PropertyKey.HTTP_SECURITY_INTERRUPT_ON_CLOSED_CONNECTION, true);
+                this.lineHttpEnabled = getBoolean(properties, env, PropertyKey.LINE_HTTP_ENABLED, true);
+                this.lineHttpMaxRequestSize = getLongSize(properties, env, PropertyKey.LINE_HTTP_MAX_REQUEST_SIZE, 16 * Numbers.SIZE_1MB);
 
                 String httpBindTo = getString(properties, env, PropertyKey.HTTP_BIND_TO, "0.0.0.0:9000");
                 parseBindTo(properties, env, PropertyKey.HTTP_NET_BIND_TO, httpBindTo, (a, p) -> {
@@ -673,6 +698,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 pgNetConnectionLimit = getInt(properties, env, PropertyKey.PG_NET_ACTIVE_CONNECTION_LIMIT, 64);
                 pgNetConnectionLimit = getInt(properties, env, PropertyKey.PG_NET_CONNECTION_LIMIT, pgNetConnectionLimit);
                 pgNetConnectionHint = getBoolean(properties, env, PropertyKey.PG_NET_CONNECTION_HINT, false);
+                pgNetIOURingEnabled = getBoolean(properties, env, PropertyKey.PG_NET_IO_URING_ENABLED, false);
+                pgNetDispatcherCount = getInt(properties, env, PropertyKey.PG_NET_DISPATCHER_COUNT, 1);
                 parseBindTo(properties, env, PropertyKey.PG_NET_BIND_TO, "0.0.0.0:8812", (a, p) -> {
                     pgNetBindIPv4Address = a;
                     pgNetBindPort = p;
@@ -695,6 +722,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.pgBinaryParamsCapacity = getInt(properties, env, PropertyKey.PG_BINARY_PARAM_COUNT_CAPACITY, 2);
                 this.pgCharacterStorePoolCapacity = getInt(properties, env, PropertyKey.PG_CHARACTER_STORE_POOL_CAPACITY, 64);
                 this.pgConnectionPoolInitialCapacity = getInt(properties, env, PropertyKey.PG_CONNECTION_POOL_CAPACITY, 4);
+                this.pgCopyBufferSize = getIntSize(properties, env, PropertyKey.PG_COPY_BUFFER_SIZE, Numbers.SIZE_1MB);
                 this.pgPassword = getString(properties, env, PropertyKey.PG_PASSWORD, "quest");
                 this.pgUsername = getString(properties, env, PropertyKey.PG_USER, "admin");
                 this.pgReadOnlyPassword = getString(properties, env, PropertyKey.PG_RO_PASSWORD, "quest");
@@ -756,6 +784,9 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.httpSqlCacheEnabled = getBoolean(properties, env, PropertyKey.HTTP_QUERY_CACHE_ENABLED, true);
             this.httpSqlCacheBlockCount = getInt(properties, env, PropertyKey.HTTP_QUERY_CACHE_BLOCK_COUNT, 4);
             this.httpSqlCacheRowCount = getInt(properties, env, PropertyKey.HTTP_QUERY_CACHE_ROW_COUNT, 4);
+            this.httpSqlResultCacheEnabled = getBoolean(properties, env, PropertyKey.HTTP_QUERY_RESULT_CACHE_ENABLED, false);
+            this.httpSqlResultCacheMemoryLimit = getLongSize(properties, env, PropertyKey.HTTP_QUERY_RESULT_CACHE_MEMORY_LIMIT, 16 * Numbers.SIZE_1MB);
+            this.httpSqlResultCachePageSize = getLongSize(properties, env, PropertyKey.HTTP_QUERY_RESULT_CACHE_PAGE_SIZE, 64 * 1024);
             this.sqlCharacterStoreCapacity = getInt(properties, env, PropertyKey.CAIRO_CHARACTER_STORE_CAPACITY, 1024);
             this.sqlCharacterStoreSequencePoolCapacity = getInt(properties, env, PropertyKey.CAIRO_CHARACTER_STORE_SEQUENCE_POOL_CAPACITY, 64);
             this.sqlColumnPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_COLUMN_POOL_CAPACITY, 4096);
@@ -784,6 +815,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlHashJoinLightValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_LIGHT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
             this.sqlSortValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_PAGE_SIZE, 16777216);
             this.sqlSortValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
+            this.sqlSpillEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_SPILL_ENABLED, false);
+            this.sqlSpillRoot = getString(properties, env, PropertyKey.CAIRO_SQL_SPILL_ROOT, new File(this.root, SPILL_DIRECTORY).getAbsolutePath());
             this.workStealTimeoutNanos = getLong(properties, env, PropertyKey.CAIRO_WORK_STEAL_TIMEOUT_NANOS, 10_000);
             this.parallelIndexingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARALLEL_INDEXING_ENABLED, true);
             this.sqlJoinMetadataPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JOIN_METADATA_PAGE_SIZE, 16384);
@@ -808,6 +841,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.cairoPageFrameReduceColumnListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY, 16));
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, true);
             this.sqlParallelFilterPreTouchEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED, true);
+            this.sqlParallelGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, false);
             this.cairoPageFrameReduceShardCount = getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 4);
             this.cairoPageFrameReduceTaskPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY, 4);
 
@@ -957,6 +991,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 lineTcpNetConnectionLimit = getInt(properties, env, PropertyKey.LINE_TCP_NET_ACTIVE_CONNECTION_LIMIT, 256);
                 lineTcpNetConnectionLimit = getInt(properties, env, PropertyKey.LINE_TCP_NET_CONNECTION_LIMIT, lineTcpNetConnectionLimit);
                 lineTcpNetConnectionHint = getBoolean(properties, env, PropertyKey.LINE_TCP_NET_CONNECTION_HINT, false);
+                lineTcpNetIOURingEnabled = getBoolean(properties, env, PropertyKey.LINE_TCP_NET_IO_URING_ENABLED, false);
+                lineTcpNetDispatcherCount = getInt(properties, env, PropertyKey.LINE_TCP_NET_DISPATCHER_COUNT, 1);
                 parseBindTo(properties, env, PropertyKey.LINE_TCP_NET_BIND_TO, "0.0.0.0:9009", (a, p) -> {
                     lineTcpNetBindIPv4Address = a;
                     lineTcpNetBindPort = p;
@@ -989,6 +1025,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.lineTcpWriterWorkerPoolHaltOnError = getBoolean(properties, env, PropertyKey.LINE_TCP_WRITER_HALT_ON_ERROR, false);
                 this.lineTcpWriterWorkerYieldThreshold = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_YIELD_THRESHOLD, 10);
                 this.lineTcpWriterWorkerSleepThreshold = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_SLEEP_THRESHOLD, 10_000);
+                this.lineTcpWriterRebalanceInterval = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_REBALANCE_INTERVAL, 1000);
                 this.symbolCacheWaitUsBeforeReload = getLong(properties, env, PropertyKey.LINE_TCP_SYMBOL_CACHE_WAIT_US_BEFORE_RELOAD, 500_000);
 
                 int ilpTcpWorkerCount;
@@ -2183,6 +2220,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortValuePageSize;
         }
 
+        @Override
+        public CharSequence getSqlSpillRoot() {
+            return sqlSpillRoot;
+        }
+
         @Override
         public int getStrFunctionMaxBufferLength() {
             return sqlStrFunctionBufferMaxSize;
@@ -2342,6 +2384,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlParallelFilterPreTouchEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelGroupByEnabled() {
+            return sqlParallelGroupByEnabled;
+        }
+
+        @Override
+        public boolean isSqlSpillEnabled() {
+            return sqlSpillEnabled;
+        }
+
         @Override
         public boolean isTableTypeConversionEnabled() {
             return tableTypeConversionEnabled;
@@ -2351,6 +2403,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walSupported;
         }
 
+        @Override
+        public boolean isZoneMapEnabled() {
+            return zoneMapEnabled;
+        }
+
         @Override
         public boolean mangleTableDirNames() {
             return false;
@@ -2446,6 +2503,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherCount() {
+            return httpNetDispatcherCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "http-server";
@@ -2515,6 +2577,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getTimeout() {
             return httpNetConnectionTimeout;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return httpNetIOURingEnabled;
+        }
     }
 
     private class PropHttpMinIODispatcherConfiguration implements IODispatcherConfiguration {
@@ -2679,6 +2746,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return jsonQueryProcessorConfiguration;
         }
 
+        @Override
+        public LineHttpProcessorConfiguration getLineHttpProcessorConfiguration() {
+            return lineHttpProcessorConfiguration;
+        }
+
         @Override
         public String getPoolName() {
             return "http";
@@ -2694,6 +2766,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return httpSqlCacheRowCount;
         }
 
+        @Override
+        public long getQueryResultCacheMemoryLimit() {
+            return httpSqlResultCacheMemoryLimit;
+        }
+
+        @Override
+        public long getQueryResultCachePageSize() {
+            return httpSqlResultCachePageSize;
+        }
+
         @Override
         public long getSleepThreshold() {
             return httpWorkerSleepThreshold;
@@ -2743,6 +2825,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public boolean isQueryCacheEnabled() {
             return httpSqlCacheEnabled;
         }
+
+        @Override
+        public boolean isQueryResultCacheEnabled() {
+            return httpSqlResultCacheEnabled;
+        }
     }
 
     private class PropJsonQueryProcessorConfiguration implements JsonQueryProcessorConfiguration {
@@ -2783,6 +2870,24 @@ public class PropServerConfiguration implements ServerConfiguration {
         }
     }
 
+    private class PropLineHttpProcessorConfiguration implements LineHttpProcessorConfiguration {
+        @Override
+        public LineTcpReceiverConfiguration getLineTcpReceiverConfiguration() {
+            return lineTcpReceiverConfiguration;
+        }
+
+        @Override
+        public long getMaxRequestSize() {
+            return lineHttpMaxRequestSize;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            // ILP over HTTP shares table and column handling settings with ILP over TCP
+            return lineHttpEnabled && lineTcpEnabled;
+        }
+    }
+
     private class PropLineTcpIOWorkerPoolConfiguration implements WorkerPoolConfiguration {
         @Override
         public String getPoolName() {
@@ -2950,6 +3055,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpWriterQueueCapacity;
         }
 
+        @Override
+        public long getWriterRebalanceInterval() {
+            return lineTcpWriterRebalanceInterval;
+        }
+
         @Override
         public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
             return lineTcpWriterWorkerPoolConfiguration;
@@ -2993,6 +3103,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherCount() {
+            return lineTcpNetDispatcherCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "tcp-line-server";
@@ -3061,6 +3176,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getTimeout() {
             return lineTcpNetConnectionTimeout;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return lineTcpNetIOURingEnabled;
+        }
     }
 
     private class PropLineTcpWriterWorkerPoolConfiguration implements WorkerPoolConfiguration {
@@ -3236,6 +3356,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return pgConnectionPoolInitialCapacity;
         }
 
+        @Override
+        public int getCopyBufferSize() {
+            return pgCopyBufferSize;
+        }
+
         @Override
         public DateLocale getDefaultDateLocale() {
             return pgDefaultLocale;
@@ -3424,6 +3549,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherCount() {
+            return pgNetDispatcherCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "pg-server";
@@ -3493,6 +3623,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getTimeout() {
             return pgNetIdleConnectionTimeout;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return pgNetIOURingEnabled;
+        }
     }
 
     private class PropSqlExecutionCircuitBreakerConfiguration implements SqlExecutionCircuitBreakerConfiguration {
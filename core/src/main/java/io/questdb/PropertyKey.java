@@ -83,6 +83,8 @@ public enum PropertyKey {
     CAIRO_SQL_HASH_JOIN_LIGHT_VALUE_MAX_PAGES("cairo.sql.hash.join.light.value.max.pages"),
     CAIRO_SQL_SORT_VALUE_PAGE_SIZE("cairo.sql.sort.value.page.size"),
     CAIRO_SQL_SORT_VALUE_MAX_PAGES("cairo.sql.sort.value.max.pages"),
+    CAIRO_SQL_SPILL_ENABLED("cairo.sql.spill.enabled"),
+    CAIRO_SQL_SPILL_ROOT("cairo.sql.spill.root"),
     CAIRO_WORK_STEAL_TIMEOUT_NANOS("cairo.work.steal.timeout.nanos"),
     CAIRO_PARALLEL_INDEXING_ENABLED("cairo.parallel.indexing.enabled"),
     CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY("cairo.page.frame.reduce.queue.capacity"),
@@ -90,6 +92,7 @@ public enum PropertyKey {
     CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY("cairo.page.frame.column.list.capacity"),
     CAIRO_SQL_PARALLEL_FILTER_ENABLED("cairo.sql.parallel.filter.enabled"),
     CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED("cairo.sql.parallel.filter.pretouch.enabled"),
+    CAIRO_SQL_PARALLEL_GROUPBY_ENABLED("cairo.sql.parallel.groupby.enabled"),
     CAIRO_PAGE_FRAME_SHARD_COUNT("cairo.page.frame.shard.count"),
     CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY("cairo.page.frame.task.pool.capacity"),
     CAIRO_SQL_JOIN_METADATA_PAGE_SIZE("cairo.sql.join.metadata.page.size"),
@@ -209,6 +212,8 @@ public enum PropertyKey {
     HTTP_VERSION("http.version"),
     HTTP_STATIC_PUBLIC_DIRECTORY("http.static.public.directory"),
     HTTP_NET_CONNECTION_HINT("http.net.connection.hint"),
+    HTTP_NET_IO_URING_ENABLED("http.net.iouring.enabled"),
+    HTTP_NET_DISPATCHER_COUNT("http.net.dispatcher.count"),
     HTTP_NET_IDLE_CONNECTION_TIMEOUT("http.net.idle.connection.timeout"),
     HTTP_NET_CONNECTION_TIMEOUT("http.net.connection.timeout"),
     HTTP_NET_QUEUED_CONNECTION_TIMEOUT("http.net.queued.connection.timeout"),
@@ -253,6 +258,9 @@ public enum PropertyKey {
     HTTP_QUERY_CACHE_ENABLED("http.query.cache.enabled"),
     HTTP_QUERY_CACHE_BLOCK_COUNT("http.query.cache.block.count"),
     HTTP_QUERY_CACHE_ROW_COUNT("http.query.cache.row.count"),
+    HTTP_QUERY_RESULT_CACHE_ENABLED("http.query.result.cache.enabled"),
+    HTTP_QUERY_RESULT_CACHE_MEMORY_LIMIT("http.query.result.cache.memory.limit"),
+    HTTP_QUERY_RESULT_CACHE_PAGE_SIZE("http.query.result.cache.page.size"),
     LINE_UDP_BIND_TO("line.udp.bind.to"),
     LINE_UDP_HALT_ON_ERROR("line.udp.haltOnError"),
     LINE_UDP_JOIN("line.udp.join"),
@@ -266,10 +274,14 @@ public enum PropertyKey {
     LINE_UDP_UNICAST("line.udp.unicast"),
     LINE_UDP_COMMIT_MODE("line.udp.commit.mode"),
     LINE_UDP_TIMESTAMP("line.udp.timestamp"),
+    LINE_HTTP_ENABLED("line.http.enabled"),
+    LINE_HTTP_MAX_REQUEST_SIZE("line.http.max.request.size"),
     LINE_TCP_ENABLED("line.tcp.enabled"),
     LINE_TCP_NET_ACTIVE_CONNECTION_LIMIT("line.tcp.net.active.connection.limit"),
     LINE_TCP_NET_CONNECTION_LIMIT("line.tcp.net.connection.limit"),
     LINE_TCP_NET_CONNECTION_HINT("line.tcp.net.connection.hint"),
+    LINE_TCP_NET_IO_URING_ENABLED("line.tcp.net.iouring.enabled"),
+    LINE_TCP_NET_DISPATCHER_COUNT("line.tcp.net.dispatcher.count"),
     LINE_TCP_NET_BIND_TO("line.tcp.net.bind.to"),
     LINE_TCP_NET_IDLE_TIMEOUT("line.tcp.net.idle.timeout"),
     LINE_TCP_NET_CONNECTION_TIMEOUT("line.tcp.net.connection.timeout"),
@@ -288,6 +300,7 @@ public enum PropertyKey {
     LINE_TCP_WRITER_HALT_ON_ERROR("line.tcp.writer.halt.on.error"),
     LINE_TCP_WRITER_WORKER_YIELD_THRESHOLD("line.tcp.writer.worker.yield.threshold"),
     LINE_TCP_WRITER_WORKER_SLEEP_THRESHOLD("line.tcp.writer.worker.sleep.threshold"),
+    LINE_TCP_WRITER_REBALANCE_INTERVAL("line.tcp.writer.rebalance.interval"),
     LINE_TCP_SYMBOL_CACHE_WAIT_US_BEFORE_RELOAD("line.tcp.symbol.cache.wait.us.before.reload"),
     LINE_TCP_IO_WORKER_COUNT("line.tcp.io.worker.count"),
     LINE_TCP_IO_WORKER_AFFINITY("line.tcp.io.worker.affinity"),
@@ -313,6 +326,8 @@ public enum PropertyKey {
     NET_TEST_CONNECTION_BUFFER_SIZE("net.test.connection.buffer.size"),
     PG_ENABLED("pg.enabled"),
     PG_NET_CONNECTION_HINT("pg.net.connection.hint"),
+    PG_NET_IO_URING_ENABLED("pg.net.iouring.enabled"),
+    PG_NET_DISPATCHER_COUNT("pg.net.dispatcher.count"),
     PG_NET_BIND_TO("pg.net.bind.to"),
     PG_NET_IDLE_TIMEOUT("pg.net.idle.timeout"),
     PG_NET_CONNECTION_TIMEOUT("pg.net.connection.timeout"),
@@ -328,6 +343,7 @@ public enum PropertyKey {
     PG_SECURITY_READONLY("pg.security.readonly"),
     PG_MAX_BLOB_SIZE_ON_QUERY("pg.max.blob.size.on.query"),
     PG_RECV_BUFFER_SIZE("pg.recv.buffer.size"),
+    PG_COPY_BUFFER_SIZE("pg.copy.buffer.size"),
     PG_SEND_BUFFER_SIZE("pg.send.buffer.size"),
     PG_DATE_LOCALE("pg.date.locale"),
     PG_WORKER_AFFINITY("pg.worker.affinity"),
@@ -388,6 +404,7 @@ public enum PropertyKey {
     WAL_APPLY_WORKER_YIELD_THRESHOLD("wal.apply.worker.yield.threshold"),
     CAIRO_WAL_TXN_NOTIFICATION_QUEUE_CAPACITY("cairo.wal.txn.notification.queue.capacity"),
     CAIRO_WAL_SUPPORTED("cairo.wal.supported"),
+    CAIRO_ZONE_MAP_ENABLED("cairo.zone.map.enabled"),
     TABLE_TYPE_CONVERSION_ENABLED("table.type.conversion.enabled"),
     CAIRO_WAL_RECREATE_DISTRESSED_SEQUENCER_ATTEMPTS("cairo.wal.recreate.distressed.sequencer.attempts"),
     CAIRO_WAL_INACTIVE_WRITER_TTL("cairo.wal.inactive.writer.ttl"),
@@ -392,6 +392,14 @@ public interface CairoConfiguration {
 
     int getSqlSortValuePageSize();
 
+    /**
+     * Directory for temporary files created by SQL operators that spill to disk,
+     * see {@link #isSqlSpillEnabled()}. Files are removed when the query cursor is closed.
+     *
+     * @return path to the spill directory, by default ".spill" under the db root.
+     */
+    CharSequence getSqlSpillRoot();
+
     int getStrFunctionMaxBufferLength();
 
     CharSequence getSystemTableNamePrefix();
@@ -461,10 +469,28 @@ public interface CairoConfiguration {
 
     boolean isSqlParallelFilterPreTouchEnabled();
 
+    boolean isSqlParallelGroupByEnabled();
+
+    /**
+     * When enabled, ORDER BY and keyed GROUP BY queries that would breach sort or map page limits
+     * switch to external merge sort and hash partitioning over temporary files instead of failing.
+     *
+     * @return true if SQL operators may spill to disk, false otherwise.
+     */
+    boolean isSqlSpillEnabled();
+
     boolean isTableTypeConversionEnabled();
 
     boolean isWalSupported();
 
+    /**
+     * When enabled, table writer maintains min/max/null count statistics of numeric columns
+     * for closed partitions and SQL engine uses them to skip partitions that cannot match the filter.
+     *
+     * @return true if partition zone maps are enabled, false otherwise.
+     */
+    boolean isZoneMapEnabled();
+
     /**
      * This is a flag to enable/disable making table directory names different to table names for non-WAL tables.
      * When it is enabled directory name of table TRADE becomes TRADE~, so that ~ sign is added at the end.
@@ -29,6 +29,7 @@ import io.questdb.MessageBusImpl;
 import io.questdb.Metrics;
 import io.questdb.Telemetry;
 import io.questdb.cairo.mig.EngineMigration;
+import io.questdb.cairo.mv.MatViewGraph;
 import io.questdb.cairo.pool.*;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.AsyncWriterCommand;
@@ -66,6 +67,7 @@ public class CairoEngine implements Closeable, WriterSource {
     private final AtomicLong asyncCommandCorrelationId = new AtomicLong();
     private final CairoConfiguration configuration;
     private final EngineMaintenanceJob engineMaintenanceJob;
+    private final MatViewGraph matViewGraph = new MatViewGraph();
     private final MessageBusImpl messageBus;
     private final MetadataPool metadataPool;
     private final Metrics metrics;
@@ -136,6 +138,7 @@ public class CairoEngine implements Closeable, WriterSource {
             tableNameRegistry = configuration.isReadOnlyInstance() ?
                     new TableNameRegistryRO(configuration) : new TableNameRegistryRW(configuration);
             tableNameRegistry.reloadTableNameCache(convertedTables);
+            matViewGraph.reload(this);
         } catch (Throwable e) {
             close();
             throw e;
@@ -369,6 +372,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return engineMaintenanceJob;
     }
 
+    public MatViewGraph getMatViewGraph() {
+        return matViewGraph;
+    }
+
     public MessageBus getMessageBus() {
         return messageBus;
     }
@@ -728,6 +735,7 @@ public class CairoEngine implements Closeable, WriterSource {
     @TestOnly
     public void reloadTableNames(ObjList<TableToken> convertedTables) {
         tableNameRegistry.reloadTableNameCache(convertedTables);
+        matViewGraph.reload(this);
     }
 
     public int removeDirectory(@Transient Path path, CharSequence dir) {
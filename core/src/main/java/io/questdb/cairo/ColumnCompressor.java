@@ -0,0 +1,208 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+
+import java.io.Closeable;
+
+/**
+ * Compresses column files of cold partitions. Column data is split into blocks of {@link #BLOCK_SIZE}
+ * bytes and every block is deflated independently. File layout is:
+ * <pre>
+ * long raw size
+ * [int raw block size, int compressed block size, compressed bytes] * block count
+ * </pre>
+ * Compressed block size of 0 means that the block did not compress and is stored as is.
+ */
+public class ColumnCompressor implements Closeable {
+    public static final int BLOCK_HEADER_SIZE = 8;
+    public static final int BLOCK_SIZE = 1024 * 1024;
+    public static final int HEADER_SIZE = 8;
+    private static final int BUFFER_SIZE = BLOCK_HEADER_SIZE + BLOCK_SIZE;
+    private static final Log LOG = LogFactory.getLog(ColumnCompressor.class);
+    private final FilesFacade ff;
+    private long buffer;
+    private long stream;
+
+    public ColumnCompressor(FilesFacade ff) {
+        this.ff = ff;
+    }
+
+    /**
+     * Inflates the content of compressed column file into the given buffer.
+     *
+     * @param srcAddress address of the compressed file content
+     * @param srcSize    size of the compressed file
+     * @param dstAddress buffer to inflate to, must be at least dstSize bytes
+     * @param dstSize    number of bytes to inflate, must not exceed raw size of the file
+     * @param path       file path, used for error messages
+     */
+    public static void inflate(long srcAddress, long srcSize, long dstAddress, long dstSize, CharSequence path) {
+        if (srcSize < HEADER_SIZE || Unsafe.getUnsafe().getLong(srcAddress) < dstSize) {
+            throw CairoException.critical(0).put("compressed column file is too short [path=").put(path).put(", size=").put(srcSize).put(']');
+        }
+
+        final long stream = Zip.inflateInit(true);
+        if (stream < 0) {
+            throw CairoException.critical(0).put("could not initialize inflater [path=").put(path).put(']');
+        }
+
+        try {
+            final long srcHi = srcAddress + srcSize;
+            long p = srcAddress + HEADER_SIZE;
+            long offset = 0;
+            while (offset < dstSize) {
+                if (p + BLOCK_HEADER_SIZE > srcHi) {
+                    throw corruptFile(path, p - srcAddress);
+                }
+                final int rawSize = Unsafe.getUnsafe().getInt(p);
+                final int compressedSize = Unsafe.getUnsafe().getInt(p + 4);
+                p += BLOCK_HEADER_SIZE;
+
+                final long len = Math.min(rawSize, dstSize - offset);
+                if (rawSize < 1 || rawSize > BLOCK_SIZE || compressedSize < 0) {
+                    throw corruptFile(path, p - srcAddress);
+                }
+
+                if (compressedSize == 0) {
+                    if (p + rawSize > srcHi) {
+                        throw corruptFile(path, p - srcAddress);
+                    }
+                    Vect.memcpy(dstAddress + offset, p, len);
+                    p += rawSize;
+                } else {
+                    if (p + compressedSize > srcHi) {
+                        throw corruptFile(path, p - srcAddress);
+                    }
+                    Zip.inflateReset(stream);
+                    Zip.setInput(stream, p, compressedSize);
+                    // the last block can be inflated partially, in which case the stream is not finished
+                    if (Zip.inflate(stream, dstAddress + offset, (int) len, len == rawSize) != len) {
+                        throw corruptFile(path, p - srcAddress);
+                    }
+                    p += compressedSize;
+                }
+                offset += len;
+            }
+        } finally {
+            Zip.inflateEnd(stream);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (stream != 0) {
+            Zip.deflateEnd(stream);
+            stream = 0;
+        }
+        if (buffer != 0) {
+            buffer = Unsafe.free(buffer, BUFFER_SIZE, MemoryTag.NATIVE_TABLE_WRITER);
+        }
+    }
+
+    /**
+     * Writes compressed copy of the first size bytes of the column file.
+     *
+     * @param srcPath column file to compress
+     * @param dstPath compressed file to create, existing file is overwritten
+     * @param size    number of bytes of column data
+     * @return size of the compressed file
+     */
+    public long compress(LPSZ srcPath, LPSZ dstPath, long size) {
+        if (stream == 0) {
+            stream = Zip.deflateInit();
+            if (stream < 0) {
+                stream = 0;
+                throw CairoException.critical(0).put("could not initialize deflater");
+            }
+        }
+        if (buffer == 0) {
+            buffer = Unsafe.malloc(BUFFER_SIZE, MemoryTag.NATIVE_TABLE_WRITER);
+        }
+
+        final int srcFd = TableUtils.openRO(ff, srcPath, LOG);
+        long srcAddress = 0;
+        int dstFd = -1;
+        try {
+            if (size > 0) {
+                srcAddress = TableUtils.mapRO(ff, srcFd, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            dstFd = TableUtils.openRW(ff, dstPath, LOG, CairoConfiguration.O_NONE);
+
+            Unsafe.getUnsafe().putLong(buffer, size);
+            write(dstFd, buffer, HEADER_SIZE, 0, dstPath);
+            long offset = HEADER_SIZE;
+
+            for (long lo = 0; lo < size; lo += BLOCK_SIZE) {
+                final int rawSize = (int) Math.min(BLOCK_SIZE, size - lo);
+                Zip.deflateReset(stream);
+                Zip.setInput(stream, srcAddress + lo, rawSize);
+                final int ret = Zip.deflate(stream, buffer + BLOCK_HEADER_SIZE, BUFFER_SIZE - BLOCK_HEADER_SIZE, true);
+                final int compressedSize = Zip.totalOut(stream);
+
+                Unsafe.getUnsafe().putInt(buffer, rawSize);
+                if (ret == Zip.Z_STREAM_END && compressedSize < rawSize) {
+                    Unsafe.getUnsafe().putInt(buffer + 4, compressedSize);
+                    write(dstFd, buffer, BLOCK_HEADER_SIZE + compressedSize, offset, dstPath);
+                    offset += BLOCK_HEADER_SIZE + compressedSize;
+                } else {
+                    // block did not fit into the output buffer or did not get any smaller, store it as is
+                    Unsafe.getUnsafe().putInt(buffer + 4, 0);
+                    write(dstFd, buffer, BLOCK_HEADER_SIZE, offset, dstPath);
+                    write(dstFd, srcAddress + lo, rawSize, offset + BLOCK_HEADER_SIZE, dstPath);
+                    offset += BLOCK_HEADER_SIZE + rawSize;
+                }
+            }
+
+            if (!ff.truncate(dstFd, offset)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(dstPath).put(", size=").put(offset).put(']');
+            }
+            return offset;
+        } finally {
+            if (srcAddress != 0) {
+                ff.munmap(srcAddress, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(srcFd);
+            if (dstFd != -1) {
+                ff.close(dstFd);
+            }
+        }
+    }
+
+    private static CairoException corruptFile(CharSequence path, long offset) {
+        return CairoException.critical(0).put("corrupt compressed column file [path=").put(path).put(", offset=").put(offset).put(']');
+    }
+
+    private void write(int fd, long address, long len, long offset, LPSZ path) {
+        if (ff.write(fd, address, len, offset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write [file=").put(path).put(", offset=").put(offset).put(']');
+        }
+    }
+}
@@ -44,6 +44,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
     private final long databaseIdLo;
     private final CharSequence root;
     private final CharSequence snapshotRoot;
+    private final CharSequence spillRoot;
     private final DefaultTelemetryConfiguration telemetryConfiguration = new DefaultTelemetryConfiguration();
     private final TextConfiguration textConfiguration;
     private final VolumeDefinitions volumeDefinitions = new VolumeDefinitions();
@@ -53,6 +54,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         this.confRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.CONFIG_DIRECTORY);
         this.textConfiguration = new DefaultTextConfiguration(Chars.toString(confRoot));
         this.snapshotRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.SNAPSHOT_DIRECTORY);
+        this.spillRoot = Chars.toString(root) + Files.SEPARATOR + PropServerConfiguration.SPILL_DIRECTORY;
         Rnd rnd = new Rnd(NanosecondClockImpl.INSTANCE.getTicks(), MicrosecondClockImpl.INSTANCE.getTicks());
         this.databaseIdLo = rnd.nextLong();
         this.databaseIdHi = rnd.nextLong();
@@ -741,6 +743,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB * 16;
     }
 
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return spillRoot;
+    }
+
     @Override
     public int getStrFunctionMaxBufferLength() {
         return 1024 * 1024;
@@ -905,6 +912,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlSpillEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return true;
@@ -915,6 +932,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return true;
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return false;
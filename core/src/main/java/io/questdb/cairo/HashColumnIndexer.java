@@ -0,0 +1,67 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.api.MemoryR;
+
+/**
+ * Indexes INT, LONG and UUID columns. Values are mapped to bitmap index keys
+ * via {@link HashIndexUtils}, the rest of the indexer life cycle is shared with
+ * symbol columns.
+ */
+public class HashColumnIndexer extends SymbolColumnIndexer {
+    private final int columnType;
+
+    public HashColumnIndexer(int columnType) {
+        assert HashIndexUtils.isSupported(columnType);
+        this.columnType = columnType;
+    }
+
+    @Override
+    public void index(MemoryR mem, long loRow, long hiRow) {
+        final BitmapIndexWriter writer = getWriter();
+        writer.rollbackConditionally(loRow);
+        long lo = Math.max(loRow, columnTop);
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+                for (; lo < hiRow; lo++) {
+                    writer.add(HashIndexUtils.toIndexKey(mem.getInt((lo - columnTop) << 2)), lo);
+                }
+                break;
+            case ColumnType.LONG:
+                for (; lo < hiRow; lo++) {
+                    writer.add(HashIndexUtils.toIndexKey(mem.getLong((lo - columnTop) << 3)), lo);
+                }
+                break;
+            default:
+                for (; lo < hiRow; lo++) {
+                    final long offset = (lo - columnTop) << 4;
+                    writer.add(HashIndexUtils.toIndexKey(mem.getLong(offset), mem.getLong(offset + Long.BYTES)), lo);
+                }
+                break;
+        }
+        writer.setMaxValue(hiRow - 1);
+    }
+}
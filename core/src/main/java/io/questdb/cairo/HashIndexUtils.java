@@ -0,0 +1,98 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.Hash;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Uuid;
+
+/**
+ * Key mapping for bitmap indexes on non-symbol columns. Column values are hashed into
+ * a fixed number of buckets, each bucket being a bitmap index key. Key 0 is reserved for
+ * null values, which makes rows under column top land in the same key as nulls, just like
+ * with symbol indexes. Since distinct values may share a bucket, index lookups must
+ * always be followed by a value check.
+ */
+public final class HashIndexUtils {
+    public static final int BUCKET_COUNT = 4096;
+    public static final int NULL_KEY = 0;
+
+    private HashIndexUtils() {
+    }
+
+    /**
+     * Returns true if column values of the given type can be indexed.
+     *
+     * @param columnType column type
+     * @return true for non-symbol columns supported by the hash index
+     */
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.UUID:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static int toIndexKey(int value) {
+        return value == Numbers.INT_NaN ? NULL_KEY : bucketKey(value);
+    }
+
+    public static int toIndexKey(long value) {
+        return value == Numbers.LONG_NaN ? NULL_KEY : bucketKey(value);
+    }
+
+    public static int toIndexKey(long lo, long hi) {
+        return Uuid.isNull(lo, hi) ? NULL_KEY : bucketKey(Hash.fastLongMix(lo) + hi);
+    }
+
+    /**
+     * Computes index key of the column value stored at the given address.
+     *
+     * @param columnType column type, must be supported by the hash index
+     * @param address    address of the value
+     * @return index key
+     */
+    public static int toIndexKey(int columnType, long address) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+                return toIndexKey(Unsafe.getUnsafe().getInt(address));
+            case ColumnType.LONG:
+                return toIndexKey(Unsafe.getUnsafe().getLong(address));
+            case ColumnType.UUID:
+                return toIndexKey(Unsafe.getUnsafe().getLong(address), Unsafe.getUnsafe().getLong(address + Long.BYTES));
+            default:
+                throw CairoException.critical(0).put("unsupported hash index column type [type=").put(ColumnType.nameOf(columnType)).put(']');
+        }
+    }
+
+    private static int bucketKey(long value) {
+        return 1 + (int) (Hash.fastLongMix(value) & (BUCKET_COUNT - 1));
+    }
+}
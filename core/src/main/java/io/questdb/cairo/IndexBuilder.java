@@ -124,6 +124,7 @@ public class IndexBuilder extends RebuildColumnBase {
             ColumnVersionReader columnVersionReader,
             int columnWriterIndex,
             CharSequence columnName,
+            int columnType,
             CharSequence partitionName,
             long partitionNameTxn,
             long partitionSize,
@@ -151,14 +152,20 @@ public class IndexBuilder extends RebuildColumnBase {
                                 ff,
                                 path,
                                 0,
-                                (partitionSize - columnTop) * Integer.BYTES,
+                                (partitionSize - columnTop) << ColumnType.pow2SizeOf(columnType),
                                 MemoryTag.MMAP_TABLE_WRITER
                         );
+                        // symbol indexer is reused, non-symbol columns get a throwaway hash indexer
+                        final SymbolColumnIndexer columnIndexer = ColumnType.isSymbol(columnType) ? indexer : new HashColumnIndexer(columnType);
                         try {
-                            indexer.configureWriter(configuration, path.trimTo(plen), columnName, columnNameTxn, columnTop);
-                            indexer.index(roMem, columnTop, partitionSize);
+                            columnIndexer.configureWriter(configuration, path.trimTo(plen), columnName, columnNameTxn, columnTop);
+                            columnIndexer.index(roMem, columnTop, partitionSize);
                         } finally {
-                            indexer.clear();
+                            if (columnIndexer == indexer) {
+                                indexer.clear();
+                            } else {
+                                Misc.free(columnIndexer);
+                            }
                         }
                     }
                 } else {
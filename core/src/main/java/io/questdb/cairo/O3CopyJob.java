@@ -207,6 +207,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         copyTail(
                 columnCounter,
                 partCounter,
+                columnType,
                 timestampMergeIndexAddr,
                 timestampMergeIndexSize,
                 srcDataFixFd,
@@ -429,6 +430,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
     private static void copyTail(
             AtomicInteger columnCounter,
             @Nullable AtomicInteger partCounter,
+            int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
             int srcDataFixFd,
@@ -467,6 +469,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             if (indexBlockCapacity > -1) {
                 updateIndex(
                         columnCounter,
+                        columnType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
                         srcDataFixFd,
@@ -666,6 +669,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
 
     private static void updateIndex(
             AtomicInteger columnCounter,
+            int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
             int srcDataFixFd,
@@ -693,13 +697,14 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
     ) {
         // dstKFd & dstVFd are closed by the indexer
         try {
-            long row = dstIndexOffset / Integer.BYTES;
+            final int shl = ColumnType.pow2SizeOf(columnType);
+            long row = dstIndexOffset >> shl;
             boolean closed = !indexWriter.isOpen();
             if (closed) {
                 indexWriter.of(tableWriter.getConfiguration(), dstKFd, dstVFd, row == 0, indexBlockCapacity);
             }
             try {
-                updateIndex(dstFixAddr, dstFixSize, indexWriter, dstIndexOffset / Integer.BYTES, dstIndexAdjust);
+                updateIndex(columnType, dstFixAddr, dstFixSize, indexWriter, row, dstIndexAdjust);
             } finally {
                 if (closed) {
                     Misc.free(indexWriter);
@@ -738,13 +743,22 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         }
     }
 
-    private static void updateIndex(long dstFixAddr, long dstFixSize, BitmapIndexWriter w, long row, long rowAdjust) {
+    private static void updateIndex(int columnType, long dstFixAddr, long dstFixSize, BitmapIndexWriter w, long row, long rowAdjust) {
         w.rollbackConditionally(row + rowAdjust);
-        final long count = dstFixSize / Integer.BYTES;
-        for (; row < count; row++) {
-            w.add(TableUtils.toIndexKey(Unsafe.getUnsafe().getInt(dstFixAddr + row * Integer.BYTES)), row + rowAdjust);
+        if (ColumnType.isSymbol(columnType)) {
+            final long count = dstFixSize / Integer.BYTES;
+            for (; row < count; row++) {
+                w.add(TableUtils.toIndexKey(Unsafe.getUnsafe().getInt(dstFixAddr + row * Integer.BYTES)), row + rowAdjust);
+            }
+            w.setMaxValue(count - 1);
+        } else {
+            final int shl = ColumnType.pow2SizeOf(columnType);
+            final long count = dstFixSize >> shl;
+            for (; row < count; row++) {
+                w.add(HashIndexUtils.toIndexKey(columnType, dstFixAddr + (row << shl)), row + rowAdjust);
+            }
+            w.setMaxValue(count - 1);
         }
-        w.setMaxValue(count - 1);
     }
 
     // lowest timestamp of partition where data is headed
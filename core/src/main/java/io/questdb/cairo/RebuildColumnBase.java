@@ -25,6 +25,8 @@
 package io.questdb.cairo;
 
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
@@ -41,6 +43,7 @@ import static io.questdb.cairo.TableUtils.lockName;
 
 public abstract class RebuildColumnBase implements Closeable, Mutable {
     static final int REBUILD_ALL_COLUMNS = -1;
+    private static final Log LOG = LogFactory.getLog(RebuildColumnBase.class);
     protected final String unsupportedTableMessage = "Table does not have any indexes";
     private final StringSink tempStringSink = new StringSink();
     protected CairoConfiguration configuration;
@@ -120,6 +123,7 @@ public abstract class RebuildColumnBase implements Closeable, Mutable {
                 // as metadata writers' index.
                 columnIndex,
                 columnName,
+                metadata.getColumnType(columnIndex),
                 tempStringSink, // partition name
                 partitionNameTxn,
                 partitionSize,
@@ -149,6 +153,7 @@ public abstract class RebuildColumnBase implements Closeable, Mutable {
                 columnVersionReader,
                 metadata.getWriterIndex(columnIndex),
                 metadata.getColumnName(columnIndex),
+                metadata.getColumnType(columnIndex),
                 partitionName,
                 partitionNameTxn,
                 partitionSize,
@@ -300,6 +305,11 @@ public abstract class RebuildColumnBase implements Closeable, Mutable {
             DateFormat partitionDirFormatMethod,
             long partitionTimestamp
     ) {
+        if (txReader.isPartitionCompressed(partitionIndex)) {
+            LOG.info().$("skipping compressed partition [path=").utf8(path).$(", partitionTimestamp=").$ts(partitionTimestamp).I$();
+            return;
+        }
+
         final long partitionSize = partitionIndex == txReader.getPartitionCount() - 1
                 ? txReader.getTransientRowCount()
                 : txReader.getPartitionSize(partitionIndex);
@@ -335,6 +345,7 @@ public abstract class RebuildColumnBase implements Closeable, Mutable {
             ColumnVersionReader columnVersionReader,
             int columnWriterIndex,
             CharSequence columnName,
+            int columnType,
             CharSequence partitionName,
             long partitionNameTxn,
             long partitionSize,
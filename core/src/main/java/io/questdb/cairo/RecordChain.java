@@ -40,11 +40,12 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
 
     private final long[] columnOffsets;
     private final long fixOffset;
-    private final MemoryARW mem;
+    private final MemoryARW ownMem;
     private final RecordChainRecord recordA = new RecordChainRecord();
     private final RecordChainRecord recordB = new RecordChainRecord();
     private final RecordSink recordSink;
     private final long varOffset;
+    private MemoryARW mem;
     private long nextRecordOffset = -1L;
     private RecordChainRecord recordC;
     private long recordOffset;
@@ -57,7 +58,16 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
             long pageSize,
             int maxPages
     ) {
-        this.mem = Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN);
+        this(columnTypes, recordSink, Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN));
+    }
+
+    public RecordChain(
+            @Transient @NotNull ColumnTypes columnTypes,
+            @NotNull RecordSink recordSink,
+            @NotNull MemoryARW mem
+    ) {
+        this.ownMem = mem;
+        this.mem = mem;
         this.recordSink = recordSink;
         int count = columnTypes.getColumnCount();
         long varOffset = 0L;
@@ -96,6 +106,8 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
 
     @Override
     public void clear() {
+        // memory given to switchTo() is owned by the caller
+        mem = ownMem;
         mem.close();
         nextRecordOffset = -1L;
         varAppendOffset = 0L;
@@ -146,6 +158,13 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return false;
     }
 
+    /**
+     * @return number of bytes taken by the records of this chain
+     */
+    public long memorySize() {
+        return varAppendOffset;
+    }
+
     public void of(long nextRecordOffset) {
         this.nextRecordOffset = nextRecordOffset;
     }
@@ -281,6 +300,18 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         mem.skip(bytes);
     }
 
+    /**
+     * Redirects chain to an empty memory, e.g. file-backed, until the next {@link #clear()}.
+     * The memory is not closed by the chain.
+     *
+     * @param mem memory to write records to and read them from
+     */
+    public void switchTo(MemoryARW mem) {
+        this.mem = mem;
+        nextRecordOffset = -1L;
+        varAppendOffset = 0L;
+    }
+
     @Override
     public void toTop() {
         if (mem.getAppendOffset() == 0) {
@@ -39,6 +39,7 @@ public class RecoverVarIndex extends RebuildColumnBase {
     @Override
     protected void doReindex(
             ColumnVersionReader columnVersionReader, int columnWriterIndex, CharSequence columnName,
+            int columnType,
             CharSequence partitionName,
             long partitionNameTxn, long partitionSize, long partitionTimestamp, int indexValueBlockCapacity
     ) {
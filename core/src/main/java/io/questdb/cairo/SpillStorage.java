@@ -0,0 +1,124 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Temporary file-backed memory for SQL operators that run out of their native memory limits.
+ * Every allocated memory is a separate file in the spill directory, the file is removed
+ * when memory is released or when the storage is cleared.
+ */
+public class SpillStorage implements Closeable, Mutable {
+    private static final AtomicLong FILE_ID = new AtomicLong(MicrosecondClockImpl.INSTANCE.getTicks());
+    private static final Log LOG = LogFactory.getLog(SpillStorage.class);
+    private final long extendSegmentSize;
+    private final FilesFacade ff;
+    private final LongList fileIds = new LongList();
+    private final ObjList<MemoryCMARW> memories = new ObjList<>();
+    private final int mkDirMode;
+    private final long openOpts;
+    private final CharSequence root;
+    private Path path;
+
+    public SpillStorage(@NotNull CairoConfiguration configuration, long extendSegmentSize) {
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getSqlSpillRoot();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.openOpts = configuration.getWriterFileOpenOpts();
+        this.extendSegmentSize = Numbers.ceilPow2(Math.max(extendSegmentSize, ff.getPageSize()));
+    }
+
+    public MemoryARW allocate() {
+        if (path == null) {
+            path = new Path();
+        }
+        path.of(root).slash$();
+        if (!ff.exists(path) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create spill directory [path=").put(path).put(']');
+        }
+        final long fileId = FILE_ID.incrementAndGet();
+        final MemoryCMARW mem = Vm.getCMARWInstance(
+                ff,
+                fileOf(fileId),
+                extendSegmentSize,
+                -1,
+                MemoryTag.MMAP_SQL_SPILL,
+                openOpts
+        );
+        memories.add(mem);
+        fileIds.add(fileId);
+        LOG.info().$("spill file created [path=").$(path).$(']').$();
+        return mem;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = memories.size() - 1; i > -1; i--) {
+            release0(i);
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        path = Misc.free(path);
+    }
+
+    public void release(MemoryARW mem) {
+        for (int i = 0, n = memories.size(); i < n; i++) {
+            if (memories.getQuick(i) == mem) {
+                release0(i);
+                return;
+            }
+        }
+    }
+
+    private Path fileOf(long fileId) {
+        return path.of(root).concat("spill-").put(fileId).put(".d").$();
+    }
+
+    private void release0(int index) {
+        Misc.free(memories.getQuick(index));
+        final Path file = fileOf(fileIds.getQuick(index));
+        if (!ff.remove(file)) {
+            LOG.error().$("could not remove spill file [path=").$(file).$(", errno=").$(ff.errno()).$(']').$();
+        }
+        memories.remove(index);
+        fileIds.removeIndex(index);
+    }
+}
@@ -38,7 +38,7 @@ public class SymbolColumnIndexer implements ColumnIndexer, Mutable {
     private static final long SEQUENCE_OFFSET;
     private final MemorySRImpl mem = new MemorySRImpl();
     private final BitmapIndexWriter writer = new BitmapIndexWriter();
-    private long columnTop;
+    protected long columnTop;
     private volatile boolean distressed = false;
     @SuppressWarnings({"unused", "FieldCanBeLocal", "FieldMayBeFinal"})
     private volatile long sequence = 0L;
@@ -27,6 +27,7 @@ package io.questdb.cairo;
 import io.questdb.MessageBus;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.MemoryCDRImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
@@ -778,12 +779,19 @@ public class TableReader implements Closeable, SymbolTableSource {
             ObjList<MemoryMR> columns,
             int primaryIndex,
             MemoryMR mem,
-            long columnSize
+            long columnSize,
+            boolean compressed
     ) {
-        if (mem != null && mem != NullMemoryMR.INSTANCE) {
+        if (mem != null && mem != NullMemoryMR.INSTANCE && (mem instanceof MemoryCDRImpl) == compressed) {
             mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
         } else {
-            mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER);
+            Misc.free(mem);
+            if (compressed) {
+                mem = new MemoryCDRImpl(MemoryTag.NATIVE_TABLE_READER);
+                mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
+            } else {
+                mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER);
+            }
             columns.setQuick(primaryIndex, mem);
         }
         return mem;
@@ -1016,18 +1024,20 @@ public class TableReader implements Closeable, SymbolTableSource {
             // of when the column was added.
             if (columnRowCount > 0 && (versionRecordIndex > -1L || columnVersionReader.getColumnTopPartitionTimestamp(writerIndex) <= partitionTimestamp)) {
                 final int columnType = metadata.getColumnType(columnIndex);
+                // designated timestamp column is never compressed
+                final boolean compressed = txFile.isPartitionCompressed(partitionIndex) && columnIndex != metadata.getTimestampIndex();
 
                 if (ColumnType.isVariableLength(columnType)) {
                     long columnSize = columnRowCount * 8L + 8L;
                     TableUtils.iFile(path.trimTo(plen), name, columnTxn);
-                    mem2 = openOrCreateMemory(path, columns, secondaryIndex, mem2, columnSize);
+                    mem2 = openOrCreateMemory(path, columns, secondaryIndex, mem2, columnSize, compressed);
                     columnSize = mem2.getLong(columnRowCount * 8L);
                     TableUtils.dFile(path.trimTo(plen), name, columnTxn);
-                    openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
+                    openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize, compressed);
                 } else {
                     long columnSize = columnRowCount << ColumnType.pow2SizeOf(columnType);
                     TableUtils.dFile(path.trimTo(plen), name, columnTxn);
-                    openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
+                    openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize, compressed);
                     Misc.free(columns.getAndSetQuick(secondaryIndex, null));
                 }
 
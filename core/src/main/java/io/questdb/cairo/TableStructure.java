@@ -40,6 +40,17 @@ public interface TableStructure extends TableDescriptor {
 
     CharSequence getTableName();
 
+    /**
+     * Columns flagged as deduplication keys, together with the designated timestamp, identify
+     * a row for the purposes of WAL deduplication.
+     *
+     * @param columnIndex column index
+     * @return true when the column is listed in DEDUP KEYS
+     */
+    default boolean isDedupKey(int columnIndex) {
+        return false;
+    }
+
     boolean isIndexed(int columnIndex);
 
     boolean isSequential(int columnIndex);
@@ -112,7 +112,9 @@ public final class TableUtils {
     public static final long TX_OFFSET_SEQ_TXN_64 = TX_OFFSET_TRUNCATE_VERSION_64 + 8;
     public static final int TX_RECORD_HEADER_SIZE = (int) TX_OFFSET_MAP_WRITER_COUNT_32 + Integer.BYTES;
     public static final String UPGRADE_FILE_NAME = "_upgrade.d";
+    public static final String ZONE_MAP_FILE_NAME = "_zm";
     static final int COLUMN_VERSION_FILE_HEADER_SIZE = 40;
+    static final int META_FLAG_BIT_DEDUP_KEY = 1 << 2;
     static final int META_FLAG_BIT_INDEXED = 1;
     static final int META_FLAG_BIT_NOT_INDEXED = 0;
     static final int META_FLAG_BIT_SEQUENTIAL = 1 << 1;
@@ -1184,8 +1186,8 @@ public final class TableUtils {
                 }
 
                 if (isColumnIndexed(metaMem, i)) {
-                    if (!ColumnType.isSymbol(type)) {
-                        throw validationException(metaMem).put("Index flag is only supported for SYMBOL").put(" at [").put(i).put(']');
+                    if (!ColumnType.isSymbol(type) && !HashIndexUtils.isSupported(type)) {
+                        throw validationException(metaMem).put("Index flag is only supported for SYMBOL, INT, LONG and UUID").put(" at [").put(i).put(']');
                     }
 
                     if (getIndexBlockCapacity(metaMem, i) < 2) {
@@ -1306,6 +1308,10 @@ public final class TableUtils {
                     flags |= META_FLAG_BIT_SEQUENTIAL;
                 }
 
+                if (structure.isDedupKey(i)) {
+                    flags |= META_FLAG_BIT_DEDUP_KEY;
+                }
+
                 mem.putLong(flags);
                 mem.putInt(structure.getIndexBlockCapacity(i));
                 // reserved
@@ -1397,6 +1403,10 @@ public final class TableUtils {
         return metaMem.getInt(META_OFFSET_COLUMN_TYPES + columnIndex * META_COLUMN_DATA_SIZE + 4 + 8);
     }
 
+    static boolean isColumnDedupKey(MemoryR metaMem, int columnIndex) {
+        return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_DEDUP_KEY) != 0;
+    }
+
     static boolean isColumnIndexed(MemoryR metaMem, int columnIndex) {
         return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_INDEXED) != 0;
     }
@@ -31,6 +31,7 @@ import io.questdb.cairo.sql.AsyncWriterCommand;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cairo.sql.TableReferenceOutOfDateException;
+import io.questdb.cairo.vm.MemoryCDRImpl;
 import io.questdb.cairo.vm.NullMapWriter;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.*;
@@ -101,6 +102,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final SCSequence commandSubSeq;
     private final CairoConfiguration configuration;
     private final MemoryMAR ddlMem;
+    private final IntList dedupColumnIndexes = new IntList();
+    private final LongList dedupO3Columns = new LongList();
+    private final LongList dedupPartitionColumns = new LongList();
     private final int defaultCommitMode;
     private final ObjList<ColumnIndexer> denseIndexers = new ObjList<>();
     private final ObjList<MapWriter> denseSymbolMapWriters;
@@ -160,6 +164,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final LowerCaseCharSequenceIntHashMap validationMap = new LowerCaseCharSequenceIntHashMap();
     private final WeakClosableObjectPool<MemoryCMOR> walColumnMemoryPool;
     private final ObjList<MemoryCMOR> walMappedColumns = new ObjList<>();
+    private final LongList zoneMapPartitions = new LongList();
+    private final ZoneMapWriter zoneMapWriter;
     private ObjList<? extends MemoryA> activeColumns;
     private ObjList<Runnable> activeNullSetters;
     private ColumnVersionReader attachColumnVersionReader;
@@ -172,6 +178,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private boolean avoidIndexOnCommit = false;
     private int columnCount;
     private long committedMasterRef;
+    private long dedupPartitionRowCount;
+    private long dedupPartitionSearchLo;
+    private long dedupPartitionTimestamp = Long.MIN_VALUE;
     private String designatedTimestampColumnName;
     private boolean distressed = false;
     private DropIndexOperator dropIndexOperator;
@@ -227,6 +236,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final FragileCode RECOVER_FROM_SWAP_RENAME_FAILURE = this::recoverFromSwapRenameFailure;
     private final FragileCode RECOVER_FROM_COLUMN_OPEN_FAILURE = this::recoverOpenColumnFailure;
     private UpdateOperatorImpl updateOperatorImpl;
+    private long zoneMapLastPartitionTimestamp = Long.MIN_VALUE;
 
     public TableWriter(
             CairoConfiguration configuration,
@@ -254,6 +264,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         this.o3QuickSortEnabled = configuration.isO3QuickSortEnabled();
         this.o3ColumnMemorySize = configuration.getO3ColumnMemorySize();
         this.path = new Path().of(root).concat(tableToken);
+        this.zoneMapWriter = new ZoneMapWriter(ff);
         this.other = new Path().of(root).concat(tableToken);
         this.rootLen = path.length();
         try {
@@ -313,6 +324,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             if (PartitionBy.isPartitioned(partitionBy)) {
                 this.partitionDirFmt = PartitionBy.getPartitionDirFormatMethod(partitionBy);
                 this.partitionTimestampHi = txWriter.getLastPartitionTimestamp();
+                this.zoneMapLastPartitionTimestamp = partitionTimestampHi;
             } else {
                 this.partitionDirFmt = null;
             }
@@ -546,13 +558,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         final int existingType = getColumnType(metaMem, columnIndex);
         LOG.info().$("adding index to '").utf8(columnName).$('[').$(ColumnType.nameOf(existingType)).$(", path=").$(path).I$();
 
-        if (!ColumnType.isSymbol(existingType)) {
+        if (!ColumnType.isSymbol(existingType) && !HashIndexUtils.isSupported(existingType)) {
             LOG.error().$("cannot create index for [column='").utf8(columnName).$(", type=").$(ColumnType.nameOf(existingType)).$(", path=").$(path).I$();
             throw CairoException.nonCritical().put("cannot create index for [column='").put(columnName).put(", type=").put(ColumnType.nameOf(existingType)).put(", path=").put(path).put(']');
         }
 
         // create indexer
-        final SymbolColumnIndexer indexer = new SymbolColumnIndexer();
+        final SymbolColumnIndexer indexer = createColumnIndexer(existingType);
 
         final long columnNameTxn = columnVersionWriter.getColumnNameTxn(txWriter.getLastPartitionTimestamp(), columnIndex);
         try {
@@ -851,6 +863,135 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
     }
 
+    /**
+     * Converts closed partition to compressed layout. Column files are deflated block by block into
+     * a new partition version; the designated timestamp, index and zone map files are hard linked.
+     * Compressed partitions are read only: O3 rows that fall into them are ignored and UPDATE fails.
+     *
+     * @param timestamp partition timestamp
+     * @return true when partition is compressed, false when partition does not exist or cannot be compressed
+     */
+    @Override
+    public boolean compressPartition(long timestamp) {
+        if (!PartitionBy.isPartitioned(partitionBy)) {
+            return false;
+        }
+
+        if (inTransaction()) {
+            LOG.info()
+                    .$("committing open transaction before applying compress partition command [table=")
+                    .utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            commit();
+        }
+
+        timestamp = getPartitionLo(timestamp);
+        final int partitionIndex = txWriter.getPartitionIndex(timestamp);
+        if (partitionIndex < 0) {
+            LOG.error().$("partition does not exist [table=").utf8(tableToken.getTableName()).$(", partitionTimestamp=").$ts(timestamp).I$();
+            return false;
+        }
+        if (timestamp == getPartitionLo(txWriter.getMaxTimestamp())) {
+            LOG.error().$("cannot compress active partition [table=").utf8(tableToken.getTableName()).$(", partitionTimestamp=").$ts(timestamp).I$();
+            return false;
+        }
+        if (txWriter.isPartitionCompressed(partitionIndex)) {
+            LOG.info().$("partition is already compressed [table=").utf8(tableToken.getTableName()).$(", partitionTimestamp=").$ts(timestamp).I$();
+            return true;
+        }
+        if (txWriter.isPartitionReadOnly(partitionIndex)) {
+            LOG.error().$("cannot compress read-only partition [table=").utf8(tableToken.getTableName()).$(", partitionTimestamp=").$ts(timestamp).I$();
+            return false;
+        }
+
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+        final long srcNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long dstNameTxn = txWriter.getTxn();
+        long rawSize = 0;
+        long compressedSize = 0;
+        try (ColumnCompressor compressor = new ColumnCompressor(ff)) {
+            setPathForPartition(path, rootLen, partitionBy, timestamp, srcNameTxn);
+            setPathForPartition(other, rootLen, partitionBy, timestamp, dstNameTxn);
+            final int plen = path.length();
+            final int olen = other.length();
+            if (ff.mkdirs(other.slash$(), mkDirMode) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not create directory [path=").put(other).put(']');
+            }
+
+            try {
+                for (int i = 0; i < columnCount; i++) {
+                    final int columnType = metadata.getColumnType(i);
+                    final long columnTop = columnVersionWriter.getColumnTop(timestamp, i);
+                    if (columnType < 0 || columnTop < 0) {
+                        // column is deleted or does not exist in the partition
+                        continue;
+                    }
+                    final CharSequence columnName = metadata.getColumnName(i);
+                    final long columnNameTxn = columnVersionWriter.getColumnNameTxn(timestamp, i);
+                    final long columnRowCount = partitionSize - columnTop;
+
+                    if (columnRowCount > 0) {
+                        if (i == metadata.getTimestampIndex()) {
+                            // partition min/max timestamps are read from the raw column
+                            hardLinkPartitionFile(dFile(path.trimTo(plen), columnName, columnNameTxn), dFile(other.trimTo(olen), columnName, columnNameTxn));
+                        } else if (ColumnType.isVariableLength(columnType)) {
+                            final long indexSize = (columnRowCount + 1) * Long.BYTES;
+                            iFile(path.trimTo(plen), columnName, columnNameTxn);
+                            final long dataSize = TableUtils.readLongAtOffset(ff, path, tempMem16b, columnRowCount * Long.BYTES);
+                            compressedSize += compressor.compress(path, iFile(other.trimTo(olen), columnName, columnNameTxn), indexSize);
+                            compressedSize += compressor.compress(
+                                    dFile(path.trimTo(plen), columnName, columnNameTxn),
+                                    dFile(other.trimTo(olen), columnName, columnNameTxn),
+                                    dataSize
+                            );
+                            rawSize += indexSize + dataSize;
+                        } else {
+                            final long dataSize = columnRowCount << ColumnType.pow2SizeOf(columnType);
+                            compressedSize += compressor.compress(
+                                    dFile(path.trimTo(plen), columnName, columnNameTxn),
+                                    dFile(other.trimTo(olen), columnName, columnNameTxn),
+                                    dataSize
+                            );
+                            rawSize += dataSize;
+                        }
+                    }
+
+                    if (metadata.isColumnIndexed(i)) {
+                        hardLinkPartitionFile(keyFileName(path.trimTo(plen), columnName, columnNameTxn), keyFileName(other.trimTo(olen), columnName, columnNameTxn));
+                        hardLinkPartitionFile(valueFileName(path.trimTo(plen), columnName, columnNameTxn), valueFileName(other.trimTo(olen), columnName, columnNameTxn));
+                    }
+                }
+                hardLinkPartitionFile(path.trimTo(plen).concat(ZONE_MAP_FILE_NAME).$(), other.trimTo(olen).concat(ZONE_MAP_FILE_NAME).$());
+            } catch (Throwable th) {
+                if (ff.rmdir(other.trimTo(olen).slash$()) != 0) {
+                    LOG.error().$("could not remove compressed partition [path=").utf8(other).$(", errno=").$(ff.errno()).I$();
+                }
+                throw th;
+            }
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        final int index = txWriter.findAttachedPartitionIndexByLoTimestamp(timestamp);
+        txWriter.updatePartitionSizeAndTxnByIndex(index, partitionSize);
+        txWriter.setPartitionCompressedByIndex(index, true);
+        txWriter.setPartitionReadOnlyByIndex(index, true);
+        txWriter.bumpPartitionTableVersion();
+        txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+
+        LOG.info().$("compressed partition [table=").utf8(tableToken.getTableName())
+                .$(", partitionTimestamp=").$ts(timestamp)
+                .$(", nameTxn=").$(dstNameTxn)
+                .$(", rawSize=").$(rawSize)
+                .$(", compressedSize=").$(compressedSize)
+                .I$();
+
+        safeDeletePartitionDir(timestamp, srcNameTxn);
+        return true;
+    }
+
     public void destroy() {
         // Closes all the files and makes this instance unusable e.g. it cannot return to the pool on close.
         LOG.info().$("closing table files [table=").utf8(tableToken.getTableName())
@@ -883,6 +1024,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         if (timestamp == getPartitionLo(maxTimestamp)) {
             return AttachDetachStatus.DETACH_ERR_ACTIVE;
         }
+        if (txWriter.isPartitionCompressed(partitionIndex)) {
+            // attach would not know that column files are compressed
+            return AttachDetachStatus.DETACH_ERR_COMPRESSED;
+        }
         long minTimestamp = txWriter.getMinTimestamp();
 
         long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
@@ -1391,7 +1536,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 long o3Lo = rowLo;
                 long o3Hi = rowHi;
                 final boolean copiedToMemory;
-                final boolean needsOrdering = !ordered || lagRowCount > 0;
+                // deduplication relies on rows with equal timestamps being adjacent, hence the sort
+                final boolean dedup = isColumnDedupKey(metaMem, timestampIndex);
+                final boolean needsOrdering = !ordered || lagRowCount > 0 || dedup;
                 final long symbolRowLo = needsOrdering || commitToTimestamp < 0 ? lagRowCount : rowLo;
                 o3Columns = remapWalSymbols(mapDiffCursor, rowLo, rowHi, walPath, symbolRowLo);
                 MemoryCR walTimestampColumn = walMappedColumns.getQuick(getPrimaryColumnIndex(timestampIndex));
@@ -1436,6 +1583,22 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     lagRowCount = 0L;
                     o3Columns = o3MemColumns;
                     copiedToMemory = true;
+                    if (dedup) {
+                        final long dedupRowCount = o3Dedup(timestampAddr, o3Hi, timestampIndex);
+                        if (dedupRowCount < o3Hi) {
+                            LOG.info().$("deduplicated WAL rows [table=").$(tableToken)
+                                    .$(", rowCount=").$(o3Hi)
+                                    .$(", duplicateCount=").$(o3Hi - dedupRowCount)
+                                    .I$();
+                            o3Hi = dedupRowCount;
+                            o3TimestampMem.jumpTo(o3Hi << 4);
+                        }
+                        if (o3Hi == 0) {
+                            // all rows are already in the table, there is nothing to write,
+                            // but sequencer txn still has to be committed
+                            return true;
+                        }
+                    }
                     o3TimestampMin = getTimestampIndexValue(timestampAddr, o3Lo);
                     o3TimestampMax = getTimestampIndexValue(timestampAddr, o3Hi - 1);
                 } else {
@@ -1542,6 +1705,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             // Bookmark masterRef to track how many rows is in uncommitted state
             this.committedMasterRef = masterRef;
             processPartitionRemoveCandidates();
+            updateZoneMaps();
 
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
@@ -1699,6 +1863,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
             // removing active partition
 
+            if (index > 0 && txWriter.isPartitionCompressed(index - 1)) {
+                // compressed partition cannot become active, it is not writable
+                LOG.error().$("cannot remove active partition, previous partition is compressed [path=").utf8(path)
+                        .$(", partitionTimestamp=").$ts(timestamp)
+                        .I$();
+                return false;
+            }
+
             // calculate new transient row count, min/max timestamps and find the partition to open next
             final long nextMaxTimestamp;
             final long newTransientRowCount;
@@ -1830,6 +2002,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             try {
                 LOG.info().$("tx rollback [name=").utf8(tableToken.getTableName()).I$();
                 partitionRemoveCandidates.clear();
+                zoneMapPartitions.clear();
                 o3CommitBatchTimestampMin = Long.MAX_VALUE;
                 if ((masterRef & 1) != 0) {
                     masterRef++;
@@ -2109,6 +2282,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
      * @param name to check
      * @return 0 based column index.
      */
+    private static SymbolColumnIndexer createColumnIndexer(int columnType) {
+        return ColumnType.isSymbol(columnType) ? new SymbolColumnIndexer() : new HashColumnIndexer(columnType);
+    }
+
     private static int getColumnIndexQuiet(MemoryMR metaMem, CharSequence name, int columnCount) {
         long nameOffset = getColumnNameOffset(columnCount);
         for (int i = 0; i < columnCount; i++) {
@@ -2483,7 +2660,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 }
 
                 // check column is / was indexed
-                if (ColumnType.isSymbol(tableColType)) {
+                if (ColumnType.isSymbol(tableColType) || HashIndexUtils.isSupported(tableColType)) {
                     boolean isIndexedNow = metadata.isColumnIndexed(colIdx);
                     boolean wasIndexedAtDetached = attachMetadata.isColumnIndexed(detColIdx);
                     int indexValueBlockCapacityNow = metadata.getIndexValueBlockCapacity(colIdx);
@@ -2705,6 +2882,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             // Bookmark masterRef to track how many rows is in uncommitted state
             this.committedMasterRef = masterRef;
             processPartitionRemoveCandidates();
+            updateZoneMaps();
 
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
@@ -2786,7 +2964,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         configureNullSetters(o3NullSetters2, type, oooPrimary2, oooSecondary2);
 
         if (indexFlag) {
-            indexers.extendAndSet(index, new SymbolColumnIndexer());
+            indexers.extendAndSet(index, createColumnIndexer(type));
         }
         rowValueIsNotNull.add(0);
     }
@@ -2852,6 +3030,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     if (isSequential(metaMem, i)) {
                         flags |= META_FLAG_BIT_SEQUENTIAL;
                     }
+                    if (isColumnDedupKey(metaMem, i)) {
+                        flags |= META_FLAG_BIT_DEDUP_KEY;
+                    }
                     ddlMem.putLong(flags);
                     ddlMem.putInt(indexValueBlockSize);
                     ddlMem.skip(16);
@@ -3023,6 +3204,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         Misc.free(columnVersionWriter);
         Misc.free(o3ColumnTopSink);
         Misc.free(o3PartitionUpdateSink);
+        Misc.free(zoneMapWriter);
         Misc.free(slaveTxReader);
         Misc.free(commandQueue);
         updateOperatorImpl = Misc.free(updateOperatorImpl);
@@ -3184,11 +3366,20 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return columns.getQuick(getSecondaryColumnIndex(column));
     }
 
+    private void hardLinkPartitionFile(LPSZ src, LPSZ dst) {
+        if (ff.exists(src) && ff.hardLink(src, dst) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create hard link [src=").put(src).put(", dst=").put(dst).put(']');
+        }
+    }
+
     private void indexHistoricPartitions(SymbolColumnIndexer indexer, CharSequence columnName, int indexValueBlockSize) {
         long ts = this.txWriter.getMaxTimestamp();
         if (ts > Numbers.LONG_NaN) {
             final int columnIndex = metadata.getColumnIndex(columnName);
-            try (final MemoryMR roMem = indexMem) {
+            try (
+                    final MemoryMR roMem = indexMem;
+                    final MemoryMR compressedMem = new MemoryCDRImpl(MemoryTag.NATIVE_TABLE_WRITER)
+            ) {
                 // Index last partition separately
                 for (int i = 0, n = txWriter.getPartitionCount() - 1; i < n; i++) {
 
@@ -3213,10 +3404,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
                             if (columnTop > -1L && partitionSize > columnTop) {
                                 TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
-                                final long columnSize = (partitionSize - columnTop) << ColumnType.pow2SizeOf(ColumnType.INT);
-                                roMem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_WRITER);
+                                final long columnSize = (partitionSize - columnTop) << ColumnType.pow2SizeOf(metadata.getColumnType(columnIndex));
+                                final MemoryMR mem = txWriter.isPartitionCompressed(i) ? compressedMem : roMem;
+                                mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_WRITER);
                                 indexer.configureWriter(configuration, path.trimTo(plen), columnName, columnNameTxn, columnTop);
-                                indexer.index(roMem, columnTop, partitionSize);
+                                indexer.index(mem, columnTop, partitionSize);
                             }
                         }
                     }
@@ -3733,6 +3925,217 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    // Removes duplicate rows from the sorted O3 data held in memory. Rows are duplicates when they
+    // share designated timestamp and values of all dedup key columns. Within the O3 data the row that
+    // arrived last wins. A row that matches the data already committed to the partition is dropped,
+    // which makes re-applying the same rows a no-op.
+    // Returns number of rows left, the rows and the sorted timestamp index are compacted in place.
+    private long o3Dedup(long timestampAddr, long rowCount, int timestampIndex) {
+        dedupColumnIndexes.clear();
+        dedupO3Columns.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final int type = metadata.getColumnType(i);
+            if (i != timestampIndex && type > 0 && !ColumnType.isVariableLength(type) && isColumnDedupKey(metaMem, i)) {
+                dedupColumnIndexes.add(i);
+                dedupO3Columns.add(o3MemColumns.getQuick(getPrimaryColumnIndex(i)).addressOf(0), ColumnType.pow2SizeOf(type));
+            }
+        }
+
+        final long committedMinTimestamp = txWriter.getMinTimestamp();
+        final long committedMaxTimestamp = txWriter.getMaxTimestamp();
+        long keptCount = 0;
+        long firstMovedRow = -1;
+        try {
+            for (long row = 0; row < rowCount; row++) {
+                final long timestamp = getTimestampIndexValue(timestampAddr, row);
+                boolean duplicate = false;
+                for (long next = row + 1; next < rowCount && getTimestampIndexValue(timestampAddr, next) == timestamp; next++) {
+                    if (o3DedupKeysEqual(row, next)) {
+                        duplicate = true;
+                        break;
+                    }
+                }
+
+                if (!duplicate && timestamp >= committedMinTimestamp && timestamp <= committedMaxTimestamp) {
+                    duplicate = o3DedupCommittedRowExists(timestamp, row, timestampIndex);
+                }
+
+                if (duplicate) {
+                    if (firstMovedRow == -1) {
+                        firstMovedRow = keptCount;
+                    }
+                } else {
+                    if (firstMovedRow > -1) {
+                        // index entry now points at the row to be moved, the index
+                        // is flattened before it is used again
+                        final long entryAddr = timestampAddr + (keptCount << 4);
+                        Unsafe.getUnsafe().putLong(entryAddr, timestamp);
+                        Unsafe.getUnsafe().putLong(entryAddr + Long.BYTES, row);
+                    }
+                    keptCount++;
+                }
+            }
+        } finally {
+            o3DedupUnmapPartition();
+        }
+
+        if (firstMovedRow > -1) {
+            o3DedupCompactColumns(timestampAddr, firstMovedRow, keptCount, timestampIndex);
+        }
+        return keptCount;
+    }
+
+    private boolean o3DedupCommittedRowExists(long timestamp, long o3Row, int timestampIndex) {
+        final long partitionTimestamp = partitionFloorMethod.floor(timestamp);
+        if (partitionTimestamp != dedupPartitionTimestamp) {
+            o3DedupMapPartition(partitionTimestamp, timestampIndex);
+        }
+
+        final long rowCount = dedupPartitionRowCount;
+        if (dedupPartitionSearchLo >= rowCount) {
+            return false;
+        }
+
+        final long partitionTimestampAddr = dedupPartitionColumns.getQuick(0);
+        long row = Vect.binarySearch64Bit(partitionTimestampAddr, timestamp, dedupPartitionSearchLo, rowCount - 1, BinarySearch.SCAN_UP);
+        if (row < 0) {
+            // O3 rows are sorted, next search can start from the insertion point
+            dedupPartitionSearchLo = -row - 1;
+            return false;
+        }
+
+        dedupPartitionSearchLo = row;
+        for (; row < rowCount && Unsafe.getUnsafe().getLong(partitionTimestampAddr + (row << 3)) == timestamp; row++) {
+            if (o3DedupPartitionKeysEqual(row, o3Row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void o3DedupCompactColumns(long timestampAddr, long rowLo, long rowHi, int timestampIndex) {
+        for (int i = 0; i < columnCount; i++) {
+            final int type = metadata.getColumnType(i);
+            if (i == timestampIndex || type < 0) {
+                continue;
+            }
+
+            final int primaryIndex = getPrimaryColumnIndex(i);
+            if (ColumnType.isVariableLength(type)) {
+                final long dataAddr = o3MemColumns.getQuick(primaryIndex).addressOf(0);
+                final long indexAddr = o3MemColumns.getQuick(primaryIndex + 1).addressOf(0);
+                long offset = Unsafe.getUnsafe().getLong(indexAddr + (rowLo << 3));
+                for (long row = rowLo; row < rowHi; row++) {
+                    final long srcRow = Unsafe.getUnsafe().getLong(timestampAddr + (row << 4) + Long.BYTES);
+                    final long srcOffset = Unsafe.getUnsafe().getLong(indexAddr + (srcRow << 3));
+                    final long len = Unsafe.getUnsafe().getLong(indexAddr + ((srcRow + 1) << 3)) - srcOffset;
+                    Vect.memmove(dataAddr + offset, dataAddr + srcOffset, len);
+                    Unsafe.getUnsafe().putLong(indexAddr + (row << 3), offset);
+                    offset += len;
+                }
+                // keep n+1 entries in the index
+                Unsafe.getUnsafe().putLong(indexAddr + (rowHi << 3), offset);
+            } else {
+                final long addr = o3MemColumns.getQuick(primaryIndex).addressOf(0);
+                final int shl = ColumnType.pow2SizeOf(type);
+                for (long row = rowLo; row < rowHi; row++) {
+                    final long srcRow = Unsafe.getUnsafe().getLong(timestampAddr + (row << 4) + Long.BYTES);
+                    Vect.memcpy(addr + (row << shl), addr + (srcRow << shl), 1L << shl);
+                }
+            }
+        }
+    }
+
+    private boolean o3DedupKeysEqual(long row1, long row2) {
+        for (int i = 0, n = dedupO3Columns.size(); i < n; i += 2) {
+            final long addr = dedupO3Columns.getQuick(i);
+            final int shl = (int) dedupO3Columns.getQuick(i + 1);
+            if (!Vect.memeq(addr + (row1 << shl), addr + (row2 << shl), 1L << shl)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void o3DedupMapColumn(int columnIndex, long partitionTimestamp, int partitionPathLen, long rowCount) {
+        final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, columnIndex);
+        final int shl = ColumnType.pow2SizeOf(metadata.getColumnType(columnIndex));
+        long addr = 0;
+        long size = 0;
+        if (columnTop > -1 && columnTop < rowCount) {
+            size = (rowCount - columnTop) << shl;
+            final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex);
+            final int fd = openRO(ff, dFile(path.trimTo(partitionPathLen), metadata.getColumnName(columnIndex), columnNameTxn), LOG);
+            try {
+                addr = mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+            } finally {
+                ff.close(fd);
+            }
+        }
+        // column that does not exist in the partition has nulls only, same as column top
+        dedupPartitionColumns.add(addr, size, columnTop > -1 ? columnTop : rowCount, shl);
+    }
+
+    private void o3DedupMapPartition(long partitionTimestamp, int timestampIndex) {
+        o3DedupUnmapPartition();
+        dedupPartitionTimestamp = partitionTimestamp;
+        final int partitionIndex = txWriter.getPartitionIndex(partitionTimestamp);
+        if (partitionIndex < 0) {
+            return;
+        }
+
+        final long rowCount = partitionTimestamp == txWriter.getLastPartitionTimestamp()
+                ? txWriter.getTransientRowCount()
+                : txWriter.getPartitionSize(partitionIndex);
+        if (rowCount < 1) {
+            return;
+        }
+
+        try {
+            setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, false);
+            txnPartitionConditionally(path, txWriter.getPartitionNameTxn(partitionIndex));
+            final int partitionPathLen = path.length();
+            // designated timestamp goes first, it is followed by dedup key columns
+            o3DedupMapColumn(timestampIndex, partitionTimestamp, partitionPathLen, rowCount);
+            for (int i = 0, n = dedupColumnIndexes.size(); i < n; i++) {
+                o3DedupMapColumn(dedupColumnIndexes.getQuick(i), partitionTimestamp, partitionPathLen, rowCount);
+            }
+            dedupPartitionRowCount = rowCount;
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
+    private boolean o3DedupPartitionKeysEqual(long partitionRow, long o3Row) {
+        for (int i = 1, n = dedupColumnIndexes.size(); i <= n; i++) {
+            final int offset = i * 4;
+            final long columnTop = dedupPartitionColumns.getQuick(offset + 2);
+            if (partitionRow < columnTop) {
+                return false;
+            }
+            final long addr = dedupPartitionColumns.getQuick(offset);
+            final int shl = (int) dedupPartitionColumns.getQuick(offset + 3);
+            final long o3Addr = dedupO3Columns.getQuick((i - 1) * 2) + (o3Row << shl);
+            if (!Vect.memeq(addr + ((partitionRow - columnTop) << shl), o3Addr, 1L << shl)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void o3DedupUnmapPartition() {
+        for (int i = 0, n = dedupPartitionColumns.size(); i < n; i += 4) {
+            final long addr = dedupPartitionColumns.getQuick(i);
+            if (addr != 0) {
+                ff.munmap(addr, dedupPartitionColumns.getQuick(i + 1), MemoryTag.MMAP_TABLE_WRITER);
+            }
+        }
+        dedupPartitionColumns.clear();
+        dedupPartitionRowCount = 0;
+        dedupPartitionSearchLo = 0;
+        dedupPartitionTimestamp = Long.MIN_VALUE;
+    }
+
     private void o3MergeFixColumnLag(int columnIndex, int columnType, long mergeIndex, long lagRows, long mappedRowLo, long mappedRowHi) {
         final long rowCount = lagRows + mappedRowHi - mappedRowLo;
         final int primaryColumnIndex = getPrimaryColumnIndex(columnIndex);
@@ -4178,6 +4581,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             boolean partitionMutates
     ) {
         txWriter.minTimestamp = Math.min(timestampMin, txWriter.minTimestamp);
+        queueZoneMapUpdate(partitionTimestamp);
         final long partitionSize = srcDataMax + srcOooPartitionHi - srcOooPartitionLo + 1;
         final long rowDelta = srcOooPartitionHi - srcOooMax;
         final int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(partitionTimestamp);
@@ -5166,6 +5570,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void queueZoneMapUpdate(long partitionTimestamp) {
+        if (zoneMapPartitions.indexOf(partitionTimestamp) < 0) {
+            zoneMapPartitions.add(partitionTimestamp);
+        }
+    }
+
     private long readMinTimestamp(long partitionTimestamp) {
         setStateForTimestamp(other, partitionTimestamp, false);
         try {
@@ -6150,6 +6560,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         // added so far. Index writers will start point to different
         // files after switch.
         updateIndexes();
+        queueZoneMapUpdate(txWriter.getLastPartitionTimestamp());
         txWriter.switchPartitions(timestamp);
         openPartition(timestamp);
         setAppendPosition(0, false);
@@ -6324,6 +6735,46 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    /**
+     * Refreshes zone maps of the partitions modified by the last commit. The last partition
+     * is excluded, its zone map is written when it stops being last. Zone maps are hints
+     * for the readers, failure to write them does not fail the commit.
+     */
+    private void updateZoneMaps() {
+        if (!configuration.isZoneMapEnabled() || !PartitionBy.isPartitioned(partitionBy)) {
+            zoneMapPartitions.clear();
+            return;
+        }
+
+        final long lastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
+        if (zoneMapLastPartitionTimestamp != lastPartitionTimestamp) {
+            if (zoneMapLastPartitionTimestamp != Long.MIN_VALUE) {
+                queueZoneMapUpdate(zoneMapLastPartitionTimestamp);
+            }
+            zoneMapLastPartitionTimestamp = lastPartitionTimestamp;
+        }
+
+        for (int i = 0, n = zoneMapPartitions.size(); i < n; i++) {
+            final long partitionTimestamp = zoneMapPartitions.getQuick(i);
+            final int partitionIndex = txWriter.getPartitionIndex(partitionTimestamp);
+            if (partitionTimestamp == lastPartitionTimestamp || partitionIndex < 0 || txWriter.isPartitionReadOnly(partitionIndex)) {
+                continue;
+            }
+            try {
+                setPathForPartition(path, rootLen, partitionBy, partitionTimestamp, txWriter.getPartitionNameTxn(partitionIndex));
+                zoneMapWriter.write(path, metadata, columnVersionWriter, partitionTimestamp, txWriter.getPartitionSize(partitionIndex));
+            } catch (CairoException e) {
+                LOG.error().$("could not update zone map [table=").utf8(tableToken.getTableName())
+                        .$(", partition=").$ts(partitionTimestamp)
+                        .$(", e=").$((Sinkable) e)
+                        .I$();
+            } finally {
+                path.trimTo(rootLen);
+            }
+        }
+        zoneMapPartitions.clear();
+    }
+
     private void validateSwapMeta(CharSequence columnName) {
         try {
             try {
@@ -6359,6 +6810,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         if (isSequential(metaMem, i)) {
             flags |= META_FLAG_BIT_SEQUENTIAL;
         }
+
+        if (isColumnDedupKey(metaMem, i)) {
+            flags |= META_FLAG_BIT_DEDUP_KEY;
+        }
         ddlMem.putLong(flags);
         ddlMem.putInt(getIndexBlockCapacity(metaMem, i));
         ddlMem.skip(16);
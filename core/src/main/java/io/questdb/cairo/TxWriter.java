@@ -298,6 +298,15 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         }
     }
 
+    public void setPartitionCompressedByIndex(int index, boolean isCompressed) {
+        if (index < 0) {
+            throw CairoException.nonCritical().put("bad partition index -1");
+        }
+        int offset = index + PARTITION_MASKED_SIZE_OFFSET;
+        long maskedSize = attachedPartitions.getQuick(offset);
+        attachedPartitions.setQuick(offset, updatePartitionIsCompressed(maskedSize, isCompressed));
+    }
+
     public void setPartitionReadOnly(int partitionIndex, boolean isReadOnly) {
         setPartitionReadOnlyByIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, isReadOnly);
     }
@@ -397,6 +406,15 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         updateAttachedPartitionSizeByTimestamp(timestamp, rowCount, partitionNameTxn);
     }
 
+    private static long updatePartitionIsCompressed(long maskedSize, boolean isCompressed) {
+        if (isCompressed) {
+            maskedSize |= 1L << PARTITION_MASK_COMPRESSED_BIT_OFFSET;
+        } else {
+            maskedSize &= ~(1L << PARTITION_MASK_COMPRESSED_BIT_OFFSET);
+        }
+        return maskedSize;
+    }
+
     private static long updatePartitionIsReadOnly(long maskedSize, boolean isReadOnly) {
         if (isReadOnly) {
             maskedSize |= 1L << PARTITION_MASK_READ_ONLY_BIT_OFFSET;
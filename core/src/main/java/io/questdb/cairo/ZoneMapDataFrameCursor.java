@@ -0,0 +1,234 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import static io.questdb.cairo.ZoneMapDataFrameCursorFactory.*;
+
+/**
+ * Skips data frames of the partitions, which zone maps prove that none
+ * of the rows can satisfy the filter.
+ */
+public class ZoneMapDataFrameCursor implements DataFrameCursor {
+    private static final double EQ_EPSILON = 0.0000000001;
+    private static final int PARTITION_MATCHES = 1;
+    private static final int PARTITION_SKIPPED = 2;
+    private final IntList columnIndexes;
+    private final CharSequence dbRoot;
+    private final LongList filterValues;
+    private final IntList operators;
+    private final IntList partitionStates = new IntList();
+    private final Path path;
+    private final ZoneMapReader zoneMapReader;
+    private DataFrameCursor base;
+    private int rootLen;
+    private long skippedPartitionCount;
+
+    public ZoneMapDataFrameCursor(
+            CharSequence dbRoot,
+            Path path,
+            ZoneMapReader zoneMapReader,
+            IntList columnIndexes,
+            IntList operators,
+            LongList filterValues
+    ) {
+        this.dbRoot = dbRoot;
+        this.path = path;
+        this.zoneMapReader = zoneMapReader;
+        this.columnIndexes = columnIndexes;
+        this.operators = operators;
+        this.filterValues = filterValues;
+    }
+
+    @Override
+    public void close() {
+        base = Misc.free(base);
+    }
+
+    @TestOnly
+    public long getSkippedPartitionCount() {
+        return skippedPartitionCount;
+    }
+
+    @Override
+    public StaticSymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public TableReader getTableReader() {
+        return base.getTableReader();
+    }
+
+    @Override
+    public StaticSymbolTable newSymbolTable(int columnIndex) {
+        return base.newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public @Nullable DataFrame next() {
+        DataFrame frame;
+        while ((frame = base.next()) != null) {
+            if (!isSkipped(frame.getPartitionIndex())) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    public ZoneMapDataFrameCursor of(DataFrameCursor base) {
+        this.base = base;
+        path.of(dbRoot).concat(base.getTableReader().getTableToken());
+        rootLen = path.length();
+        skippedPartitionCount = 0;
+        partitionStates.setAll(base.getTableReader().getPartitionCount(), 0);
+        return this;
+    }
+
+    @TestOnly
+    @Override
+    public boolean reload() {
+        final boolean moreData = base.reload();
+        partitionStates.setAll(base.getTableReader().getPartitionCount(), 0);
+        return moreData;
+    }
+
+    @Override
+    public long size() {
+        // number of rows is not known until partitions are checked
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        base.toTop();
+    }
+
+    private static boolean cannotMatch(int operator, double min, double max, double value) {
+        switch (operator) {
+            case OP_EQ:
+                return min - value > EQ_EPSILON || value - max > EQ_EPSILON;
+            case OP_LT:
+                return min >= value;
+            case OP_LE:
+                return min > value;
+            case OP_GT:
+                return max <= value;
+            default:
+                return max < value;
+        }
+    }
+
+    private static boolean cannotMatch(int operator, long min, long max, long value) {
+        switch (operator) {
+            case OP_EQ:
+                return value < min || value > max;
+            case OP_LT:
+                return min >= value;
+            case OP_LE:
+                return min > value;
+            case OP_GT:
+                return max <= value;
+            default:
+                return max < value;
+        }
+    }
+
+    private boolean canSkip(int partitionIndex) {
+        final TableReader reader = base.getTableReader();
+        final long rowCount = reader.getPartitionRowCount(partitionIndex);
+        if (rowCount < 1) {
+            return false;
+        }
+
+        final long partitionTimestamp = reader.getPartitionTimestampByIndex(partitionIndex);
+        TableUtils.setPathForPartition(
+                path,
+                rootLen,
+                reader.getPartitionedBy(),
+                partitionTimestamp,
+                reader.getTxFile().getPartitionNameTxn(partitionIndex)
+        );
+        if (!zoneMapReader.of(path) || zoneMapReader.getRowCount() != rowCount) {
+            return false;
+        }
+
+        final TableReaderMetadata metadata = reader.getMetadata();
+        final ColumnVersionReader columnVersionReader = reader.getColumnVersionReader();
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            final int columnIndex = columnIndexes.getQuick(i);
+            final int columnType = metadata.getColumnType(columnIndex);
+            final int writerIndex = metadata.getWriterIndex(columnIndex);
+            final int entry = zoneMapReader.findEntry(
+                    writerIndex,
+                    columnType,
+                    columnVersionReader.getColumnNameTxn(partitionTimestamp, writerIndex),
+                    columnVersionReader.getColumnTop(partitionTimestamp, writerIndex)
+            );
+            if (entry < 0) {
+                continue;
+            }
+            // comparison of null with a constant is always false
+            if (zoneMapReader.getNullCount(entry) == rowCount) {
+                return true;
+            }
+            final int operator = operators.getQuick(i);
+            final long value = filterValues.getQuick(i);
+            if (ColumnType.tagOf(columnType) == ColumnType.DOUBLE) {
+                if (cannotMatch(
+                        operator,
+                        Double.longBitsToDouble(zoneMapReader.getMin(entry)),
+                        Double.longBitsToDouble(zoneMapReader.getMax(entry)),
+                        Double.longBitsToDouble(value)
+                )) {
+                    return true;
+                }
+            } else if (cannotMatch(operator, zoneMapReader.getMin(entry), zoneMapReader.getMax(entry), value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSkipped(int partitionIndex) {
+        int state = partitionIndex < partitionStates.size() ? partitionStates.getQuick(partitionIndex) : 0;
+        if (state == 0) {
+            state = canSkip(partitionIndex) ? PARTITION_SKIPPED : PARTITION_MATCHES;
+            if (state == PARTITION_SKIPPED) {
+                skippedPartitionCount++;
+            }
+            partitionStates.extendAndSet(partitionIndex, state);
+        }
+        return state == PARTITION_SKIPPED;
+    }
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.*;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.Path;
+
+/**
+ * Wraps data frame cursor factory to skip partitions using their zone maps. Filter is a conjunction
+ * of "column operator constant" predicates. Values of double columns are stored as raw long bits.
+ * The original filter must still be applied to the rows of the remaining partitions.
+ */
+public class ZoneMapDataFrameCursorFactory implements DataFrameCursorFactory {
+    public static final int OP_EQ = 0;
+    public static final int OP_GE = 1;
+    public static final int OP_GT = 2;
+    public static final int OP_LE = 3;
+    public static final int OP_LT = 4;
+    private final DataFrameCursorFactory base;
+    private final IntList columnIndexes;
+    private final CairoConfiguration configuration;
+    private final LongList filterValues;
+    private final IntList operators;
+    private final ZoneMapReader zoneMapReader;
+    private ZoneMapDataFrameCursor cursor;
+    private Path path;
+
+    public ZoneMapDataFrameCursorFactory(
+            CairoConfiguration configuration,
+            DataFrameCursorFactory base,
+            IntList columnIndexes,
+            IntList operators,
+            LongList filterValues
+    ) {
+        this.configuration = configuration;
+        this.base = base;
+        this.columnIndexes = columnIndexes;
+        this.operators = operators;
+        this.filterValues = filterValues;
+        this.zoneMapReader = new ZoneMapReader(configuration.getFilesFacade(), MemoryTag.NATIVE_TABLE_READER);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+        cursor = Misc.free(cursor);
+        Misc.free(zoneMapReader);
+        path = Misc.free(path);
+    }
+
+    @Override
+    public DataFrameCursor getCursor(SqlExecutionContext executionContext, int order) throws SqlException {
+        if (cursor == null) {
+            // path is allocated on first use, factories of operations that never execute hold no native memory
+            path = new Path();
+            cursor = new ZoneMapDataFrameCursor(configuration.getRoot(), path, zoneMapReader, columnIndexes, operators, filterValues);
+        }
+        return cursor.of(base.getCursor(executionContext, order));
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public int getOrder() {
+        return base.getOrder();
+    }
+
+    @Override
+    public boolean supportTableRowId(TableToken tableToken) {
+        return base.supportTableRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        base.toPlan(sink);
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        base.toSink(sink);
+    }
+}
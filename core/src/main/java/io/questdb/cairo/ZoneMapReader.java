@@ -0,0 +1,193 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Reads per-partition column statistics (zone map) maintained by {@link ZoneMapWriter}.
+ * <p>
+ * Zone map file is located in the partition directory and has the following layout:
+ * <pre>
+ * long row_count;   // partition row count the statistics were calculated for
+ * long entry_count; // number of column entries
+ * struct {
+ *     int  column_index;    // writer index of the column
+ *     int  column_type;
+ *     long column_name_txn;
+ *     long column_top;      // -1 when column does not exist in the partition
+ *     long null_count;
+ *     long min;             // raw bits of double value for floating point columns
+ *     long max;
+ * } entries[entry_count];
+ * </pre>
+ * Statistics are only hints. Reader must check that the row count, column name txn and column top
+ * are those of its own snapshot before relying on them.
+ */
+public class ZoneMapReader implements Closeable {
+    public static final int ENTRY_OFFSET_COLUMN_INDEX = 0;
+    public static final int ENTRY_OFFSET_COLUMN_TYPE = 4;
+    public static final int ENTRY_OFFSET_COLUMN_NAME_TXN = 8;
+    public static final int ENTRY_OFFSET_COLUMN_TOP = 16;
+    public static final int ENTRY_OFFSET_NULL_COUNT = 24;
+    public static final int ENTRY_OFFSET_MIN = 32;
+    public static final int ENTRY_OFFSET_MAX = 40;
+    public static final int ENTRY_SIZE = 48;
+    public static final int HEADER_OFFSET_ENTRY_COUNT = 8;
+    public static final int HEADER_OFFSET_ROW_COUNT = 0;
+    public static final int HEADER_SIZE = 16;
+    private final FilesFacade ff;
+    private final int memoryTag;
+    private long address;
+    private long capacity;
+    private long entryCount;
+    private long rowCount = -1;
+
+    public ZoneMapReader(FilesFacade ff, int memoryTag) {
+        this.ff = ff;
+        this.memoryTag = memoryTag;
+    }
+
+    public static boolean isSupported(int columnType) {
+        // deleted columns have negative type
+        if (columnType < 0) {
+            return false;
+        }
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public void clear() {
+        entryCount = 0;
+        rowCount = -1;
+    }
+
+    @Override
+    public void close() {
+        if (address != 0) {
+            address = Unsafe.free(address, capacity, memoryTag);
+            capacity = 0;
+        }
+        clear();
+    }
+
+    /**
+     * Finds statistics entry of the column.
+     *
+     * @param columnIndex   writer index of the column
+     * @param columnType    expected column type
+     * @param columnNameTxn expected column name txn
+     * @param columnTop     expected column top
+     * @return entry index or -1 when there are no valid statistics for the column
+     */
+    public int findEntry(int columnIndex, int columnType, long columnNameTxn, long columnTop) {
+        for (int i = 0; i < entryCount; i++) {
+            final long p = address + HEADER_SIZE + (long) i * ENTRY_SIZE;
+            if (Unsafe.getUnsafe().getInt(p + ENTRY_OFFSET_COLUMN_INDEX) == columnIndex) {
+                if (Unsafe.getUnsafe().getInt(p + ENTRY_OFFSET_COLUMN_TYPE) == columnType
+                        && Unsafe.getUnsafe().getLong(p + ENTRY_OFFSET_COLUMN_NAME_TXN) == columnNameTxn
+                        && Unsafe.getUnsafe().getLong(p + ENTRY_OFFSET_COLUMN_TOP) == columnTop) {
+                    return i;
+                }
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    public long getMax(int entry) {
+        return getEntryLong(entry, ENTRY_OFFSET_MAX);
+    }
+
+    public long getMin(int entry) {
+        return getEntryLong(entry, ENTRY_OFFSET_MIN);
+    }
+
+    public long getNullCount(int entry) {
+        return getEntryLong(entry, ENTRY_OFFSET_NULL_COUNT);
+    }
+
+    /**
+     * @return partition row count the statistics were calculated for or -1 if zone map is not loaded
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Loads zone map of the partition.
+     *
+     * @param partitionPath path to the partition directory, it is restored on exit
+     * @return true when zone map file exists and is well-formed
+     */
+    public boolean of(Path partitionPath) {
+        clear();
+        final int pathLen = partitionPath.length();
+        final int fd = ff.openRO(partitionPath.concat(TableUtils.ZONE_MAP_FILE_NAME).$());
+        partitionPath.trimTo(pathLen);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            final long size = ff.length(fd);
+            if (size < HEADER_SIZE || (size - HEADER_SIZE) % ENTRY_SIZE != 0) {
+                return false;
+            }
+            if (size > capacity) {
+                address = Unsafe.realloc(address, capacity, size, memoryTag);
+                capacity = size;
+            }
+            if (ff.read(fd, address, size, 0) != size) {
+                return false;
+            }
+            if (Unsafe.getUnsafe().getLong(address + HEADER_OFFSET_ENTRY_COUNT) != (size - HEADER_SIZE) / ENTRY_SIZE) {
+                return false;
+            }
+            entryCount = (size - HEADER_SIZE) / ENTRY_SIZE;
+            rowCount = Unsafe.getUnsafe().getLong(address + HEADER_OFFSET_ROW_COUNT);
+            return true;
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private long getEntryLong(int entry, int offset) {
+        return Unsafe.getUnsafe().getLong(address + HEADER_SIZE + (long) entry * ENTRY_SIZE + offset);
+    }
+}
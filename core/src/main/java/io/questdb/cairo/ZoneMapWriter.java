@@ -0,0 +1,272 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.TableRecordMetadata;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+import static io.questdb.cairo.ZoneMapReader.*;
+
+/**
+ * Calculates and persists per-partition column statistics: min, max and null count
+ * of fixed-width numeric columns. See {@link ZoneMapReader} for the file layout.
+ * <p>
+ * When the partition already has statistics for the same column version and fewer rows,
+ * only the rows appended since are scanned.
+ */
+public class ZoneMapWriter implements Closeable {
+    private static final Log LOG = LogFactory.getLog(ZoneMapWriter.class);
+    private static final String TMP_FILE_SUFFIX = ".tmp";
+    private final FilesFacade ff;
+    private final Path other = new Path();
+    private final ZoneMapReader previous;
+    private long address;
+    private long capacity;
+    private long max;
+    private long min;
+    private long nonNullCount;
+
+    public ZoneMapWriter(FilesFacade ff) {
+        this.ff = ff;
+        this.previous = new ZoneMapReader(ff, MemoryTag.NATIVE_TABLE_WRITER);
+    }
+
+    @Override
+    public void close() {
+        if (address != 0) {
+            address = Unsafe.free(address, capacity, MemoryTag.NATIVE_TABLE_WRITER);
+            capacity = 0;
+        }
+        Misc.free(previous);
+        Misc.free(other);
+    }
+
+    /**
+     * Writes zone map of the partition.
+     *
+     * @param partitionPath       path to the partition directory, it is restored on exit
+     * @param metadata            table metadata, columns are referenced by their writer index
+     * @param columnVersionReader column versions of the table
+     * @param partitionTimestamp  timestamp of the partition
+     * @param rowCount            partition row count
+     */
+    public void write(
+            Path partitionPath,
+            TableRecordMetadata metadata,
+            ColumnVersionReader columnVersionReader,
+            long partitionTimestamp,
+            long rowCount
+    ) {
+        final int pathLen = partitionPath.length();
+        try {
+            final boolean incremental = previous.of(partitionPath) && previous.getRowCount() <= rowCount;
+            final int columnCount = metadata.getColumnCount();
+            final long size = HEADER_SIZE + (long) columnCount * ENTRY_SIZE;
+            if (size > capacity) {
+                address = Unsafe.realloc(address, capacity, size, MemoryTag.NATIVE_TABLE_WRITER);
+                capacity = size;
+            }
+
+            int entryCount = 0;
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                // designated timestamp is already pruned by partition intervals
+                if (!isSupported(columnType) || i == metadata.getTimestampIndex()) {
+                    continue;
+                }
+                final long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, i);
+                final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, i);
+                final int previousEntry = incremental ? previous.findEntry(i, columnType, columnNameTxn, columnTop) : -1;
+                final long lo;
+                if (previousEntry > -1) {
+                    lo = previous.getRowCount();
+                    nonNullCount = lo - previous.getNullCount(previousEntry);
+                    min = previous.getMin(previousEntry);
+                    max = previous.getMax(previousEntry);
+                } else {
+                    lo = 0;
+                    nonNullCount = 0;
+                    min = 0;
+                    max = 0;
+                }
+                scanColumn(
+                        partitionPath,
+                        metadata.getColumnName(i),
+                        columnType,
+                        columnNameTxn,
+                        columnTop > -1 ? Math.min(columnTop, rowCount) : rowCount,
+                        lo,
+                        rowCount
+                );
+
+                final long p = address + HEADER_SIZE + (long) entryCount++ * ENTRY_SIZE;
+                Unsafe.getUnsafe().putInt(p + ENTRY_OFFSET_COLUMN_INDEX, i);
+                Unsafe.getUnsafe().putInt(p + ENTRY_OFFSET_COLUMN_TYPE, columnType);
+                Unsafe.getUnsafe().putLong(p + ENTRY_OFFSET_COLUMN_NAME_TXN, columnNameTxn);
+                Unsafe.getUnsafe().putLong(p + ENTRY_OFFSET_COLUMN_TOP, columnTop);
+                Unsafe.getUnsafe().putLong(p + ENTRY_OFFSET_NULL_COUNT, rowCount - nonNullCount);
+                Unsafe.getUnsafe().putLong(p + ENTRY_OFFSET_MIN, min);
+                Unsafe.getUnsafe().putLong(p + ENTRY_OFFSET_MAX, max);
+            }
+            Unsafe.getUnsafe().putLong(address + HEADER_OFFSET_ROW_COUNT, rowCount);
+            Unsafe.getUnsafe().putLong(address + HEADER_OFFSET_ENTRY_COUNT, entryCount);
+            writeFile(partitionPath, pathLen, HEADER_SIZE + (long) entryCount * ENTRY_SIZE);
+        } finally {
+            partitionPath.trimTo(pathLen);
+            previous.clear();
+        }
+    }
+
+    private void merge(int columnType, long lo, long hi, long count) {
+        if (count == 0) {
+            return;
+        }
+        if (nonNullCount == 0) {
+            min = lo;
+            max = hi;
+        } else if (ColumnType.tagOf(columnType) == ColumnType.DOUBLE) {
+            if (Double.longBitsToDouble(lo) < Double.longBitsToDouble(min)) {
+                min = lo;
+            }
+            if (Double.longBitsToDouble(hi) > Double.longBitsToDouble(max)) {
+                max = hi;
+            }
+        } else {
+            min = Math.min(min, lo);
+            max = Math.max(max, hi);
+        }
+        nonNullCount += count;
+    }
+
+    private void scanColumn(
+            Path partitionPath,
+            CharSequence columnName,
+            int columnType,
+            long columnNameTxn,
+            long columnTop,
+            long lo,
+            long hi
+    ) {
+        final int tag = ColumnType.tagOf(columnType);
+        if (lo < columnTop) {
+            // rows above column top read as nulls, except for byte and short columns, which read as 0
+            if (tag == ColumnType.BYTE || tag == ColumnType.SHORT) {
+                merge(columnType, 0, 0, Math.min(columnTop, hi) - lo);
+            }
+            lo = columnTop;
+        }
+        if (lo >= hi) {
+            return;
+        }
+
+        final int shl = ColumnType.pow2SizeOf(columnType);
+        final long offset = (lo - columnTop) << shl;
+        final long mapOffset = offset & -ff.getPageSize();
+        final long mapSize = ((hi - columnTop) << shl) - mapOffset;
+        final int pathLen = partitionPath.length();
+        final int fd;
+        try {
+            fd = TableUtils.openRO(ff, TableUtils.dFile(partitionPath, columnName, columnNameTxn), LOG);
+        } finally {
+            partitionPath.trimTo(pathLen);
+        }
+
+        try {
+            final long mapAddr = TableUtils.mapRO(ff, fd, mapSize, mapOffset, MemoryTag.MMAP_TABLE_WRITER);
+            try {
+                final long addr = mapAddr + offset - mapOffset;
+                final long count = hi - lo;
+                switch (tag) {
+                    case ColumnType.BYTE: {
+                        long bMin = Long.MAX_VALUE;
+                        long bMax = Long.MIN_VALUE;
+                        for (long i = 0; i < count; i++) {
+                            final byte v = Unsafe.getUnsafe().getByte(addr + i);
+                            bMin = Math.min(bMin, v);
+                            bMax = Math.max(bMax, v);
+                        }
+                        merge(columnType, bMin, bMax, count);
+                        break;
+                    }
+                    case ColumnType.SHORT: {
+                        long sMin = Long.MAX_VALUE;
+                        long sMax = Long.MIN_VALUE;
+                        for (long i = 0; i < count; i++) {
+                            final short v = Unsafe.getUnsafe().getShort(addr + (i << 1));
+                            sMin = Math.min(sMin, v);
+                            sMax = Math.max(sMax, v);
+                        }
+                        merge(columnType, sMin, sMax, count);
+                        break;
+                    }
+                    case ColumnType.INT:
+                        merge(columnType, Vect.minInt(addr, count), Vect.maxInt(addr, count), Vect.countInt(addr, count));
+                        break;
+                    case ColumnType.DOUBLE:
+                        merge(
+                                columnType,
+                                Double.doubleToRawLongBits(Vect.minDouble(addr, count)),
+                                Double.doubleToRawLongBits(Vect.maxDouble(addr, count)),
+                                Vect.countDouble(addr, count)
+                        );
+                        break;
+                    default:
+                        merge(columnType, Vect.minLong(addr, count), Vect.maxLong(addr, count), Vect.countLong(addr, count));
+                        break;
+                }
+            } finally {
+                ff.munmap(mapAddr, mapSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private void writeFile(Path partitionPath, int pathLen, long size) {
+        other.of(partitionPath).concat(TableUtils.ZONE_MAP_FILE_NAME).put(TMP_FILE_SUFFIX).$();
+        final int fd = TableUtils.openRW(ff, other, LOG, CairoConfiguration.O_NONE);
+        try {
+            if (ff.write(fd, address, size, 0) != size || !ff.truncate(fd, size)) {
+                throw CairoException.critical(ff.errno()).put("could not write zone map [file=").put(other).put(']');
+            }
+        } finally {
+            ff.close(fd);
+        }
+        partitionPath.trimTo(pathLen).concat(TableUtils.ZONE_MAP_FILE_NAME).$();
+        if (ff.rename(other, partitionPath) != Files.FILES_RENAME_OK) {
+            // rename does not replace existing file on every OS
+            ff.remove(partitionPath);
+            if (ff.rename(other, partitionPath) != Files.FILES_RENAME_OK) {
+                throw CairoException.critical(ff.errno()).put("could not rename zone map [from=").put(other).put(", to=").put(partitionPath).put(']');
+            }
+        }
+    }
+}
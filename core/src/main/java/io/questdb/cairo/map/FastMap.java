@@ -257,6 +257,61 @@ public class FastMap implements Map, Reopenable {
         return record;
     }
 
+    @Override
+    public void merge(Map srcMap, MapValueMergeFunction mergeFunc) {
+        assert this != srcMap;
+        final FastMap src = (FastMap) srcMap;
+        if (src.size == 0) {
+            return;
+        }
+
+        for (int i = 0, k = (int) src.offsets.size(); i < k; i++) {
+            final long srcPackedOffset = getPackedOffset(src.offsets, i);
+            final long srcOffset = unpackOffset(srcPackedOffset);
+            if (srcOffset < 0) {
+                continue;
+            }
+            // Both maps use the same hash function, so we can reuse the cached hash code.
+            final int hashCode = unpackHashCode(srcPackedOffset);
+            final long srcAddress = src.kStart + srcOffset;
+
+            int index = hashCode & mask;
+            long packedOffset;
+            long offset;
+            FastMapValue destValue = null;
+            while ((offset = unpackOffset(packedOffset = getPackedOffset(offsets, index))) > -1) {
+                if (hashCode == unpackHashCode(packedOffset) && keyEq(kStart + offset, srcAddress)) {
+                    destValue = valueOf(kStart + offset, false, value);
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+
+            if (destValue != null) {
+                mergeFunc.merge(destValue, src.valueOf(srcAddress, false, src.value));
+            } else {
+                // The key is new, so copy the whole key-value pair.
+                final long entrySize = keySize != -1 ? keyOffset + keySize : Unsafe.getUnsafe().getInt(srcAddress);
+                if (kPos + entrySize > kLimit) {
+                    key.startAddress = key.appendAddress = kPos;
+                    resize((int) entrySize);
+                }
+                Vect.memcpy(kPos, srcAddress, entrySize);
+                setPackedOffset(offsets, index, kPos - kStart, hashCode);
+                kPos += entrySize;
+                // Align current pointer to 8 bytes, so that we can store compressed offsets.
+                if ((kPos & 0x7) != 0) {
+                    kPos |= 0x7;
+                    kPos++;
+                }
+                size++;
+                if (--free == 0) {
+                    rehash();
+                }
+            }
+        }
+    }
+
     public void reopen() {
         if (kStart == 0) {
             // handles both mem and offsets
@@ -329,6 +384,18 @@ public class FastMap implements Map, Reopenable {
         return valueOf(keyWriter.startAddress, true, value);
     }
 
+    private boolean keyEq(long destAddress, long srcAddress) {
+        if (keySize != -1) {
+            return Vect.memeq(destAddress + keyOffset, srcAddress + keyOffset, keySize);
+        }
+        final int len = Unsafe.getUnsafe().getInt(srcAddress);
+        // Check the length first.
+        if (Unsafe.getUnsafe().getInt(destAddress) != len) {
+            return false;
+        }
+        return Vect.memeq(destAddress + keyOffset, srcAddress + keyOffset, len - keyOffset);
+    }
+
     private FastMapValue probe0(BaseKey keyWriter, int index, int hashCode, FastMapValue value) {
         long packedOffset;
         long offset;
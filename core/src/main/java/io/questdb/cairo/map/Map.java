@@ -38,6 +38,18 @@ public interface Map extends Mutable, Closeable, Reopenable {
 
     MapRecord getRecord();
 
+    /**
+     * Merges the given map into this one. Keys missing in this map are copied
+     * as is, while values of the existing keys are combined with the merge function.
+     * Both maps must have identical key and value types.
+     *
+     * @param srcMap    source map
+     * @param mergeFunc function used to combine values of matching keys
+     */
+    default void merge(Map srcMap, MapValueMergeFunction mergeFunc) {
+        throw new UnsupportedOperationException();
+    }
+
     void restoreInitialCapacity();
 
     long size();
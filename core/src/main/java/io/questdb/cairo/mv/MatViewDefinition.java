@@ -0,0 +1,153 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.cairo.vm.api.MemoryMA;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
+import io.questdb.std.Chars;
+
+/**
+ * Definition of a materialized view, i.e. a SAMPLE BY query over a single base table
+ * whose results are stored in a regular partitioned table. The definition is persisted
+ * in the {@link #MAT_VIEW_FILE_NAME} file in the view table directory.
+ * <p>
+ * Besides the immutable definition this class keeps the timestamp range of base table
+ * data that is committed, but not yet reflected in the view. The range is accumulated
+ * when the view table is busy and cannot be refreshed straight away.
+ */
+public class MatViewDefinition {
+    public static final String MAT_VIEW_FILE_NAME = "_mv";
+    private final String baseTableName;
+    private final String refreshSql;
+    private final String samplingInterval;
+    private final TimestampSampler timestampSampler;
+    private final String viewSql;
+    private final TableToken viewToken;
+    private long refreshHi = Long.MIN_VALUE;
+    private long refreshLo = Long.MAX_VALUE;
+
+    public MatViewDefinition(
+            TableToken viewToken,
+            String baseTableName,
+            String samplingInterval,
+            String viewSql,
+            String refreshSql
+    ) throws SqlException {
+        this.viewToken = viewToken;
+        this.baseTableName = baseTableName;
+        this.samplingInterval = samplingInterval;
+        this.viewSql = viewSql;
+        this.refreshSql = refreshSql;
+        this.timestampSampler = TimestampSamplerFactory.getInstance(samplingInterval, 0);
+        // views are aligned to calendar with zero offset
+        this.timestampSampler.setStart(0);
+    }
+
+    public static MatViewDefinition readFrom(TableToken viewToken, MemoryCMR mem) {
+        long offset = 0;
+        final String baseTableName = readStr(mem, offset);
+        offset += Vm.getStorageLength(baseTableName);
+        final String samplingInterval = readStr(mem, offset);
+        offset += Vm.getStorageLength(samplingInterval);
+        final String viewSql = readStr(mem, offset);
+        offset += Vm.getStorageLength(viewSql);
+        final String refreshSql = readStr(mem, offset);
+        try {
+            return new MatViewDefinition(viewToken, baseTableName, samplingInterval, viewSql, refreshSql);
+        } catch (SqlException e) {
+            throw CairoException.critical(0).put("invalid materialized view sampling interval [view=").put(viewToken.getTableName())
+                    .put(", interval=").put(samplingInterval)
+                    .put(']');
+        }
+    }
+
+    /**
+     * Clears the pending refresh range if it was not extended since it was read
+     * with {@link #getRefreshLo()} and {@link #getRefreshHi()}.
+     */
+    public synchronized void clearRefreshRange(long lo, long hi) {
+        if (refreshLo == lo && refreshHi == hi) {
+            refreshLo = Long.MAX_VALUE;
+            refreshHi = Long.MIN_VALUE;
+        }
+    }
+
+    public synchronized void extendRefreshRange(long lo, long hi) {
+        refreshLo = Math.min(refreshLo, lo);
+        refreshHi = Math.max(refreshHi, hi);
+    }
+
+    public String getBaseTableName() {
+        return baseTableName;
+    }
+
+    public synchronized long getRefreshHi() {
+        return refreshHi;
+    }
+
+    public synchronized long getRefreshLo() {
+        return refreshLo;
+    }
+
+    public String getRefreshSql() {
+        return refreshSql;
+    }
+
+    public String getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    public TimestampSampler getTimestampSampler() {
+        return timestampSampler;
+    }
+
+    public String getViewSql() {
+        return viewSql;
+    }
+
+    public TableToken getViewToken() {
+        return viewToken;
+    }
+
+    public void writeTo(MemoryMA mem) {
+        mem.putStr(baseTableName);
+        mem.putStr(samplingInterval);
+        mem.putStr(viewSql);
+        mem.putStr(refreshSql);
+    }
+
+    private static String readStr(MemoryCMR mem, long offset) {
+        if (offset + Integer.BYTES > mem.size()) {
+            throw CairoException.critical(0).put("materialized view definition is truncated [offset=").put(offset).put(']');
+        }
+        return Chars.toString(mem.getStr(offset));
+    }
+}
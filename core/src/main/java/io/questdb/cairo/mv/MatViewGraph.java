@@ -0,0 +1,125 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+/**
+ * Registry of materialized views keyed by the name of their base table. The registry
+ * is rebuilt from the view definition files when the engine starts. Views of dropped
+ * tables are removed lazily, when the refresh finds out the view table no longer exists.
+ */
+public class MatViewGraph {
+    private static final Log LOG = LogFactory.getLog(MatViewGraph.class);
+    private final CharSequenceObjHashMap<ObjList<MatViewDefinition>> viewsByBaseTable = new CharSequenceObjHashMap<>();
+
+    public synchronized void addView(MatViewDefinition definition) {
+        final String baseTableName = definition.getBaseTableName();
+        ObjList<MatViewDefinition> views = viewsByBaseTable.get(baseTableName);
+        if (views == null) {
+            views = new ObjList<>();
+            viewsByBaseTable.put(baseTableName, views);
+        }
+        views.add(definition);
+    }
+
+    public synchronized void clear() {
+        viewsByBaseTable.clear();
+    }
+
+    public void createView(CairoConfiguration configuration, MemoryMARW mem, Path path, MatViewDefinition definition) {
+        path.of(configuration.getRoot()).concat(definition.getViewToken()).concat(MatViewDefinition.MAT_VIEW_FILE_NAME).$();
+        try {
+            mem.smallFile(configuration.getFilesFacade(), path, MemoryTag.MMAP_DEFAULT);
+            mem.jumpTo(0);
+            definition.writeTo(mem);
+        } finally {
+            mem.close(true, Vm.TRUNCATE_TO_POINTER);
+        }
+        addView(definition);
+    }
+
+    public synchronized void getViews(CharSequence baseTableName, ObjList<MatViewDefinition> sink) {
+        final ObjList<MatViewDefinition> views = viewsByBaseTable.get(baseTableName);
+        if (views != null) {
+            sink.addAll(views);
+        }
+    }
+
+    public synchronized boolean hasViews(CharSequence baseTableName) {
+        return viewsByBaseTable.keyIndex(baseTableName) < 0;
+    }
+
+    public void reload(CairoEngine engine) {
+        final CairoConfiguration configuration = engine.getConfiguration();
+        final FilesFacade ff = configuration.getFilesFacade();
+        final ObjList<TableToken> tableTokens = new ObjList<>();
+        engine.getTableTokens(tableTokens, false);
+
+        clear();
+        try (
+                Path path = new Path();
+                MemoryCMR mem = Vm.getCMRInstance()
+        ) {
+            path.of(configuration.getRoot());
+            final int rootLen = path.length();
+            for (int i = 0, n = tableTokens.size(); i < n; i++) {
+                final TableToken tableToken = tableTokens.getQuick(i);
+                path.trimTo(rootLen).concat(tableToken).concat(MatViewDefinition.MAT_VIEW_FILE_NAME).$();
+                if (!ff.exists(path)) {
+                    continue;
+                }
+                try {
+                    final long fileLen = ff.length(path);
+                    mem.of(ff, path, fileLen, fileLen, MemoryTag.MMAP_DEFAULT);
+                    addView(MatViewDefinition.readFrom(tableToken, mem));
+                } catch (CairoException e) {
+                    LOG.error().$("could not load materialized view [view=").utf8(tableToken.getDirName())
+                            .$(", error=").$(e.getFlyweightMessage())
+                            .I$();
+                } finally {
+                    mem.close();
+                }
+            }
+        }
+    }
+
+    public synchronized void removeView(MatViewDefinition definition) {
+        final ObjList<MatViewDefinition> views = viewsByBaseTable.get(definition.getBaseTableName());
+        if (views != null) {
+            views.remove(definition);
+            if (views.size() == 0) {
+                viewsByBaseTable.remove(definition.getBaseTableName());
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.*;
+import io.questdb.griffin.engine.functions.bind.BindVariableServiceImpl;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Refreshes materialized views after their base table commits. Only the SAMPLE BY buckets
+ * touched by the committed timestamp range are recomputed. The view table has no means to
+ * delete rows, so the view partitions overlapping the refreshed buckets are rewritten: rows
+ * outside the refreshed buckets are copied aside, the partitions are removed and the copied
+ * rows are written back together with the recomputed buckets.
+ */
+public class MatViewRefresher implements QuietCloseable {
+    public static final String MAT_VIEW_REFRESH_REASON = "Materialized View Refresh";
+    private static final Log LOG = LogFactory.getLog(MatViewRefresher.class);
+    private final BytecodeAssembler asm = new BytecodeAssembler();
+    private final BindVariableService bindVariableService;
+    private final SqlCompiler compiler;
+    private final CairoConfiguration configuration;
+    private final CairoEngine engine;
+    private final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
+    private final SqlExecutionContextImpl executionContext;
+    private final LongList partitionTimestamps = new LongList();
+    private final StringSink sqlSink = new StringSink();
+    private final ObjList<MatViewDefinition> views = new ObjList<>();
+
+    public MatViewRefresher(CairoEngine engine, @Nullable FunctionFactoryCache functionFactoryCache) {
+        this.engine = engine;
+        this.configuration = engine.getConfiguration();
+        this.bindVariableService = new BindVariableServiceImpl(configuration);
+        this.executionContext = new SqlExecutionContextImpl(engine, 1);
+        this.executionContext.with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+        this.compiler = new SqlCompiler(engine, functionFactoryCache, null);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(compiler);
+    }
+
+    /**
+     * Refreshes views of the base table once the data in [minTimestamp, maxTimestamp]
+     * range has been committed to it.
+     *
+     * @param baseTableToken base table token
+     * @param minTimestamp   min timestamp of the committed rows
+     * @param maxTimestamp   max timestamp of the committed rows
+     */
+    public void onBaseTableCommit(TableToken baseTableToken, long minTimestamp, long maxTimestamp) {
+        final MatViewGraph graph = engine.getMatViewGraph();
+        views.clear();
+        graph.getViews(baseTableToken.getTableName(), views);
+        for (int i = 0, n = views.size(); i < n; i++) {
+            final MatViewDefinition view = views.getQuick(i);
+            view.extendRefreshRange(minTimestamp, maxTimestamp);
+            refresh(graph, view);
+        }
+        views.clear();
+    }
+
+    private static void copyRows(RecordCursor cursor, int timestampIndex, RecordToRowCopier copier, TableWriter writer) {
+        final Record record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            final TableWriter.Row row = writer.newRow(record.getTimestamp(timestampIndex));
+            copier.copy(record, row);
+            row.append();
+        }
+    }
+
+    private void bindRange(long lo, long hi) throws SqlException {
+        bindVariableService.clear();
+        bindVariableService.setTimestamp(0, lo);
+        bindVariableService.setTimestamp(1, hi);
+    }
+
+    private void copyToChain(RecordCursorFactory factory, RecordChain chain, long lo, long hi) throws SqlException {
+        if (lo >= hi) {
+            return;
+        }
+        bindRange(lo, hi);
+        try (RecordCursor cursor = factory.getCursor(executionContext)) {
+            final Record record = cursor.getRecord();
+            long offset = -1;
+            while (cursor.hasNext()) {
+                offset = chain.put(record, offset);
+            }
+        }
+    }
+
+    private void refresh(MatViewGraph graph, MatViewDefinition view) {
+        final TableToken viewToken = view.getViewToken();
+        if (!viewToken.equals(engine.getUpdatedTableToken(viewToken)) || engine.isTableDropped(viewToken)) {
+            LOG.info().$("materialized view table is dropped [view=").utf8(viewToken.getDirName()).I$();
+            graph.removeView(view);
+            return;
+        }
+
+        final long lo = view.getRefreshLo();
+        final long hi = view.getRefreshHi();
+        if (lo > hi) {
+            return;
+        }
+
+        try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, viewToken, MAT_VIEW_REFRESH_REASON)) {
+            refresh(view, writer, lo, hi);
+            view.clearRefreshRange(lo, hi);
+        } catch (EntryUnavailableException e) {
+            // the range is kept in the definition, it will be refreshed on the next base table commit
+            LOG.info().$("materialized view table is busy, refresh postponed [view=").utf8(viewToken.getDirName())
+                    .$(", reason=").$(e.getReason())
+                    .I$();
+        } catch (Throwable th) {
+            LOG.error().$("could not refresh materialized view [view=").utf8(viewToken.getDirName())
+                    .$(", error=").$(th)
+                    .I$();
+            view.clearRefreshRange(lo, hi);
+        }
+    }
+
+    private void refresh(MatViewDefinition view, TableWriter writer, long lo, long hi) throws SqlException {
+        final TimestampSampler sampler = view.getTimestampSampler();
+        final long bucketLo = sampler.round(lo);
+        final long bucketHi = sampler.nextTimestamp(sampler.round(hi));
+
+        // the rewritten partitions may span beyond the refreshed buckets
+        final int partitionBy = writer.getPartitionBy();
+        final long partitionLo = PartitionBy.getPartitionFloorMethod(partitionBy).floor(bucketLo);
+        final long partitionHi = PartitionBy.getPartitionAddMethod(partitionBy).calculate(
+                PartitionBy.getPartitionFloorMethod(partitionBy).floor(bucketHi - 1),
+                1
+        );
+
+        final TableRecordMetadata writerMetadata = writer.getMetadata();
+        final int timestampIndex = writerMetadata.getTimestampIndex();
+
+        sqlSink.clear();
+        sqlSink.put("select * from \"").put(view.getViewToken().getTableName()).put("\" where \"")
+                .put(writerMetadata.getColumnName(timestampIndex)).put("\" >= $1 and \"")
+                .put(writerMetadata.getColumnName(timestampIndex)).put("\" < $2");
+
+        try (
+                RecordCursorFactory viewFactory = compiler.compile(sqlSink, executionContext).getRecordCursorFactory();
+                RecordCursorFactory refreshFactory = compiler.compile(view.getRefreshSql(), executionContext).getRecordCursorFactory()
+        ) {
+            final RecordMetadata refreshMetadata = refreshFactory.getMetadata();
+            if (refreshMetadata.getTimestampIndex() != timestampIndex || refreshMetadata.getColumnCount() != writerMetadata.getColumnCount()) {
+                throw CairoException.nonCritical().put("materialized view query does not match view table [view=")
+                        .put(view.getViewToken().getTableName())
+                        .put(']');
+            }
+
+            final ColumnTypes chainTypes = new SymbolAsStrTypes(viewFactory.getMetadata());
+            entityColumnFilter.of(writerMetadata.getColumnCount());
+            final RecordSink recordSink = RecordSinkFactory.getInstance(asm, viewFactory.getMetadata(), entityColumnFilter, true);
+            final RecordToRowCopier chainCopier = RecordToRowCopierUtils.generateCopier(asm, chainTypes, writerMetadata, entityColumnFilter);
+            final RecordToRowCopier refreshCopier = RecordToRowCopierUtils.generateCopier(asm, refreshMetadata, writerMetadata, entityColumnFilter);
+
+            try (
+                    RecordChain chain = new RecordChain(
+                            chainTypes,
+                            recordSink,
+                            configuration.getSqlSortValuePageSize(),
+                            configuration.getSqlSortValueMaxPages()
+                    )
+            ) {
+                copyToChain(viewFactory, chain, partitionLo, bucketLo);
+                copyToChain(viewFactory, chain, bucketHi, partitionHi);
+
+                partitionTimestamps.clear();
+                for (int i = 0, n = writer.getPartitionCount(); i < n; i++) {
+                    final long partitionTimestamp = writer.getPartitionTimestamp(i);
+                    if (partitionTimestamp >= partitionLo && partitionTimestamp < partitionHi) {
+                        partitionTimestamps.add(partitionTimestamp);
+                    }
+                }
+                for (int i = partitionTimestamps.size() - 1; i > -1; i--) {
+                    writer.removePartition(partitionTimestamps.getQuick(i));
+                }
+
+                chain.toTop();
+                copyRows(chain, timestampIndex, chainCopier, writer);
+
+                bindRange(bucketLo, bucketHi);
+                try (RecordCursor cursor = refreshFactory.getCursor(executionContext)) {
+                    copyRows(cursor, timestampIndex, refreshCopier, writer);
+                }
+                writer.commit();
+            }
+        }
+
+        LOG.info().$("refreshed materialized view [view=").utf8(view.getViewToken().getDirName())
+                .$(", from=").$ts(bucketLo)
+                .$(", to=").$ts(bucketHi)
+                .I$();
+    }
+}
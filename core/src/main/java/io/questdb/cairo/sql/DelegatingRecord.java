@@ -101,6 +101,16 @@ public class DelegatingRecord implements Record {
         return base.getLong(col);
     }
 
+    @Override
+    public long getLong128Hi(int col) {
+        return base.getLong128Hi(col);
+    }
+
+    @Override
+    public long getLong128Lo(int col) {
+        return base.getLong128Lo(col);
+    }
+
     @Override
     public void getLong256(int col, CharSink sink) {
         base.getLong256(col, sink);
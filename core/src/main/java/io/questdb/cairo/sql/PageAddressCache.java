@@ -27,6 +27,7 @@ package io.questdb.cairo.sql;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
 
 public class PageAddressCache implements Mutable {
 
@@ -34,11 +35,11 @@ public class PageAddressCache implements Mutable {
     // Index remapping for variable length columns.
     private final IntList varLenColumnIndexes = new IntList();
     private int columnCount;
-    // Index page addresses and page sizes are stored only for variable length columns.
+    // Index page addresses are stored only for variable length columns.
     private LongList indexPageAddresses = new LongList();
     private LongList pageAddresses = new LongList();
+    private LongList pageRowCounts = new LongList();
     private LongList pageRowIdOffsets = new LongList();
-    private LongList pageSizes = new LongList();
     private int varLenColumnCount;
 
     public PageAddressCache(CairoConfiguration configuration) {
@@ -53,10 +54,12 @@ public class PageAddressCache implements Mutable {
             pageAddresses.add(frame.getPageAddress(columnIndex));
             int varLenColumnIndex = varLenColumnIndexes.getQuick(columnIndex);
             if (varLenColumnIndex > -1) {
+                // Data page size is not cached on purpose: it's read from the column index,
+                // so asking for it here would touch every variable length column of every frame.
                 indexPageAddresses.add(frame.getIndexPageAddress(columnIndex));
-                pageSizes.add(frame.getPageSize(columnIndex));
             }
         }
+        pageRowCounts.add(frame.getPartitionHi() - frame.getPartitionLo());
         pageRowIdOffsets.add(Rows.toRowID(frame.getPartitionIndex(), frame.getPartitionLo()));
     }
 
@@ -66,12 +69,12 @@ public class PageAddressCache implements Mutable {
         if (pageAddresses.size() < cacheSizeThreshold) {
             pageAddresses.clear();
             indexPageAddresses.clear();
-            pageSizes.clear();
+            pageRowCounts.clear();
             pageRowIdOffsets.clear();
         } else {
             pageAddresses = new LongList();
             indexPageAddresses = new LongList();
-            pageSizes = new LongList();
+            pageRowCounts = new LongList();
             pageRowIdOffsets = new LongList();
         }
     }
@@ -92,11 +95,17 @@ public class PageAddressCache implements Mutable {
         return pageAddresses.getQuick(columnCount * frameIndex + columnIndex);
     }
 
+    /**
+     * Returns data page size of a variable length column. The size is read lazily from
+     * the index entry that follows the last row of the frame, so only the frames that
+     * have rows materialized pay for it.
+     */
     public long getPageSize(int frameIndex, int columnIndex) {
-        assert pageSizes.size() >= varLenColumnCount * (frameIndex + 1);
-        int varLenColumnIndex = varLenColumnIndexes.getQuick(columnIndex);
-        assert varLenColumnIndex > -1;
-        return pageSizes.getQuick(varLenColumnCount * frameIndex + varLenColumnIndex);
+        final long indexPageAddress = getIndexPageAddress(frameIndex, columnIndex);
+        if (indexPageAddress == 0) {
+            return 0;
+        }
+        return Unsafe.getUnsafe().getLong(indexPageAddress + pageRowCounts.getQuick(frameIndex) * Long.BYTES);
     }
 
     public boolean hasColumnTops(int frameIndex) {
@@ -109,6 +118,26 @@ public class PageAddressCache implements Mutable {
         return false;
     }
 
+    /**
+     * Checks the given columns only for column tops.
+     *
+     * @param frameIndex    page frame index
+     * @param columnIndexes columns to check, all columns are checked when null
+     * @return true if any of the columns has a column top in the frame
+     */
+    public boolean hasColumnTops(int frameIndex, @Nullable IntList columnIndexes) {
+        if (columnIndexes == null) {
+            return hasColumnTops(frameIndex);
+        }
+        assert pageAddresses.size() >= columnCount * (frameIndex + 1);
+        for (int i = 0, n = columnIndexes.size(), baseIndex = columnCount * frameIndex; i < n; i++) {
+            if (pageAddresses.getQuick(baseIndex + columnIndexes.getQuick(i)) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void of(@Transient RecordMetadata metadata) {
         this.columnCount = metadata.getColumnCount();
         this.varLenColumnIndexes.setAll(columnCount, -1);
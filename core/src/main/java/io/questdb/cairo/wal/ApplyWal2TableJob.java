@@ -27,6 +27,7 @@ package io.questdb.cairo.wal;
 import io.questdb.Telemetry;
 import io.questdb.TelemetryOrigin;
 import io.questdb.cairo.*;
+import io.questdb.cairo.mv.MatViewRefresher;
 import io.questdb.cairo.wal.seq.TableMetadataChangeLog;
 import io.questdb.cairo.wal.seq.TableSequencerAPI;
 import io.questdb.cairo.wal.seq.TransactionLogCursor;
@@ -65,6 +66,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     private static final int WAL_APPLY_IGNORE_ERROR = -1;
     private final long commitSquashRowLimit;
     private final CairoEngine engine;
+    private final FunctionFactoryCache ffCache;
     private final IntLongHashMap lastAppliedSeqTxns = new IntLongHashMap();
     private final int lookAheadTransactionCount;
     private final WalMetrics metrics;
@@ -77,11 +79,15 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     private final WalEventReader walEventReader;
     private final Telemetry<TelemetryWalTask> walTelemetry;
     private final WalTelemetryFacade walTelemetryFacade;
+    private MatViewRefresher matViewRefresher;
+    private long refreshMaxTimestamp;
+    private long refreshMinTimestamp;
     private long rowsSinceLastCommit;
 
     public ApplyWal2TableJob(CairoEngine engine, int workerCount, int sharedWorkerCount, @Nullable FunctionFactoryCache ffCache) {
         super(engine.getMessageBus().getWalTxnNotificationQueue(), engine.getMessageBus().getWalTxnNotificationSubSequence());
         this.engine = engine;
+        this.ffCache = ffCache;
         tableSequencerAPI = engine.getTableSequencerAPI();
         walTelemetry = engine.getTelemetryWal();
         walTelemetryFacade = walTelemetry.isEnabled() ? this::doStoreWalTelemetry : this::storeWalTelemetryNoop;
@@ -106,6 +112,8 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         long lastSequencerTxn = -1;
         long lastWriterTxn = WAL_APPLY_IGNORE_ERROR;
         Path tempPath = Path.PATH.get();
+        refreshMinTimestamp = Long.MAX_VALUE;
+        refreshMaxTimestamp = Long.MIN_VALUE;
 
         try {
             do {
@@ -138,6 +146,10 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
 
                 lastSequencerTxn = engine.getTableSequencerAPI().lastTxn(tableToken);
             } while (lastWriterTxn < lastSequencerTxn && !runStatus.isTerminating());
+
+            if (refreshMinTimestamp <= refreshMaxTimestamp) {
+                refreshMatViews(tableToken);
+            }
         } catch (CairoException ex) {
             if (ex.isTableDropped() || engine.isTableDropped(tableToken)) {
                 // Table is dropped, and we received cairo exception in the middle of apply
@@ -158,6 +170,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     @Override
     public void close() {
         Misc.free(operationCompiler);
+        Misc.free(matViewRefresher);
         Misc.free(walEventReader);
     }
 
@@ -485,6 +498,8 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                                 commitToTimestamp
                         );
                         rowsSinceLastCommit -= rowsAdded;
+                        refreshMinTimestamp = Math.min(refreshMinTimestamp, dataInfo.getMinTimestamp());
+                        refreshMaxTimestamp = Math.max(refreshMaxTimestamp, dataInfo.getMaxTimestamp());
                         final long latency = microClock.getTicks() - start;
                         long physicalRowCount = writer.getPhysicallyWrittenRowsSinceLastCommit();
                         metrics.addApplyRowsWritten(rowCount, physicalRowCount, latency);
@@ -641,6 +656,17 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         return transactionMeta;
     }
 
+    private void refreshMatViews(TableToken tableToken) {
+        // all applied transactions are committed by now, views are refreshed
+        // from the timestamp range of the applied data
+        if (engine.getMatViewGraph().hasViews(tableToken.getTableName())) {
+            if (matViewRefresher == null) {
+                matViewRefresher = new MatViewRefresher(engine, ffCache);
+            }
+            matViewRefresher.onBaseTableCommit(tableToken, refreshMinTimestamp, refreshMaxTimestamp);
+        }
+    }
+
     private void storeTelemetryNoop(short event, short origin) {
     }
 
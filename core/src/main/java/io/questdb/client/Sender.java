@@ -24,6 +24,7 @@
 
 package io.questdb.client;
 
+import io.questdb.cutlass.line.AsyncLineChannel;
 import io.questdb.cutlass.line.LineChannel;
 import io.questdb.cutlass.line.LineSenderException;
 import io.questdb.cutlass.line.LineTcpSender;
@@ -139,8 +140,12 @@ public interface Sender extends Closeable {
      * the batching effect. This means it can lower the overall throughput, as each batch has a certain fixed cost
      * component, but it can decrease maximum latency as messages spend less time waiting in buffers and waiting for
      * automatic flush.
+     * <br>
+     * In asynchronous mode the buffered data is handed over to the background IO thread and the method returns
+     * without waiting for it to be written to the socket.
      *
      * @see LineSenderBuilder#bufferCapacity(int)
+     * @see LineSenderBuilder#enableAsync()
      */
     void flush();
 
@@ -229,6 +234,10 @@ public interface Sender extends Closeable {
         private static final int MIN_BUFFER_SIZE_FOR_AUTH = 512 + 1; // challenge size + 1;
         // indicate that port was not set explicitly
         private static final byte PORT_DEFAULT = 0;
+        private boolean asyncEnabled;
+        private int autoFlushBytes;
+        private long autoFlushIntervalMillis;
+        private int autoFlushRows;
         private int bufferCapacity = BUFFER_CAPACITY_DEFAULT;
         private String host;
         private String keyId;
@@ -306,6 +315,53 @@ public interface Sender extends Closeable {
             return new AdvancedTlsSettings();
         }
 
+        /**
+         * Flush buffered rows once they take at least this many bytes. It has to be smaller than
+         * the buffer capacity, a full buffer is always flushed.
+         *
+         * @param autoFlushBytes number of bytes, 0 disables the threshold
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder autoFlushBytes(int autoFlushBytes) {
+            if (autoFlushBytes < 0) {
+                throw new LineSenderException("auto-flush bytes cannot be negative ")
+                        .put("[auto-flush-bytes=").put(autoFlushBytes).put("]");
+            }
+            this.autoFlushBytes = autoFlushBytes;
+            return this;
+        }
+
+        /**
+         * Flush buffered rows when this much time has passed since the previous automatic flush.
+         * The interval is checked when a row is finished, rows are not flushed while the Sender is idle.
+         *
+         * @param autoFlushIntervalMillis interval in milliseconds, 0 disables the threshold
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder autoFlushIntervalMillis(long autoFlushIntervalMillis) {
+            if (autoFlushIntervalMillis < 0) {
+                throw new LineSenderException("auto-flush interval cannot be negative ")
+                        .put("[auto-flush-interval=").put(autoFlushIntervalMillis).put("]");
+            }
+            this.autoFlushIntervalMillis = autoFlushIntervalMillis;
+            return this;
+        }
+
+        /**
+         * Flush buffered rows every time this many rows have been finished.
+         *
+         * @param autoFlushRows number of rows, 0 disables the threshold
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder autoFlushRows(int autoFlushRows) {
+            if (autoFlushRows < 0) {
+                throw new LineSenderException("auto-flush rows cannot be negative ")
+                        .put("[auto-flush-rows=").put(autoFlushRows).put("]");
+            }
+            this.autoFlushRows = autoFlushRows;
+            return this;
+        }
+
         /**
          * Configure capacity of an internal buffer.
          * Bigger buffer increase batching effect.
@@ -346,6 +402,14 @@ public interface Sender extends Closeable {
                 }
                 channel = tlsChannel;
             }
+            if (asyncEnabled) {
+                try {
+                    channel = new AsyncLineChannel(channel, bufferCapacity);
+                } catch (Throwable t) {
+                    channel.close();
+                    throw rethrow(t);
+                }
+            }
             try {
                 sender = new LineTcpSender(channel, bufferCapacity);
             } catch (Throwable t) {
@@ -368,9 +432,29 @@ public interface Sender extends Closeable {
                     }
                 }
             }
+            if (autoFlushRows > 0 || autoFlushBytes > 0 || autoFlushIntervalMillis > 0) {
+                sender.configureAutoFlush(autoFlushRows, autoFlushBytes, autoFlushIntervalMillis);
+            }
             return sender;
         }
 
+        /**
+         * Send data from a background IO thread. Flushing hands buffered rows over to the IO thread
+         * and returns immediately, while the IO thread writes the previous batch to the socket.
+         * The calling thread blocks only when both the Sender buffer and the IO buffer are full.
+         * <br>
+         * Errors encountered by the IO thread are thrown from the next Sender call.
+         *
+         * @return this instance for method chaining.
+         */
+        public LineSenderBuilder enableAsync() {
+            if (asyncEnabled) {
+                throw new LineSenderException("async mode was already enabled");
+            }
+            asyncEnabled = true;
+            return this;
+        }
+
         /**
          * Configure authentication. This is needed when QuestDB server required clients to authenticate.
          *
@@ -441,6 +525,12 @@ public interface Sender extends Closeable {
             if (!tlsEnabled && tlsValidationMode != TlsValidationMode.DEFAULT) {
                 throw new LineSenderException("TSL validation disabled, but TLS was not enabled");
             }
+            if (autoFlushBytes >= bufferCapacity) {
+                throw new LineSenderException("auto-flush bytes must be smaller than buffer capacity ")
+                        .put("[auto-flush-bytes=").put(autoFlushBytes)
+                        .put(", buffer-capacity=").put(bufferCapacity)
+                        .put("]");
+            }
             if (keyId != null && bufferCapacity < MIN_BUFFER_SIZE_FOR_AUTH) {
                 throw new LineSenderException("Requested buffer too small ")
                         .put("[minimal-capacity=").put(MIN_BUFFER_SIZE_FOR_AUTH)
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http;
+
+import io.questdb.std.Zip;
+
+/**
+ * Deflate based encoder, subclasses provide the stream header, trailer and checksum.
+ */
+public abstract class AbstractZipContentEncoder implements HttpContentEncoder {
+    private boolean finished;
+    private boolean headerDone;
+    private long inAddress;
+    private int inLen;
+    private long z_streamp;
+
+    public AbstractZipContentEncoder() {
+        this.z_streamp = Zip.deflateInit();
+    }
+
+    @Override
+    public void clear() {
+        Zip.deflateReset(z_streamp);
+        finished = false;
+        headerDone = false;
+        inAddress = 0;
+        inLen = 0;
+        resetChecksum();
+    }
+
+    @Override
+    public void close() {
+        if (z_streamp != 0) {
+            Zip.deflateEnd(z_streamp);
+            z_streamp = 0;
+        }
+    }
+
+    @Override
+    public int encode(long outAddress, int outLen, boolean finish) {
+        int n = 0;
+        if (!headerDone) {
+            n = putHeader(outAddress);
+            headerDone = true;
+        }
+
+        final int sz = outLen - n - getTrailerSize();
+        final int ret = Zip.deflate(z_streamp, outAddress + n, sz, finish);
+        final int len = sz - Zip.availOut(z_streamp);
+        if (ret < 0) {
+            // This is not an error, zlib just couldn't do any work with the input/output buffers it was provided.
+            // This happens often (will depend on output buffer size) when there is no new input and zlib has finished generating
+            // output from previously provided input
+            if (ret != Zip.Z_BUF_ERROR || len != 0) {
+                throw HttpException.instance("could not deflate [ret=").put(ret);
+            }
+        }
+        n += len;
+
+        final int availIn = Zip.availIn(z_streamp);
+        final int nInConsumed = inLen - availIn;
+        if (nInConsumed > 0) {
+            updateChecksum(inAddress, nInConsumed);
+            inAddress += nInConsumed;
+            inLen = availIn;
+        }
+
+        if (finish && ret == Zip.Z_STREAM_END) {
+            n += putTrailer(outAddress + n);
+            finished = true;
+        }
+        return n;
+    }
+
+    @Override
+    public int getAvailableInput() {
+        return inLen;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void setInput(long address, int len) {
+        inAddress = address;
+        inLen = len;
+        Zip.setInput(z_streamp, address, len);
+    }
+
+    protected abstract int getTrailerSize();
+
+    protected abstract int putHeader(long address);
+
+    protected abstract int putTrailer(long address);
+
+    protected abstract void resetChecksum();
+
+    protected abstract void updateChecksum(long address, int len);
+}
@@ -25,7 +25,10 @@
 package io.questdb.cutlass.http;
 
 import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
+import io.questdb.cutlass.http.processors.LineHttpProcessorConfiguration;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
+import io.questdb.cutlass.line.tcp.DefaultLineTcpReceiverConfiguration;
+import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
 import io.questdb.network.DefaultIODispatcherConfiguration;
 import io.questdb.network.IODispatcherConfiguration;
 import io.questdb.std.FilesFacade;
@@ -76,6 +79,24 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
             return Long.MAX_VALUE;
         }
     };
+    private final LineHttpProcessorConfiguration lineHttpProcessorConfiguration = new LineHttpProcessorConfiguration() {
+        private final LineTcpReceiverConfiguration lineTcpReceiverConfiguration = new DefaultLineTcpReceiverConfiguration();
+
+        @Override
+        public LineTcpReceiverConfiguration getLineTcpReceiverConfiguration() {
+            return lineTcpReceiverConfiguration;
+        }
+
+        @Override
+        public long getMaxRequestSize() {
+            return 16 * Numbers.SIZE_1MB;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+    };
     private final StaticContentProcessorConfiguration staticContentProcessorConfiguration = new StaticContentProcessorConfiguration() {
         @Override
         public FilesFacade getFilesFacade() {
@@ -140,6 +161,11 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         return jsonQueryProcessorConfiguration;
     }
 
+    @Override
+    public LineHttpProcessorConfiguration getLineHttpProcessorConfiguration() {
+        return lineHttpProcessorConfiguration;
+    }
+
     @Override
     public String getPoolName() {
         return "http";
@@ -155,6 +181,16 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         return 4;
     }
 
+    @Override
+    public long getQueryResultCacheMemoryLimit() {
+        return 16 * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public long getQueryResultCachePageSize() {
+        return 64 * 1024;
+    }
+
     @Override
     public StaticContentProcessorConfiguration getStaticContentProcessorConfiguration() {
         return staticContentProcessorConfiguration;
@@ -199,4 +235,9 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
     public boolean isQueryCacheEnabled() {
         return true;
     }
+
+    @Override
+    public boolean isQueryResultCacheEnabled() {
+        return false;
+    }
 }
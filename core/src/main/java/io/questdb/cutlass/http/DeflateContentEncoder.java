@@ -0,0 +1,87 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http;
+
+import io.questdb.std.Unsafe;
+
+/**
+ * "deflate" content encoding, which is zlib (RFC 1950) stream: two byte header,
+ * raw deflate data and Adler-32 checksum of the uncompressed data.
+ */
+public class DeflateContentEncoder extends AbstractZipContentEncoder {
+    private static final int ADLER_BASE = 65521;
+    // largest number of bytes that can be summed before the modulo without overflowing 32 bits
+    private static final int ADLER_NMAX = 5552;
+    // 32K window, default compression level
+    private static final short HEADER = 0x789c;
+    private static final int TRAILER_SIZE = 4;
+    private int adler = 1;
+
+    @Override
+    public CharSequence getContentEncoding() {
+        return "deflate";
+    }
+
+    @Override
+    protected int getTrailerSize() {
+        return TRAILER_SIZE;
+    }
+
+    @Override
+    protected int putHeader(long address) {
+        Unsafe.getUnsafe().putShort(address, Short.reverseBytes(HEADER));
+        return 2;
+    }
+
+    @Override
+    protected int putTrailer(long address) {
+        Unsafe.getUnsafe().putInt(address, Integer.reverseBytes(adler));
+        return TRAILER_SIZE;
+    }
+
+    @Override
+    protected void resetChecksum() {
+        adler = 1;
+    }
+
+    @Override
+    protected void updateChecksum(long address, int len) {
+        long a = adler & 0xffff;
+        long b = adler >>> 16;
+        long p = address;
+        final long lim = address + len;
+        while (p < lim) {
+            final long hi = Math.min(lim, p + ADLER_NMAX);
+            for (; p < hi; p++) {
+                a += Unsafe.getUnsafe().getByte(p) & 0xff;
+                b += a;
+            }
+            a %= ADLER_BASE;
+            b %= ADLER_BASE;
+        }
+        adler = (int) ((b << 16) | a);
+    }
+}
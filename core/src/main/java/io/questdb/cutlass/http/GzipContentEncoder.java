@@ -0,0 +1,71 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http;
+
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.Zip;
+
+public class GzipContentEncoder extends AbstractZipContentEncoder {
+    private static final int TRAILER_SIZE = 8;
+    private int crc = 0;
+    private long total = 0;
+
+    @Override
+    public CharSequence getContentEncoding() {
+        return "gzip";
+    }
+
+    @Override
+    protected int getTrailerSize() {
+        return TRAILER_SIZE;
+    }
+
+    @Override
+    protected int putHeader(long address) {
+        Vect.memcpy(address, Zip.gzipHeader, Zip.gzipHeaderLen);
+        return Zip.gzipHeaderLen;
+    }
+
+    @Override
+    protected int putTrailer(long address) {
+        Unsafe.getUnsafe().putInt(address, crc); // crc
+        Unsafe.getUnsafe().putInt(address + 4, (int) total); // total
+        return TRAILER_SIZE;
+    }
+
+    @Override
+    protected void resetChecksum() {
+        crc = 0;
+        total = 0;
+    }
+
+    @Override
+    protected void updateChecksum(long address, int len) {
+        crc = Zip.crc32(crc, address, len);
+        total += len;
+    }
+}
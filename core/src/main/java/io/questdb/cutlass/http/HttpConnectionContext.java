@@ -59,6 +59,7 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         throw RetryOperationException.INSTANCE;
     };
     private final boolean serverKeepAlive;
+    private long contentRemaining;
     private int nCompletedRequests;
     private boolean pendingRetry = false;
     private int receivedBytes;
@@ -104,6 +105,7 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         this.retryAttemptAttributes.lastRunTimestamp = 0;
         this.retryAttemptAttributes.attempt = 0;
         this.receivedBytes = 0;
+        this.contentRemaining = 0;
         clearSuspendEvent();
     }
 
@@ -341,6 +343,56 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         }
     }
 
+    private boolean consumeContent(
+            int fd,
+            HttpRequestProcessor processor,
+            long headerEnd,
+            int read,
+            boolean newRequest,
+            RescheduleContext rescheduleContext
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException, QueryPausedException {
+        final HttpContentListener contentListener = (HttpContentListener) processor;
+        if (newRequest) {
+            contentRemaining = headerParser.getContentLength();
+            if (contentRemaining < 0) {
+                throw HttpException.instance("Content-Length header is required");
+            }
+            processor.onHeadersReady(this);
+        }
+
+        processor.resumeRecv(this);
+
+        if (newRequest) {
+            final long bufferEnd = recvBuffer + read;
+            if (headerEnd < bufferEnd) {
+                final long hi = Math.min(bufferEnd, headerEnd + contentRemaining);
+                contentRemaining -= hi - headerEnd;
+                contentListener.onChunk(headerEnd, hi);
+            }
+        }
+
+        while (contentRemaining > 0) {
+            final int n = nf.recv(fd, recvBuffer, (int) Math.min(recvBufferSize, contentRemaining));
+            if (n < 0) {
+                dispatcher.disconnect(this, DISCONNECT_REASON_PEER_DISCONNECT_AT_RECV);
+                return false;
+            }
+
+            if (n == 0) {
+                LOG.debug().$("peer is slow [content]").$();
+                dispatcher.registerChannel(this, IOOperation.READ);
+                return false;
+            }
+
+            dumpBuffer(recvBuffer, n);
+            contentRemaining -= n;
+            contentListener.onChunk(recvBuffer, recvBuffer + n);
+        }
+
+        completeRequest(processor, rescheduleContext);
+        return true;
+    }
+
     private boolean consumeMultipart(
             int fd,
             HttpRequestProcessor processor,
@@ -573,8 +625,8 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
             final boolean multipartRequest = Chars.equalsNc("multipart/form-data", headerParser.getContentType());
             final boolean multipartProcessor = processor instanceof HttpMultipartContentListener;
 
-            if (allowDeflateBeforeSend && Chars.contains(headerParser.getHeader("Accept-Encoding"), "gzip")) {
-                responseSink.setDeflateBeforeSend(true);
+            if (allowDeflateBeforeSend) {
+                responseSink.setContentEncoding(headerParser.getHeader("Accept-Encoding"));
             }
 
             try {
@@ -586,6 +638,8 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
                     busyRecv = rejectRequest("Bad request. Multipart POST expected.");
                 } else if (multipartProcessor) {
                     busyRecv = consumeMultipart(fd, processor, headerEnd, read, newRequest, rescheduleContext);
+                } else if (processor instanceof HttpContentListener) {
+                    busyRecv = consumeContent(fd, processor, headerEnd, read, newRequest, rescheduleContext);
                 } else {
 
                     // Do not expect any more bytes to be sent to us before
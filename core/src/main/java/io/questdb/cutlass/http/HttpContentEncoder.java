@@ -0,0 +1,63 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http;
+
+import io.questdb.std.Mutable;
+
+import java.io.Closeable;
+
+/**
+ * Compresses chunked response body on its way to the socket. Encoder consumes the
+ * response buffer and writes encoded bytes into an output buffer of the same fixed
+ * size, which keeps memory used by a connection independent of the response size.
+ * Encoder is reset via {@link #clear()} between requests.
+ */
+public interface HttpContentEncoder extends Closeable, Mutable {
+
+    @Override
+    void close();
+
+    /**
+     * Encodes as much of the pending input as fits into the output buffer.
+     *
+     * @param outAddress address of the output buffer
+     * @param outLen     output buffer size
+     * @param finish     true when there is no more input for the current response
+     * @return number of bytes written to the output buffer
+     */
+    int encode(long outAddress, int outLen, boolean finish);
+
+    int getAvailableInput();
+
+    /**
+     * @return value of the Content-Encoding response header
+     */
+    CharSequence getContentEncoding();
+
+    boolean isFinished();
+
+    void setInput(long address, int len);
+}
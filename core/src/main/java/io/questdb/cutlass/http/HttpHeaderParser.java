@@ -123,6 +123,19 @@ public class HttpHeaderParser implements Mutable, Closeable, HttpRequestHeader {
         return contentDispositionName;
     }
 
+    @Override
+    public long getContentLength() {
+        final DirectByteCharSequence contentLength = headers.get("Content-Length");
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Numbers.parseLong(contentLength);
+        } catch (NumericException e) {
+            return -1;
+        }
+    }
+
     @Override
     public CharSequence getContentType() {
         return contentType;
@@ -38,6 +38,8 @@ public interface HttpRequestHeader {
 
     CharSequence getContentDispositionName();
 
+    long getContentLength();
+
     CharSequence getContentType();
 
     DirectByteCharSequence getHeader(CharSequence name);
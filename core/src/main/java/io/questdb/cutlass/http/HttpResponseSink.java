@@ -31,11 +31,12 @@ import io.questdb.network.*;
 import io.questdb.std.*;
 import io.questdb.std.datetime.millitime.DateFormatUtils;
 import io.questdb.std.datetime.millitime.MillisecondClock;
-import io.questdb.std.ex.ZLibException;
 import io.questdb.std.str.AbstractCharSink;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.StdoutSink;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.io.Closeable;
 
 public class HttpResponseSink implements Closeable, Mutable {
@@ -53,16 +54,13 @@ public class HttpResponseSink implements Closeable, Mutable {
     private final SimpleResponseImpl simple = new SimpleResponseImpl();
     private final ResponseSinkImpl sink = new ResponseSinkImpl();
     private boolean chunkedRequestDone;
-    private boolean compressedHeaderDone;
     private boolean compressedOutputReady;
-    private boolean compressionComplete;
-    private int crc = 0;
-    private boolean deflateBeforeSend = false;
+    private DeflateContentEncoder deflateEncoder;
+    private HttpContentEncoder encoder;
     private int fd;
+    private GzipContentEncoder gzipEncoder;
     private boolean headersSent;
-    private long total = 0;
     private long totalBytesSent = 0;
-    private long z_streamp = 0;
 
     public HttpResponseSink(HttpContextConfiguration configuration) {
         final int responseBufferSize = Numbers.ceilPow2(configuration.getSendBufferSize());
@@ -81,16 +79,20 @@ public class HttpResponseSink implements Closeable, Mutable {
         totalBytesSent = 0;
         headersSent = false;
         chunkedRequestDone = false;
-        resetZip();
+        if (encoder != null) {
+            encoder.clear();
+            encoder = null;
+            compressOutBuffer.clear();
+            compressedOutputReady = false;
+        }
     }
 
     @Override
     public void close() {
-        if (z_streamp != 0) {
-            Zip.deflateEnd(z_streamp);
-            z_streamp = 0;
-            compressOutBuffer.close();
-        }
+        gzipEncoder = Misc.free(gzipEncoder);
+        deflateEncoder = Misc.free(deflateEncoder);
+        encoder = null;
+        compressOutBuffer.close();
         buffer.close();
         fd = -1;
     }
@@ -108,20 +110,20 @@ public class HttpResponseSink implements Closeable, Mutable {
     }
 
     public void resumeSend() throws PeerDisconnectedException, PeerIsSlowToReadException {
-        if (!headersSent || !deflateBeforeSend) {
+        if (!headersSent || encoder == null) {
             sendBuffer(buffer);
             return;
         }
 
         while (true) {
-            if (!compressedOutputReady && !compressionComplete) {
-                deflate();
+            if (!compressedOutputReady && !encoder.isFinished()) {
+                encode();
             }
 
             if (compressedOutputReady) {
                 sendBuffer(compressOutBuffer);
                 compressedOutputReady = false;
-                if (compressionComplete) {
+                if (encoder.isFinished()) {
                     break;
                 }
             } else {
@@ -130,59 +132,56 @@ public class HttpResponseSink implements Closeable, Mutable {
         }
     }
 
-    public void setDeflateBeforeSend(boolean deflateBeforeSend) {
-        this.deflateBeforeSend = deflateBeforeSend;
-        if (z_streamp == 0 && deflateBeforeSend) {
-            z_streamp = Zip.deflateInit();
-            compressOutBuffer.reopen();
+    /**
+     * Picks content encoding of the response to the current request. Gzip is preferred
+     * over deflate when client accepts both, response is sent as is when client
+     * accepts neither.
+     *
+     * @param acceptEncoding value of the Accept-Encoding request header
+     */
+    public void setContentEncoding(@Nullable CharSequence acceptEncoding) {
+        if (acceptEncoding == null) {
+            return;
+        }
+        if (Chars.contains(acceptEncoding, "gzip")) {
+            if (gzipEncoder == null) {
+                gzipEncoder = new GzipContentEncoder();
+            }
+            setEncoder(gzipEncoder);
+        } else if (Chars.contains(acceptEncoding, "deflate")) {
+            if (deflateEncoder == null) {
+                deflateEncoder = new DeflateContentEncoder();
+            }
+            setEncoder(deflateEncoder);
         }
     }
 
-    private void deflate() {
-        if (!compressedHeaderDone) {
-            int len = Zip.gzipHeaderLen;
-            Vect.memcpy(compressOutBuffer.getWriteAddress(len), Zip.gzipHeader, len);
-            compressOutBuffer.onWrite(len);
-            compressedHeaderDone = true;
+    private void dumpBuffer(long buffer, int size) {
+        if (dumpNetworkTraffic && size > 0) {
+            StdoutSink.INSTANCE.put('<');
+            Net.dump(buffer, size);
         }
+    }
 
+    private void encode() {
         int nInAvailable = (int) buffer.getReadNAvailable();
         if (nInAvailable > 0) {
-            long inAddress = buffer.getReadAddress();
-            LOG.debug().$("Zip.setInput [inAddress=").$(inAddress).$(", nInAvailable=").$(nInAvailable).$(']').$();
             buffer.write64BitZeroPadding();
-            Zip.setInput(z_streamp, inAddress, nInAvailable);
+            encoder.setInput(buffer.getReadAddress(), nInAvailable);
         }
 
-        int ret;
         int len;
-        // compress input until we run out of either input or output
+        // encode input until we run out of either input or output
         do {
-            int sz = (int) compressOutBuffer.getWriteNAvailable() - 8;
-            long p = compressOutBuffer.getWriteAddress(0);
-            LOG.debug().$("deflate starting [p=").$(p).$(", sz=").$(sz).$(", chunkedRequestDone=").$(chunkedRequestDone).$(']').$();
-            ret = Zip.deflate(z_streamp, p, sz, chunkedRequestDone);
-            len = sz - Zip.availOut(z_streamp);
+            len = encoder.encode(compressOutBuffer.getWriteAddress(0), (int) compressOutBuffer.getWriteNAvailable(), chunkedRequestDone);
             compressOutBuffer.onWrite(len);
-            if (ret < 0) {
-                // This is not an error, zlib just couldn't do any work with the input/output buffers it was provided.
-                // This happens often (will depend on output buffer size) when there is no new input and zlib has finished generating
-                // output from previously provided input
-                if (ret != Zip.Z_BUF_ERROR || len != 0) {
-                    throw HttpException.instance("could not deflate [ret=").put(ret);
-                }
-            }
-
-            int availIn = Zip.availIn(z_streamp);
-            int nInConsumed = nInAvailable - availIn;
+            final int availIn = encoder.getAvailableInput();
+            final int nInConsumed = nInAvailable - availIn;
             if (nInConsumed > 0) {
-                this.crc = Zip.crc32(this.crc, buffer.getReadAddress(), nInConsumed);
-                this.total += nInConsumed;
                 buffer.onRead(nInConsumed);
                 nInAvailable = availIn;
             }
-
-            LOG.debug().$("deflate finished [ret=").$(ret).$(", len=").$(len).$(", availIn=").$(availIn).$(']').$();
+            LOG.debug().$("encode finished [len=").$(len).$(", availIn=").$(availIn).$(']').$();
         } while (len == 0 && nInAvailable > 0);
 
         if (nInAvailable == 0) {
@@ -194,29 +193,7 @@ public class HttpResponseSink implements Closeable, Mutable {
             return;
         }
         compressedOutputReady = true;
-
-        // this is ZLib error, can't continue
-        if (len < 0) {
-            throw ZLibException.INSTANCE;
-        }
-
-        // trailer
-        boolean finished = chunkedRequestDone && ret == Zip.Z_STREAM_END;
-        if (finished) {
-            long p = compressOutBuffer.getWriteAddress(0);
-            Unsafe.getUnsafe().putInt(p, crc); // crc
-            Unsafe.getUnsafe().putInt(p + 4, (int) total); // total
-            compressOutBuffer.onWrite(8);
-            compressionComplete = true;
-        }
-        compressOutBuffer.prepareToReadFromBuffer(true, finished);
-    }
-
-    private void dumpBuffer(long buffer, int size) {
-        if (dumpNetworkTraffic && size > 0) {
-            StdoutSink.INSTANCE.put('<');
-            Net.dump(buffer, size);
-        }
+        compressOutBuffer.prepareToReadFromBuffer(true, encoder.isFinished());
     }
 
     private void flushSingle() throws PeerDisconnectedException, PeerIsSlowToReadException {
@@ -228,18 +205,6 @@ public class HttpResponseSink implements Closeable, Mutable {
         headerImpl.prepareToSend();
     }
 
-    private void resetZip() {
-        if (z_streamp != 0) {
-            Zip.deflateReset(z_streamp);
-            compressOutBuffer.clear();
-            crc = 0;
-            total = 0;
-            compressedHeaderDone = false;
-            compressedOutputReady = false;
-            compressionComplete = false;
-        }
-    }
-
     private void sendBuffer(ChunkBuffer sendBuf) throws PeerDisconnectedException, PeerIsSlowToReadException {
         int nSend = (int) sendBuf.getReadNAvailable();
         while (nSend > 0) {
@@ -266,6 +231,16 @@ public class HttpResponseSink implements Closeable, Mutable {
         sendBuf.clearAndPrepareToWriteToBuffer();
     }
 
+    private void setEncoder(HttpContentEncoder encoder) {
+        if (this.encoder != encoder) {
+            if (this.encoder != null) {
+                this.encoder.clear();
+            }
+            this.encoder = encoder;
+            compressOutBuffer.reopen();
+        }
+    }
+
     HttpResponseHeader getHeader() {
         return headerImpl;
     }
@@ -440,7 +415,7 @@ public class HttpResponseSink implements Closeable, Mutable {
             headersSent = true;
             chunkedRequestDone = done;
             if (buffer.getReadNAvailable() > 0 || done) {
-                if (!deflateBeforeSend) {
+                if (encoder == null) {
                     buffer.prepareToReadFromBuffer(true, chunkedRequestDone);
                 }
                 resumeSend();
@@ -463,8 +438,8 @@ public class HttpResponseSink implements Closeable, Mutable {
         @Override
         public void status(int status, CharSequence contentType) {
             super.status(status, contentType);
-            if (deflateBeforeSend) {
-                headerImpl.put("Content-Encoding: gzip").put(Misc.EOL);
+            if (encoder != null) {
+                headerImpl.put("Content-Encoding: ").put(encoder.getContentEncoding()).put(Misc.EOL);
             }
         }
     }
@@ -695,10 +670,12 @@ public class HttpResponseSink implements Closeable, Mutable {
 
     static {
         httpStatusMap.put(200, "OK");
+        httpStatusMap.put(204, "No Content");
         httpStatusMap.put(206, "Partial content");
         httpStatusMap.put(304, "Not Modified");
         httpStatusMap.put(400, "Bad request");
         httpStatusMap.put(404, "Not Found");
+        httpStatusMap.put(413, "Payload too large");
         httpStatusMap.put(416, "Request range not satisfiable");
         httpStatusMap.put(431, "Headers too large");
         httpStatusMap.put(500, "Internal server error");
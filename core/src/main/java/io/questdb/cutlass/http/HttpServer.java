@@ -95,6 +95,10 @@ public class HttpServer implements Closeable {
                         if (queryCache != null) {
                             queryCache.clear();
                         }
+                        QueryResultCache resultCache = QueryResultCache.getWeakThreadLocalInstance();
+                        if (resultCache != null) {
+                            resultCache.clear();
+                        }
                         queryCacheEventSubSeq.done(seq);
                     }
 
@@ -110,6 +114,7 @@ public class HttpServer implements Closeable {
             pool.assignThreadLocalCleaner(i, () -> {
                 httpContextFactory.freeThreadLocal();
                 Misc.free(QueryCache.getWeakThreadLocalInstance());
+                Misc.free(QueryResultCache.getWeakThreadLocalInstance());
             });
 
             pool.freeOnExit(() -> {
@@ -184,6 +189,21 @@ public class HttpServer implements Closeable {
             }
         });
 
+        final LineHttpProcessorConfiguration lineHttpProcessorConfiguration = configuration.getLineHttpProcessorConfiguration();
+        if (lineHttpProcessorConfiguration.isEnabled()) {
+            server.bind(new HttpRequestProcessorFactory() {
+                @Override
+                public String getUrl() {
+                    return "/write";
+                }
+
+                @Override
+                public HttpRequestProcessor newInstance() {
+                    return new LineHttpProcessor(cairoEngine, lineHttpProcessorConfiguration);
+                }
+            });
+        }
+
         server.bind(new HttpRequestProcessorFactory() {
             @Override
             public String getUrl() {
@@ -226,6 +246,10 @@ public class HttpServer implements Closeable {
         Misc.free(httpContextFactory);
     }
 
+    public IODispatcher<HttpConnectionContext> getDispatcher() {
+        return dispatcher;
+    }
+
     @FunctionalInterface
     public interface HttpRequestProcessorBuilder {
         HttpRequestProcessor newInstance();
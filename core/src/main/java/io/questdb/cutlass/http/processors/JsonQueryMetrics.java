@@ -33,12 +33,18 @@ public class JsonQueryMetrics {
 
     private final LongGauge cachedQueriesGauge;
     private final Counter completedQueriesCounter;
+    private final Counter resultCacheHitsCounter;
+    private final LongGauge resultCacheMemoryGauge;
+    private final Counter resultCacheMissesCounter;
     private final Counter startedQueriesCounter;
 
     public JsonQueryMetrics(MetricsRegistry metricsRegistry) {
         this.startedQueriesCounter = metricsRegistry.newCounter("json_queries");
         this.completedQueriesCounter = metricsRegistry.newCounter("json_queries_completed");
         this.cachedQueriesGauge = metricsRegistry.newLongGauge("json_queries_cached");
+        this.resultCacheHitsCounter = metricsRegistry.newCounter("json_queries_result_cache_hits");
+        this.resultCacheMissesCounter = metricsRegistry.newCounter("json_queries_result_cache_misses");
+        this.resultCacheMemoryGauge = metricsRegistry.newLongGauge("json_queries_result_cache_memory");
     }
 
     public LongGauge cachedQueriesGauge() {
@@ -54,10 +60,32 @@ public class JsonQueryMetrics {
         completedQueriesCounter.inc();
     }
 
+    public void markResultCacheHit() {
+        resultCacheHitsCounter.inc();
+    }
+
+    public void markResultCacheMiss() {
+        resultCacheMissesCounter.inc();
+    }
+
     public void markStart() {
         startedQueriesCounter.inc();
     }
 
+    @TestOnly
+    public long resultCacheHitCount() {
+        return resultCacheHitsCounter.getValue();
+    }
+
+    public LongGauge resultCacheMemoryGauge() {
+        return resultCacheMemoryGauge;
+    }
+
+    @TestOnly
+    public long resultCacheMissCount() {
+        return resultCacheMissesCounter.getValue();
+    }
+
     @TestOnly
     public long startedQueriesCount() {
         return startedQueriesCounter.getValue();
@@ -322,6 +322,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             }
         }
         // reached the end naturally?
+        state.logThroughput(context.getLastRequestBytesSent());
         readyForNextRequest(context);
     }
 
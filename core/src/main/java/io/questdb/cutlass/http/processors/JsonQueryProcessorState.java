@@ -80,6 +80,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private RecordCursor cursor;
     private long executeStartNanos;
     private boolean explain = false;
+    private long exportedRowCount;
     private boolean noMeta = false;
     private OperationFuture operationFuture;
     private boolean pausedQuery = false;
@@ -150,6 +151,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         skip = 0;
         count = 0;
         stop = 0;
+        exportedRowCount = 0;
     }
 
     @Override
@@ -259,6 +261,16 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
                 .$("`]").$();
     }
 
+    public void logThroughput(long bytesSent) {
+        final long nanos = Math.max(1, nanosecondClock.getTicks() - executeStartNanos);
+        info().$("throughput [rows=").$(exportedRowCount)
+                .$(", bytes=").$(bytesSent)
+                .$(", elapsedMicros=").$(nanos / 1000)
+                .$(", rowsPerSec=").$((long) (exportedRowCount * 1_000_000_000d / nanos))
+                .$(", bytesPerSec=").$((long) (bytesSent * 1_000_000_000d / nanos))
+                .I$();
+    }
+
     public void setCompilerNanos(long compilerNanos) {
         this.compilerNanos = compilerNanos;
     }
@@ -654,6 +666,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
                         .put('}');
             }
             socket.put('}');
+            exportedRowCount = Math.max(0, Math.min(count, stop) - skip);
             count = -1;
             socket.sendChunk(true);
             return;
@@ -814,7 +827,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         // Enable column pre-touch in REST API only when LIMIT K,N is not specified since when limit is defined
         // we do a no-op loop over the cursor to calculate the total row count and pre-touch only slows things down.
         sqlExecutionContext.setColumnPreTouchEnabled(stop == Long.MAX_VALUE);
-        this.cursor = factory.getCursor(sqlExecutionContext);
+        final QueryResultCache resultCache = queryCacheable ? QueryResultCache.getThreadLocalInstance() : null;
+        this.cursor = resultCache != null
+                ? resultCache.getCursor(query, factory, sqlExecutionContext)
+                : factory.getCursor(sqlExecutionContext);
         final RecordMetadata metadata = factory.getMetadata();
         this.queryTimestampIndex = metadata.getTimestampIndex();
         HttpRequestHeader header = httpConnectionContext.getRequestHeader();
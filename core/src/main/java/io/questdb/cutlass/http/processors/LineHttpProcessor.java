@@ -0,0 +1,125 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cutlass.http.*;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.network.PeerDisconnectedException;
+import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.network.ServerDisconnectException;
+
+import java.io.Closeable;
+
+/**
+ * Accepts InfluxDB line protocol in the request body, e.g. POST /write. The rows of a
+ * request are committed together once the whole body has been parsed; the response
+ * reports either success or the first error for the request.
+ */
+public class LineHttpProcessor implements HttpRequestProcessor, HttpContentListener, Closeable {
+    private static final CharSequence CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+    private static final Log LOG = LogFactory.getLog(LineHttpProcessor.class);
+    // Local value has to be static because each thread will have its own instance of
+    // processor. For different threads to lookup the same value from local value map the key,
+    // which is LV, has to be the same between processor instances
+    private static final LocalValue<LineHttpProcessorState> LV = new LocalValue<>();
+    private final LineHttpProcessorConfiguration configuration;
+    private final CairoEngine engine;
+    private LineHttpProcessorState transientState;
+
+    public LineHttpProcessor(CairoEngine engine, LineHttpProcessorConfiguration configuration) {
+        this.engine = engine;
+        this.configuration = configuration;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void onChunk(long lo, long hi) {
+        transientState.onChunk(lo, hi);
+    }
+
+    @Override
+    public void onHeadersReady(HttpConnectionContext context) {
+        transientState = LV.get(context);
+        if (transientState == null) {
+            LOG.debug().$("new line protocol state").$();
+            LV.set(context, transientState = new LineHttpProcessorState(engine, configuration));
+        }
+        transientState.of(context.getRequestHeader().getContentLength());
+    }
+
+    @Override
+    public void onRequestComplete(
+            HttpConnectionContext context
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
+        final LineHttpProcessorState state = LV.get(context);
+        state.process();
+        final int status = state.getStatus();
+        if (status == LineHttpProcessorState.STATUS_OK) {
+            context.simpleResponse().sendStatus(status);
+            return;
+        }
+
+        final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
+        socket.status(status, CONTENT_TYPE_JSON);
+        socket.sendHeader();
+        socket.put('{')
+                .putQuoted("code").put(':').putQuoted(toCode(status)).put(',')
+                .putQuoted("message").put(':').encodeUtf8AndQuote(state.getErrorMessage());
+        if (state.getErrorLine() > 0) {
+            socket.put(',').putQuoted("line").put(':').put(state.getErrorLine());
+        }
+        socket.put('}');
+        socket.sendChunk(true);
+    }
+
+    @Override
+    public void resumeRecv(HttpConnectionContext context) {
+        transientState = LV.get(context);
+    }
+
+    @Override
+    public void resumeSend(
+            HttpConnectionContext context
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        context.resumeResponseSend();
+    }
+
+    private static String toCode(int status) {
+        switch (status) {
+            case LineHttpProcessorState.STATUS_INVALID:
+                return "invalid";
+            case LineHttpProcessorState.STATUS_TOO_LARGE:
+                return "request too large";
+            default:
+                return "internal error";
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cutlass.line.tcp.LineTcpParser;
+import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
+import io.questdb.cutlass.line.tcp.LineWalAppender;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+class LineHttpProcessorState implements Mutable, Closeable {
+    static final int STATUS_INTERNAL_ERROR = 500;
+    static final int STATUS_INVALID = 400;
+    static final int STATUS_OK = 204;
+    static final int STATUS_TOO_LARGE = 413;
+    private static final Log LOG = LogFactory.getLog(LineHttpProcessorState.class);
+    private final LineWalAppender appender;
+    private final StringSink errorSink = new StringSink();
+    private final long maxRequestSize;
+    private final LineTcpParser parser;
+    // the buffer holds two copies of the request body, each terminated with '\n';
+    // the parser rewrites escaped values in place, so the second copy is the one
+    // being parsed while the first one is kept intact in case the body has to be replayed
+    private long buf;
+    private long bufCapacity;
+    private long bufPos;
+    private long errorLine;
+    private long size;
+    private int status;
+
+    LineHttpProcessorState(CairoEngine engine, LineHttpProcessorConfiguration configuration) {
+        final LineTcpReceiverConfiguration lineConfiguration = configuration.getLineTcpReceiverConfiguration();
+        this.maxRequestSize = configuration.getMaxRequestSize();
+        this.parser = new LineTcpParser(lineConfiguration.isStringAsTagSupported(), lineConfiguration.isSymbolAsFieldSupported());
+        this.appender = new LineWalAppender(engine, lineConfiguration);
+    }
+
+    @Override
+    public void clear() {
+        appender.rollback();
+        errorSink.clear();
+        errorLine = 0;
+        bufPos = buf;
+        size = 0;
+        status = STATUS_OK;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(appender);
+        if (buf != 0) {
+            buf = Unsafe.free(buf, bufCapacity, MemoryTag.NATIVE_HTTP_CONN);
+            bufCapacity = 0;
+            bufPos = 0;
+        }
+    }
+
+    CharSequence getErrorMessage() {
+        return errorSink;
+    }
+
+    long getErrorLine() {
+        return errorLine;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    void of(long contentLength) {
+        clear();
+        if (contentLength > maxRequestSize) {
+            status = STATUS_TOO_LARGE;
+            errorSink.put("request body is too large [size=").put(contentLength).put(", max=").put(maxRequestSize).put(']');
+            return;
+        }
+        size = contentLength;
+        final long required = 2 * (contentLength + 1);
+        if (required > bufCapacity) {
+            buf = Unsafe.realloc(buf, bufCapacity, required, MemoryTag.NATIVE_HTTP_CONN);
+            bufCapacity = required;
+        }
+        bufPos = buf;
+    }
+
+    void onChunk(long lo, long hi) {
+        if (status == STATUS_OK) {
+            final long len = Math.min(hi - lo, buf + size - bufPos);
+            Vect.memcpy(bufPos, lo, len);
+            bufPos += len;
+        }
+    }
+
+    /**
+     * Parses the whole request body and commits the rows. On failure all rows of
+     * the request are discarded and the status and error message are set.
+     */
+    void process() {
+        if (status != STATUS_OK) {
+            return;
+        }
+        final long copy = buf + size + 1;
+        Unsafe.getUnsafe().putByte(buf + size, (byte) '\n');
+        try {
+            while (!appendAll(copy)) {
+                LOG.debug().$("replaying request after adding columns").$();
+            }
+            if (status == STATUS_OK) {
+                appender.commit();
+            }
+        } catch (CairoException e) {
+            appender.rollback();
+            if (e.isCritical()) {
+                LOG.critical().$("could not write line protocol [msg=").$(e.getFlyweightMessage()).$(", errno=").$(e.getErrno()).I$();
+                status = STATUS_INTERNAL_ERROR;
+            } else {
+                LOG.error().$("could not write line protocol [msg=").$(e.getFlyweightMessage()).I$();
+                status = STATUS_INVALID;
+            }
+            errorSink.put(e.getFlyweightMessage());
+        } catch (Throwable e) {
+            appender.rollback();
+            LOG.critical().$("could not write line protocol [e=").$(e).I$();
+            status = STATUS_INTERNAL_ERROR;
+            errorSink.put(e.getMessage());
+        }
+    }
+
+    private boolean appendAll(long copy) {
+        final long hi = copy + size + 1;
+        Vect.memcpy(copy, buf, size + 1);
+        parser.of(copy);
+        long lineLo = copy;
+        while (true) {
+            switch (parser.parseMeasurement(hi)) {
+                case MEASUREMENT_COMPLETE:
+                    try {
+                        if (!appender.append(parser)) {
+                            return false;
+                        }
+                    } catch (CairoException e) {
+                        errorLine = lineNumber(copy, parser.getBufferAddress());
+                        throw e;
+                    }
+                    parser.startNextMeasurement();
+                    lineLo = parser.getBufferAddress();
+                    break;
+                case ERROR:
+                    appender.rollback();
+                    status = STATUS_INVALID;
+                    errorLine = lineNumber(copy, parser.getBufferAddress());
+                    errorSink.put("could not parse measurement, ").put(parser.getErrorCode().name()).put(" at ").put(parser.getBufferAddress() - lineLo);
+                    return true;
+                default:
+                    // BUFFER_UNDERFLOW, the rest of the body must be blank
+                    for (long p = lineLo; p < hi; p++) {
+                        final byte b = Unsafe.getUnsafe().getByte(p);
+                        if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                            appender.rollback();
+                            status = STATUS_INVALID;
+                            errorLine = lineNumber(copy, lineLo);
+                            errorSink.put("incomplete measurement");
+                            return true;
+                        }
+                    }
+                    return true;
+            }
+        }
+    }
+
+    private long lineNumber(long lo, long hi) {
+        long line = 1;
+        for (long p = lo; p < hi; p++) {
+            if (Unsafe.getUnsafe().getByte(p) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+}
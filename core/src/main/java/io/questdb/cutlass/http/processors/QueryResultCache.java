@@ -0,0 +1,536 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.Metrics;
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.cutlass.http.HttpServerConfiguration;
+import io.questdb.griffin.QueryDependencyListener;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.CharSequenceObjHashMap;
+import io.questdb.std.Chars;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Per-thread cache of materialized SELECT results. Results are kept in native memory and keyed
+ * by SQL text and bind variable values. Every entry remembers transaction and structure version
+ * of the tables the query has read, the entry is discarded as soon as any of these tables commits.
+ * Queries that read current time or random values, or do not read any table, are never cached.
+ * Memory used by the cache is bounded, the least recently used entries are evicted first.
+ */
+public final class QueryResultCache implements Closeable, QueryDependencyListener {
+    private static final Log LOG = LogFactory.getLog(QueryResultCache.class);
+    private static ThreadLocal<QueryResultCache> TL_QUERY_RESULT_CACHE;
+    private static HttpServerConfiguration httpServerConfiguration;
+    private static Metrics metrics;
+    private final BytecodeAssembler asm = new BytecodeAssembler();
+    private final EntityColumnFilter columnFilter = new EntityColumnFilter();
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    private final StringSink keySink = new StringSink();
+    private final int maxPages;
+    private final long memoryLimit;
+    private final long pageSize;
+    private final JsonQueryMetrics queryMetrics;
+    private final ObjList<TableToken> tableTokens = new ObjList<>();
+    private final LongList tableVersions = new LongList();
+    private Entry head;
+    private long memoryUsed;
+    private boolean nonDeterministic;
+    private Entry tail;
+
+    public QueryResultCache(long memoryLimit, long pageSize, JsonQueryMetrics queryMetrics) {
+        this.memoryLimit = memoryLimit;
+        this.pageSize = pageSize;
+        this.maxPages = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryLimit / pageSize));
+        this.queryMetrics = queryMetrics;
+    }
+
+    public static void configure(HttpServerConfiguration configuration, Metrics metrics) {
+        TL_QUERY_RESULT_CACHE = new ThreadLocal<>();
+        httpServerConfiguration = configuration;
+        QueryResultCache.metrics = metrics;
+    }
+
+    /**
+     * @return cache instance of the current thread or null when result cache is disabled
+     */
+    public static @Nullable QueryResultCache getThreadLocalInstance() {
+        if (TL_QUERY_RESULT_CACHE == null || !httpServerConfiguration.isQueryResultCacheEnabled()) {
+            return null;
+        }
+        QueryResultCache cache = TL_QUERY_RESULT_CACHE.get();
+        if (cache == null) {
+            TL_QUERY_RESULT_CACHE.set(
+                    cache = new QueryResultCache(
+                            httpServerConfiguration.getQueryResultCacheMemoryLimit(),
+                            httpServerConfiguration.getQueryResultCachePageSize(),
+                            metrics.jsonQuery()
+                    )
+            );
+        }
+        return cache;
+    }
+
+    public static QueryResultCache getWeakThreadLocalInstance() {
+        if (TL_QUERY_RESULT_CACHE != null) {
+            return TL_QUERY_RESULT_CACHE.get();
+        }
+        return null;
+    }
+
+    public void clear() {
+        while (tail != null) {
+            evict(tail);
+        }
+        LOG.info().$("cleared").$();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        LOG.info().$("closed").$();
+    }
+
+    /**
+     * Returns cursor over the result of the query. The result is served from the cache when none of
+     * the tables read by the query has changed since the result was cached. Otherwise, the query is
+     * executed and its result is cached, provided that it is repeatable and fits the memory limit.
+     *
+     * @param sql              query text
+     * @param factory          compiled query
+     * @param executionContext execution context, its bind variables are part of the cache key
+     * @return cursor, which must be closed by the caller
+     * @throws SqlException when query execution fails
+     */
+    public RecordCursor getCursor(
+            CharSequence sql,
+            RecordCursorFactory factory,
+            SqlExecutionContextImpl executionContext
+    ) throws SqlException {
+        if (!isCacheable(factory.getMetadata()) || !buildKey(sql, executionContext.getBindVariableService())) {
+            return factory.getCursor(executionContext);
+        }
+
+        final Entry entry = entries.get(keySink);
+        if (entry != null) {
+            if (entry.isUpToDate(executionContext)) {
+                moveToHead(entry);
+                queryMetrics.markResultCacheHit();
+                log("hit", sql);
+                return entry.newCursor();
+            }
+            evict(entry);
+        }
+        queryMetrics.markResultCacheMiss();
+        log("miss", sql);
+        return materialize(factory, executionContext);
+    }
+
+    @Override
+    public void onNonDeterministicInput() {
+        nonDeterministic = true;
+    }
+
+    @Override
+    public void onTableReader(TableReader reader) {
+        tableTokens.add(reader.getTableToken());
+        tableVersions.add(reader.getTxn(), reader.getVersion());
+    }
+
+    private static boolean isCacheable(RecordMetadata metadata) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            switch (ColumnType.tagOf(metadata.getColumnType(i))) {
+                case ColumnType.BOOLEAN:
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.CHAR:
+                case ColumnType.INT:
+                case ColumnType.LONG:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                case ColumnType.FLOAT:
+                case ColumnType.DOUBLE:
+                case ColumnType.STRING:
+                case ColumnType.SYMBOL:
+                case ColumnType.BINARY:
+                case ColumnType.LONG256:
+                case ColumnType.GEOBYTE:
+                case ColumnType.GEOSHORT:
+                case ColumnType.GEOINT:
+                case ColumnType.GEOLONG:
+                case ColumnType.LONG128:
+                case ColumnType.UUID:
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean buildKey(CharSequence sql, @Nullable BindVariableService bindVariableService) {
+        keySink.clear();
+        keySink.put(sql);
+        if (bindVariableService != null) {
+            for (int i = 0, n = bindVariableService.getIndexedVariableCount(); i < n; i++) {
+                if (!putBindVariable(bindVariableService.getFunction(i))) {
+                    return false;
+                }
+            }
+            final ObjList<CharSequence> names = bindVariableService.getNamedVariables();
+            for (int i = 0, n = names.size(); i < n; i++) {
+                final CharSequence name = names.getQuick(i);
+                keySink.put('\0').put(name);
+                if (!putBindVariable(bindVariableService.getFunction(name))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void evict(Entry entry) {
+        entries.remove(entry.key);
+        unlink(entry);
+        memoryUsed -= entry.size;
+        queryMetrics.resultCacheMemoryGauge().add(-entry.size);
+        entry.evicted = true;
+        if (entry.openCursors == 0) {
+            entry.close();
+        }
+    }
+
+    private void link(Entry entry) {
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        head = entry;
+        if (tail == null) {
+            tail = entry;
+        }
+    }
+
+    private void log(CharSequence action, CharSequence sql) {
+        LOG.info().$(action)
+                .$(" [thread=").$(Thread.currentThread().getName())
+                .$(", sql=").utf8(sql)
+                .I$();
+    }
+
+    private RecordCursor materialize(RecordCursorFactory factory, SqlExecutionContextImpl executionContext) throws SqlException {
+        tableTokens.clear();
+        tableVersions.clear();
+        nonDeterministic = false;
+        executionContext.setDependencyListener(this);
+        RecordCursor cursor = null;
+        Entry entry = null;
+        try {
+            cursor = factory.getCursor(executionContext);
+            if (nonDeterministic || tableTokens.size() == 0) {
+                return cursor;
+            }
+            entry = new Entry(Chars.toString(keySink), factory.getMetadata());
+            if (!entry.fill(cursor, executionContext.getCircuitBreaker()) || nonDeterministic) {
+                entry = Misc.free(entry);
+                cursor.toTop();
+                return cursor;
+            }
+            cursor = Misc.free(cursor);
+            register(entry);
+            return entry.newCursor();
+        } catch (Throwable th) {
+            Misc.free(entry);
+            Misc.free(cursor);
+            throw th;
+        } finally {
+            executionContext.setDependencyListener(null);
+        }
+    }
+
+    private void moveToHead(Entry entry) {
+        if (head != entry) {
+            unlink(entry);
+            link(entry);
+        }
+    }
+
+    private boolean putBindVariable(Function function) {
+        keySink.put('\0');
+        if (function == null) {
+            return true;
+        }
+        final int type = function.getType();
+        keySink.put(type).put(':');
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+                keySink.put(function.getBool(null));
+                return true;
+            case ColumnType.BYTE:
+                keySink.put(function.getByte(null));
+                return true;
+            case ColumnType.SHORT:
+                keySink.put(function.getShort(null));
+                return true;
+            case ColumnType.CHAR:
+                keySink.put(function.getChar(null));
+                return true;
+            case ColumnType.INT:
+                keySink.put(function.getInt(null));
+                return true;
+            case ColumnType.LONG:
+                keySink.put(function.getLong(null));
+                return true;
+            case ColumnType.DATE:
+                keySink.put(function.getDate(null));
+                return true;
+            case ColumnType.TIMESTAMP:
+                keySink.put(function.getTimestamp(null));
+                return true;
+            case ColumnType.FLOAT:
+                keySink.put(Float.floatToRawIntBits(function.getFloat(null)));
+                return true;
+            case ColumnType.DOUBLE:
+                keySink.put(Double.doubleToRawLongBits(function.getDouble(null)));
+                return true;
+            case ColumnType.STRING:
+                final CharSequence value = function.getStr(null);
+                if (value != null) {
+                    keySink.put('\'').put(value);
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void register(Entry entry) {
+        entries.put(entry.key, entry);
+        link(entry);
+        memoryUsed += entry.size;
+        queryMetrics.resultCacheMemoryGauge().add(entry.size);
+        while (memoryUsed > memoryLimit && tail != entry) {
+            evict(tail);
+        }
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            head = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        } else {
+            tail = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private static class CachedResultRecord extends DelegatingRecord {
+
+        // symbols are stored as strings, symbol tables of the original query are gone
+        @Override
+        public CharSequence getSym(int col) {
+            return base.getStr(col);
+        }
+
+        @Override
+        public CharSequence getSymB(int col) {
+            return base.getStrB(col);
+        }
+    }
+
+    private class CachedResultCursor implements RecordCursor {
+        private final RecordChain chain;
+        private final CachedResultRecord recordA = new CachedResultRecord();
+        private final CachedResultRecord recordB = new CachedResultRecord();
+        private final Entry entry;
+
+        private CachedResultCursor(Entry entry) {
+            this.entry = entry;
+            // reads records from the entry memory, own memory of the chain is never allocated
+            this.chain = new RecordChain(entry.columnTypes, entry.recordSink, Vm.getARWInstance(pageSize, 1, MemoryTag.NATIVE_QUERY_RESULT_CACHE));
+            recordA.of(chain.getRecord());
+            recordB.of(chain.getRecordB());
+        }
+
+        @Override
+        public void close() {
+            chain.clear();
+            entry.release(this);
+        }
+
+        @Override
+        public Record getRecord() {
+            return recordA;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordB;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return chain.hasNext();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            chain.recordAt(record == recordA ? chain.getRecord() : chain.getRecordB(), atRowId);
+        }
+
+        @Override
+        public long size() {
+            return entry.rowCount;
+        }
+
+        @Override
+        public void toTop() {
+            chain.toTop();
+        }
+
+        private void of() {
+            chain.switchTo(entry.mem);
+            chain.toTop();
+        }
+    }
+
+    private class Entry implements Closeable {
+        private final RecordChain chain;
+        private final ArrayColumnTypes columnTypes = new ArrayColumnTypes();
+        private final ObjList<CachedResultCursor> idleCursors = new ObjList<>();
+        private final String key;
+        private final MemoryARW mem;
+        private final RecordSink recordSink;
+        private final ObjList<TableToken> tableTokens = new ObjList<>();
+        private final LongList tableVersions = new LongList();
+        private boolean evicted;
+        private Entry next;
+        private int openCursors;
+        private Entry prev;
+        private long rowCount;
+        private long size;
+
+        private Entry(String key, RecordMetadata metadata) {
+            this.key = key;
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int type = metadata.getColumnType(i);
+                columnTypes.add(ColumnType.isSymbol(type) ? ColumnType.STRING : type);
+            }
+            columnFilter.of(metadata.getColumnCount());
+            // sink reads symbols of the original query as strings
+            this.recordSink = RecordSinkFactory.getInstance(asm, metadata, columnFilter, true);
+            this.mem = Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_QUERY_RESULT_CACHE);
+            this.chain = new RecordChain(columnTypes, recordSink, mem);
+        }
+
+        @Override
+        public void close() {
+            chain.close();
+            idleCursors.clear();
+        }
+
+        private boolean fill(RecordCursor cursor, SqlExecutionCircuitBreaker circuitBreaker) {
+            final Record record = cursor.getRecord();
+            long offset = -1;
+            try {
+                while (cursor.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    offset = chain.put(record, offset);
+                    rowCount++;
+                }
+            } catch (LimitOverflowException e) {
+                LOG.info().$("result exceeds cache memory limit [limit=").$(memoryLimit).I$();
+                return false;
+            }
+            tableTokens.addAll(QueryResultCache.this.tableTokens);
+            tableVersions.add(QueryResultCache.this.tableVersions);
+            size = mem.size();
+            return true;
+        }
+
+        private boolean isUpToDate(SqlExecutionContextImpl executionContext) {
+            final CairoEngine engine = executionContext.getCairoEngine();
+            for (int i = 0, n = tableTokens.size(); i < n; i++) {
+                try (TableReader reader = engine.getReader(executionContext.getCairoSecurityContext(), tableTokens.getQuick(i))) {
+                    if (reader.getTxn() != tableVersions.getQuick(2 * i) || reader.getVersion() != tableVersions.getQuick(2 * i + 1)) {
+                        return false;
+                    }
+                } catch (CairoException e) {
+                    // table is gone or cannot be read, the query will report the error
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private @NotNull RecordCursor newCursor() {
+            final int idleCount = idleCursors.size();
+            final CachedResultCursor cursor;
+            if (idleCount > 0) {
+                cursor = idleCursors.getQuick(idleCount - 1);
+                idleCursors.setPos(idleCount - 1);
+            } else {
+                cursor = new CachedResultCursor(this);
+            }
+            cursor.of();
+            openCursors++;
+            return cursor;
+        }
+
+        private void release(CachedResultCursor cursor) {
+            openCursors--;
+            if (evicted) {
+                if (openCursors == 0) {
+                    close();
+                }
+            } else {
+                idleCursors.add(cursor);
+            }
+        }
+    }
+}
@@ -62,6 +62,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     private final int doubleScale;
     private final int floatScale;
     private final Metrics metrics;
+    private final NanosecondClock nanosecondClock;
     private final SqlExecutionContextImpl sqlExecutionContext;
 
     @TestOnly
@@ -89,6 +90,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         this.doubleScale = configuration.getDoubleScale();
         this.circuitBreaker = new NetworkSqlExecutionCircuitBreaker(engine.getConfiguration().getCircuitBreakerConfiguration(), MemoryTag.NATIVE_CB4);
         this.metrics = engine.getMetrics();
+        this.nanosecondClock = engine.getConfiguration().getNanosecondClock();
     }
 
     @Override
@@ -104,6 +106,8 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         try {
             boolean isExpRequest = isExpUrl(context.getRequestHeader().getUrl());
 
+            state.executeStartNanos = nanosecondClock.getTicks();
+
             circuitBreaker.resetTimer();
             state.recordCursorFactory = QueryCache.getThreadLocalInstance().poll(state.query);
             state.setQueryCacheable(true);
@@ -388,6 +392,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             }
         }
         // reached the end naturally?
+        logThroughput(state, context.getLastRequestBytesSent());
         readyForNextRequest(context);
     }
 
@@ -416,6 +421,16 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         metrics.health().incrementUnhandledErrors();
     }
 
+    private void logThroughput(TextQueryProcessorState state, long bytesSent) {
+        final long nanos = Math.max(1, nanosecondClock.getTicks() - state.executeStartNanos);
+        info(state).$("throughput [rows=").$(state.exportedRowCount)
+                .$(", bytes=").$(bytesSent)
+                .$(", elapsedMicros=").$(nanos / 1000)
+                .$(", rowsPerSec=").$((long) (state.exportedRowCount * 1_000_000_000d / nanos))
+                .$(", bytesPerSec=").$((long) (bytesSent * 1_000_000_000d / nanos))
+                .I$();
+    }
+
     private boolean parseUrl(
             HttpChunkedResponseSocket socket,
             HttpRequestHeader request,
@@ -588,6 +603,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             TextQueryProcessorState state
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         if (state.count > -1) {
+            state.exportedRowCount = Math.max(0, Math.min(state.count, state.stop) - state.skip);
             state.count = -1;
             socket.sendChunk(true);
             return;
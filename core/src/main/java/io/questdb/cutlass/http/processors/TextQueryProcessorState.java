@@ -44,6 +44,8 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     boolean countRows = false;
     RecordCursor cursor;
     char delimiter = ',';
+    long executeStartNanos;
+    long exportedRowCount;
     String fileName;
     RecordMetadata metadata;
     boolean noMeta = false;
@@ -83,6 +85,7 @@ public class TextQueryProcessorState implements Mutable, Closeable {
         skip = 0;
         stop = 0;
         count = 0;
+        exportedRowCount = 0;
         noMeta = false;
         countRows = false;
         pausedQuery = false;
@@ -40,16 +40,21 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
     private final long bufA;
     private final long bufB;
     protected LineChannel lineChannel;
+    private int autoFlushBytes;
+    private long autoFlushIntervalNanos;
+    private int autoFlushRows;
     private boolean closed;
     private boolean enableValidation;
     private boolean hasColumns;
     private boolean hasSymbols;
     private boolean hasTable;
     private long hi;
+    private long lastFlushNanos;
     private long lineStart;
     private long lo;
     private long ptr;
     private boolean quoted = false;
+    private int rowsSinceFlush;
 
     public AbstractLineSender(LineChannel lineChannel, int capacity) {
         this.lineChannel = lineChannel;
@@ -91,6 +96,9 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
         hasTable = false;
         hasColumns = false;
         hasSymbols = false;
+        if (autoFlushRows > 0 || autoFlushBytes > 0 || autoFlushIntervalNanos > 0) {
+            autoFlushIfNecessary();
+        }
     }
 
     public final void authenticate(String keyId, PrivateKey privateKey) {
@@ -127,6 +135,22 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
         }
     }
 
+    /**
+     * Flushes buffered rows once any of the thresholds is reached. Thresholds are checked when
+     * a row is complete, zero disables the respective threshold.
+     *
+     * @param rows           number of rows since the last automatic flush
+     * @param bytes          number of buffered bytes
+     * @param intervalMillis time since the last automatic flush
+     */
+    public void configureAutoFlush(int rows, int bytes, long intervalMillis) {
+        this.autoFlushRows = rows;
+        this.autoFlushBytes = bytes;
+        this.autoFlushIntervalNanos = intervalMillis * 1_000_000L;
+        this.lastFlushNanos = System.nanoTime();
+        this.rowsSinceFlush = 0;
+    }
+
     /**
      * This is for testing only. Where we want to test server with a misbehaving client.
      */
@@ -314,6 +338,19 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
         return -1;
     }
 
+    private void autoFlushIfNecessary() {
+        final boolean flush = (autoFlushRows > 0 && ++rowsSinceFlush >= autoFlushRows)
+                || (autoFlushBytes > 0 && ptr - lo >= autoFlushBytes)
+                || (autoFlushIntervalNanos > 0 && System.nanoTime() - lastFlushNanos >= autoFlushIntervalNanos);
+        if (flush) {
+            flush();
+            rowsSinceFlush = 0;
+            if (autoFlushIntervalNanos > 0) {
+                lastFlushNanos = System.nanoTime();
+            }
+        }
+    }
+
     private byte[] receiveChallengeBytes() {
         int n = 0;
         for (; ; ) {
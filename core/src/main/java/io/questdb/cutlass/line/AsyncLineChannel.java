@@ -0,0 +1,188 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line;
+
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Channel that hands data over to a background IO thread instead of writing to the socket
+ * on the caller's thread. There are two off-heap buffers: the caller appends to one while
+ * the IO thread writes the other to the delegate channel, then they swap. The caller blocks
+ * only when its buffer is full and the IO thread is still busy with the other one.
+ * <p>
+ * Errors raised by the IO thread are reported on the next call from the caller's thread.
+ */
+public class AsyncLineChannel implements LineChannel {
+    private final int capacity;
+    private final LineChannel delegate;
+    private final Condition drained;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private final Thread thread;
+    private boolean closed;
+    private Throwable error;
+    private long fillBuf;
+    private int fillLen;
+    private boolean sending;
+    private long sendBuf;
+
+    public AsyncLineChannel(LineChannel delegate, int capacity) {
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.notEmpty = lock.newCondition();
+        this.notFull = lock.newCondition();
+        this.drained = lock.newCondition();
+        this.fillBuf = Unsafe.malloc(capacity, MemoryTag.NATIVE_ILP_RSS);
+        this.sendBuf = Unsafe.malloc(capacity, MemoryTag.NATIVE_ILP_RSS);
+        this.thread = new Thread(this::run, "questdb-line-sender-io");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            // pending data is sent unless the IO thread has already failed
+            while (error == null && (fillLen > 0 || sending)) {
+                drained.awaitUninterruptibly();
+            }
+            closed = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        fillBuf = Unsafe.free(fillBuf, capacity, MemoryTag.NATIVE_ILP_RSS);
+        sendBuf = Unsafe.free(sendBuf, capacity, MemoryTag.NATIVE_ILP_RSS);
+        Misc.free(delegate);
+    }
+
+    @Override
+    public int errno() {
+        return delegate.errno();
+    }
+
+    @Override
+    public int receive(long ptr, int len) {
+        // a reply can only follow the data sent before it
+        lock.lock();
+        try {
+            while (fillLen > 0 || sending) {
+                checkError();
+                drained.awaitUninterruptibly();
+            }
+            checkError();
+        } finally {
+            lock.unlock();
+        }
+        return delegate.receive(ptr, len);
+    }
+
+    @Override
+    public void send(long ptr, int len) {
+        lock.lock();
+        try {
+            while (len > 0) {
+                checkError();
+                final int n = Math.min(len, capacity - fillLen);
+                if (n == 0) {
+                    // back-pressure, both buffers are full
+                    notFull.awaitUninterruptibly();
+                    continue;
+                }
+                Vect.memcpy(fillBuf + fillLen, ptr, n);
+                fillLen += n;
+                ptr += n;
+                len -= n;
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkError() {
+        if (error != null) {
+            throw new LineSenderException("could not send data in background", error);
+        }
+    }
+
+    private void run() {
+        while (true) {
+            final long buf;
+            final int len;
+            lock.lock();
+            try {
+                sending = false;
+                drained.signalAll();
+                while (fillLen == 0 && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (fillLen == 0) {
+                    return;
+                }
+                buf = fillBuf;
+                len = fillLen;
+                fillBuf = sendBuf;
+                sendBuf = buf;
+                fillLen = 0;
+                sending = true;
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                delegate.send(buf, len);
+            } catch (Throwable th) {
+                lock.lock();
+                try {
+                    error = th;
+                    sending = false;
+                    notFull.signal();
+                    drained.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+}
@@ -190,6 +190,11 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return 64;
     }
 
+    @Override
+    public long getWriterRebalanceInterval() {
+        return 1000;
+    }
+
     @Override
     public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
         return SHARED_CONFIGURATION;
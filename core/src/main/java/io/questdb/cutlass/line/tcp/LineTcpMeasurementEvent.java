@@ -290,6 +290,10 @@ class LineTcpMeasurementEvent implements Closeable {
         }
     }
 
+    void createIncompleteEvent() {
+        writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_INCOMPLETE_EVENT;
+    }
+
     void createMeasurementEvent(
             TableUpdateDetails tud,
             LineTcpParser parser,
@@ -571,6 +575,11 @@ class LineTcpMeasurementEvent implements Closeable {
         writerWorkerId = tud.getWriterThreadId();
     }
 
+    void createWriterHandoffEvent(TableUpdateDetails tableUpdateDetails) {
+        writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_HANDOFF_WRITER;
+        this.tableUpdateDetails = tableUpdateDetails;
+    }
+
     void createWriterReleaseEvent(TableUpdateDetails tableUpdateDetails, boolean commitOnWriterClose) {
         writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER;
         this.tableUpdateDetails = tableUpdateDetails;
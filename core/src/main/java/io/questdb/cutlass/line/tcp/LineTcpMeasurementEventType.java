@@ -30,4 +30,8 @@ class LineTcpMeasurementEventType {
     static final int ALL_WRITERS_INCOMPLETE_EVENT = -2;
 
     static final int ALL_WRITERS_RELEASE_WRITER = -3;
+
+    // Handoff event is published to the queue of the writer thread that currently owns the table,
+    // the table moves to its new writer thread once the old one reaches this event
+    static final int ALL_WRITERS_HANDOFF_WRITER = -4;
 }
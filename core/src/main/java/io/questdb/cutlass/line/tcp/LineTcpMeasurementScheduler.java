@@ -35,6 +35,9 @@ import io.questdb.cairo.wal.WalWriter;
 import io.questdb.cutlass.line.LineProtoTimestampAdapter;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.metrics.VirtualLongGauge;
+import io.questdb.metrics.VirtualLongGaugeWithDynamicLabel;
+import io.questdb.metrics.VirtualLongGaugeWithOneLabel;
 import io.questdb.mp.MPSequence;
 import io.questdb.mp.RingQueue;
 import io.questdb.mp.SCSequence;
@@ -67,19 +70,24 @@ class LineTcpMeasurementScheduler implements Closeable {
     private final MemoryMARW ddlMem = Vm.getMARWInstance();
     private final DefaultColumnTypes defaultColumnTypes;
     private final CairoEngine engine;
+    private final long[] eventsPerSecondByWriterThread;
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> idleTableUpdateDetailsUtf16;
     private final long[] loadByWriterThread;
     private final NetworkIOJob[] netIoJobs;
     private final Path path = new Path();
     private final MPSequence[] pubSeq;
     private final RingQueue<LineTcpMeasurementEvent>[] queue;
+    private final long rebalanceInterval;
     private final CairoSecurityContext securityContext;
+    private final SCSequence[] subSeq;
     private final StringSink[] tableNameSinks;
     private final TableStructureAdapter tableStructureAdapter;
     private final ReadWriteLock tableUpdateDetailsLock = new SimpleReadWriteLock();
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf16;
     private final Telemetry<TelemetryTask> telemetry;
     private final long writerIdleTimeout;
+    private long lastRebalanceMillis;
+    private volatile long nextRebalanceMillis;
 
     LineTcpMeasurementScheduler(
             LineTcpReceiverConfiguration lineConfiguration,
@@ -118,6 +126,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         long commitInterval = configuration.getCommitInterval();
         int nWriterThreads = writerWorkerPool.getWorkerCount();
         pubSeq = new MPSequence[nWriterThreads];
+        subSeq = new SCSequence[nWriterThreads];
         //noinspection unchecked
         queue = new RingQueue[nWriterThreads];
         //noinspection unchecked
@@ -143,15 +152,16 @@ class LineTcpMeasurementScheduler implements Closeable {
             );
 
             queue[i] = q;
-            SCSequence subSeq = new SCSequence();
-            ps.then(subSeq).then(ps);
+            SCSequence ss = new SCSequence();
+            subSeq[i] = ss;
+            ps.then(ss).then(ps);
 
             assignedTables[i] = new ObjList<>();
 
             final LineTcpWriterJob lineTcpWriterJob = new LineTcpWriterJob(
                     i,
                     q,
-                    subSeq,
+                    ss,
                     milliClock,
                     commitInterval,
                     this,
@@ -163,6 +173,23 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
         this.tableStructureAdapter = new TableStructureAdapter(cairoConfiguration, defaultColumnTypes, configuration.getDefaultPartitionBy());
         writerIdleTimeout = lineConfiguration.getWriterIdleTimeout();
+        eventsPerSecondByWriterThread = new long[nWriterThreads];
+        rebalanceInterval = lineConfiguration.getWriterRebalanceInterval();
+        lastRebalanceMillis = milliClock.getTicks();
+        nextRebalanceMillis = lastRebalanceMillis + rebalanceInterval;
+
+        final CharSequence[] writerLabels = new CharSequence[nWriterThreads];
+        final VirtualLongGauge.StatProvider[] queueDepths = new VirtualLongGauge.StatProvider[nWriterThreads];
+        final VirtualLongGauge.StatProvider[] writerEventRates = new VirtualLongGauge.StatProvider[nWriterThreads];
+        for (int i = 0; i < nWriterThreads; i++) {
+            final int writerThreadId = i;
+            writerLabels[i] = Integer.toString(i);
+            queueDepths[i] = () -> getWriterQueueDepth(writerThreadId);
+            writerEventRates[i] = () -> eventsPerSecondByWriterThread[writerThreadId];
+        }
+        engine.getMetrics().addScrapable(new VirtualLongGaugeWithOneLabel("line_tcp_writer_queue_depth", "writer", writerLabels, queueDepths));
+        engine.getMetrics().addScrapable(new VirtualLongGaugeWithOneLabel("line_tcp_writer_events_per_second", "writer", writerLabels, writerEventRates));
+        engine.getMetrics().addScrapable(new VirtualLongGaugeWithDynamicLabel("line_tcp_table_events_per_second", "table", this::forEachTableEventsPerSecond));
     }
 
     @Override
@@ -190,6 +217,15 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
     }
 
+    public void completeWriterHandoff(TableUpdateDetails tud, int workerId) {
+        tud.completeWriterHandoff();
+        LOG.info()
+                .$("moved table to writer thread [tableName=").$(tud.getTableToken())
+                .$(", fromThreadId=").$(workerId)
+                .$(", toThreadId=").$(tud.getWriterThreadId())
+                .I$();
+    }
+
     public boolean doMaintenance(
             ByteCharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8,
             int readerWorkerId,
@@ -199,7 +235,8 @@ class LineTcpMeasurementScheduler implements Closeable {
             final ByteCharSequence tableNameUtf8 = tableUpdateDetailsUtf8.keys().get(n);
             final TableUpdateDetails tud = tableUpdateDetailsUtf8.get(tableNameUtf8);
 
-            if (millis - tud.getLastMeasurementMillis() >= writerIdleTimeout) {
+            // table being moved between writer threads goes idle once the move is complete
+            if (millis - tud.getLastMeasurementMillis() >= writerIdleTimeout && !tud.isWriterHandoffPending()) {
                 tableUpdateDetailsLock.writeLock().lock();
                 try {
                     if (tud.getNetworkIOOwnerCount() == 1) {
@@ -252,6 +289,32 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
     }
 
+    /**
+     * Measures event rate of every active table since the previous call and, when the busiest
+     * writer thread has deeper queue than the least busy one, moves a table between them.
+     * The table is chosen so that the event rate difference between the two threads shrinks
+     * the most. Only one table is in transit at any time.
+     */
+    public void rebalanceWriters(long millis) {
+        if (rebalanceInterval <= 0 || millis < nextRebalanceMillis) {
+            return;
+        }
+        tableUpdateDetailsLock.writeLock().lock();
+        try {
+            // another network IO thread might have done it already
+            if (millis >= nextRebalanceMillis) {
+                final long intervalMillis = millis - lastRebalanceMillis;
+                lastRebalanceMillis = millis;
+                nextRebalanceMillis = millis + rebalanceInterval;
+                if (unsafeMeasureWriterLoad(intervalMillis)) {
+                    unsafeRebalanceWriters();
+                }
+            }
+        } finally {
+            tableUpdateDetailsLock.writeLock().unlock();
+        }
+    }
+
     public void releaseWalTableDetails(ByteCharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8) {
         ObjList<ByteCharSequence> keys = tableUpdateDetailsUtf8.keys();
         for (int n = keys.size() - 1; n > -1; --n) {
@@ -338,7 +401,6 @@ class LineTcpMeasurementScheduler implements Closeable {
             for (int i = 0; i < entCount; i++) {
                 final LineTcpParser.ProtoEntity ent = parser.getEntity(i);
 
-                short entType = ent.getType();
                 int colTypeAndIndex = ld.getColumnType(i);
                 int colType = Numbers.decodeLowShort(colTypeAndIndex);
                 int columnIndex = Numbers.decodeHighShort(colTypeAndIndex);
@@ -347,229 +409,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                     continue;
                 }
 
-                switch (entType) {
-                    case LineTcpParser.ENTITY_TYPE_TAG: {
-                        if (ColumnType.tagOf(colType) == ColumnType.SYMBOL) {
-                            r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
-                        } else {
-                            throw castError("tag", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_INTEGER: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.LONG:
-                                r.putLong(columnIndex, ent.getLongValue());
-                                break;
-
-                            case ColumnType.INT: {
-                                final long entityValue = ent.getLongValue();
-                                if (entityValue >= Integer.MIN_VALUE && entityValue <= Integer.MAX_VALUE) {
-                                    r.putInt(columnIndex, (int) entityValue);
-                                } else if (entityValue == Numbers.LONG_NaN) {
-                                    r.putInt(columnIndex, Numbers.INT_NaN);
-                                } else {
-                                    throw boundsError(entityValue, i, ColumnType.INT);
-                                }
-                                break;
-                            }
-                            case ColumnType.SHORT: {
-                                final long entityValue = ent.getLongValue();
-                                if (entityValue >= Short.MIN_VALUE && entityValue <= Short.MAX_VALUE) {
-                                    r.putShort(columnIndex, (short) entityValue);
-                                } else if (entityValue == Numbers.LONG_NaN) {
-                                    r.putShort(columnIndex, (short) 0);
-                                } else {
-                                    throw boundsError(entityValue, i, ColumnType.SHORT);
-                                }
-                                break;
-                            }
-                            case ColumnType.BYTE: {
-                                final long entityValue = ent.getLongValue();
-                                if (entityValue >= Byte.MIN_VALUE && entityValue <= Byte.MAX_VALUE) {
-                                    r.putByte(columnIndex, (byte) entityValue);
-                                } else if (entityValue == Numbers.LONG_NaN) {
-                                    r.putByte(columnIndex, (byte) 0);
-                                } else {
-                                    throw boundsError(entityValue, i, ColumnType.BYTE);
-                                }
-                                break;
-                            }
-                            case ColumnType.TIMESTAMP:
-                                r.putTimestamp(columnIndex, ent.getLongValue());
-                                break;
-
-                            case ColumnType.DATE:
-                                r.putDate(columnIndex, ent.getLongValue());
-                                break;
-
-                            case ColumnType.DOUBLE:
-                                r.putDouble(columnIndex, ent.getLongValue());
-                                break;
-
-                            case ColumnType.FLOAT:
-                                r.putFloat(columnIndex, ent.getLongValue());
-                                break;
-
-                            case ColumnType.SYMBOL:
-                                r.putSym(columnIndex, ent.getValue());
-                                break;
-
-                            default:
-                                throw castError("integer", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_FLOAT: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.DOUBLE:
-                                r.putDouble(columnIndex, ent.getFloatValue());
-                                break;
-
-                            case ColumnType.FLOAT:
-                                r.putFloat(columnIndex, (float) ent.getFloatValue());
-                                break;
-
-                            case ColumnType.SYMBOL:
-                                r.putSym(columnIndex, ent.getValue());
-                                break;
-
-                            default:
-                                throw castError("float", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_STRING: {
-                        final int geoHashBits = ColumnType.getGeoHashBits(colType);
-                        final DirectByteCharSequence entityValue = ent.getValue();
-                        if (geoHashBits == 0) { // not geohash
-                            switch (ColumnType.tagOf(colType)) {
-                                case ColumnType.STRING:
-                                    r.putStrUtf8AsUtf16(columnIndex, entityValue, parser.hasNonAsciiChars());
-                                    break;
-
-                                case ColumnType.CHAR:
-                                    if (entityValue.length() == 1 && entityValue.byteAt(0) > -1) {
-                                        r.putChar(columnIndex, entityValue.charAt(0));
-                                    } else if (stringToCharCastAllowed) {
-                                        int encodedResult = Chars.utf8CharDecode(entityValue.getLo(), entityValue.getHi());
-                                        if (Numbers.decodeLowShort(encodedResult) > 0) {
-                                            r.putChar(columnIndex, (char) Numbers.decodeHighShort(encodedResult));
-                                        } else {
-                                            throw castError("string", i, colType, ent.getName());
-                                        }
-                                    } else {
-                                        throw castError("string", i, colType, ent.getName());
-                                    }
-                                    break;
-
-                                case ColumnType.SYMBOL:
-                                    r.putSymUtf8(columnIndex, entityValue, parser.hasNonAsciiChars());
-                                    break;
-                                case ColumnType.UUID:
-                                    r.putUuid(columnIndex, entityValue);
-                                    break;
-                                default:
-                                    throw castError("string", i, colType, ent.getName());
-                            }
-                        } else {
-                            long geoHash;
-                            try {
-                                DirectByteCharSequence value = ent.getValue();
-                                geoHash = GeoHashes.fromStringTruncatingNl(value.getLo(), value.getHi(), geoHashBits);
-                            } catch (NumericException e) {
-                                geoHash = GeoHashes.NULL;
-                            }
-                            r.putGeoHash(columnIndex, geoHash);
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_LONG256: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.LONG256:
-                                r.putLong256(columnIndex, ent.getValue());
-                                break;
-
-                            case ColumnType.SYMBOL:
-                                r.putSym(columnIndex, ent.getValue());
-                                break;
-
-                            default:
-                                throw castError("long256", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_BOOLEAN: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.BOOLEAN:
-                                r.putBool(columnIndex, ent.getBooleanValue());
-                                break;
-
-                            case ColumnType.BYTE:
-                                r.putByte(columnIndex, (byte) (ent.getBooleanValue() ? 1 : 0));
-                                break;
-
-                            case ColumnType.SHORT:
-                                r.putShort(columnIndex, (short) (ent.getBooleanValue() ? 1 : 0));
-                                break;
-
-                            case ColumnType.INT:
-                                r.putInt(columnIndex, ent.getBooleanValue() ? 1 : 0);
-                                break;
-
-                            case ColumnType.LONG:
-                                r.putLong(columnIndex, ent.getBooleanValue() ? 1 : 0);
-                                break;
-
-                            case ColumnType.FLOAT:
-                                r.putFloat(columnIndex, ent.getBooleanValue() ? 1 : 0);
-                                break;
-
-                            case ColumnType.DOUBLE:
-                                r.putDouble(columnIndex, ent.getBooleanValue() ? 1 : 0);
-                                break;
-
-                            case ColumnType.SYMBOL:
-                                r.putSym(columnIndex, ent.getValue());
-                                break;
-
-                            default:
-                                throw castError("boolean", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_TIMESTAMP: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.TIMESTAMP:
-                                r.putTimestamp(columnIndex, ent.getLongValue());
-                                break;
-
-                            case ColumnType.DATE:
-                                r.putTimestamp(columnIndex, ent.getLongValue() / 1000);
-                                break;
-
-                            case ColumnType.SYMBOL:
-                                r.putSym(columnIndex, ent.getValue());
-                                break;
-
-                            default:
-                                throw castError("timestamp", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    // parser would reject this condition based on config
-                    case LineTcpParser.ENTITY_TYPE_SYMBOL: {
-                        if (ColumnType.tagOf(colType) == ColumnType.SYMBOL) {
-                            r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
-                        } else {
-                            throw castError("symbol", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    default:
-                        // unsupported types are ignored
-                        break;
-                }
+                LineWalAppender.putValue(r, columnIndex, colType, ent, i, parser.hasNonAsciiChars(), stringToCharCastAllowed);
             }
             r.append();
             tud.commitIfMaxUncommittedRowsCountReached();
@@ -592,14 +432,26 @@ class LineTcpMeasurementScheduler implements Closeable {
     }
 
     private boolean dispatchEvent(NetworkIOJob netIoJob, LineTcpParser parser, TableUpdateDetails tud) {
+        if (tud.isWriterHandoffPending()) {
+            // table is moving to another writer thread, treat it as a full queue and retry later
+            return true;
+        }
         final int writerThreadId = tud.getWriterThreadId();
         long seq = getNextPublisherEventSequence(writerThreadId);
         if (seq > -1) {
+            final LineTcpMeasurementEvent event = queue[writerThreadId].get(seq);
             try {
+                // handoff could have started after the first check, in which case the handoff event
+                // may precede this slot in the queue; the slot is skipped by the writer and the
+                // measurement is published once the table settles on its new writer thread
+                if (tud.isWriterHandoffPending() || tud.getWriterThreadId() != writerThreadId) {
+                    event.createIncompleteEvent();
+                    return true;
+                }
                 if (tud.isWriterInError()) {
                     throw CairoException.critical(0).put("writer is in error, aborting ILP pipeline");
                 }
-                queue[writerThreadId].get(seq).createMeasurementEvent(tud, parser, netIoJob.getWorkerId());
+                event.createMeasurementEvent(tud, parser, netIoJob.getWorkerId());
             } finally {
                 pubSeq[writerThreadId].done(seq);
             }
@@ -609,6 +461,21 @@ class LineTcpMeasurementScheduler implements Closeable {
         return true;
     }
 
+    private void forEachTableEventsPerSecond(VirtualLongGaugeWithDynamicLabel.SampleConsumer consumer) {
+        tableUpdateDetailsLock.readLock().lock();
+        try {
+            ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
+            for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+                final TableUpdateDetails tud = tableUpdateDetailsUtf16.get(tableNames.getQuick(n));
+                if (tud != null) {
+                    consumer.onSample(tud.getTableNameUtf16(), tud.getEventsPerSecond());
+                }
+            }
+        } finally {
+            tableUpdateDetailsLock.readLock().unlock();
+        }
+    }
+
     private TableUpdateDetails getTableUpdateDetailsFromSharedArea(
             @NotNull NetworkIOJob netIoJob,
             @NotNull LineTcpConnectionContext ctx,
@@ -705,6 +572,10 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
     }
 
+    private long getWriterQueueDepth(int writerThreadId) {
+        return Math.max(0, pubSeq[writerThreadId].current() - subSeq[writerThreadId].current());
+    }
+
     private boolean isOpen() {
         return null != pubSeq;
     }
@@ -753,6 +624,88 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
     }
 
+    private void unsafeHandoffTable(TableUpdateDetails tud, int fromThreadId, int toThreadId) {
+        // pending handoff has to be visible before the handoff event is claimed, network IO threads
+        // that claim slots after it will find the flag set and back off
+        tud.startWriterHandoff(toThreadId);
+        final long seq = getNextPublisherEventSequence(fromThreadId);
+        if (seq > -1) {
+            LOG.info()
+                    .$("moving table to writer thread [tableName=").$(tud.getTableToken())
+                    .$(", fromThreadId=").$(fromThreadId)
+                    .$(", toThreadId=").$(toThreadId)
+                    .$(", eventsPerSecond=").$(tud.getEventsPerSecond())
+                    .I$();
+            queue[fromThreadId].get(seq).createWriterHandoffEvent(tud);
+            pubSeq[fromThreadId].done(seq);
+        } else {
+            // queue is full, nothing has been published, try again on the next interval
+            tud.cancelWriterHandoff();
+        }
+    }
+
+    /**
+     * Updates event rates of active tables and their writer threads.
+     *
+     * @return false when a table is still moving between writer threads
+     */
+    private boolean unsafeMeasureWriterLoad(long intervalMillis) {
+        Arrays.fill(eventsPerSecondByWriterThread, 0);
+        boolean settled = true;
+        ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
+        for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+            final TableUpdateDetails tud = tableUpdateDetailsUtf16.get(tableNames.getQuick(n));
+            if (tud != null) {
+                final long eventsPerSecond = tud.measureEventsPerSecond(intervalMillis);
+                final int writerThreadId = tud.getWriterThreadId();
+                if (writerThreadId > -1) {
+                    eventsPerSecondByWriterThread[writerThreadId] += eventsPerSecond;
+                }
+                settled &= !tud.isWriterHandoffPending();
+            }
+        }
+        return settled;
+    }
+
+    private void unsafeRebalanceWriters() {
+        int busiestThreadId = 0;
+        int idlestThreadId = 0;
+        for (int i = 1, n = eventsPerSecondByWriterThread.length; i < n; i++) {
+            if (eventsPerSecondByWriterThread[i] > eventsPerSecondByWriterThread[busiestThreadId]) {
+                busiestThreadId = i;
+            }
+            if (eventsPerSecondByWriterThread[i] < eventsPerSecondByWriterThread[idlestThreadId]) {
+                idlestThreadId = i;
+            }
+        }
+
+        final long imbalance = eventsPerSecondByWriterThread[busiestThreadId] - eventsPerSecondByWriterThread[idlestThreadId];
+        // writer keeping up with its queue does not need help
+        if (imbalance == 0 || getWriterQueueDepth(busiestThreadId) <= getWriterQueueDepth(idlestThreadId)) {
+            return;
+        }
+
+        // the move has to cut the imbalance by at least a quarter, otherwise
+        // tables would keep bouncing between threads on noise
+        long bestImbalance = imbalance - (imbalance >> 2);
+        TableUpdateDetails candidate = null;
+        ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
+        for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+            final TableUpdateDetails tud = tableUpdateDetailsUtf16.get(tableNames.getQuick(n));
+            if (tud != null && tud.getWriterThreadId() == busiestThreadId && !tud.isWriterInError()) {
+                final long newImbalance = Math.abs(imbalance - 2 * tud.getEventsPerSecond());
+                if (newImbalance < bestImbalance) {
+                    bestImbalance = newImbalance;
+                    candidate = tud;
+                }
+            }
+        }
+
+        if (candidate != null) {
+            unsafeHandoffTable(candidate, busiestThreadId, idlestThreadId);
+        }
+    }
+
     protected NetworkIOJob createNetworkIOJob(IODispatcher<LineTcpConnectionContext> dispatcher, int workerId) {
         return new LineTcpNetworkIOJob(configuration, this, dispatcher, workerId);
     }
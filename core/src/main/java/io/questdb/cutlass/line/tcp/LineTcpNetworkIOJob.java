@@ -117,6 +117,8 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
     @Override
     public boolean run(int workerId, @NotNull RunStatus runStatus) {
         assert this.workerId == workerId;
+        // rebalancing has to happen while connections are stalled on a full writer queue
+        scheduler.rebalanceWriters(millisecondClock.getTicks());
         boolean busy = false;
         if (busyContext != null) {
             if (handleIO(busyContext)) {
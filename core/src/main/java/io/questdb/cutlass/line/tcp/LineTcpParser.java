@@ -66,6 +66,13 @@ public class LineTcpParser {
     private static final byte ENTITY_HANDLER_TIMESTAMP = 3;
     private static final byte ENTITY_HANDLER_VALUE = 2;
     private static final Log LOG = LogFactory.getLog(LineTcpParser.class);
+    // SWAR (SIMD within a register) masks used to scan 8 bytes at a time
+    private static final long SWAR_BACKSLASH = broadcast('\\');
+    private static final long SWAR_EQUALS = broadcast('=');
+    private static final long SWAR_HIGH_BITS = 0x8080808080808080L;
+    private static final long SWAR_LOW_BITS = 0x0101010101010101L;
+    // all control chars other than '=' and '\\' are below '0'
+    private static final long SWAR_ZERO = broadcast('0');
     private static final boolean[] controlChars;
     private final DirectByteCharSequence charSeq = new DirectByteCharSequence();
     private final ObjList<ProtoEntity> entityCache = new ObjList<>();
@@ -159,9 +166,9 @@ public class LineTcpParser {
             byte b = Unsafe.getUnsafe().getByte(bufAt);
 
             if (nEscapedChars == 0 && b >= 0 && !controlChars[b]) {
-                // hot path
+                // hot path, jump over the rest of the token in 8-byte steps
                 nextValueCanBeOpenQuote = false;
-                bufAt++;
+                bufAt = skipPlainBytes(bufAt + 1, bufHi);
                 continue;
             }
 
@@ -323,6 +330,45 @@ public class LineTcpParser {
         hasNonAscii = false;
     }
 
+    private static long broadcast(char c) {
+        return SWAR_LOW_BITS * c;
+    }
+
+    /**
+     * Returns a mask with the high bit set in the lowest byte of the word that may need the
+     * slow path: a non-ASCII byte, '=', '\\' or any byte below '0', which covers the rest of
+     * the control characters. Some plain bytes, such as '.' or '-', are flagged too, the
+     * parser then checks them against controlChars one by one. Bytes above the lowest match
+     * may be flagged spuriously, which is harmless since only the lowest match is used.
+     */
+    private static long controlByteMask(long word) {
+        return (word & SWAR_HIGH_BITS)
+                | ((word - SWAR_ZERO) & ~word & SWAR_HIGH_BITS)
+                | zeroByteMask(word ^ SWAR_EQUALS)
+                | zeroByteMask(word ^ SWAR_BACKSLASH);
+    }
+
+    /**
+     * Skips bytes that the hot path of the parser would skip one by one, i.e. ASCII bytes
+     * that are not in controlChars. Returns the address of the first byte that may need the
+     * slow path or the address where fewer than 8 bytes are left to scan.
+     */
+    private static long skipPlainBytes(long lo, long hi) {
+        while (lo + Long.BYTES <= hi) {
+            final long mask = controlByteMask(Unsafe.getUnsafe().getLong(lo));
+            if (mask != 0) {
+                // little-endian, the lowest address is the lowest byte
+                return lo + (Long.numberOfTrailingZeros(mask) >>> 3);
+            }
+            lo += Long.BYTES;
+        }
+        return lo;
+    }
+
+    private static long zeroByteMask(long word) {
+        return (word - SWAR_LOW_BITS) & ~word & SWAR_HIGH_BITS;
+    }
+
     private boolean completeEntity(byte endOfEntityByte, long bufHi) {
         switch (entityHandler) {
             case ENTITY_HANDLER_TABLE:
@@ -700,6 +746,7 @@ public class LineTcpParser {
     }
 
     static {
+        // controlByteMask() must flag all of these
         char[] chars = new char[]{'\n', '\r', '=', ',', ' ', '\\', '"', '\0', '/'};
         controlChars = new boolean[Byte.MAX_VALUE];
         for (char ch : chars) {
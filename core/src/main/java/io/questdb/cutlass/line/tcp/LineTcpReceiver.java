@@ -71,6 +71,7 @@ public class LineTcpReceiver implements Closeable {
                 contextFactory
         );
         ioWorkerPool.assign(dispatcher);
+        metrics.addDispatcher("line_tcp", dispatcher);
         this.scheduler = new LineTcpMeasurementScheduler(configuration, engine, ioWorkerPool, dispatcher, writerWorkerPool);
 
         for (int i = 0, n = ioWorkerPool.getWorkerCount(); i < n; i++) {
@@ -93,6 +93,15 @@ public interface LineTcpReceiverConfiguration {
 
     int getWriterQueueCapacity();
 
+    /**
+     * Interval in milliseconds between measurements of per table event rates. After each
+     * measurement the busiest table of a lagging writer thread may be moved to the least
+     * loaded one. Zero or negative value disables rebalancing.
+     *
+     * @return interval in milliseconds
+     */
+    long getWriterRebalanceInterval();
+
     WorkerPoolConfiguration getWriterWorkerPoolConfiguration();
 
     boolean isEnabled();
@@ -177,10 +177,10 @@ class LineTcpWriterJob implements Job, Closeable {
                         event.createWriterReleaseEvent(tud, false);
                         // This is a critical error, so we treat it as an unhandled one.
                     }
-                } else {
-                    if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
-                        closeWriter = true;
-                    }
+                } else if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
+                    closeWriter = true;
+                } else if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_HANDOFF_WRITER) {
+                    handoffTable(tud);
                 }
 
                 if (closeWriter && tud.getWriter() != null) {
@@ -197,6 +197,29 @@ class LineTcpWriterJob implements Job, Closeable {
         }
     }
 
+    private void handoffTable(TableUpdateDetails tud) {
+        // all events published to this thread before the handoff have been processed,
+        // uncommitted rows are committed here so that the new writer thread starts clean
+        if (tud.isAssignedToJob()) {
+            try {
+                if (!tud.isWriterInError() && tud.getWriter() != null) {
+                    tud.commit(false);
+                }
+            } catch (Throwable ex) {
+                tud.setWriterInError();
+                LOG.critical()
+                        .$("commit failed on writer handoff [table=").$(tud.getTableToken())
+                        .$(",ex=").$(ex)
+                        .I$();
+                metrics.health().incrementUnhandledErrors();
+            }
+            assignedTables.remove(tud);
+            tud.setAssignedToJob(false);
+            nextCommitTime = millisecondClock.getTicks();
+        }
+        scheduler.completeWriterHandoff(tud, workerId);
+    }
+
     private void tickWriters() {
         for (int n = 0, sz = assignedTables.size(); n < sz; n++) {
             assignedTables.getQuick(n).tick();
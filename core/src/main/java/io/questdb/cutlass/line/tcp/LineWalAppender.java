@@ -0,0 +1,509 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.TableRecordMetadata;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.cairo.wal.WalWriter;
+import io.questdb.cutlass.line.LineProtoTimestampAdapter;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+import static io.questdb.cutlass.line.tcp.LineTcpMeasurementEvent.boundsError;
+import static io.questdb.cutlass.line.tcp.LineTcpMeasurementEvent.castError;
+
+/**
+ * Appends parsed ILP measurements directly to WAL writers on the calling thread. Rows are
+ * buffered in the writers until {@link #commit()} is called, which allows the caller to
+ * commit a batch of measurements, such as the body of an HTTP request, in one go.
+ */
+public class LineWalAppender implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(LineWalAppender.class);
+    private final boolean autoCreateNewColumns;
+    private final boolean autoCreateNewTables;
+    private final StringSink columnNameUtf16 = new StringSink();
+    private final MemoryMARW ddlMem = Vm.getMARWInstance();
+    private final DefaultColumnTypes defaultColumnTypes;
+    private final CairoEngine engine;
+    private final int maxFileNameLength;
+    private final MicrosecondClock microsecondClock;
+    private final Path path = new Path();
+    private final IntHashSet processedColumns = new IntHashSet();
+    private final CairoSecurityContext securityContext;
+    private final boolean stringToCharCastAllowed;
+    private final StringSink tableNameUtf16 = new StringSink();
+    private final TableStructureAdapter tableStructureAdapter;
+    private final LineProtoTimestampAdapter timestampAdapter;
+    private final ObjList<WalWriter> writerList = new ObjList<>();
+    private final LowerCaseCharSequenceObjHashMap<WalWriter> writers = new LowerCaseCharSequenceObjHashMap<>();
+
+    public LineWalAppender(CairoEngine engine, LineTcpReceiverConfiguration configuration) {
+        this.engine = engine;
+        this.autoCreateNewColumns = configuration.getAutoCreateNewColumns();
+        this.autoCreateNewTables = configuration.getAutoCreateNewTables();
+        this.maxFileNameLength = configuration.getMaxFileNameLength();
+        this.microsecondClock = configuration.getMicrosecondClock();
+        this.securityContext = configuration.getCairoSecurityContext();
+        this.stringToCharCastAllowed = configuration.isStringToCharCastAllowed();
+        this.timestampAdapter = configuration.getTimestampAdapter();
+        this.defaultColumnTypes = new DefaultColumnTypes(configuration);
+        this.tableStructureAdapter = new TableStructureAdapter(
+                engine.getConfiguration(),
+                defaultColumnTypes,
+                configuration.getDefaultPartitionBy()
+        );
+    }
+
+    public static void putValue(
+            TableWriter.Row r,
+            int columnIndex,
+            int colType,
+            LineTcpParser.ProtoEntity ent,
+            int entityIndex,
+            boolean hasNonAsciiChars,
+            boolean stringToCharCastAllowed
+    ) {
+        switch (ent.getType()) {
+            case LineTcpParser.ENTITY_TYPE_TAG: {
+                if (ColumnType.tagOf(colType) == ColumnType.SYMBOL) {
+                    r.putSymUtf8(columnIndex, ent.getValue(), hasNonAsciiChars);
+                } else {
+                    throw castError("tag", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            case LineTcpParser.ENTITY_TYPE_INTEGER: {
+                switch (ColumnType.tagOf(colType)) {
+                    case ColumnType.LONG:
+                        r.putLong(columnIndex, ent.getLongValue());
+                        break;
+
+                    case ColumnType.INT: {
+                        final long entityValue = ent.getLongValue();
+                        if (entityValue >= Integer.MIN_VALUE && entityValue <= Integer.MAX_VALUE) {
+                            r.putInt(columnIndex, (int) entityValue);
+                        } else if (entityValue == Numbers.LONG_NaN) {
+                            r.putInt(columnIndex, Numbers.INT_NaN);
+                        } else {
+                            throw boundsError(entityValue, entityIndex, ColumnType.INT);
+                        }
+                        break;
+                    }
+                    case ColumnType.SHORT: {
+                        final long entityValue = ent.getLongValue();
+                        if (entityValue >= Short.MIN_VALUE && entityValue <= Short.MAX_VALUE) {
+                            r.putShort(columnIndex, (short) entityValue);
+                        } else if (entityValue == Numbers.LONG_NaN) {
+                            r.putShort(columnIndex, (short) 0);
+                        } else {
+                            throw boundsError(entityValue, entityIndex, ColumnType.SHORT);
+                        }
+                        break;
+                    }
+                    case ColumnType.BYTE: {
+                        final long entityValue = ent.getLongValue();
+                        if (entityValue >= Byte.MIN_VALUE && entityValue <= Byte.MAX_VALUE) {
+                            r.putByte(columnIndex, (byte) entityValue);
+                        } else if (entityValue == Numbers.LONG_NaN) {
+                            r.putByte(columnIndex, (byte) 0);
+                        } else {
+                            throw boundsError(entityValue, entityIndex, ColumnType.BYTE);
+                        }
+                        break;
+                    }
+                    case ColumnType.TIMESTAMP:
+                        r.putTimestamp(columnIndex, ent.getLongValue());
+                        break;
+
+                    case ColumnType.DATE:
+                        r.putDate(columnIndex, ent.getLongValue());
+                        break;
+
+                    case ColumnType.DOUBLE:
+                        r.putDouble(columnIndex, ent.getLongValue());
+                        break;
+
+                    case ColumnType.FLOAT:
+                        r.putFloat(columnIndex, ent.getLongValue());
+                        break;
+
+                    case ColumnType.SYMBOL:
+                        r.putSym(columnIndex, ent.getValue());
+                        break;
+
+                    default:
+                        throw castError("integer", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            case LineTcpParser.ENTITY_TYPE_FLOAT: {
+                switch (ColumnType.tagOf(colType)) {
+                    case ColumnType.DOUBLE:
+                        r.putDouble(columnIndex, ent.getFloatValue());
+                        break;
+
+                    case ColumnType.FLOAT:
+                        r.putFloat(columnIndex, (float) ent.getFloatValue());
+                        break;
+
+                    case ColumnType.SYMBOL:
+                        r.putSym(columnIndex, ent.getValue());
+                        break;
+
+                    default:
+                        throw castError("float", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            case LineTcpParser.ENTITY_TYPE_STRING: {
+                final int geoHashBits = ColumnType.getGeoHashBits(colType);
+                final DirectByteCharSequence entityValue = ent.getValue();
+                if (geoHashBits == 0) { // not geohash
+                    switch (ColumnType.tagOf(colType)) {
+                        case ColumnType.STRING:
+                            r.putStrUtf8AsUtf16(columnIndex, entityValue, hasNonAsciiChars);
+                            break;
+
+                        case ColumnType.CHAR:
+                            if (entityValue.length() == 1 && entityValue.byteAt(0) > -1) {
+                                r.putChar(columnIndex, entityValue.charAt(0));
+                            } else if (stringToCharCastAllowed) {
+                                int encodedResult = Chars.utf8CharDecode(entityValue.getLo(), entityValue.getHi());
+                                if (Numbers.decodeLowShort(encodedResult) > 0) {
+                                    r.putChar(columnIndex, (char) Numbers.decodeHighShort(encodedResult));
+                                } else {
+                                    throw castError("string", entityIndex, colType, ent.getName());
+                                }
+                            } else {
+                                throw castError("string", entityIndex, colType, ent.getName());
+                            }
+                            break;
+
+                        case ColumnType.SYMBOL:
+                            r.putSymUtf8(columnIndex, entityValue, hasNonAsciiChars);
+                            break;
+                        case ColumnType.UUID:
+                            r.putUuid(columnIndex, entityValue);
+                            break;
+                        default:
+                            throw castError("string", entityIndex, colType, ent.getName());
+                    }
+                } else {
+                    long geoHash;
+                    try {
+                        DirectByteCharSequence value = ent.getValue();
+                        geoHash = GeoHashes.fromStringTruncatingNl(value.getLo(), value.getHi(), geoHashBits);
+                    } catch (NumericException e) {
+                        geoHash = GeoHashes.NULL;
+                    }
+                    r.putGeoHash(columnIndex, geoHash);
+                }
+                break;
+            }
+            case LineTcpParser.ENTITY_TYPE_LONG256: {
+                switch (ColumnType.tagOf(colType)) {
+                    case ColumnType.LONG256:
+                        r.putLong256(columnIndex, ent.getValue());
+                        break;
+
+                    case ColumnType.SYMBOL:
+                        r.putSym(columnIndex, ent.getValue());
+                        break;
+
+                    default:
+                        throw castError("long256", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            case LineTcpParser.ENTITY_TYPE_BOOLEAN: {
+                switch (ColumnType.tagOf(colType)) {
+                    case ColumnType.BOOLEAN:
+                        r.putBool(columnIndex, ent.getBooleanValue());
+                        break;
+
+                    case ColumnType.BYTE:
+                        r.putByte(columnIndex, (byte) (ent.getBooleanValue() ? 1 : 0));
+                        break;
+
+                    case ColumnType.SHORT:
+                        r.putShort(columnIndex, (short) (ent.getBooleanValue() ? 1 : 0));
+                        break;
+
+                    case ColumnType.INT:
+                        r.putInt(columnIndex, ent.getBooleanValue() ? 1 : 0);
+                        break;
+
+                    case ColumnType.LONG:
+                        r.putLong(columnIndex, ent.getBooleanValue() ? 1 : 0);
+                        break;
+
+                    case ColumnType.FLOAT:
+                        r.putFloat(columnIndex, ent.getBooleanValue() ? 1 : 0);
+                        break;
+
+                    case ColumnType.DOUBLE:
+                        r.putDouble(columnIndex, ent.getBooleanValue() ? 1 : 0);
+                        break;
+
+                    case ColumnType.SYMBOL:
+                        r.putSym(columnIndex, ent.getValue());
+                        break;
+
+                    default:
+                        throw castError("boolean", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            case LineTcpParser.ENTITY_TYPE_TIMESTAMP: {
+                switch (ColumnType.tagOf(colType)) {
+                    case ColumnType.TIMESTAMP:
+                        r.putTimestamp(columnIndex, ent.getLongValue());
+                        break;
+
+                    case ColumnType.DATE:
+                        r.putTimestamp(columnIndex, ent.getLongValue() / 1000);
+                        break;
+
+                    case ColumnType.SYMBOL:
+                        r.putSym(columnIndex, ent.getValue());
+                        break;
+
+                    default:
+                        throw castError("timestamp", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            // parser would reject this condition based on config
+            case LineTcpParser.ENTITY_TYPE_SYMBOL: {
+                if (ColumnType.tagOf(colType) == ColumnType.SYMBOL) {
+                    r.putSymUtf8(columnIndex, ent.getValue(), hasNonAsciiChars);
+                } else {
+                    throw castError("symbol", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            default:
+                // unsupported types are ignored
+                break;
+        }    }
+
+    /**
+     * Appends the measurement the parser is positioned on. Tables are created on demand.
+     * Adding a column to a WAL writer requires an empty transaction, so when the
+     * measurement needs a new column and the writers already hold uncommitted rows, all
+     * pending rows are rolled back, the column is added and the method returns false.
+     * The caller is then expected to replay the whole batch from the beginning.
+     *
+     * @param parser parser positioned on a complete measurement
+     * @return true when the row has been appended, false when the batch has to be replayed
+     */
+    public boolean append(LineTcpParser parser) {
+        final WalWriter writer = getWriter(parser);
+        final TableRecordMetadata metadata = writer.getMetadata();
+        final boolean hasNonAsciiChars = parser.hasNonAsciiChars();
+
+        long timestamp = parser.getTimestamp();
+        if (timestamp != LineTcpParser.NULL_TIMESTAMP) {
+            timestamp = timestampAdapter.getMicros(timestamp);
+        } else {
+            timestamp = microsecondClock.getTicks();
+        }
+
+        // pass 1: make sure all columns exist and resolve the designated timestamp
+        processedColumns.clear();
+        final int entCount = parser.getEntityCount();
+        for (int i = 0; i < entCount; i++) {
+            final LineTcpParser.ProtoEntity ent = parser.getEntity(i);
+            final CharSequence columnName = Chars.utf8ToUtf16(ent.getName(), columnNameUtf16, hasNonAsciiChars);
+            int columnIndex = metadata.getColumnIndexQuiet(columnName);
+            if (columnIndex < 0) {
+                if (!autoCreateNewColumns) {
+                    throw CairoException.nonCritical()
+                            .put("column does not exist, creating new columns is disabled [table=").put(writer.getTableToken().getTableName())
+                            .put(", columnName=").put(columnName)
+                            .put(']');
+                }
+                if (!TableUtils.isValidColumnName(columnName, maxFileNameLength)) {
+                    throw CairoException.nonCritical()
+                            .put("invalid column name [table=").put(writer.getTableToken().getTableName())
+                            .put(", columnName=").put(columnName)
+                            .put(']');
+                }
+                final int columnType = defaultColumnTypes.DEFAULT_COLUMN_TYPES[ent.getType()];
+                if (columnType == ColumnType.UNDEFINED) {
+                    throw CairoException.nonCritical().put("unknown column type [columnName=").put(columnName).put(']');
+                }
+                if (hasUncommittedRows()) {
+                    rollbackWriters();
+                    addColumn(writer, columnName, columnType);
+                    return false;
+                }
+                addColumn(writer, columnName, columnType);
+                columnIndex = metadata.getColumnIndexQuiet(columnName);
+            }
+            if (columnIndex == metadata.getTimestampIndex()) {
+                timestamp = timestampAdapter.getMicros(ent.getLongValue());
+            }
+        }
+
+        // pass 2: write the row
+        TableWriter.Row r = writer.newRow(timestamp);
+        try {
+            for (int i = 0; i < entCount; i++) {
+                final LineTcpParser.ProtoEntity ent = parser.getEntity(i);
+                final CharSequence columnName = Chars.utf8ToUtf16(ent.getName(), columnNameUtf16, hasNonAsciiChars);
+                final int columnIndex = metadata.getColumnIndexQuiet(columnName);
+                if (columnIndex == metadata.getTimestampIndex() || !processedColumns.add(columnIndex)) {
+                    // designated timestamp or duplicate column, first value wins
+                    continue;
+                }
+                putValue(r, columnIndex, metadata.getColumnType(columnIndex), ent, i, hasNonAsciiChars, stringToCharCastAllowed);
+            }
+            r.append();
+        } catch (Throwable th) {
+            r.cancel();
+            throw th;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        rollback();
+        Misc.free(path);
+        Misc.free(ddlMem);
+    }
+
+    /**
+     * Commits all writers touched since the last commit or rollback and returns them to the pool.
+     * Each table is committed separately, so the batch is atomic per table only.
+     */
+    public void commit() {
+        try {
+            for (int i = 0, n = writerList.size(); i < n; i++) {
+                writerList.getQuick(i).commit();
+            }
+        } finally {
+            releaseWriters();
+        }
+    }
+
+    /**
+     * Discards all uncommitted rows and returns writers to the pool.
+     */
+    public void rollback() {
+        try {
+            rollbackWriters();
+        } finally {
+            releaseWriters();
+        }
+    }
+
+    private static void addColumn(WalWriter writer, CharSequence columnName, int columnType) {
+        try {
+            writer.addColumn(columnName, columnType);
+        } catch (CairoException e) {
+            if (writer.getMetadata().getColumnIndexQuiet(columnName) < 0) {
+                // the column is still not there, something must be wrong
+                throw e;
+            }
+            // all good, someone added the column concurrently
+        }
+    }
+
+    private WalWriter getWriter(LineTcpParser parser) {
+        final DirectByteCharSequence tableNameUtf8 = parser.getMeasurementName();
+        tableNameUtf16.clear();
+        Chars.utf8Decode(tableNameUtf8.getLo(), tableNameUtf8.getHi(), tableNameUtf16);
+
+        final int keyIndex = writers.keyIndex(tableNameUtf16);
+        if (keyIndex < 0) {
+            return writers.valueAt(keyIndex);
+        }
+
+        TableToken tableToken = engine.getTableTokenIfExists(tableNameUtf16);
+        int status = engine.getStatus(securityContext, path, tableToken);
+        if (status != TableUtils.TABLE_EXISTS) {
+            if (!autoCreateNewTables) {
+                throw CairoException.nonCritical()
+                        .put("table does not exist, creating new tables is disabled [table=").put(tableNameUtf16)
+                        .put(']');
+            }
+            if (!autoCreateNewColumns) {
+                throw CairoException.nonCritical()
+                        .put("table does not exist, cannot create table, creating new columns is disabled [table=").put(tableNameUtf16)
+                        .put(']');
+            }
+            // validate that parser entities do not contain NULLs
+            TableStructureAdapter tsa = tableStructureAdapter.of(tableNameUtf16, parser);
+            for (int i = 0, n = tsa.getColumnCount(); i < n; i++) {
+                if (tsa.getColumnType(i) == LineTcpParser.ENTITY_TYPE_NULL) {
+                    throw CairoException.nonCritical().put("unknown column type [columnName=").put(tsa.getColumnName(i)).put(']');
+                }
+            }
+            LOG.info().$("creating table [tableName=").$(tableNameUtf16).$(']').$();
+            tableToken = engine.createTable(securityContext, ddlMem, path, true, tsa, false);
+        }
+
+        if (!engine.isWalTable(tableToken)) {
+            throw CairoException.nonCritical()
+                    .put("table is not WAL enabled [table=").put(tableToken.getTableName())
+                    .put(']');
+        }
+
+        final WalWriter writer = engine.getWalWriter(securityContext, tableToken);
+        writers.putAt(keyIndex, Chars.toString(tableNameUtf16), writer);
+        writerList.add(writer);
+        return writer;
+    }
+
+    private boolean hasUncommittedRows() {
+        for (int i = 0, n = writerList.size(); i < n; i++) {
+            if (writerList.getQuick(i).inTransaction()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void releaseWriters() {
+        Misc.freeObjListAndClear(writerList);
+        writers.clear();
+    }
+
+    private void rollbackWriters() {
+        for (int i = 0, n = writerList.size(); i < n; i++) {
+            writerList.getQuick(i).rollback();
+        }
+    }
+}
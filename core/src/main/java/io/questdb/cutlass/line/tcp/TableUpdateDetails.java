@@ -49,6 +49,7 @@ import static io.questdb.std.Chars.utf8ToUtf16;
 public class TableUpdateDetails implements Closeable {
     private static final Log LOG = LogFactory.getLog(TableUpdateDetails.class);
     private static final DirectByteSymbolLookup NOT_FOUND_LOOKUP = value -> SymbolTable.VALUE_NOT_FOUND;
+    private static final int NO_WRITER_HANDOFF = -1;
     private final long commitInterval;
     private final DefaultColumnTypes defaultColumnTypes;
     private final long defaultMaxUncommittedRows;
@@ -63,13 +64,19 @@ public class TableUpdateDetails implements Closeable {
     // Number of rows processed since the last reshuffle, this is an estimate because it is incremented by
     // multiple threads without synchronisation
     private long eventsProcessedSinceReshuffle = 0;
+    // Events per second over the last rebalance interval, updated by the scheduler under its lock
+    private long eventsPerSecond = 0;
+    private long eventsProcessedAtLastRebalance = 0;
     private long lastMeasurementMillis = Long.MAX_VALUE;
     private MetadataService metadataService;
     private int networkIOOwnerCount = 0;
     private long nextCommitTime;
     private TableWriterAPI writerAPI;
+    // Writer thread the table is being handed over to, the current writer thread
+    // stays in charge until it consumes the handoff event
+    private volatile int handoffWriterThreadId = NO_WRITER_HANDOFF;
     private volatile boolean writerInError;
-    private int writerThreadId;
+    private volatile int writerThreadId;
 
     TableUpdateDetails(
             LineTcpReceiverConfiguration configuration,
@@ -161,6 +168,10 @@ public class TableUpdateDetails implements Closeable {
         }
     }
 
+    public void cancelWriterHandoff() {
+        handoffWriterThreadId = NO_WRITER_HANDOFF;
+    }
+
     public void commit(boolean withLag) throws CommitFailedException {
         if (writerAPI.getUncommittedRowCount() > 0) {
             try {
@@ -185,6 +196,19 @@ public class TableUpdateDetails implements Closeable {
         }
     }
 
+    public void completeWriterHandoff() {
+        // writer thread ID has to change before the pending flag is cleared,
+        // network IO threads check both after claiming a queue slot
+        if (writerThreadId != Integer.MIN_VALUE) {
+            writerThreadId = handoffWriterThreadId;
+        }
+        handoffWriterThreadId = NO_WRITER_HANDOFF;
+    }
+
+    public long getEventsPerSecond() {
+        return eventsPerSecond;
+    }
+
     public long getEventsProcessedSinceReshuffle() {
         return eventsProcessedSinceReshuffle;
     }
@@ -229,10 +253,21 @@ public class TableUpdateDetails implements Closeable {
         return writerThreadId == -1;
     }
 
+    public boolean isWriterHandoffPending() {
+        return handoffWriterThreadId != NO_WRITER_HANDOFF;
+    }
+
     public boolean isWriterInError() {
         return writerInError;
     }
 
+    public long measureEventsPerSecond(long intervalMillis) {
+        final long eventsProcessed = eventsProcessedSinceReshuffle;
+        eventsPerSecond = intervalMillis > 0 ? (eventsProcessed - eventsProcessedAtLastRebalance) * 1000 / intervalMillis : 0;
+        eventsProcessedAtLastRebalance = eventsProcessed;
+        return eventsPerSecond;
+    }
+
     public void removeReference(int workerId) {
         if (!isWal()) {
             networkIOOwnerCount--;
@@ -253,6 +288,10 @@ public class TableUpdateDetails implements Closeable {
         writerInError = true;
     }
 
+    public void startWriterHandoff(int writerThreadId) {
+        handoffWriterThreadId = writerThreadId;
+    }
+
     public void tick() {
         if (metadataService != null) {
             metadataService.tick();
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.parquet;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.IntList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.LPSZ;
+
+import java.io.Closeable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Exports query result to a Parquet file. Factories that support page frames, e.g. table scans,
+ * are exported frame by frame, so that column memory of the table is written without copying.
+ * Other queries are buffered in memory in the table column layout and written in row groups
+ * of at most page frame max rows.
+ */
+public class ParquetExporter implements Closeable {
+    private final ObjList<MemoryCARW> columnData = new ObjList<>();
+    private final ObjList<MemoryCARW> columnIndexes = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    private final CairoConfiguration configuration;
+    private final RecordPageFrame recordFrame = new RecordPageFrame();
+    private final int rowGroupMaxRows;
+    private final ParquetWriter writer;
+
+    public ParquetExporter(CairoConfiguration configuration) {
+        this.configuration = configuration;
+        this.writer = new ParquetWriter(configuration);
+        this.rowGroupMaxRows = configuration.getSqlPageFrameMaxRows();
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjListAndClear(columnData);
+        Misc.freeObjListAndClear(columnIndexes);
+        Misc.free(writer);
+    }
+
+    /**
+     * Writes result of the query to a new Parquet file.
+     *
+     * @param factory          query to export
+     * @param executionContext execution context
+     * @param path             file to create, the file must not exist
+     * @return number of exported rows
+     * @throws SqlException when the query cannot be executed
+     */
+    public long export(RecordCursorFactory factory, SqlExecutionContext executionContext, LPSZ path) throws SqlException {
+        final RecordMetadata metadata = factory.getMetadata();
+        boolean framed = factory.supportPageFrameCursor();
+        columnTypes.clear();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (!ParquetWriter.isSupported(columnType)) {
+                throw CairoException.nonCritical().put("column type is not supported by parquet export [column=")
+                        .put(metadata.getColumnName(i))
+                        .put(", type=").put(ColumnType.nameOf(columnType))
+                        .put(']');
+            }
+            framed &= !ColumnType.isSymbol(columnType) || metadata.isSymbolTableStatic(i);
+            columnTypes.add(columnType);
+        }
+        if (!framed) {
+            // symbols are exported as strings, the dictionary of a cursor is not known upfront
+            for (int i = 0, n = columnTypes.size(); i < n; i++) {
+                if (ColumnType.isSymbol(columnTypes.getQuick(i))) {
+                    columnTypes.setQuick(i, ColumnType.STRING);
+                }
+            }
+        }
+
+        writer.of(path, metadata, columnTypes);
+        try {
+            if (framed) {
+                exportPageFrames(factory, executionContext);
+            } else {
+                exportRecords(factory, executionContext);
+            }
+            writer.finish();
+            return writer.getRowCount();
+        } catch (Throwable th) {
+            writer.abort();
+            throw th;
+        }
+    }
+
+    private void appendValue(Record record, int columnIndex, int columnType) {
+        final MemoryCARW data = columnData.getQuick(columnIndex);
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                data.putBool(record.getBool(columnIndex));
+                break;
+            case ColumnType.BYTE:
+                data.putByte(record.getByte(columnIndex));
+                break;
+            case ColumnType.SHORT:
+                data.putShort(record.getShort(columnIndex));
+                break;
+            case ColumnType.CHAR:
+                data.putChar(record.getChar(columnIndex));
+                break;
+            case ColumnType.INT:
+                data.putInt(record.getInt(columnIndex));
+                break;
+            case ColumnType.LONG:
+                data.putLong(record.getLong(columnIndex));
+                break;
+            case ColumnType.DATE:
+                data.putLong(record.getDate(columnIndex));
+                break;
+            case ColumnType.TIMESTAMP:
+                data.putLong(record.getTimestamp(columnIndex));
+                break;
+            case ColumnType.FLOAT:
+                data.putFloat(record.getFloat(columnIndex));
+                break;
+            case ColumnType.DOUBLE:
+                data.putDouble(record.getDouble(columnIndex));
+                break;
+            case ColumnType.STRING:
+                columnIndexes.getQuick(columnIndex).putLong(data.getAppendOffset());
+                data.putStr(record.getStr(columnIndex));
+                break;
+            case ColumnType.SYMBOL:
+                columnIndexes.getQuick(columnIndex).putLong(data.getAppendOffset());
+                data.putStr(record.getSym(columnIndex));
+                break;
+            case ColumnType.BINARY:
+                columnIndexes.getQuick(columnIndex).putLong(data.getAppendOffset());
+                data.putBin(record.getBin(columnIndex));
+                break;
+            case ColumnType.UUID:
+                data.putLong128(record.getLong128Lo(columnIndex), record.getLong128Hi(columnIndex));
+                break;
+            case ColumnType.LONG256:
+                data.putLong256(record.getLong256A(columnIndex));
+                break;
+            case ColumnType.GEOBYTE:
+                data.putByte(record.getGeoByte(columnIndex));
+                break;
+            case ColumnType.GEOSHORT:
+                data.putShort(record.getGeoShort(columnIndex));
+                break;
+            case ColumnType.GEOINT:
+                data.putInt(record.getGeoInt(columnIndex));
+                break;
+            default:
+                data.putLong(record.getGeoLong(columnIndex));
+                break;
+        }
+    }
+
+    private void exportPageFrames(RecordCursorFactory factory, SqlExecutionContext executionContext) throws SqlException {
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+        try (PageFrameCursor cursor = factory.getPageFrameCursor(executionContext, ORDER_ASC)) {
+            PageFrame frame;
+            while ((frame = cursor.next()) != null) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final long frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+                if (frameRowCount > 0) {
+                    writer.writeRowGroup(frame, frameRowCount, cursor);
+                }
+            }
+        }
+    }
+
+    private void exportRecords(RecordCursorFactory factory, SqlExecutionContext executionContext) throws SqlException {
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+        final RecordMetadata metadata = factory.getMetadata();
+        final int columnCount = metadata.getColumnCount();
+        for (int i = columnData.size(); i < columnCount; i++) {
+            columnData.add(Vm.getCARWInstance(configuration.getSqlCopyBufferSize(), Integer.MAX_VALUE, MemoryTag.NATIVE_PARQUET_EXPORTER));
+            columnIndexes.add(Vm.getCARWInstance(configuration.getSqlCopyBufferSize(), Integer.MAX_VALUE, MemoryTag.NATIVE_PARQUET_EXPORTER));
+        }
+        resetColumns(columnCount);
+
+        try (RecordCursor cursor = factory.getCursor(executionContext)) {
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                for (int i = 0; i < columnCount; i++) {
+                    appendValue(record, i, metadata.getColumnType(i));
+                }
+                if (++recordFrame.rowCount == rowGroupMaxRows) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    writer.writeRowGroup(recordFrame, recordFrame.rowCount, null);
+                    resetColumns(columnCount);
+                }
+            }
+            if (recordFrame.rowCount > 0) {
+                writer.writeRowGroup(recordFrame, recordFrame.rowCount, null);
+            }
+        }
+    }
+
+    private void resetColumns(int columnCount) {
+        recordFrame.rowCount = 0;
+        for (int i = 0; i < columnCount; i++) {
+            columnData.getQuick(i).jumpTo(0);
+            columnIndexes.getQuick(i).jumpTo(0);
+        }
+    }
+
+    private class RecordPageFrame implements PageFrame {
+        private long rowCount;
+
+        @Override
+        public BitmapIndexReader getBitmapIndexReader(int columnIndex, int dirForward) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getColumnShiftBits(int columnIndex) {
+            final int columnType = columnTypes.getQuick(columnIndex);
+            return ColumnType.isVariableLength(columnType) ? -1 : ColumnType.pow2SizeOf(columnType);
+        }
+
+        @Override
+        public long getIndexPageAddress(int columnIndex) {
+            return columnIndexes.getQuick(columnIndex).getAddress();
+        }
+
+        @Override
+        public long getPageAddress(int columnIndex) {
+            return columnData.getQuick(columnIndex).getAddress();
+        }
+
+        @Override
+        public long getPageSize(int columnIndex) {
+            return columnData.getQuick(columnIndex).getAppendOffset();
+        }
+
+        @Override
+        public long getPartitionHi() {
+            return rowCount;
+        }
+
+        @Override
+        public int getPartitionIndex() {
+            return 0;
+        }
+
+        @Override
+        public long getPartitionLo() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,802 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.parquet;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Writes Parquet files from page frames. Every page frame becomes a row group,
+ * every column of the frame becomes a column chunk split into data pages of
+ * at most {@link #DATA_PAGE_MAX_ROWS} rows.
+ * <p>
+ * Pages are not compressed. Fixed-size columns, which do not need conversion, are written
+ * straight from the frame memory when the page has no nulls. Symbol columns are dictionary
+ * encoded with the dictionary taken from the symbol table. QuestDB nulls are written
+ * as Parquet nulls, types that have no null in QuestDB are written as required fields.
+ */
+public class ParquetWriter implements Closeable {
+    public static final int DATA_PAGE_MAX_ROWS = 128 * 1024;
+    // column chunk entry: chunk offset, dictionary page offset, first data page offset, size
+    private static final int CHUNK_ENTRY_SIZE = 4;
+    private static final int CONVERTED_TYPE_NONE = -1;
+    private static final int CONVERTED_TYPE_INT_16 = 16;
+    private static final int CONVERTED_TYPE_INT_8 = 15;
+    private static final int CONVERTED_TYPE_TIMESTAMP_MICROS = 10;
+    private static final int CONVERTED_TYPE_TIMESTAMP_MILLIS = 9;
+    private static final int CONVERTED_TYPE_UTF8 = 0;
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_PLAIN_DICTIONARY = 2;
+    private static final int ENCODING_RLE = 3;
+    private static final int MAGIC = 0x31524150; // PAR1
+    private static final Log LOG = LogFactory.getLog(ParquetWriter.class);
+    private static final int PAGE_TYPE_DATA = 0;
+    private static final int PAGE_TYPE_DICTIONARY = 2;
+    private static final int REPETITION_OPTIONAL = 1;
+    private static final int REPETITION_REQUIRED = 0;
+    // row group entry: row count, offset, size
+    private static final int ROW_GROUP_ENTRY_SIZE = 3;
+    private static final int TYPE_BOOLEAN = 0;
+    private static final int TYPE_BYTE_ARRAY = 6;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_FIXED_LEN_BYTE_ARRAY = 7;
+    private static final int TYPE_FLOAT = 4;
+    private static final int TYPE_INT32 = 1;
+    private static final int TYPE_INT64 = 2;
+    private final LongList chunks = new LongList();
+    private final ObjList<String> columnNames = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    private final FilesFacade ff;
+    private final MemoryCARW headerMem;
+    private final MemoryCARW levelsMem;
+    private final Path path = new Path();
+    private final LongList rowGroups = new LongList();
+    private final ThriftCompactWriter thrift = new ThriftCompactWriter();
+    private final MemoryCARW valuesMem;
+    private int fd = -1;
+    private int levelBitCount;
+    private int levelBits;
+    private long nullCount;
+    private long offset;
+    private long rowCount;
+
+    public ParquetWriter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        final long pageSize = configuration.getSqlCopyBufferSize();
+        this.headerMem = Vm.getCARWInstance(pageSize, Integer.MAX_VALUE, MemoryTag.NATIVE_PARQUET_EXPORTER);
+        this.levelsMem = Vm.getCARWInstance(pageSize, Integer.MAX_VALUE, MemoryTag.NATIVE_PARQUET_EXPORTER);
+        this.valuesMem = Vm.getCARWInstance(pageSize, Integer.MAX_VALUE, MemoryTag.NATIVE_PARQUET_EXPORTER);
+    }
+
+    /**
+     * Checks that column type can be exported.
+     *
+     * @param columnType QuestDB column type
+     * @return true when column of given type can be written to Parquet file
+     */
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+            case ColumnType.BINARY:
+            case ColumnType.UUID:
+            case ColumnType.LONG256:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Closes and removes incomplete file, no-op when the file is already finished.
+     */
+    public void abort() {
+        if (fd != -1) {
+            closeFd();
+            if (!ff.remove(path)) {
+                LOG.error().$("could not remove incomplete parquet file [path=").$(path).$(", errno=").$(ff.errno()).I$();
+            }
+        }
+    }
+
+    /**
+     * Frees the file descriptor and buffers. When called before {@link #finish()} the file is
+     * left incomplete, it is up to the caller to remove it.
+     */
+    @Override
+    public void close() {
+        closeFd();
+        Misc.free(headerMem);
+        Misc.free(levelsMem);
+        Misc.free(valuesMem);
+        Misc.free(path);
+    }
+
+    /**
+     * Writes file footer and closes the file.
+     *
+     * @return size of the file
+     */
+    public long finish() {
+        headerMem.jumpTo(0);
+        final int columnCount = columnTypes.size();
+        thrift.of(headerMem);
+        thrift.structBegin();
+        thrift.fieldI32(1, 1); // version
+        thrift.fieldList(2, ThriftCompactWriter.TYPE_STRUCT, columnCount + 1);
+        thrift.structBegin();
+        thrift.fieldBinary(4, "schema");
+        thrift.fieldI32(5, columnCount);
+        thrift.structEnd();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = columnTypes.getQuick(i);
+            thrift.structBegin();
+            thrift.fieldI32(1, physicalTypeOf(columnType));
+            final int typeLength = fixedLenOf(columnType);
+            if (typeLength > 0) {
+                thrift.fieldI32(2, typeLength);
+            }
+            thrift.fieldI32(3, isOptional(columnType) ? REPETITION_OPTIONAL : REPETITION_REQUIRED);
+            thrift.fieldBinary(4, columnNames.getQuick(i));
+            final int convertedType = convertedTypeOf(columnType);
+            if (convertedType != CONVERTED_TYPE_NONE) {
+                thrift.fieldI32(6, convertedType);
+            }
+            if (ColumnType.tagOf(columnType) == ColumnType.UUID) {
+                // logical type is a union, UUID is its 14th member
+                thrift.fieldStruct(10);
+                thrift.fieldStruct(14);
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            thrift.structEnd();
+        }
+        thrift.fieldI64(3, rowCount);
+
+        final int rowGroupCount = rowGroups.size() / ROW_GROUP_ENTRY_SIZE;
+        thrift.fieldList(4, ThriftCompactWriter.TYPE_STRUCT, rowGroupCount);
+        for (int g = 0; g < rowGroupCount; g++) {
+            final long rowGroupRows = rowGroups.getQuick(g * ROW_GROUP_ENTRY_SIZE);
+            final long rowGroupOffset = rowGroups.getQuick(g * ROW_GROUP_ENTRY_SIZE + 1);
+            final long rowGroupSize = rowGroups.getQuick(g * ROW_GROUP_ENTRY_SIZE + 2);
+            thrift.structBegin();
+            thrift.fieldList(1, ThriftCompactWriter.TYPE_STRUCT, columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = columnTypes.getQuick(i);
+                final int chunk = (g * columnCount + i) * CHUNK_ENTRY_SIZE;
+                final long chunkOffset = chunks.getQuick(chunk);
+                final long dictionaryPageOffset = chunks.getQuick(chunk + 1);
+                final long dataPageOffset = chunks.getQuick(chunk + 2);
+                final long chunkSize = chunks.getQuick(chunk + 3);
+
+                thrift.structBegin();
+                thrift.fieldI64(2, chunkOffset);
+                thrift.fieldStruct(3);
+                thrift.fieldI32(1, physicalTypeOf(columnType));
+                thrift.fieldList(2, ThriftCompactWriter.TYPE_I32, 2);
+                thrift.putI32(dictionaryPageOffset > -1 ? ENCODING_PLAIN_DICTIONARY : ENCODING_PLAIN);
+                thrift.putI32(ENCODING_RLE);
+                thrift.fieldList(3, ThriftCompactWriter.TYPE_BINARY, 1);
+                thrift.putBinary(columnNames.getQuick(i));
+                thrift.fieldI32(4, 0); // uncompressed
+                thrift.fieldI64(5, rowGroupRows);
+                thrift.fieldI64(6, chunkSize);
+                thrift.fieldI64(7, chunkSize);
+                thrift.fieldI64(9, dataPageOffset);
+                if (dictionaryPageOffset > -1) {
+                    thrift.fieldI64(11, dictionaryPageOffset);
+                }
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            thrift.fieldI64(2, rowGroupSize);
+            thrift.fieldI64(3, rowGroupRows);
+            thrift.fieldI64(5, rowGroupOffset);
+            thrift.fieldI64(6, rowGroupSize);
+            thrift.structEnd();
+        }
+        thrift.fieldBinary(6, "QuestDB");
+        thrift.structEnd();
+
+        final long footerSize = headerMem.getAppendOffset();
+        headerMem.putInt((int) footerSize);
+        headerMem.putInt(MAGIC);
+        write(headerMem.getAddress(), headerMem.getAppendOffset());
+        closeFd();
+        LOG.info().$("exported [path=").$(path).$(", rows=").$(rowCount).$(", rowGroups=").$(rowGroupCount).$(", size=").$(offset).I$();
+        return offset;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Creates the file and writes file header.
+     *
+     * @param path        file to create, must not exist
+     * @param metadata    names of the columns
+     * @param columnTypes types of the columns in page frames, may differ from metadata, for example
+     *                    symbols are passed as strings when they are not backed by symbol table
+     */
+    public void of(LPSZ path, RecordMetadata metadata, IntList columnTypes) {
+        closeFd();
+        this.path.of(path).$();
+        this.columnTypes.clear();
+        this.columnTypes.addAll(columnTypes);
+        columnNames.clear();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            columnNames.add(metadata.getColumnName(i));
+        }
+        chunks.clear();
+        rowGroups.clear();
+        rowCount = 0;
+        offset = 0;
+
+        if (ff.exists(this.path)) {
+            throw CairoException.nonCritical().put("file already exists [path=").put(this.path).put(']');
+        }
+        fd = TableUtils.openRW(ff, this.path, LOG, CairoConfiguration.O_NONE);
+        headerMem.jumpTo(0);
+        headerMem.putInt(MAGIC);
+        write(headerMem.getAddress(), headerMem.getAppendOffset());
+    }
+
+    /**
+     * Writes page frame as a row group.
+     *
+     * @param frame              page frame, columns must be in the order of metadata given to {@link #of(LPSZ, RecordMetadata, IntList)}
+     * @param frameRowCount      number of rows in the frame
+     * @param symbolTableSource  source of symbol tables for symbol columns
+     */
+    public void writeRowGroup(PageFrame frame, long frameRowCount, SymbolTableSource symbolTableSource) {
+        final long rowGroupOffset = offset;
+        for (int i = 0, n = columnTypes.size(); i < n; i++) {
+            final int columnType = columnTypes.getQuick(i);
+            final long chunkOffset = offset;
+            long dictionaryPageOffset = -1;
+            int bitWidth = 0;
+            if (ColumnType.isSymbol(columnType)) {
+                dictionaryPageOffset = offset;
+                final StaticSymbolTable symbolTable = (StaticSymbolTable) symbolTableSource.getSymbolTable(i);
+                final int symbolCount = symbolTable.getSymbolCount();
+                bitWidth = symbolCount < 2 ? 1 : 32 - Integer.numberOfLeadingZeros(symbolCount - 1);
+                writeDictionaryPage(symbolTable, symbolCount);
+            }
+            final long dataPageOffset = offset;
+            for (long lo = 0; lo < frameRowCount; lo += DATA_PAGE_MAX_ROWS) {
+                writeDataPage(frame, i, columnType, lo, Math.min(frameRowCount, lo + DATA_PAGE_MAX_ROWS), bitWidth);
+            }
+            chunks.add(chunkOffset);
+            chunks.add(dictionaryPageOffset);
+            chunks.add(dataPageOffset);
+            chunks.add(offset - chunkOffset);
+        }
+        rowGroups.add(frameRowCount);
+        rowGroups.add(rowGroupOffset);
+        rowGroups.add(offset - rowGroupOffset);
+        rowCount += frameRowCount;
+    }
+
+    private static int convertedTypeOf(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+                return CONVERTED_TYPE_INT_8;
+            case ColumnType.SHORT:
+                return CONVERTED_TYPE_INT_16;
+            case ColumnType.DATE:
+                return CONVERTED_TYPE_TIMESTAMP_MILLIS;
+            case ColumnType.TIMESTAMP:
+                return CONVERTED_TYPE_TIMESTAMP_MICROS;
+            case ColumnType.CHAR:
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+                return CONVERTED_TYPE_UTF8;
+            default:
+                return CONVERTED_TYPE_NONE;
+        }
+    }
+
+    private static int fixedLenOf(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.UUID:
+                return 16;
+            case ColumnType.LONG256:
+                return 32;
+            default:
+                return 0;
+        }
+    }
+
+    private static boolean isOptional(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private static boolean isNull(int tag, long p) {
+        switch (tag) {
+            case ColumnType.INT:
+                return Unsafe.getUnsafe().getInt(p) == Numbers.INT_NaN;
+            case ColumnType.GEOINT:
+                return Unsafe.getUnsafe().getInt(p) == GeoHashes.INT_NULL;
+            case ColumnType.FLOAT:
+                return Float.isNaN(Unsafe.getUnsafe().getFloat(p));
+            case ColumnType.DOUBLE:
+                return Double.isNaN(Unsafe.getUnsafe().getDouble(p));
+            case ColumnType.GEOLONG:
+                return Unsafe.getUnsafe().getLong(p) == GeoHashes.NULL;
+            default:
+                return Unsafe.getUnsafe().getLong(p) == Numbers.LONG_NaN;
+        }
+    }
+
+    private static int physicalTypeOf(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                return TYPE_BOOLEAN;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+                return TYPE_INT32;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.GEOLONG:
+                return TYPE_INT64;
+            case ColumnType.FLOAT:
+                return TYPE_FLOAT;
+            case ColumnType.DOUBLE:
+                return TYPE_DOUBLE;
+            case ColumnType.UUID:
+            case ColumnType.LONG256:
+                return TYPE_FIXED_LEN_BYTE_ARRAY;
+            default:
+                return TYPE_BYTE_ARRAY;
+        }
+    }
+
+    private void appendUtf16AsUtf8(long lo, int len) {
+        final long lenOffset = valuesMem.getAppendOffset();
+        valuesMem.putInt(0);
+        for (int i = 0; i < len; i++) {
+            final char c = Unsafe.getUnsafe().getChar(lo + 2L * i);
+            if (c < 128) {
+                valuesMem.putByte((byte) c);
+            } else if (c < 2048) {
+                valuesMem.putByte((byte) (192 | c >> 6));
+                valuesMem.putByte((byte) (128 | c & 63));
+            } else if (Character.isSurrogate(c)) {
+                final char c2;
+                if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(c2 = Unsafe.getUnsafe().getChar(lo + 2L * (i + 1)))) {
+                    final int codePoint = Character.toCodePoint(c, c2);
+                    valuesMem.putByte((byte) (240 | codePoint >> 18));
+                    valuesMem.putByte((byte) (128 | codePoint >> 12 & 63));
+                    valuesMem.putByte((byte) (128 | codePoint >> 6 & 63));
+                    valuesMem.putByte((byte) (128 | codePoint & 63));
+                    i++;
+                } else {
+                    valuesMem.putByte((byte) '?');
+                }
+            } else {
+                valuesMem.putByte((byte) (224 | c >> 12));
+                valuesMem.putByte((byte) (128 | c >> 6 & 63));
+                valuesMem.putByte((byte) (128 | c & 63));
+            }
+        }
+        valuesMem.putInt(lenOffset, (int) (valuesMem.getAppendOffset() - lenOffset - Integer.BYTES));
+    }
+
+    private void appendUtf16AsUtf8(CharSequence value) {
+        final long lenOffset = valuesMem.getAppendOffset();
+        valuesMem.putInt(0);
+        for (int i = 0, n = value.length(); i < n; i++) {
+            final char c = value.charAt(i);
+            if (c < 128) {
+                valuesMem.putByte((byte) c);
+            } else if (c < 2048) {
+                valuesMem.putByte((byte) (192 | c >> 6));
+                valuesMem.putByte((byte) (128 | c & 63));
+            } else if (Character.isSurrogate(c)) {
+                final char c2;
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(c2 = value.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, c2);
+                    valuesMem.putByte((byte) (240 | codePoint >> 18));
+                    valuesMem.putByte((byte) (128 | codePoint >> 12 & 63));
+                    valuesMem.putByte((byte) (128 | codePoint >> 6 & 63));
+                    valuesMem.putByte((byte) (128 | codePoint & 63));
+                    i++;
+                } else {
+                    valuesMem.putByte((byte) '?');
+                }
+            } else {
+                valuesMem.putByte((byte) (224 | c >> 12));
+                valuesMem.putByte((byte) (128 | c >> 6 & 63));
+                valuesMem.putByte((byte) (128 | c & 63));
+            }
+        }
+        valuesMem.putInt(lenOffset, (int) (valuesMem.getAppendOffset() - lenOffset - Integer.BYTES));
+    }
+
+    /**
+     * Converts value of variable size or non-native layout to its Parquet representation.
+     *
+     * @return false when the value is null
+     */
+    private boolean appendValue(int tag, long address, long indexAddress, long row) {
+        switch (tag) {
+            case ColumnType.GEOBYTE: {
+                final byte value = Unsafe.getUnsafe().getByte(address + row);
+                if (value == GeoHashes.BYTE_NULL) {
+                    return false;
+                }
+                valuesMem.putInt(value);
+                return true;
+            }
+            case ColumnType.GEOSHORT: {
+                final short value = Unsafe.getUnsafe().getShort(address + 2 * row);
+                if (value == GeoHashes.SHORT_NULL) {
+                    return false;
+                }
+                valuesMem.putInt(value);
+                return true;
+            }
+            case ColumnType.CHAR: {
+                final long p = address + 2 * row;
+                if (Unsafe.getUnsafe().getChar(p) == 0) {
+                    return false;
+                }
+                appendUtf16AsUtf8(p, 1);
+                return true;
+            }
+            case ColumnType.STRING: {
+                final long p = address + Unsafe.getUnsafe().getLong(indexAddress + 8 * row);
+                final int len = Unsafe.getUnsafe().getInt(p);
+                if (len == TableUtils.NULL_LEN) {
+                    return false;
+                }
+                appendUtf16AsUtf8(p + Integer.BYTES, len);
+                return true;
+            }
+            case ColumnType.BINARY: {
+                final long p = address + Unsafe.getUnsafe().getLong(indexAddress + 8 * row);
+                final long len = Unsafe.getUnsafe().getLong(p);
+                if (len == TableUtils.NULL_LEN) {
+                    return false;
+                }
+                valuesMem.putInt((int) len);
+                valuesMem.putBlockOfBytes(p + Long.BYTES, len);
+                return true;
+            }
+            case ColumnType.UUID: {
+                final long p = address + 16 * row;
+                final long lo = Unsafe.getUnsafe().getLong(p);
+                final long hi = Unsafe.getUnsafe().getLong(p + 8);
+                if (lo == Numbers.LONG_NaN && hi == Numbers.LONG_NaN) {
+                    return false;
+                }
+                // parquet UUID is big-endian
+                valuesMem.putLong(Long.reverseBytes(hi));
+                valuesMem.putLong(Long.reverseBytes(lo));
+                return true;
+            }
+            case ColumnType.LONG256: {
+                final long p = address + 32 * row;
+                final long l0 = Unsafe.getUnsafe().getLong(p);
+                final long l1 = Unsafe.getUnsafe().getLong(p + 8);
+                final long l2 = Unsafe.getUnsafe().getLong(p + 16);
+                final long l3 = Unsafe.getUnsafe().getLong(p + 24);
+                if (l0 == Numbers.LONG_NaN && l1 == Numbers.LONG_NaN && l2 == Numbers.LONG_NaN && l3 == Numbers.LONG_NaN) {
+                    return false;
+                }
+                valuesMem.putLong(Long.reverseBytes(l3));
+                valuesMem.putLong(Long.reverseBytes(l2));
+                valuesMem.putLong(Long.reverseBytes(l1));
+                valuesMem.putLong(Long.reverseBytes(l0));
+                return true;
+            }
+            default:
+                throw CairoException.nonCritical().put("unsupported column type [type=").put(ColumnType.nameOf(tag)).put(']');
+        }
+    }
+
+    private void closeFd() {
+        if (fd != -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+    }
+
+    private void putDefinitionLevel(boolean isNull) {
+        if (isNull) {
+            nullCount++;
+        } else {
+            levelBits |= 1 << levelBitCount;
+        }
+        if (++levelBitCount == 8) {
+            levelsMem.putByte((byte) levelBits);
+            levelBits = 0;
+            levelBitCount = 0;
+        }
+    }
+
+    private void putVarInt(MemoryCARW mem, long value) {
+        while ((value & ~0x7fL) != 0) {
+            mem.putByte((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        mem.putByte((byte) value);
+    }
+
+    private void write(long address, long len) {
+        if (ff.write(fd, address, len, offset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write parquet file [path=").put(path)
+                    .put(", offset=").put(offset)
+                    .put(", size=").put(len)
+                    .put(']');
+        }
+        offset += len;
+    }
+
+    private void writeDataPage(PageFrame frame, int columnIndex, int columnType, long lo, long hi, int bitWidth) {
+        final long n = hi - lo;
+        final long address = frame.getPageAddress(columnIndex);
+        final int tag = ColumnType.tagOf(columnType);
+        final boolean optional = isOptional(columnType);
+        levelsMem.jumpTo(0);
+        valuesMem.jumpTo(0);
+        levelBits = 0;
+        levelBitCount = 0;
+        nullCount = 0;
+
+        // definition levels of optional columns are prefixed with their size, they are written
+        // as a single bit-packed run, one bit per row, unless the page has no nulls
+        if (optional) {
+            levelsMem.putInt(0);
+            putVarInt(levelsMem, ((n + 7) >>> 3) << 1 | 1);
+        }
+
+        // values are either taken from the frame as is or converted into valuesMem
+        long valuesAddress = 0;
+        long valuesSize = 0;
+        switch (tag) {
+            case ColumnType.BOOLEAN: {
+                // plain booleans are bit-packed, column top is false
+                long bits = 0;
+                int bitCount = 0;
+                for (long r = lo; r < hi; r++) {
+                    if (address != 0 && Unsafe.getUnsafe().getByte(address + r) != 0) {
+                        bits |= 1L << bitCount;
+                    }
+                    if (++bitCount == 8) {
+                        valuesMem.putByte((byte) bits);
+                        bits = 0;
+                        bitCount = 0;
+                    }
+                }
+                if (bitCount > 0) {
+                    valuesMem.putByte((byte) bits);
+                }
+                break;
+            }
+            case ColumnType.BYTE:
+                for (long r = lo; r < hi; r++) {
+                    valuesMem.putInt(address != 0 ? Unsafe.getUnsafe().getByte(address + r) : 0);
+                }
+                break;
+            case ColumnType.SHORT:
+                for (long r = lo; r < hi; r++) {
+                    valuesMem.putInt(address != 0 ? Unsafe.getUnsafe().getShort(address + 2 * r) : 0);
+                }
+                break;
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG: {
+                final int shift = ColumnType.pow2SizeOf(columnType);
+                long pageNullCount = address != 0 ? 0 : n;
+                for (long r = lo; r < hi && pageNullCount == 0; r++) {
+                    if (isNull(tag, address + (r << shift))) {
+                        pageNullCount++;
+                    }
+                }
+                if (pageNullCount == 0) {
+                    // no nulls, the page is written straight from the frame
+                    valuesAddress = address + (lo << shift);
+                    valuesSize = n << shift;
+                } else {
+                    for (long r = lo; r < hi; r++) {
+                        final long p = address + (r << shift);
+                        final boolean isNull = address == 0 || isNull(tag, p);
+                        if (!isNull) {
+                            valuesMem.putBlockOfBytes(p, 1L << shift);
+                        }
+                        putDefinitionLevel(isNull);
+                    }
+                }
+                break;
+            }
+            case ColumnType.SYMBOL: {
+                long keyCount = 0;
+                if (address != 0) {
+                    for (long r = lo; r < hi; r++) {
+                        if (Unsafe.getUnsafe().getInt(address + 4 * r) != SymbolTable.VALUE_IS_NULL) {
+                            keyCount++;
+                        }
+                    }
+                }
+                // dictionary indexes are written as a single bit-packed run, least significant bits first
+                valuesMem.putByte((byte) bitWidth);
+                if (keyCount > 0) {
+                    putVarInt(valuesMem, ((keyCount + 7) >>> 3) << 1 | 1);
+                }
+                long bits = 0;
+                int bitCount = 0;
+                for (long r = lo; r < hi; r++) {
+                    final int key = address != 0 ? Unsafe.getUnsafe().getInt(address + 4 * r) : SymbolTable.VALUE_IS_NULL;
+                    final boolean isNull = key == SymbolTable.VALUE_IS_NULL;
+                    if (!isNull) {
+                        bits |= (long) key << bitCount;
+                        bitCount += bitWidth;
+                        while (bitCount >= 8) {
+                            valuesMem.putByte((byte) bits);
+                            bits >>>= 8;
+                            bitCount -= 8;
+                        }
+                    }
+                    putDefinitionLevel(isNull);
+                }
+                // pad the last group of 8 indexes with zeros
+                for (long k = keyCount; (k & 7) != 0; k++) {
+                    bitCount += bitWidth;
+                    while (bitCount >= 8) {
+                        valuesMem.putByte((byte) bits);
+                        bits >>>= 8;
+                        bitCount -= 8;
+                    }
+                }
+                break;
+            }
+            default: {
+                final long indexAddress = frame.getIndexPageAddress(columnIndex);
+                for (long r = lo; r < hi; r++) {
+                    putDefinitionLevel(address == 0 || !appendValue(tag, address, indexAddress, r));
+                }
+                break;
+            }
+        }
+
+        if (optional) {
+            if (nullCount == 0 || nullCount == n) {
+                // replace bit-packed levels with a single run
+                levelsMem.jumpTo(Integer.BYTES);
+                putVarInt(levelsMem, n << 1);
+                levelsMem.putByte((byte) (nullCount == 0 ? 1 : 0));
+            } else if (levelBitCount > 0) {
+                levelsMem.putByte((byte) levelBits);
+            }
+            levelsMem.putInt(0, (int) (levelsMem.getAppendOffset() - Integer.BYTES));
+        }
+        if (valuesAddress == 0) {
+            valuesAddress = valuesMem.getAddress();
+            valuesSize = valuesMem.getAppendOffset();
+        }
+
+        final long pageSize = levelsMem.getAppendOffset() + valuesSize;
+        if (pageSize > Integer.MAX_VALUE) {
+            throw CairoException.nonCritical().put("parquet page is too large [path=").put(path).put(", size=").put(pageSize).put(']');
+        }
+        headerMem.jumpTo(0);
+        thrift.of(headerMem);
+        thrift.structBegin();
+        thrift.fieldI32(1, PAGE_TYPE_DATA);
+        thrift.fieldI32(2, (int) pageSize);
+        thrift.fieldI32(3, (int) pageSize);
+        thrift.fieldStruct(5);
+        thrift.fieldI32(1, (int) n);
+        thrift.fieldI32(2, tag == ColumnType.SYMBOL ? ENCODING_PLAIN_DICTIONARY : ENCODING_PLAIN);
+        thrift.fieldI32(3, ENCODING_RLE);
+        thrift.fieldI32(4, ENCODING_RLE);
+        thrift.structEnd();
+        thrift.structEnd();
+        write(headerMem.getAddress(), headerMem.getAppendOffset());
+        if (levelsMem.getAppendOffset() > 0) {
+            write(levelsMem.getAddress(), levelsMem.getAppendOffset());
+        }
+        if (valuesSize > 0) {
+            write(valuesAddress, valuesSize);
+        }
+    }
+
+    private void writeDictionaryPage(StaticSymbolTable symbolTable, int symbolCount) {
+        valuesMem.jumpTo(0);
+        for (int key = 0; key < symbolCount; key++) {
+            appendUtf16AsUtf8(symbolTable.valueOf(key));
+        }
+        final long pageSize = valuesMem.getAppendOffset();
+        if (pageSize > Integer.MAX_VALUE) {
+            throw CairoException.nonCritical().put("parquet dictionary page is too large [path=").put(path).put(", size=").put(pageSize).put(']');
+        }
+        headerMem.jumpTo(0);
+        thrift.of(headerMem);
+        thrift.structBegin();
+        thrift.fieldI32(1, PAGE_TYPE_DICTIONARY);
+        thrift.fieldI32(2, (int) pageSize);
+        thrift.fieldI32(3, (int) pageSize);
+        thrift.fieldStruct(7);
+        thrift.fieldI32(1, symbolCount);
+        thrift.fieldI32(2, ENCODING_PLAIN_DICTIONARY);
+        thrift.structEnd();
+        thrift.structEnd();
+        write(headerMem.getAddress(), headerMem.getAppendOffset());
+        if (pageSize > 0) {
+            write(valuesMem.getAddress(), pageSize);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.parquet;
+
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.IntList;
+
+/**
+ * Minimal encoder of the Thrift compact protocol, enough to write Parquet page headers
+ * and file metadata. Structs are written field by field, field ids must be ascending
+ * within a struct.
+ */
+public class ThriftCompactWriter {
+    public static final byte TYPE_BINARY = 8;
+    public static final byte TYPE_BOOLEAN_FALSE = 2;
+    public static final byte TYPE_BOOLEAN_TRUE = 1;
+    public static final byte TYPE_I32 = 5;
+    public static final byte TYPE_I64 = 6;
+    public static final byte TYPE_STRUCT = 12;
+    private static final byte TYPE_LIST = 9;
+    private final IntList fieldIdStack = new IntList();
+    private int lastFieldId;
+    private MemoryCARW mem;
+
+    public void fieldBinary(int fieldId, CharSequence value) {
+        fieldHeader(fieldId, TYPE_BINARY);
+        putBinary(value);
+    }
+
+    public void fieldBoolean(int fieldId, boolean value) {
+        fieldHeader(fieldId, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+    }
+
+    public void fieldI32(int fieldId, int value) {
+        fieldHeader(fieldId, TYPE_I32);
+        putVarLong(zigzag(value));
+    }
+
+    public void fieldI64(int fieldId, long value) {
+        fieldHeader(fieldId, TYPE_I64);
+        putVarLong(zigzag(value));
+    }
+
+    public void fieldList(int fieldId, byte elementType, int size) {
+        fieldHeader(fieldId, TYPE_LIST);
+        listHeader(elementType, size);
+    }
+
+    /**
+     * Starts nested struct field, must be paired with {@link #structEnd()}.
+     */
+    public void fieldStruct(int fieldId) {
+        fieldHeader(fieldId, TYPE_STRUCT);
+        structBegin();
+    }
+
+    public void listHeader(byte elementType, int size) {
+        if (size < 15) {
+            mem.putByte((byte) (size << 4 | elementType));
+        } else {
+            mem.putByte((byte) (0xf0 | elementType));
+            putVarLong(size);
+        }
+    }
+
+    public ThriftCompactWriter of(MemoryCARW mem) {
+        this.mem = mem;
+        this.lastFieldId = 0;
+        fieldIdStack.clear();
+        return this;
+    }
+
+    public void putBinary(CharSequence value) {
+        putVarLong(utf8Length(value));
+        putUtf8(value);
+    }
+
+    public void putI32(int value) {
+        putVarLong(zigzag(value));
+    }
+
+    /**
+     * Starts struct which is not a field, e.g. list element or the top level struct.
+     */
+    public void structBegin() {
+        fieldIdStack.add(lastFieldId);
+        lastFieldId = 0;
+    }
+
+    public void structEnd() {
+        mem.putByte((byte) 0);
+        lastFieldId = fieldIdStack.getLast();
+        fieldIdStack.removeIndex(fieldIdStack.size() - 1);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int utf8Length(CharSequence value) {
+        int len = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            final char c = value.charAt(i);
+            len += c < 128 ? 1 : c < 2048 ? 2 : 3;
+        }
+        return len;
+    }
+
+    private void fieldHeader(int fieldId, byte type) {
+        final int delta = fieldId - lastFieldId;
+        if (delta > 0 && delta < 16) {
+            mem.putByte((byte) (delta << 4 | type));
+        } else {
+            mem.putByte(type);
+            putVarLong(zigzag(fieldId));
+        }
+        lastFieldId = fieldId;
+    }
+
+    private void putUtf8(CharSequence value) {
+        for (int i = 0, n = value.length(); i < n; i++) {
+            final char c = value.charAt(i);
+            if (c < 128) {
+                mem.putByte((byte) c);
+            } else if (c < 2048) {
+                mem.putByte((byte) (192 | c >> 6));
+                mem.putByte((byte) (128 | c & 63));
+            } else {
+                mem.putByte((byte) (224 | c >> 12));
+                mem.putByte((byte) (128 | c >> 6 & 63));
+                mem.putByte((byte) (128 | c & 63));
+            }
+        }
+    }
+
+    private void putVarLong(long value) {
+        while ((value & ~0x7fL) != 0) {
+            mem.putByte((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        mem.putByte((byte) value);
+    }
+}
@@ -73,6 +73,11 @@ public class DefaultPGWireConfiguration implements PGWireConfiguration {
         return 4;
     }
 
+    @Override
+    public int getCopyBufferSize() {
+        return 1024 * 1024;
+    }
+
     @Override
     public DateLocale getDefaultDateLocale() {
         return DateFormatUtils.enLocale;
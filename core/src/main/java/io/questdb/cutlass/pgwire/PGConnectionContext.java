@@ -30,6 +30,7 @@ import io.questdb.cairo.pool.WriterSource;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
+import io.questdb.cutlass.text.TextException;
 import io.questdb.cutlass.text.TextLoader;
 import io.questdb.cutlass.text.types.TypeManager;
 import io.questdb.griffin.*;
@@ -78,6 +79,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     private static final int INIT_CANCEL_REQUEST = 80877102;
     private static final int INIT_GSS_REQUEST = 80877104;
     private static final int INIT_SSL_REQUEST = 80877103;
+    private static final int IMPLICIT_TRANSACTION = 5;
     private static final int INIT_STARTUP_MESSAGE = 196608;
     private static final int INT_BYTES_X = Numbers.bswap(Integer.BYTES);
     private static final int INT_NULL_X = Numbers.bswap(-1);
@@ -117,6 +119,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     private final IntList bindVariableTypes = new IntList();
     private final CharacterStore characterStore;
     private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
+    private final int copyBufferSize;
     private final DirectByteCharSequence dbcs = new DirectByteCharSequence();
     private final boolean dumpNetworkTraffic;
     private final CairoEngine engine;
@@ -150,8 +153,12 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     private int bufferRemainingOffset = 0;
     private int bufferRemainingSize = 0;
     private boolean completed = true;
+    private long copyBuffer;
+    private long copyBufferPtr;
+    private TextLoader copyTextLoader;
     private RecordCursor currentCursor = null;
     private RecordCursorFactory currentFactory = null;
+    private boolean isCopyIn = false;
     private boolean isEmptyQuery = false;
     private boolean isPausedQuery = false;
     private long maxRows;
@@ -206,6 +213,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         this.bindVariableService = new BindVariableServiceImpl(engine.getConfiguration());
         this.recvBufferSize = Numbers.ceilPow2(configuration.getRecvBufferSize());
         this.sendBufferSize = Numbers.ceilPow2(configuration.getSendBufferSize());
+        this.copyBufferSize = configuration.getCopyBufferSize();
         this.characterStore = new CharacterStore(
                 configuration.getCharacterStoreCapacity(),
                 configuration.getCharacterStorePoolCapacity()
@@ -304,6 +312,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         username = null;
         typeManager.clear();
         clearWriters();
+        transactionState = NO_TRANSACTION;
         clearRecvBuffer();
         typesAndInsertCache.clear();
         evictNamedStatementWrappersAndClear();
@@ -322,6 +331,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         circuitBreaker.unsetTimer();
         isPausedQuery = false;
         isEmptyQuery = false;
+        clearCopyIn();
         clearSuspendEvent();
     }
 
@@ -346,6 +356,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         Misc.free(path);
         Misc.free(utf8Sink);
         Misc.free(circuitBreaker);
+        copyTextLoader = Misc.free(copyTextLoader);
         freeBuffers();
     }
 
@@ -660,7 +671,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     }
 
     private void appendDateColumnBin(Record record, int columnIndex) {
-        final long longValue = record.getLong(columnIndex);
+        final long longValue = record.getDate(columnIndex);
         if (longValue != Numbers.LONG_NaN) {
             responseAsciiSink.putNetworkInt(Long.BYTES);
             // PG epoch starts at 2000 rather than 1970
@@ -863,19 +874,25 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 case BINARY_TYPE_LONG256:
                     appendLong256Column(record, i);
                     break;
+                // geohashes are sent as VARCHAR, binary representation of which is the same as text
                 case ColumnType.GEOBYTE:
+                case BINARY_TYPE_GEOBYTE:
                     putGeoHashStringByteValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.GEOSHORT:
+                case BINARY_TYPE_GEOSHORT:
                     putGeoHashStringShortValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.GEOINT:
+                case BINARY_TYPE_GEOINT:
                     putGeoHashStringIntValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.GEOLONG:
+                case BINARY_TYPE_GEOLONG:
                     putGeoHashStringLongValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.NULL:
+                case BINARY_TYPE_NULL:
                     responseAsciiSink.setNullValue();
                     break;
                 case ColumnType.UUID:
@@ -901,6 +918,20 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         responseAsciiSink.putNetworkShort(value);
     }
 
+    private void appendCopyData(long lo, long hi) {
+        final long len = hi - lo;
+        if (copyBufferPtr + len > copyBuffer + copyBufferSize) {
+            flushCopyBuffer();
+            if (len > copyBufferSize) {
+                // message is larger than the whole buffer, parse it straight from the receive buffer
+                copyTextLoader.parse(lo, hi, sqlExecutionContext.getCairoSecurityContext());
+                return;
+            }
+        }
+        Vect.memcpy(copyBufferPtr, lo, len);
+        copyBufferPtr += len;
+    }
+
     private void appendSingleRecord(Record record, int columnCount) throws SqlException {
         try {
             appendRecord(record, columnCount);
@@ -1100,6 +1131,15 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         }
     }
 
+    private void clearCopyIn() {
+        if (copyTextLoader != null) {
+            // releases the writer, rows that were not committed yet are rolled back
+            copyTextLoader.clear();
+        }
+        copyBuffer = copyBufferPtr = Unsafe.free(copyBuffer, copyBufferSize, MemoryTag.NATIVE_PGW_CONN);
+        isCopyIn = false;
+    }
+
     private void clearCursorAndFactory() {
         resumeProcessor = null;
         currentCursor = Misc.free(currentCursor);
@@ -1143,6 +1183,17 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         }
     }
 
+    private void commitImplicitTransaction() {
+        if (transactionState == IMPLICIT_TRANSACTION) {
+            try {
+                closePendingWriters(true);
+            } finally {
+                pendingWriters.clear();
+                transactionState = NO_TRANSACTION;
+            }
+        }
+    }
+
     private boolean compileQuery(@Transient SqlCompiler compiler) throws SqlException {
         if (queryText != null && queryText.length() > 0) {
 
@@ -1179,7 +1230,9 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 return false;
             }
 
-            // not cached - compile to see what it is
+            // not cached - compile to see what it is, DDL is executed right away,
+            // so it must not find the table locked by pipelined inserts
+            commitImplicitTransaction();
             final CompiledQuery cc = compiler.compile(queryText, sqlExecutionContext);
             processCompiledQuery(cc);
         } else {
@@ -1323,12 +1376,18 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         }
     }
 
-    private void executeInsert(SqlCompiler compiler) throws SqlException {
+    private void executeInsert(SqlCompiler compiler, boolean pipelined) throws SqlException {
         TableWriterAPI writer;
         boolean recompileStale = true;
+        if (pipelined && transactionState == NO_TRANSACTION) {
+            // Extended protocol messages up to Sync form an implicit transaction, so that
+            // a batch of Bind/Execute pairs is committed once rather than once per row
+            transactionState = IMPLICIT_TRANSACTION;
+        }
         for (int retries = 0; recompileStale; retries++) {
             try {
                 switch (transactionState) {
+                    case IMPLICIT_TRANSACTION:
                     case IN_TRANSACTION:
                         final InsertMethod m = typesAndInsert.getInsert().createMethod(sqlExecutionContext, this);
                         recompileStale = false;
@@ -1359,6 +1418,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 if (!recompileStale || retries == TableReferenceOutOfDateException.MAX_RETRY_ATTEMPS) {
                     if (transactionState == IN_TRANSACTION) {
                         transactionState = ERROR_TRANSACTION;
+                    } else {
+                        rollbackImplicitTransaction();
                     }
                     throw ex;
                 }
@@ -1369,6 +1430,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
             } catch (Throwable e) {
                 if (transactionState == IN_TRANSACTION) {
                     transactionState = ERROR_TRANSACTION;
+                } else {
+                    rollbackImplicitTransaction();
                 }
                 throw e;
             }
@@ -1494,6 +1557,19 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         }
     }
 
+    private void failCopyIn() throws PeerDisconnectedException, PeerIsSlowToReadException {
+        clearCopyIn();
+        sendRNQ = true;
+        sendReadyForNewQuery();
+    }
+
+    private void flushCopyBuffer() {
+        if (copyBufferPtr > copyBuffer) {
+            copyTextLoader.parse(copyBuffer, copyBufferPtr, sqlExecutionContext.getCairoSecurityContext());
+            copyBufferPtr = copyBuffer;
+        }
+    }
+
     private void freeBuffers() {
         this.recvBuffer = Unsafe.free(recvBuffer, recvBufferSize, MemoryTag.NATIVE_PGW_CONN);
         this.sendBuffer = this.sendBufferPtr = this.sendBufferLimit = Unsafe.free(sendBuffer, sendBufferSize, MemoryTag.NATIVE_PGW_CONN);
@@ -1643,6 +1719,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 processExec(msgLo, msgLimit, compiler);
                 break;
             case 'S': // sync
+                commitImplicitTransaction();
                 processSyncActions();
                 prepareReadyForQuery();
                 prepareForNewQuery();
@@ -1666,7 +1743,14 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 sendRNQ = true;
                 processQuery(msgLo, msgLimit, compiler);
                 break;
-            case 'd': // COPY data 
+            case 'd': // COPY data
+                processCopyData(msgLo, msgLimit);
+                break;
+            case 'c': // COPY done
+                processCopyDone();
+                break;
+            case 'f': // COPY fail
+                processCopyFail(msgLo, msgLimit);
                 break;
             default:
                 LOG.error().$("unknown message [type=").$(type).$(']').$();
@@ -1697,6 +1781,24 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         responseAsciiSink.putIntDirect(INT_BYTES_X);
     }
 
+    private void prepareCopyInResponse(CharSequence tableName) {
+        int columnCount = 0;
+        final TableToken tableToken = engine.getTableTokenIfExists(tableName);
+        if (tableToken != null) {
+            try (TableRecordMetadata metadata = engine.getMetadata(sqlExecutionContext.getCairoSecurityContext(), tableToken)) {
+                columnCount = metadata.getColumnCount();
+            }
+        }
+        responseAsciiSink.put(MESSAGE_TYPE_COPY_IN_RESPONSE);
+        long addr = responseAsciiSink.skip();
+        responseAsciiSink.put((byte) 0); // TEXT (1=BINARY, which we do not support yet)
+        responseAsciiSink.putNetworkShort((short) columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            responseAsciiSink.putNetworkShort((short) 0); // column format code, TEXT
+        }
+        responseAsciiSink.putLen(addr);
+    }
+
     private void prepareDescribePortalResponse() {
         if (typesAndSelect != null) {
             try {
@@ -1959,7 +2061,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                             final short code = getShortUnsafe(lo);
                             activeSelectColumnTypes.setQuick(2 * i, toColumnBinaryType(code, m.getColumnType(i)));
                             bindSelectColumnFormats.setQuick(i, code);
-                            activeSelectColumnTypes.setQuick(2 * i + 1, 0);
+                            // geohash bit flags are needed to print the value regardless of the format
+                            activeSelectColumnTypes.setQuick(2 * i + 1, GeoHashes.getBitFlags(m.getColumnType(i)));
                         }
                     } else if (columnFormatCodeCount == 1) {
                         lo += Short.BYTES;
@@ -1967,7 +2070,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                         for (int i = 0; i < columnCount; i++) {
                             activeSelectColumnTypes.setQuick(2 * i, toColumnBinaryType(code, m.getColumnType(i)));
                             bindSelectColumnFormats.setQuick(i, code);
-                            activeSelectColumnTypes.setQuick(2 * i + 1, 0);
+                            // geohash bit flags are needed to print the value regardless of the format
+                            activeSelectColumnTypes.setQuick(2 * i + 1, GeoHashes.getBitFlags(m.getColumnType(i)));
                         }
                     } else {
                         LOG.error()
@@ -2070,6 +2174,9 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 queryTag = TAG_INSERT;
                 rowCount = cq.getAffectedRowsCount();
                 break;
+            case CompiledQuery.COPY_REMOTE:
+                queryTag = TAG_COPY;
+                break;
             case CompiledQuery.COPY_LOCAL:
                 final RecordCursorFactory factory = cq.getRecordCursorFactory();
                 // factory is null in the COPY 'id' CANCEL; case
@@ -2115,6 +2222,56 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         }
     }
 
+    private void processCopyData(long lo, long msgLimit) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        // CopyData that arrives after COPY has failed is dropped, as PostgreSQL does
+        if (isCopyIn) {
+            try {
+                appendCopyData(lo, msgLimit);
+            } catch (TextException e) {
+                prepareNonCriticalError(0, e.getFlyweightMessage());
+                failCopyIn();
+            } catch (CairoException e) {
+                prepareError(e);
+                failCopyIn();
+            }
+        }
+    }
+
+    private void processCopyDone() throws PeerDisconnectedException, PeerIsSlowToReadException {
+        if (isCopyIn) {
+            try {
+                flushCopyBuffer();
+                copyTextLoader.wrapUp();
+                rowCount = copyTextLoader.getWrittenLineCount();
+                queryTag = TAG_COPY;
+                LOG.info()
+                        .$("copy done [fd=").$(fd)
+                        .$(", table=").utf8(copyTextLoader.getTableName())
+                        .$(", rows=").$(rowCount)
+                        .$(", errors=").$(copyTextLoader.getErrorLineCount())
+                        .I$();
+                prepareCommandComplete(true);
+            } catch (TextException e) {
+                prepareNonCriticalError(0, e.getFlyweightMessage());
+            } catch (CairoException e) {
+                prepareError(e);
+            }
+            clearCopyIn();
+            sendRNQ = true;
+            sendReadyForNewQuery();
+        }
+    }
+
+    private void processCopyFail(long lo, long msgLimit) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        if (isCopyIn) {
+            final StringSink sink = Misc.getThreadLocalBuilder();
+            sink.put("COPY from stdin failed: ");
+            Chars.utf8Decode(lo, msgLimit - 1, sink);
+            prepareNonCriticalError(0, sink);
+            failCopyIn();
+        }
+    }
+
     private void processDescribe(long lo, long msgLimit, @Transient SqlCompiler compiler)
             throws SqlException, BadProtocolException {
         sqlExecutionContext.getCircuitBreaker().resetTimer();
@@ -2178,15 +2335,18 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, QueryPausedException, SqlException {
         if (typesAndSelect != null) {
             LOG.debug().$("executing query").$();
+            // query must see rows inserted earlier in the same pipeline
+            commitImplicitTransaction();
             setupFactoryAndCursor(compiler);
             sendCursor(maxRows, resumeCursorExecuteRef, resumeCommandCompleteRef);
         } else if (typesAndInsert != null) {
             LOG.debug().$("executing insert").$();
-            executeInsert(compiler);
+            executeInsert(compiler, true);
         } else if (typesAndUpdate != null) {
             LOG.debug().$("executing update").$();
             executeUpdate(compiler);
         } else { // this must be an OK/SET/COMMIT/ROLLBACK or empty query
+            commitImplicitTransaction();
             executeTag();
             prepareCommandComplete(false);
         }
@@ -2368,6 +2528,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
             long limit,
             @Transient SqlCompiler compiler
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, QueryPausedException, BadProtocolException {
+        commitImplicitTransaction();
         prepareForNewQuery();
         isEmptyQuery = true; // assume SQL text contains no query until we find out otherwise
         CharacterStoreEntry e = characterStore.newEntry();
@@ -2467,6 +2628,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     }
 
     private void reportError(CairoException ex) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        rollbackImplicitTransaction();
         prepareError(ex);
         sendReadyForNewQuery();
         clearRecvBuffer();
@@ -2474,6 +2636,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
 
     private void reportNonCriticalError(int position, CharSequence flyweightMessage)
             throws PeerDisconnectedException, PeerIsSlowToReadException {
+        rollbackImplicitTransaction();
         prepareNonCriticalError(position, flyweightMessage);
         sendReadyForNewQuery();
         clearRecvBuffer();
@@ -2481,6 +2644,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
 
     private void reportQueryCancelled(CharSequence flyweightMessage)
             throws PeerDisconnectedException, PeerIsSlowToReadException {
+        rollbackImplicitTransaction();
         prepareQueryCanceled(flyweightMessage);
         sendReadyForNewQuery();
         clearRecvBuffer();
@@ -2524,43 +2688,22 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         sendReadyForNewQuery();
     }
 
+    private void rollbackImplicitTransaction() {
+        if (transactionState == IMPLICIT_TRANSACTION) {
+            try {
+                closePendingWriters(false);
+            } finally {
+                pendingWriters.clear();
+                transactionState = NO_TRANSACTION;
+            }
+        }
+    }
+
     private void sendAndReset() throws PeerDisconnectedException, PeerIsSlowToReadException {
         doSend(0, (int) (sendBufferPtr - sendBuffer));
         responseAsciiSink.reset();
     }
 
-    // This method is currently unused. it's used for the COPY sub-protocol, which is currently not implemented.
-    // It's left here so when we add the sub-protocol later we won't need to reimplemented it.
-    // We could keep it just in git history, but chances are nobody would recall to search for it there
-    private void sendCopyInResponse(CairoEngine engine, TextLoader textLoader) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        TableToken tableToken = engine.getTableTokenIfExists(textLoader.getTableName());
-        if (
-                TableUtils.TABLE_EXISTS == engine.getStatus(
-                        sqlExecutionContext.getCairoSecurityContext(),
-                        path,
-                        tableToken
-                )
-        ) {
-            responseAsciiSink.put(MESSAGE_TYPE_COPY_IN_RESPONSE);
-            long addr = responseAsciiSink.skip();
-            responseAsciiSink.put((byte) 0); // TEXT (1=BINARY, which we do not support yet)
-
-            try (TableWriter writer = engine.getWriter(sqlExecutionContext.getCairoSecurityContext(), tableToken, WRITER_LOCK_REASON)) {
-                RecordMetadata metadata = writer.getMetadata();
-                responseAsciiSink.putNetworkShort((short) metadata.getColumnCount());
-                for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
-                    responseAsciiSink.putNetworkShort((short) PGOids.getTypeOid(metadata.getColumnType(i)));
-                }
-            }
-            responseAsciiSink.putLen(addr);
-        } else {
-            final SqlException e = SqlException.$(0, "table does not exist [table=").put(textLoader.getTableName()).put(']');
-            prepareNonCriticalError(e.getPosition(), e.getFlyweightMessage());
-            prepareReadyForQuery();
-        }
-        sendAndReset();
-    }
-
     private void sendCursor(
             int maxRows,
             PGResumeProcessor cursorResumeProcessor,
@@ -2720,6 +2863,21 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         recvBufferReadOffset = 0;
     }
 
+    private void startCopyIn(TextLoader textLoader) {
+        if (copyTextLoader == null) {
+            copyTextLoader = new TextLoader(engine);
+        }
+        // compiler's loader is shared by all connections served by the same worker,
+        // whereas COPY data spans multiple network reads, so the load needs a loader of its own
+        copyTextLoader.of(textLoader);
+        copyTextLoader.setMaxUncommittedRows(engine.getConfiguration().getMaxUncommittedRows());
+        copyBuffer = copyBufferPtr = Unsafe.malloc(copyBufferSize, MemoryTag.NATIVE_PGW_CONN);
+        isCopyIn = true;
+        prepareCopyInResponse(copyTextLoader.getTableName());
+        // ReadyForQuery is sent once client completes or aborts the copy
+        sendRNQ = false;
+    }
+
     private void validateParameterCounts(short parameterFormatCount, short parameterValueCount, int parameterTypeCount) throws BadProtocolException {
         if (parameterValueCount > 0) {
             if (parameterValueCount < parameterTypeCount) {
@@ -2881,12 +3039,14 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                     prepareRowDescription();
                     sendCursor(0, resumeCursorQueryRef, resumeQueryCompleteRef);
                 } else if (typesAndInsert != null) {
-                    executeInsert(compiler);
+                    executeInsert(compiler, false);
                 } else if (typesAndUpdate != null) {
                     executeUpdate(compiler);
                 } else if (cq.getType() == CompiledQuery.INSERT_AS_SELECT ||
                         cq.getType() == CompiledQuery.CREATE_TABLE_AS_SELECT) {
                     prepareCommandComplete(true);
+                } else if (cq.getType() == CompiledQuery.COPY_REMOTE) {
+                    startCopyIn(cq.getTextLoader());
                 } else {
                     executeTag();
                     prepareCommandComplete(false);
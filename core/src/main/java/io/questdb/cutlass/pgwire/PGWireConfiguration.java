@@ -43,6 +43,8 @@ public interface PGWireConfiguration extends WorkerPoolConfiguration {
 
     int getConnectionPoolInitialCapacity();
 
+    int getCopyBufferSize();
+
     DateLocale getDefaultDateLocale();
 
     String getDefaultPassword();
@@ -68,6 +68,7 @@ public class PGWireServer implements Closeable {
         );
         this.metrics = engine.getMetrics();
         this.workerPool = workerPool;
+        metrics.addDispatcher("pg_wire", dispatcher);
 
         workerPool.assign(dispatcher);
 
@@ -49,7 +49,6 @@ public class CairoTextWriter implements Closeable, Mutable {
     private final ObjectPool<OtherToTimestampAdapter> otherToTimestampAdapterPool = new ObjectPool<>(OtherToTimestampAdapter::new, 4);
     private final IntList remapIndex = new IntList();
     private final TableStructureAdapter tableStructureAdapter = new TableStructureAdapter();
-    private long _size;
     private int atomicity;
     private CharSequence designatedTimestampColumnName;
     private int designatedTimestampIndex;
@@ -64,7 +63,8 @@ public class CairoTextWriter implements Closeable, Mutable {
     private int timestampIndex = NO_INDEX;
     private ObjList<TypeAdapter> types;
     private int warnings;
-    private TableWriter writer;
+    private TableWriterAPI writer;
+    private long writtenLineCount;
     private final CsvTextLexer.Listener nonPartitionedListener = this::onFieldsNonPartitioned;
     private final CsvTextLexer.Listener partitionedListener = this::onFieldsPartitioned;
 
@@ -79,7 +79,7 @@ public class CairoTextWriter implements Closeable, Mutable {
         writer = Misc.free(writer);
         columnErrorCounts.clear();
         timestampAdapter = null;
-        _size = 0;
+        writtenLineCount = 0;
         warnings = TextLoadWarning.NONE;
         designatedTimestampColumnName = null;
         designatedTimestampIndex = NO_INDEX;
@@ -100,7 +100,11 @@ public class CairoTextWriter implements Closeable, Mutable {
 
     public void commit() {
         if (writer != null) {
-            writer.commit(durable ? CommitMode.SYNC : CommitMode.NOSYNC);
+            if (writer instanceof TableWriter) {
+                ((TableWriter) writer).commit(durable ? CommitMode.SYNC : CommitMode.NOSYNC);
+            } else {
+                writer.commit();
+            }
         }
     }
 
@@ -133,7 +137,7 @@ public class CairoTextWriter implements Closeable, Mutable {
     }
 
     public long getWrittenLineCount() {
-        return writer == null ? 0 : writer.size() - _size;
+        return writtenLineCount;
     }
 
     public void of(
@@ -152,6 +156,19 @@ public class CairoTextWriter implements Closeable, Mutable {
         this.importedTimestampColumnName = timestampColumn;
     }
 
+    public void of(CairoTextWriter that) {
+        of(
+                Chars.toString(that.tableName),
+                that.overwrite,
+                that.durable,
+                that.atomicity,
+                that.partitionBy,
+                Chars.toString(that.importedTimestampColumnName)
+        );
+        this.maxUncommittedRows = that.maxUncommittedRows;
+        this.o3MaxLag = that.o3MaxLag;
+    }
+
     public void onFieldsNonPartitioned(long line, ObjList<DirectByteCharSequence> values, int valuesLength) {
         final TableWriter.Row w = writer.newRow();
         for (int i = 0; i < valuesLength; i++) {
@@ -162,6 +179,7 @@ public class CairoTextWriter implements Closeable, Mutable {
             if (onField(line, dbcs, w, i)) return;
         }
         w.append();
+        writtenLineCount++;
     }
 
     public void onFieldsPartitioned(long line, ObjList<DirectByteCharSequence> values, int valuesLength) {
@@ -179,6 +197,7 @@ public class CairoTextWriter implements Closeable, Mutable {
                 }
             }
             w.append();
+            writtenLineCount++;
             checkUncommittedRowCount();
         } catch (Exception e) {
             logError(line, timestampIndex, dbcs);
@@ -194,8 +213,16 @@ public class CairoTextWriter implements Closeable, Mutable {
     }
 
     private void checkUncommittedRowCount() {
-        if (writer != null && maxUncommittedRows > 0 && writer.getO3RowCount() >= maxUncommittedRows) {
-            writer.ic(durable ? CommitMode.SYNC : CommitMode.NOSYNC);
+        if (writer != null && maxUncommittedRows > 0) {
+            if (writer instanceof TableWriter) {
+                final TableWriter tableWriter = (TableWriter) writer;
+                if (tableWriter.getO3RowCount() >= maxUncommittedRows) {
+                    tableWriter.ic(durable ? CommitMode.SYNC : CommitMode.NOSYNC);
+                }
+            } else if (writer.getUncommittedRowCount() >= maxUncommittedRows) {
+                // WAL writer has no O3 memory, commit the whole batch to the WAL segment instead
+                writer.commit();
+            }
         }
     }
 
@@ -252,14 +279,24 @@ public class CairoTextWriter implements Closeable, Mutable {
         return false;
     }
 
-    private TableWriter openWriterAndOverrideImportTypes(
+    private int getPartitionBy(CairoSecurityContext cairoSecurityContext, TableToken tableToken) {
+        if (writer instanceof TableWriter) {
+            return ((TableWriter) writer).getPartitionBy();
+        }
+        try (TableReader reader = engine.getReader(cairoSecurityContext, tableToken)) {
+            return reader.getPartitionedBy();
+        }
+    }
+
+    private TableWriterAPI openWriterAndOverrideImportTypes(
             TableToken tableToken,
             ObjList<CharSequence> names,
             ObjList<TypeAdapter> detectedTypes,
             CairoSecurityContext cairoSecurityContext,
             TypeManager typeManager
     ) {
-        TableWriter writer = engine.getWriter(cairoSecurityContext, tableToken, WRITER_LOCK_REASON);
+        // WAL tables are written via WAL writer, so that the import does not race with the apply job
+        TableWriterAPI writer = engine.getTableWriterAPI(cairoSecurityContext, tableToken, WRITER_LOCK_REASON);
         RecordMetadata metadata = writer.getMetadata();
 
         // now, compare column count.
@@ -336,10 +373,11 @@ public class CairoTextWriter implements Closeable, Mutable {
         switch (engine.getStatus(cairoSecurityContext, path, tableToken)) {
             case TableUtils.TABLE_DOES_NOT_EXIST:
                 tableToken = createTable(names, detectedTypes, cairoSecurityContext, path);
-                writer = engine.getWriter(cairoSecurityContext, tableToken, WRITER_LOCK_REASON);
-                designatedTimestampColumnName = writer.getDesignatedTimestampColumnName();
-                designatedTimestampIndex = writer.getMetadata().getTimestampIndex();
-                partitionBy = writer.getPartitionBy();
+                final TableWriter tableWriter = engine.getWriter(cairoSecurityContext, tableToken, WRITER_LOCK_REASON);
+                writer = tableWriter;
+                designatedTimestampColumnName = tableWriter.getDesignatedTimestampColumnName();
+                designatedTimestampIndex = tableWriter.getMetadata().getTimestampIndex();
+                partitionBy = tableWriter.getPartitionBy();
                 break;
             case TableUtils.TABLE_EXISTS:
                 if (overwrite) {
@@ -349,16 +387,17 @@ public class CairoTextWriter implements Closeable, Mutable {
                 } else {
                     canUpdateMetadata = false;
                     writer = openWriterAndOverrideImportTypes(tableToken, names, detectedTypes, cairoSecurityContext, typeManager);
-                    designatedTimestampColumnName = writer.getDesignatedTimestampColumnName();
                     designatedTimestampIndex = writer.getMetadata().getTimestampIndex();
+                    designatedTimestampColumnName = designatedTimestampIndex > -1 ? writer.getMetadata().getColumnName(designatedTimestampIndex) : null;
                     if (importedTimestampColumnName != null &&
                             !Chars.equalsNc(importedTimestampColumnName, designatedTimestampColumnName)) {
                         warnings |= TextLoadWarning.TIMESTAMP_MISMATCH;
                     }
-                    if (PartitionBy.isPartitioned(partitionBy) && partitionBy != writer.getPartitionBy()) {
+                    final int tablePartitionBy = getPartitionBy(cairoSecurityContext, tableToken);
+                    if (PartitionBy.isPartitioned(partitionBy) && partitionBy != tablePartitionBy) {
                         warnings |= TextLoadWarning.PARTITION_TYPE_MISMATCH;
                     }
-                    partitionBy = writer.getPartitionBy();
+                    partitionBy = tablePartitionBy;
                     tableStructureAdapter.of(names, detectedTypes);
                 }
                 break;
@@ -366,6 +405,7 @@ public class CairoTextWriter implements Closeable, Mutable {
                 throw CairoException.nonCritical().put("name is reserved [table=").put(tableName).put(']');
         }
         if (canUpdateMetadata) {
+            final TableWriter writer = (TableWriter) this.writer;
             if (PartitionBy.isPartitioned(partitionBy)) {
                 if (o3MaxLag > -1) {
                     writer.setMetaO3MaxLag(o3MaxLag);
@@ -379,7 +419,6 @@ public class CairoTextWriter implements Closeable, Mutable {
         } else {
             LOG.info().$("cannot update metadata attributes o3MaxLag and maxUncommittedRows when the table exists and parameter overwrite is false").$();
         }
-        _size = writer.size();
         columnErrorCounts.seed(writer.getMetadata().getColumnCount(), 0);
 
         if (timestampIndex != NO_INDEX) {
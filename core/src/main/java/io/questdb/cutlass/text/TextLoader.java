@@ -35,6 +35,7 @@ import io.questdb.cutlass.text.types.TypeAdapter;
 import io.questdb.cutlass.text.types.TypeManager;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.std.Chars;
 import io.questdb.std.LongList;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
@@ -71,6 +72,7 @@ public class TextLoader implements Closeable, Mutable {
     private CharSequence tableName;
     private TimestampAdapter timestampAdapter;
     private CharSequence timestampColumn;
+    private CharSequence timestampFormat;
 
     public TextLoader(CairoEngine engine) {
         this.tlw = new TextLexerWrapper(engine.getConfiguration().getTextConfiguration());
@@ -105,6 +107,8 @@ public class TextLoader implements Closeable, Mutable {
         timestampAdapter = null;
         skipLinesWithExtraValues = true;
         tableName = null;
+        timestampColumn = null;
+        timestampFormat = null;
     }
 
     @Override
@@ -141,11 +145,7 @@ public class TextLoader implements Closeable, Mutable {
         this.textDelimiterScanner.setTableName(tableName);
         this.textMetadataParser.setTableName(tableName);
         this.timestampColumn = timestampColumn;
-        if (timestampFormat != null) {
-            DateFormat dateFormat = typeManager.getInputFormatConfiguration().getTimestampFormatFactory().get(timestampFormat);
-            this.timestampAdapter = (TimestampAdapter) typeManager.nextTimestampAdapter(false, dateFormat,
-                    textConfiguration.getDefaultDateLocale());
-        }
+        configureTimestampFormat(timestampFormat);
 
         LOG.info()
                 .$("configured [table=`").$(tableName)
@@ -214,6 +214,24 @@ public class TextLoader implements Closeable, Mutable {
         return forceHeaders;
     }
 
+    /**
+     * Copies destination and format settings from the other loader. This allows the load to outlive
+     * the SQL compiler that configured it, e.g. when data arrives over multiple network reads.
+     */
+    public void of(TextLoader that) {
+        clear();
+        textWriter.of(that.textWriter);
+        tableName = textWriter.getTableName();
+        textDelimiterScanner.setTableName(tableName);
+        textMetadataParser.setTableName(tableName);
+        timestampColumn = Chars.toString(that.timestampColumn);
+        configureTimestampFormat(Chars.toString(that.timestampFormat));
+        columnDelimiter = that.columnDelimiter;
+        forceHeaders = that.forceHeaders;
+        skipLinesWithExtraValues = that.skipLinesWithExtraValues;
+        setState(that.state);
+    }
+
     public void parse(long lo, long hi, int lineCountLimit, CsvTextLexer.Listener textLexerListener) {
         lexer.parse(lo, hi, lineCountLimit, textLexerListener);
     }
@@ -292,6 +310,15 @@ public class TextLoader implements Closeable, Mutable {
         }
     }
 
+    private void configureTimestampFormat(CharSequence timestampFormat) {
+        this.timestampFormat = timestampFormat;
+        if (timestampFormat != null) {
+            DateFormat dateFormat = typeManager.getInputFormatConfiguration().getTimestampFormatFactory().get(timestampFormat);
+            this.timestampAdapter = (TimestampAdapter) typeManager.nextTimestampAdapter(false, dateFormat,
+                    textConfiguration.getDefaultDateLocale());
+        }
+    }
+
     private void parseData(long lo, long hi, CairoSecurityContext cairoSecurityContext) {
         parse(lo, hi, Integer.MAX_VALUE);
     }
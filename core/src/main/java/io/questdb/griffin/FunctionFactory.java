@@ -72,6 +72,10 @@ public interface FunctionFactory {
      */
     String getSignature();
 
+    default boolean isAnalytic() {
+        return false;
+    }
+
     default boolean isBoolean() {
         return false;
     }
@@ -28,6 +28,7 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ImplicitCastException;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
 import io.questdb.griffin.engine.functions.AbstractUnaryTimestampFunction;
 import io.questdb.griffin.engine.functions.CursorFunction;
 import io.questdb.griffin.engine.functions.GroupByFunction;
@@ -555,9 +556,16 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
             }
         }
 
+        // analytic and group-by functions share names, e.g. sum(), OVER clause decides which one is called
+        final boolean analytic = functionFactoryCache.isAnalytic(node.token)
+                && (!functionFactoryCache.isGroupBy(node.token) || isAnalyticContext());
+
         for (int i = 0, n = overload.size(); i < n; i++) {
             final FunctionFactoryDescriptor descriptor = overload.getQuick(i);
             final FunctionFactory factory = descriptor.getFactory();
+            if (factory.isAnalytic() != analytic) {
+                continue;
+            }
             int sigArgCount = descriptor.getSigArgCount();
 
             final boolean sigVarArg;
@@ -965,6 +973,11 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         return bindVariableService;
     }
 
+    private boolean isAnalyticContext() {
+        final AnalyticContext analyticContext = sqlExecutionContext != null ? sqlExecutionContext.getAnalyticContext() : null;
+        return analyticContext != null && !analyticContext.isEmpty();
+    }
+
     private Function parseIndexedParameter(int position, CharSequence name) throws SqlException {
         // get variable index from token
         try {
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.TableReader;
+
+/**
+ * Observes the inputs a query depends on, other than its text and bind variables,
+ * while the query is executed. Used to decide whether the result of the query can be reused.
+ */
+public interface QueryDependencyListener {
+
+    /**
+     * Called when query execution reads current time or random generator, which makes the result
+     * non-repeatable even when the underlying tables do not change.
+     */
+    void onNonDeterministicInput();
+
+    /**
+     * Called for every table reader acquired by the query.
+     *
+     * @param reader reader, positioned at the table transaction the query is going to see
+     */
+    void onTableReader(TableReader reader);
+}
@@ -34,6 +34,7 @@ import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.engine.*;
 import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.analytic.AnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.analytic.CachedAnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.SymbolFunction;
@@ -42,6 +43,7 @@ import io.questdb.griffin.engine.functions.bind.NamedParameterLinkFunction;
 import io.questdb.griffin.engine.functions.cast.*;
 import io.questdb.griffin.engine.functions.columns.*;
 import io.questdb.griffin.engine.functions.constants.*;
+import io.questdb.griffin.engine.functions.math.DoubleExpressionCompiler;
 import io.questdb.griffin.engine.groupby.*;
 import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.vect.*;
@@ -96,6 +98,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final BytecodeAssembler asm = new BytecodeAssembler();
     private final CairoConfiguration configuration;
     private final ObjList<TableColumnMetadata> deferredAnalyticMetadata = new ObjList<>();
+    private final DoubleExpressionCompiler doubleExpressionCompiler;
     private final boolean enableJitDebug;
     private final CairoEngine engine;
     private final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
@@ -142,6 +145,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         this.configuration = configuration;
         this.functionParser = functionParser;
         this.recordComparatorCompiler = new RecordComparatorCompiler(asm);
+        this.doubleExpressionCompiler = new DoubleExpressionCompiler(asm);
         this.enableJitDebug = configuration.isSqlJitDebugEnabled();
         this.jitIRMem = Vm.getCARWInstance(configuration.getSqlJitIRMemoryPageSize(),
                 configuration.getSqlJitIRMemoryMaxPages(), MemoryTag.NATIVE_JIT);
@@ -248,6 +252,77 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return true;
     }
 
+    private static void collectZoneMapPredicates(
+            ExpressionNode node,
+            RecordMetadata metadata,
+            IntList columnIndexes,
+            IntList operators,
+            LongList values
+    ) {
+        if (node.type != OPERATION || node.paramCount != 2) {
+            return;
+        }
+        if (isAndKeyword(node.token)) {
+            collectZoneMapPredicates(node.lhs, metadata, columnIndexes, operators, values);
+            collectZoneMapPredicates(node.rhs, metadata, columnIndexes, operators, values);
+            return;
+        }
+
+        // "column op constant" or "constant op column"
+        ExpressionNode column = node.lhs;
+        ExpressionNode constant = node.rhs;
+        boolean swapped = false;
+        if (column.type != LITERAL) {
+            column = node.rhs;
+            constant = node.lhs;
+            swapped = true;
+        }
+        if (column.type != LITERAL) {
+            return;
+        }
+        int operator = zoneMapOperator(node.token, swapped);
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (operator < 0 || columnIndex < 0) {
+            return;
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (!ZoneMapReader.isSupported(columnType)) {
+            return;
+        }
+
+        boolean negative = false;
+        if (constant.type == OPERATION && constant.paramCount == 1 && Chars.equals(constant.token, '-')) {
+            negative = true;
+            constant = constant.rhs;
+        }
+        if (constant.type != CONSTANT) {
+            return;
+        }
+
+        final long value;
+        try {
+            if (ColumnType.tagOf(columnType) == ColumnType.DOUBLE) {
+                final double d = Numbers.parseDouble(constant.token);
+                if (Double.isNaN(d) || Double.isInfinite(d)) {
+                    return;
+                }
+                value = Double.doubleToRawLongBits(negative ? -d : d);
+            } else {
+                final long l = Numbers.parseLong(constant.token);
+                // null constants match nulls, e.g. "x = -2147483648" is "x is null" for int columns
+                if (l == Numbers.LONG_NaN || l == Numbers.INT_NaN || l == -(long) Numbers.INT_NaN) {
+                    return;
+                }
+                value = negative ? -l : l;
+            }
+        } catch (NumericException e) {
+            return;
+        }
+        columnIndexes.add(columnIndex);
+        operators.add(operator);
+        values.add(value);
+    }
+
     private static RecordCursorFactory createFullFatAsOfJoin(CairoConfiguration configuration,
                                                              RecordMetadata metadata,
                                                              RecordCursorFactory masterFactory,
@@ -280,6 +355,57 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return new LtJoinRecordCursorFactory(configuration, metadata, masterFactory, slaveFactory, mapKeyTypes, mapValueTypes, slaveColumnTypes, masterKeySink, slaveKeySink, columnSplit, slaveValueSink, columnIndex, joinContext);
     }
 
+    /**
+     * Looks for "column = value" predicate AND-ed to the filter, where the column has
+     * a hash index and the value is a constant or a bind variable.
+     */
+    private static @Nullable ExpressionNode findHashIndexPredicate(ExpressionNode node, RecordMetadata metadata) {
+        if (node.type != OPERATION || node.paramCount != 2) {
+            return null;
+        }
+        if (isAndKeyword(node.token)) {
+            final ExpressionNode predicate = findHashIndexPredicate(node.lhs, metadata);
+            return predicate != null ? predicate : findHashIndexPredicate(node.rhs, metadata);
+        }
+        if (!Chars.equals(node.token, '=')) {
+            return null;
+        }
+
+        final ExpressionNode column = node.lhs.type == LITERAL ? node.lhs : node.rhs;
+        ExpressionNode value = column == node.lhs ? node.rhs : node.lhs;
+        if (column.type != LITERAL) {
+            return null;
+        }
+        if (value.type == OPERATION && value.paramCount == 1 && Chars.equals(value.token, '-')) {
+            value = value.rhs;
+        }
+        if (value.type != CONSTANT && value.type != BIND_VARIABLE) {
+            return null;
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex < 0 || !metadata.isColumnIndexed(columnIndex) || !HashIndexUtils.isSupported(metadata.getColumnType(columnIndex))) {
+            return null;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the filter atom of an async filter factory, so that GROUP BY can evaluate
+     * the filter inside its own reduce task. Filters that honour a LIMIT cannot be fused.
+     */
+    private static @Nullable AsyncFilterAtom getFusableFilterAtom(RecordCursorFactory factory) {
+        if (factory.followedLimitAdvice()) {
+            return null;
+        }
+        if (factory instanceof AsyncJitFilteredRecordCursorFactory) {
+            return ((AsyncJitFilteredRecordCursorFactory) factory).getFilterAtom();
+        }
+        if (factory instanceof AsyncFilteredRecordCursorFactory) {
+            return ((AsyncFilteredRecordCursorFactory) factory).getFilterAtom();
+        }
+        return null;
+    }
+
     private static int getOrderByDirectionOrDefault(QueryModel model, int index) {
         IntList direction = model.getOrderByDirectionAdvice();
         if (index >= direction.size()) {
@@ -288,6 +414,25 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return model.getOrderByDirectionAdvice().getQuick(index);
     }
 
+    private static int zoneMapOperator(CharSequence token, boolean swapped) {
+        if (Chars.equals(token, '=')) {
+            return ZoneMapDataFrameCursorFactory.OP_EQ;
+        }
+        if (Chars.equals(token, '<')) {
+            return swapped ? ZoneMapDataFrameCursorFactory.OP_GT : ZoneMapDataFrameCursorFactory.OP_LT;
+        }
+        if (Chars.equals(token, "<=")) {
+            return swapped ? ZoneMapDataFrameCursorFactory.OP_GE : ZoneMapDataFrameCursorFactory.OP_LE;
+        }
+        if (Chars.equals(token, '>')) {
+            return swapped ? ZoneMapDataFrameCursorFactory.OP_LT : ZoneMapDataFrameCursorFactory.OP_GT;
+        }
+        if (Chars.equals(token, ">=")) {
+            return swapped ? ZoneMapDataFrameCursorFactory.OP_LE : ZoneMapDataFrameCursorFactory.OP_GE;
+        }
+        return -1;
+    }
+
     private VectorAggregateFunctionConstructor assembleFunctionReference(RecordMetadata metadata, ExpressionNode ast) {
         int columnIndex;
         if (ast.type == FUNCTION && ast.paramCount == 1 && SqlKeywords.isSumKeyword(ast.token) && ast.rhs.type == LITERAL) {
@@ -414,6 +559,42 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return false;
     }
 
+    /**
+     * Collects indexes of the columns referenced by the filter expression. Returns null
+     * when some of the literals can't be resolved against the metadata.
+     */
+    @Nullable
+    private IntList collectFilterColumnIndexes(ExpressionNode node, RecordMetadata metadata) {
+        final IntList columnIndexes = new IntList();
+        sqlNodeStack.clear();
+        while (node != null) {
+            if (node.type == ExpressionNode.LITERAL) {
+                final int columnIndex = metadata.getColumnIndexQuiet(node.token);
+                if (columnIndex < 0) {
+                    sqlNodeStack.clear();
+                    return null;
+                }
+                if (!columnIndexes.contains(columnIndex)) {
+                    columnIndexes.add(columnIndex);
+                }
+            }
+
+            for (int i = 0, n = node.args.size(); i < n; i++) {
+                sqlNodeStack.push(node.args.getQuick(i));
+            }
+            if (node.lhs != null) {
+                sqlNodeStack.push(node.lhs);
+            }
+
+            if (node.rhs != null) {
+                node = node.rhs;
+            } else {
+                node = sqlNodeStack.poll();
+            }
+        }
+        return columnIndexes;
+    }
+
     @Nullable
     private Function compileFilter(
             IntrinsicModel intrinsicModel,
@@ -444,6 +625,49 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return null;
     }
 
+    private @Nullable ObjList<ObjList<GroupByFunction>> compileWorkerGroupByFunctionsConditionally(
+            boolean condition,
+            int workerCount,
+            QueryModel model,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext,
+            boolean reserveTimestampValue
+    ) throws SqlException {
+        if (condition) {
+            final ObjList<ObjList<GroupByFunction>> workerGroupByFunctions = new ObjList<>(workerCount);
+            final ArrayColumnTypes workerValueTypes = new ArrayColumnTypes();
+            final IntList workerFunctionPositions = new IntList();
+            try {
+                for (int i = 0; i < workerCount; i++) {
+                    final ObjList<GroupByFunction> functions = new ObjList<>();
+                    workerGroupByFunctions.extendAndSet(i, functions);
+                    workerValueTypes.clear();
+                    if (reserveTimestampValue) {
+                        // SAMPLE BY keeps bucket timestamp in the first value
+                        workerValueTypes.add(ColumnType.TIMESTAMP);
+                    }
+                    // value indexes are assigned in the same order as for the owner functions
+                    GroupByUtils.prepareGroupByFunctions(
+                            model,
+                            metadata,
+                            functionParser,
+                            executionContext,
+                            functions,
+                            workerFunctionPositions,
+                            workerValueTypes
+                    );
+                }
+            } catch (Throwable e) {
+                for (int i = 0, n = workerGroupByFunctions.size(); i < n; i++) {
+                    Misc.freeObjList(workerGroupByFunctions.getQuick(i));
+                }
+                throw e;
+            }
+            return workerGroupByFunctions;
+        }
+        return null;
+    }
+
     private RecordCursorFactory createAsOfJoin(
             RecordMetadata metadata,
             RecordCursorFactory master,
@@ -1394,6 +1618,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         final boolean enableParallelFilter = executionContext.isParallelFilterEnabled();
         final boolean preTouchColumns = configuration.isSqlParallelFilterPreTouchEnabled();
         if (enableParallelFilter && factory.supportPageFrameCursor()) {
+            // the filter reads only these columns, the rest are read for the matching rows
+            final IntList filterColumnIndexes = collectFilterColumnIndexes(filterExpr, factory.getMetadata());
 
             final boolean useJit = executionContext.getJitMode() != SqlJitMode.JIT_MODE_DISABLED
                     && (!model.isUpdate() || executionContext.isWalApplication());
@@ -1435,6 +1661,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                             reduceTaskPool,
                             limitLoFunction,
                             limitLoPos,
+                            filterColumnIndexes,
                             preTouchColumns,
                             executionContext.getSharedWorkerCount()
                     );
@@ -1475,6 +1702,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     ),
                     limitLoFunction,
                     limitLoPos,
+                    filterColumnIndexes,
                     preTouchColumns,
                     executionContext.getSharedWorkerCount()
             );
@@ -1497,6 +1725,70 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    @Nullable
+    private RecordCursorFactory generateHashIndexQuery(
+            IntrinsicModel intrinsicModel,
+            ExpressionNode predicate,
+            RecordMetadata metadata,
+            RecordMetadata myMeta,
+            DataFrameCursorFactory dfcFactory,
+            SqlExecutionContext executionContext,
+            IntList columnIndexes,
+            IntList columnSizes,
+            boolean supportsRandomAccess
+    ) throws SqlException {
+        final ExpressionNode column = predicate.lhs.type == LITERAL ? predicate.lhs : predicate.rhs;
+        final ExpressionNode value = column == predicate.lhs ? predicate.rhs : predicate.lhs;
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        final int columnType = metadata.getColumnType(columnIndex);
+
+        final Function valueFunction = functionParser.parseFunction(value, metadata, executionContext);
+        if (
+                !(valueFunction.isConstant() || valueFunction.isRuntimeConstant())
+                        || !HashIndexFilteredRowCursorFactory.isValueTypeSupported(columnType, valueFunction.getType())
+        ) {
+            Misc.free(valueFunction);
+            return null;
+        }
+
+        // the filter is kept as a whole, it has to weed out other values sharing the hash bucket
+        final Function filter;
+        try {
+            filter = compileFilter(intrinsicModel, myMeta, executionContext);
+        } catch (Throwable th) {
+            Misc.free(valueFunction);
+            throw th;
+        }
+        if (filter.isConstant()) {
+            try {
+                if (!filter.getBool(null)) {
+                    Misc.free(dfcFactory);
+                    return new EmptyTableRecordCursorFactory(myMeta);
+                }
+                return null;
+            } finally {
+                Misc.free(filter);
+                Misc.free(valueFunction);
+            }
+        }
+
+        final int indexDirection = dfcFactory.getOrder() == DataFrameCursorFactory.ORDER_DESC
+                ? BitmapIndexReader.DIR_BACKWARD
+                : BitmapIndexReader.DIR_FORWARD;
+        return new DataFrameRecordCursorFactory(
+                configuration,
+                myMeta,
+                generateZoneMapFilter(dfcFactory, intrinsicModel.filter, metadata),
+                new HashIndexFilteredRowCursorFactory(columnIndex, columnType, valueFunction, filter, indexDirection, columnIndexes),
+                false,
+                filter,
+                false,
+                columnIndexes,
+                columnSizes,
+                supportsRandomAccess
+        );
+    }
+
     private RecordCursorFactory generateJoins(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final ObjList<QueryModel> joinModels = model.getJoinModels();
         IntList ordered = model.getOrderedJoinModels();
@@ -1769,6 +2061,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 ),
                                 null,
                                 0,
+                                null,
                                 false,
                                 executionContext.getSharedWorkerCount()
                         );
@@ -2529,7 +2822,53 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 }
             }
 
-            if (fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "prev")) {
+            final boolean isFillPrev = fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "prev");
+            final boolean isFillNull = fillCount == 1 && isNullKeyword(sampleByFill.getQuick(0).token);
+            if (
+                    (isFillNone || isFillNull || isFillPrev)
+                            && executionContext.isParallelGroupByEnabled()
+                            && executionContext.getSharedWorkerCount() > 0
+                            && factory.supportPageFrameCursor()
+                            && Chars.equalsLowerCaseAscii(configuration.getDefaultMapType(), "fast")
+                            && timestampSampler.isFixedSize()
+                            && timezoneNameFunc.isConstant()
+                            && timezoneNameFunc.getStr(null) == null
+                            && offsetFunc.isConstant()
+                            && GroupByUtils.isParallelismSupported(groupByFunctions)
+            ) {
+                Misc.free(timezoneNameFunc);
+                return new AsyncSampleByRecordCursorFactory(
+                        asm,
+                        configuration,
+                        executionContext.getMessageBus(),
+                        factory,
+                        groupByMetadata,
+                        listColumnFilterA,
+                        keyTypes,
+                        valueTypes,
+                        groupByFunctions,
+                        compileWorkerGroupByFunctionsConditionally(
+                                !GroupByUtils.isReadThreadSafe(groupByFunctions),
+                                executionContext.getSharedWorkerCount(),
+                                model,
+                                metadata,
+                                executionContext,
+                                true
+                        ),
+                        recordFunctions,
+                        recordFunctionPositions,
+                        timestampSampler,
+                        timestampIndex,
+                        isFillNone ? AsyncSampleByRecordCursorFactory.FILL_NONE
+                                : isFillNull ? AsyncSampleByRecordCursorFactory.FILL_NULL : AsyncSampleByRecordCursorFactory.FILL_PREV,
+                        offsetFunc,
+                        offsetFuncPos,
+                        reduceTaskPool,
+                        executionContext.getSharedWorkerCount()
+                );
+            }
+
+            if (isFillPrev) {
                 if (keyTypes.getColumnCount() == 0) {
                     return new SampleByFillPrevNotKeyedRecordCursorFactory(
                             asm,
@@ -2605,7 +2944,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 );
             }
 
-            if (fillCount == 1 && isNullKeyword(sampleByFill.getQuick(0).token)) {
+            if (isFillNull) {
                 if (keyTypes.getColumnCount() == 0) {
                     return new SampleByFillNullNotKeyedRecordCursorFactory(
                             asm,
@@ -2723,6 +3062,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         final int columnCount = columns.size();
         groupedAnalytic.clear();
         ObjList<AnalyticFunction> naturalOrderFunctions = null;
+        // analytic functions by their column index, used to assemble streaming factory
+        final ObjList<AnalyticFunction> analyticFunctions = new ObjList<>();
+        boolean streaming = true;
 
         valueTypes.clear();
         ArrayColumnTypes chainTypes = valueTypes;
@@ -2786,7 +3128,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             if (qc instanceof AnalyticColumn) {
                 final AnalyticColumn ac = (AnalyticColumn) qc;
                 final ExpressionNode ast = qc.getAst();
-                if (ast.paramCount > 1) {
+                if (ast.paramCount > 3) {
                     Misc.free(base);
                     throw SqlException.$(ast.position, "too many arguments");
                 }
@@ -2828,16 +3170,40 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
 
                 final int osz = ac.getOrderBy().size();
+
+                // index of the chain column when analytic function is ordered by single ascending timestamp
+                int orderByTimestampIndex = -1;
+                if (osz == 1 && ac.getOrderByDirection().getQuick(0) == QueryModel.ORDER_DIRECTION_ASCENDING) {
+                    final int index = chainMetadata.getColumnIndexQuiet(ac.getOrderBy().getQuick(0).token);
+                    if (index > -1 && ColumnType.isTimestamp(chainMetadata.getColumnType(index))) {
+                        orderByTimestampIndex = index;
+                    }
+                }
+
+                // RANGE frame with offset is a time interval, rows are keyed by the ordering timestamp
+                if (ac.getFramingMode() == AnalyticColumn.FRAMING_RANGE
+                        && ac.getFramePreceding() != AnalyticColumn.FRAME_UNBOUNDED
+                        && orderByTimestampIndex == -1) {
+                    Misc.free(base);
+                    throw SqlException.$(ac.getFramingPosition(), "RANGE with offset requires ORDER BY on a single ascending timestamp column");
+                }
+
                 executionContext.configureAnalyticContext(
                         partitionByRecord,
                         partitionBySink,
                         keyTypes,
                         osz > 0,
-                        base.recordCursorSupportsRandomAccess()
+                        base.recordCursorSupportsRandomAccess(),
+                        ac.getFramingMode(),
+                        ac.getFramePreceding(),
+                        ac.isWholePartitionFrame(),
+                        orderByTimestampIndex
                 );
                 final Function f;
                 try {
-                    f = functionParser.parseFunction(ast, baseMetadata, executionContext);
+                    // analytic function reads records in the layout of the chain metadata,
+                    // same as the partition by functions do
+                    f = functionParser.parseFunction(ast, chainMetadata, executionContext);
                     if (!(f instanceof AnalyticFunction)) {
                         Misc.free(base);
                         throw SqlException.$(ast.position, "non-analytic function called in analytic context");
@@ -2864,6 +3230,15 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     }
                 }
 
+                // base cursor is already ordered by designated timestamp, e.g. time series table scan
+                if (!dismissOrder
+                        && orderByTimestampIndex > -1
+                        && orderByTimestampIndex < columnIndexes.size()
+                        && columnIndexes.getQuick(orderByTimestampIndex) == baseMetadata.getTimestampIndex()
+                        && !base.hasDescendingOrder()) {
+                    dismissOrder = true;
+                }
+
                 if (osz > 0 && !dismissOrder) {
                     IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
                     // init comparator if we need
@@ -2881,6 +3256,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 }
 
                 analyticFunction.setColumnIndex(i);
+                analyticFunctions.extendAndSet(i, analyticFunction);
+                streaming &= dismissOrder || osz == 0;
+                streaming &= analyticFunction.getPassCount() == AnalyticFunction.ZERO_PASS;
 
                 deferredAnalyticMetadata.extendAndSet(i, new TableColumnMetadata(
                         Chars.toString(qc.getAlias()),
@@ -2904,6 +3282,37 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             }
         }
 
+        if (streaming) {
+            // all analytic functions can be computed as base cursor is read, no need to cache records
+            final int chainColumnCount = chainTypes.getColumnCount();
+            final ObjList<Function> functions = new ObjList<>(chainColumnCount);
+            final ObjList<Function> columnFunctions = new ObjList<>(chainColumnCount);
+            final ObjList<AnalyticFunction> streamingFunctions = new ObjList<>();
+            for (int i = 0; i < chainColumnCount; i++) {
+                final AnalyticFunction analyticFunction = analyticFunctions.getQuiet(i);
+                if (analyticFunction != null) {
+                    functions.add(analyticFunction);
+                    streamingFunctions.add(analyticFunction);
+                } else {
+                    final Function columnFunction = FunctionParser.createColumn(
+                            0,
+                            baseMetadata.getColumnName(columnIndexes.getQuick(i)),
+                            baseMetadata
+                    );
+                    functions.add(columnFunction);
+                    columnFunctions.add(columnFunction);
+                }
+            }
+            return new AnalyticRecordCursorFactory(
+                    base,
+                    factoryMetadata,
+                    functions,
+                    columnFunctions,
+                    streamingFunctions,
+                    columnIndexes
+            );
+        }
+
         final ObjList<RecordComparator> analyticComparators = new ObjList<>(groupedAnalytic.size());
         final ObjList<ObjList<AnalyticFunction>> functionGroups = new ObjList<>(groupedAnalytic.size());
         for (ObjObjHashMap.Entry<IntList, ObjList<AnalyticFunction>> e : groupedAnalytic) {
@@ -3358,7 +3767,37 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 throw e;
             }
 
+            // async filter is evaluated by the group by reduce task, on the same frame
+            final AsyncFilterAtom filterAtom = getFusableFilterAtom(factory);
+            final boolean parallel = executionContext.isParallelGroupByEnabled()
+                    && executionContext.getSharedWorkerCount() > 0
+                    && (factory.supportPageFrameCursor() || filterAtom != null)
+                    && GroupByUtils.isParallelismSupported(groupByFunctions);
+
             if (keyTypes.getColumnCount() == 0) {
+                if (parallel) {
+                    return new AsyncGroupByNotKeyedRecordCursorFactory(
+                            asm,
+                            configuration,
+                            executionContext.getMessageBus(),
+                            factory,
+                            filterAtom,
+                            groupByMetadata,
+                            groupByFunctions,
+                            compileWorkerGroupByFunctionsConditionally(
+                                    !GroupByUtils.isReadThreadSafe(groupByFunctions),
+                                    executionContext.getSharedWorkerCount(),
+                                    model,
+                                    metadata,
+                                    executionContext,
+                                    false
+                            ),
+                            recordFunctions,
+                            reduceTaskPool,
+                            valueTypes.getColumnCount(),
+                            executionContext.getSharedWorkerCount()
+                    );
+                }
                 return new GroupByNotKeyedRecordCursorFactory(
                         asm,
                         factory,
@@ -3369,6 +3808,32 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 );
             }
 
+            if (parallel && Chars.equalsLowerCaseAscii(configuration.getDefaultMapType(), "fast")) {
+                return new AsyncGroupByRecordCursorFactory(
+                        asm,
+                        configuration,
+                        executionContext.getMessageBus(),
+                        factory,
+                        filterAtom,
+                        groupByMetadata,
+                        listColumnFilterA,
+                        keyTypes,
+                        valueTypes,
+                        groupByFunctions,
+                        compileWorkerGroupByFunctionsConditionally(
+                                !GroupByUtils.isReadThreadSafe(groupByFunctions),
+                                executionContext.getSharedWorkerCount(),
+                                model,
+                                metadata,
+                                executionContext,
+                                false
+                        ),
+                        recordFunctions,
+                        reduceTaskPool,
+                        executionContext.getSharedWorkerCount()
+                );
+            }
+
             return new io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory(
                     asm,
                     configuration,
@@ -3454,6 +3919,11 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     }
                 }
 
+                if (columnType == ColumnType.DOUBLE && executionContext.getJitMode() != SqlJitMode.JIT_MODE_DISABLED) {
+                    // collapse arithmetic expression into single method to avoid virtual calls per operator
+                    function = doubleExpressionCompiler.compile(function);
+                }
+
                 functions.add(function);
 
                 if (columnType == ColumnType.SYMBOL) {
@@ -4030,6 +4500,26 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 }
             }
 
+            if (intrinsicModel.filter != null) {
+                final ExpressionNode hashIndexPredicate = findHashIndexPredicate(intrinsicModel.filter, metadata);
+                if (hashIndexPredicate != null) {
+                    final RecordCursorFactory factory = generateHashIndexQuery(
+                            intrinsicModel,
+                            hashIndexPredicate,
+                            metadata,
+                            myMeta,
+                            dfcFactory,
+                            executionContext,
+                            columnIndexes,
+                            columnSizes,
+                            supportsRandomAccess
+                    );
+                    if (factory != null) {
+                        return factory;
+                    }
+                }
+            }
+
             if (intervalHitsOnlyOnePartition && intrinsicModel.filter == null) {
                 final ObjList<ExpressionNode> orderByAdvice = model.getOrderByAdvice();
                 final int orderByAdviceSize = orderByAdvice.size();
@@ -4040,7 +4530,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     assert columnIndex > -1;
 
                     // this is our kind of column
-                    if (myMeta.isColumnIndexed(columnIndex)) {
+                    if (myMeta.isColumnIndexed(columnIndex) && ColumnType.isSymbol(myMeta.getColumnType(columnIndex))) {
                         boolean orderByKeyColumn = false;
                         int indexDirection = BitmapIndexReader.DIR_FORWARD;
                         if (orderByAdviceSize == 1) {
@@ -4086,7 +4576,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             return new DataFrameRecordCursorFactory(
                     configuration,
                     myMeta,
-                    dfcFactory,
+                    generateZoneMapFilter(dfcFactory, intrinsicModel.filter, metadata),
                     rowFactory,
                     false,
                     null,
@@ -4133,7 +4623,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         // listColumnFilterA = latest by column indexes
         if (latestByColumnCount == 1) {
             int latestByColumnIndex = listColumnFilterA.getColumnIndexFactored(0);
-            if (myMeta.isColumnIndexed(latestByColumnIndex)) {
+            if (myMeta.isColumnIndexed(latestByColumnIndex) && ColumnType.isSymbol(myMeta.getColumnType(latestByColumnIndex))) {
                 return new LatestByAllIndexedRecordCursorFactory(
                         myMeta,
                         configuration,
@@ -4260,6 +4750,20 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return unionFactory;
     }
 
+    private DataFrameCursorFactory generateZoneMapFilter(DataFrameCursorFactory dfcFactory, ExpressionNode filter, RecordMetadata metadata) {
+        if (filter == null || !configuration.isZoneMapEnabled()) {
+            return dfcFactory;
+        }
+        final IntList columnIndexes = new IntList();
+        final IntList operators = new IntList();
+        final LongList values = new LongList();
+        collectZoneMapPredicates(filter, metadata, columnIndexes, operators, values);
+        if (columnIndexes.size() == 0) {
+            return dfcFactory;
+        }
+        return new ZoneMapDataFrameCursorFactory(configuration, dfcFactory, columnIndexes, operators, values);
+    }
+
     @Nullable
     private Function getHiFunction(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         return toLimitFunction(executionContext, model.getLimitHi(), null);
@@ -28,11 +28,13 @@ import io.questdb.MessageBus;
 import io.questdb.PropServerConfiguration;
 import io.questdb.TelemetryOrigin;
 import io.questdb.cairo.*;
+import io.questdb.cairo.mv.MatViewDefinition;
 import io.questdb.cairo.pool.WriterPool;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.cutlass.parquet.ParquetExporter;
 import io.questdb.cutlass.text.*;
 import io.questdb.griffin.engine.functions.catalogue.*;
 import io.questdb.griffin.engine.ops.AlterOperationBuilder;
@@ -50,6 +52,7 @@ import io.questdb.network.QueryPausedException;
 import io.questdb.std.*;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
@@ -167,6 +170,7 @@ public class SqlCompiler implements Closeable {
         final KeywordBasedExecutor vacuumTable = this::vacuum;
         final KeywordBasedExecutor snapshotDatabase = this::snapshotDatabase;
         final KeywordBasedExecutor compileDeallocate = this::compileDeallocate;
+        final KeywordBasedExecutor compileCreate = this::compileCreate;
 
         keywordBasedExecutors.put("truncate", truncateTables);
         keywordBasedExecutors.put("TRUNCATE", truncateTables);
@@ -204,6 +208,8 @@ public class SqlCompiler implements Closeable {
         keywordBasedExecutors.put("SNAPSHOT", snapshotDatabase);
         keywordBasedExecutors.put("deallocate", compileDeallocate);
         keywordBasedExecutors.put("DEALLOCATE", compileDeallocate);
+        keywordBasedExecutors.put("create", compileCreate);
+        keywordBasedExecutors.put("CREATE", compileCreate);
 
         configureLexer(lexer);
 
@@ -455,6 +461,13 @@ public class SqlCompiler implements Closeable {
                     } else {
                         throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
                     }
+                } else if (SqlKeywords.isCompressKeyword(tok)) {
+                    tok = expectToken(lexer, "'partition'");
+                    if (SqlKeywords.isPartitionKeyword(tok)) {
+                        return alterTableDropDetachOrAttachPartition(tableMetadata, tableToken, PartitionAction.COMPRESS, executionContext);
+                    } else {
+                        throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
+                    }
                 } else if (SqlKeywords.isAlterKeyword(tok)) {
                     tok = expectToken(lexer, "'column'");
                     if (SqlKeywords.isColumnKeyword(tok)) {
@@ -561,7 +574,7 @@ public class SqlCompiler implements Closeable {
                     }
                     return alterTableResume(tableNamePosition, tableToken, fromTxn, executionContext);
                 } else {
-                    throw SqlException.$(lexer.lastTokenPosition(), "'add', 'drop', 'attach', 'detach', 'set', 'rename' or 'resume' expected");
+                    throw SqlException.$(lexer.lastTokenPosition(), "'add', 'drop', 'attach', 'detach', 'compress', 'set', 'rename' or 'resume' expected");
                 }
             } catch (CairoException e) {
                 LOG.info().$("could not alter table [table=").$(tableToken.getTableName()).$(", ex=").$((Throwable) e).$();
@@ -911,8 +924,11 @@ public class SqlCompiler implements Closeable {
                     case PartitionAction.DETACH:
                         alterOperationBuilder = this.alterOperationBuilder.ofDetachPartition(pos, tableToken, tableMetadata.getTableId());
                         break;
+                    case PartitionAction.COMPRESS:
+                        alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableToken, tableMetadata.getTableId());
+                        break;
                     default:
-                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, or DETACH PARTITION");
+                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, DETACH PARTITION or COMPRESS PARTITION");
                 }
 
                 final int functionPosition = lexer.getPosition();
@@ -972,6 +988,9 @@ public class SqlCompiler implements Closeable {
                 // attach
                 alterOperationBuilder = this.alterOperationBuilder.ofAttachPartition(pos, tableToken, tableMetadata.getTableId());
                 break;
+            case PartitionAction.COMPRESS:
+                alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableToken, tableMetadata.getTableId());
+                break;
             default:
                 alterOperationBuilder = null;
                 assert false;
@@ -1181,6 +1200,18 @@ public class SqlCompiler implements Closeable {
         return compiledQuery.ofCommit();
     }
 
+    private CompiledQuery compileCreate(SqlExecutionContext executionContext) throws SqlException {
+        final int createPosition = lexer.lastTokenPosition();
+        final CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok != null && isMaterializedKeyword(tok)) {
+            return createMatView(executionContext);
+        }
+        // rewind to 'create' and let the parser deal with tables
+        lexer.backTo(createPosition, null);
+        SqlUtil.fetchNext(lexer);
+        return compileUsingModel(executionContext);
+    }
+
     private CompiledQuery compileDeallocate(SqlExecutionContext executionContext) throws SqlException {
         CharSequence statementName = GenericLexer.unquote(expectToken(lexer, "statement name"));
         CharSequence tok = SqlUtil.fetchNext(lexer);
@@ -1220,6 +1251,12 @@ public class SqlCompiler implements Closeable {
                     optimiser.optimiseUpdate(queryModel, executionContext, metadata);
                     return model;
                 }
+            case ExecutionModel.COPY:
+                final CopyModel copyModel = (CopyModel) model;
+                if (copyModel.getQueryModel() != null) {
+                    copyModel.setQueryModel(optimiser.optimise(copyModel.getQueryModel(), executionContext));
+                }
+                return model;
             default:
                 return model;
         }
@@ -1585,6 +1622,157 @@ public class SqlCompiler implements Closeable {
         return rowCount;
     }
 
+    // expected syntax: CREATE MATERIALIZED VIEW name AS (query) [PARTITION BY unit]
+    private CompiledQuery createMatView(SqlExecutionContext executionContext) throws SqlException {
+        expectKeyword(lexer, "view");
+        final int viewNamePosition = lexer.getPosition();
+        final String viewName = Chars.toString(GenericLexer.unquote(expectToken(lexer, "view name")));
+        expectKeyword(lexer, "as");
+        CharSequence tok = expectToken(lexer, "'('");
+        if (!Chars.equals(tok, '(')) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'(' expected");
+        }
+
+        final CharSequence content = lexer.getContent();
+        final int queryLo = lexer.getPosition();
+        final int queryHi;
+        int depth = 1;
+        while (true) {
+            tok = expectToken(lexer, "')'");
+            if (Chars.equals(tok, '(')) {
+                depth++;
+            } else if (Chars.equals(tok, ')') && --depth == 0) {
+                queryHi = lexer.lastTokenPosition();
+                break;
+            }
+        }
+
+        int partitionBy = PartitionBy.DAY;
+        tok = SqlUtil.fetchNext(lexer);
+        if (tok != null && isPartitionKeyword(tok)) {
+            expectKeyword(lexer, "by");
+            tok = expectToken(lexer, "partition unit");
+            partitionBy = PartitionBy.fromString(tok);
+            if (partitionBy == -1 || partitionBy == PartitionBy.NONE) {
+                throw SqlException.$(lexer.lastTokenPosition(), "'HOUR', 'DAY', 'WEEK', 'MONTH' or 'YEAR' expected");
+            }
+            tok = SqlUtil.fetchNext(lexer);
+        }
+        if (tok != null && !Chars.equals(tok, ';')) {
+            throw SqlException.unexpectedToken(lexer.lastTokenPosition(), tok);
+        }
+
+        // validate the query shape, refresh relies on it being a calendar aligned
+        // SAMPLE BY over a single WAL table
+        clear();
+        lexer.of(content, queryLo, queryHi);
+        final ExecutionModel model = parser.parse(lexer, executionContext);
+        if (model.getModelType() != ExecutionModel.QUERY) {
+            throw SqlException.$(queryLo, "materialized view query expected");
+        }
+        QueryModel sampleByModel = null;
+        QueryModel tableModel = null;
+        for (QueryModel m = (QueryModel) model; m != null; m = m.getNestedModel()) {
+            if (m.getUnionModel() != null || m.getJoinModels().size() > 1) {
+                throw SqlException.$(m.getModelPosition(), "materialized view query must select from a single table");
+            }
+            if (m.getSampleBy() != null) {
+                if (sampleByModel != null) {
+                    throw SqlException.$(m.getSampleBy().position, "nested SAMPLE BY is not supported in materialized view");
+                }
+                sampleByModel = m;
+            }
+            if (m.getTableNameExpr() != null) {
+                tableModel = m;
+            }
+        }
+        if (sampleByModel == null) {
+            throw SqlException.$(queryLo, "materialized view query must use SAMPLE BY");
+        }
+        final ExpressionNode sampleBy = sampleByModel.getSampleBy();
+        if (sampleByModel.getSampleByUnit() != null || sampleBy.type != ExpressionNode.CONSTANT) {
+            throw SqlException.$(sampleBy.position, "constant SAMPLE BY interval expected");
+        }
+        if (sampleByModel.getSampleByFill().size() > 0) {
+            throw SqlException.$(sampleBy.position, "FILL is not supported in materialized view");
+        }
+        final ExpressionNode offset = sampleByModel.getSampleByOffset();
+        if (offset == null) {
+            throw SqlException.$(sampleBy.position, "materialized view query must be ALIGN TO CALENDAR");
+        }
+        if (sampleByModel.getSampleByTimezoneName() != null || !Chars.equals(offset.token, "'00:00'")) {
+            throw SqlException.$(sampleBy.position, "time zone and offset are not supported in materialized view");
+        }
+        if (tableModel == null || tableModel.getTableNameExpr().type != ExpressionNode.LITERAL) {
+            throw SqlException.$(queryLo, "materialized view query must select from a table");
+        }
+
+        final ExpressionNode tableNameExpr = tableModel.getTableNameExpr();
+        final TableToken baseTableToken = tableExistsOrFail(tableNameExpr.position, tableNameExpr.token, executionContext);
+        if (!engine.isWalTable(baseTableToken)) {
+            throw SqlException.$(tableNameExpr.position, "materialized view base table must be a WAL table");
+        }
+        final String baseTimestampName;
+        try (TableRecordMetadata metadata = executionContext.getMetadata(baseTableToken)) {
+            if (metadata.getTimestampIndex() == -1) {
+                throw SqlException.$(tableNameExpr.position, "materialized view base table must have a designated timestamp");
+            }
+            baseTimestampName = metadata.getColumnName(metadata.getTimestampIndex());
+        }
+        final String samplingInterval = Chars.toString(sampleBy.token);
+        final int tableNameLo = tableNameExpr.position;
+        final boolean hasAlias = tableModel.getAlias() != null;
+        lexer.of(content, tableNameLo, queryHi);
+        SqlUtil.fetchNext(lexer);
+        final int tableNameHi = lexer.getTokenHi();
+
+        // refresh query is the view query with the base table narrowed down to the refreshed interval,
+        // so that the interval is used for partition pruning rather than for filtering of aggregated rows
+        final StringSink sink = Misc.getThreadLocalBuilder();
+        sink.put(content, queryLo, tableNameLo)
+                .put("(select * from \"").put(baseTableToken.getTableName())
+                .put("\" where \"").put(baseTimestampName).put("\" >= $1 and \"").put(baseTimestampName).put("\" < $2)");
+        if (!hasAlias) {
+            sink.put(" \"").put(baseTableToken.getTableName()).put('"');
+        }
+        sink.put(content, tableNameHi, queryHi);
+        final String refreshSql = sink.toString();
+        final String viewSql = Chars.toString(content, queryLo, queryHi);
+
+        clear();
+        lexer.of(viewSql);
+        final String timestampName;
+        try (RecordCursorFactory factory = generate((QueryModel) compileExecutionModel(executionContext), executionContext)) {
+            final RecordMetadata metadata = factory.getMetadata();
+            if (metadata.getTimestampIndex() == -1) {
+                throw SqlException.$(queryLo, "materialized view query must select designated timestamp");
+            }
+            timestampName = metadata.getColumnName(metadata.getTimestampIndex());
+        }
+
+        // the view is a regular non-WAL table, populated with the query result straight away
+        sink.clear();
+        sink.put("create table \"").put(viewName).put("\" as (").put(viewSql).put(") timestamp(\"").put(timestampName)
+                .put("\") partition by ").put(PartitionBy.toString(partitionBy)).put(" bypass wal");
+        final String createSql = sink.toString();
+        clear();
+        lexer.of(createSql);
+        try {
+            createTableWithRetries(compileExecutionModel(executionContext), executionContext);
+        } catch (SqlException e) {
+            throw SqlException.$(viewNamePosition, e.getFlyweightMessage());
+        }
+
+        final TableToken viewToken = executionContext.getTableToken(viewName);
+        engine.getMatViewGraph().createView(
+                configuration,
+                mem,
+                path,
+                new MatViewDefinition(viewToken, baseTableToken.getTableName(), samplingInterval, viewSql, refreshSql)
+        );
+        return compiledQuery.ofCreateTableAsSelect(insertCount);
+    }
+
     private CompiledQuery createTable(final ExecutionModel model, SqlExecutionContext executionContext) throws
             SqlException {
         final CreateTableModel createTableModel = (CreateTableModel) model;
@@ -1777,8 +1965,12 @@ public class SqlCompiler implements Closeable {
     @NotNull
     private CompiledQuery executeCopy(SqlExecutionContext executionContext, CopyModel executionModel) throws SqlException {
         executionContext.getCairoSecurityContext().checkWritePermission();
+        if (executionModel.getQueryModel() != null) {
+            exportParquet(executionContext, executionModel);
+            return compiledQuery.ofCopyLocal(null);
+        }
         if (!executionModel.isCancel() && Chars.equalsLowerCaseAscii(executionModel.getFileName().token, "stdin")) {
-            // no-op implementation
+            // data is streamed by the client, e.g. over PG wire CopyData messages
             setupTextLoaderFromModel(executionModel);
             return compiledQuery.ofCopyRemote(textLoader);
         }
@@ -1829,6 +2021,20 @@ public class SqlCompiler implements Closeable {
         throw SqlException.position(0).put("underlying cursor is extremely volatile");
     }
 
+    private void exportParquet(SqlExecutionContext executionContext, CopyModel model) throws SqlException {
+        final ExpressionNode fileNameNode = model.getFileName();
+        final CharSequence fileName = GenericLexer.assertNoDots(GenericLexer.unquote(fileNameNode.token), fileNameNode.position);
+        path.of(configuration.getSqlCopyInputRoot()).concat(fileName).$();
+
+        try (
+                RecordCursorFactory factory = generate(model.getQueryModel(), executionContext);
+                ParquetExporter exporter = new ParquetExporter(configuration)
+        ) {
+            final long rowCount = exporter.export(factory, executionContext, path);
+            LOG.info().$("exported [file=").$(path).$(", rows=").$(rowCount).I$();
+        }
+    }
+
     private int filterPartitions(
             Function function,
             int functionPosition,
@@ -2369,6 +2575,10 @@ public class SqlCompiler implements Closeable {
                 model.getAtomicity() != -1 ? model.getAtomicity() : Atomicity.SKIP_ROW,
                 model.getPartitionBy() < 0 ? PartitionBy.NONE : model.getPartitionBy(),
                 model.getTimestampColumnName(), model.getTimestampFormat());
+        textLoader.setForceHeaders(model.isHeader());
+        if (model.getDelimiter() > 0) {
+            textLoader.configureColumnDelimiter(model.getDelimiter());
+        }
     }
 
     private CompiledQuery snapshotDatabase(SqlExecutionContext executionContext) throws SqlException {
@@ -2626,8 +2836,8 @@ public class SqlCompiler implements Closeable {
             int to = ccm.getColumnType();
             if (isCompatibleCase(from, to)) {
                 int modelColumnIndex = model.getColumnIndex(columnName);
-                if (!ColumnType.isSymbol(to) && model.isIndexed(modelColumnIndex)) {
-                    throw SqlException.$(ccm.getColumnTypePos(), "indexes are supported only for SYMBOL columns: ").put(columnName);
+                if (!ColumnType.isSymbol(to) && !HashIndexUtils.isSupported(to) && model.isIndexed(modelColumnIndex)) {
+                    throw SqlException.$(ccm.getColumnTypePos(), "indexes are supported only for SYMBOL, INT, LONG and UUID columns: ").put(columnName);
                 }
                 typeCast.put(index, to);
             } else {
@@ -2635,7 +2845,7 @@ public class SqlCompiler implements Closeable {
             }
         }
 
-        // validate that all indexes are specified only on columns with symbol type
+        // validate that all indexes are specified only on columns of indexable types
         for (int i = 0, n = model.getColumnCount(); i < n; i++) {
             CharSequence columnName = model.getColumnName(i);
             ColumnCastModel ccm = castModels.get(columnName);
@@ -2645,8 +2855,21 @@ public class SqlCompiler implements Closeable {
             }
             int index = metadata.getColumnIndexQuiet(columnName);
             assert index > -1 : "wtf? " + columnName;
-            if (!ColumnType.isSymbol(metadata.getColumnType(index)) && model.isIndexed(i)) {
-                throw SqlException.$(0, "indexes are supported only for SYMBOL columns: ").put(columnName);
+            final int columnType = metadata.getColumnType(index);
+            if (!ColumnType.isSymbol(columnType) && !HashIndexUtils.isSupported(columnType) && model.isIndexed(i)) {
+                throw SqlException.$(0, "indexes are supported only for SYMBOL, INT, LONG and UUID columns: ").put(columnName);
+            }
+        }
+
+        // validate that deduplication keys have fixed size, casts included
+        for (int i = 0, n = model.getColumnCount(); i < n; i++) {
+            if (model.isDedupKey(i)) {
+                CharSequence columnName = model.getColumnName(i);
+                ColumnCastModel ccm = castModels.get(columnName);
+                int type = ccm != null ? ccm.getColumnType() : metadata.getColumnType(metadata.getColumnIndexQuiet(columnName));
+                if (ColumnType.isVariableLength(type)) {
+                    throw SqlException.$(0, "deduplicate key column can only be fixed size column: ").put(columnName);
+                }
             }
         }
 
@@ -2748,6 +2971,7 @@ public class SqlCompiler implements Closeable {
 
     public final static class PartitionAction {
         public static final int ATTACH = 2;
+        public static final int COMPRESS = 4;
         public static final int DETACH = 3;
         public static final int DROP = 1;
     }
@@ -2826,6 +3050,11 @@ public class SqlCompiler implements Closeable {
             return timestampIndex;
         }
 
+        @Override
+        public boolean isDedupKey(int columnIndex) {
+            return model.isDedupKey(columnIndex);
+        }
+
         @Override
         public boolean isIndexed(int columnIndex) {
             return model.isIndexed(columnIndex);
@@ -53,7 +53,11 @@ public interface SqlExecutionContext extends Closeable {
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes keyTypes,
             boolean isOrdered,
-            boolean baseSupportsRandomAccess
+            boolean baseSupportsRandomAccess,
+            int framingMode,
+            long framePreceding,
+            boolean wholePartitionFrame,
+            int orderByTimestampIndex
     );
 
     AnalyticContext getAnalyticContext();
@@ -140,6 +144,8 @@ public interface SqlExecutionContext extends Closeable {
 
     boolean isParallelFilterEnabled();
 
+    boolean isParallelGroupByEnabled();
+
     boolean isTimestampRequired();
 
     boolean isWalApplication();
@@ -158,6 +164,8 @@ public interface SqlExecutionContext extends Closeable {
 
     void setParallelFilterEnabled(boolean parallelFilterEnabled);
 
+    void setParallelGroupByEnabled(boolean parallelGroupByEnabled);
+
     void setRandom(Rnd rnd);
 
     default void storeTelemetry(short event, short origin) {
@@ -56,10 +56,12 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
     private MicrosecondClock clock;
     private boolean cloneSymbolTables = false;
     private boolean columnPreTouchEnabled = true;
+    private QueryDependencyListener dependencyListener;
     private int jitMode;
     private long now;
     private final MicrosecondClock nowClock = () -> now;
     private boolean parallelFilterEnabled;
+    private boolean parallelGroupByEnabled;
     private Rnd random;
     private long requestFd = -1;
 
@@ -75,6 +77,7 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         cairoSecurityContext = AllowAllCairoSecurityContext.INSTANCE;
         jitMode = cairoConfiguration.getSqlJitMode();
         parallelFilterEnabled = cairoConfiguration.isSqlParallelFilterEnabled();
+        parallelGroupByEnabled = cairoConfiguration.isSqlParallelGroupByEnabled();
         telemetry = cairoEngine.getTelemetry();
         telemetryFacade = telemetry.isEnabled() ? this::doStoreTelemetry : this::storeTelemetryNoop;
     }
@@ -94,14 +97,22 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes partitionByKeyTypes,
             boolean ordered,
-            boolean baseSupportsRandomAccess
+            boolean baseSupportsRandomAccess,
+            int framingMode,
+            long framePreceding,
+            boolean wholePartitionFrame,
+            int orderByTimestampIndex
     ) {
         analyticContext.of(
                 partitionByRecord,
                 partitionBySink,
                 partitionByKeyTypes,
                 ordered,
-                baseSupportsRandomAccess
+                baseSupportsRandomAccess,
+                framingMode,
+                framePreceding,
+                wholePartitionFrame,
+                orderByTimestampIndex
         );
     }
 
@@ -142,11 +153,17 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
 
     @Override
     public long getMicrosecondTimestamp() {
+        if (dependencyListener != null) {
+            dependencyListener.onNonDeterministicInput();
+        }
         return clock.getTicks();
     }
 
     @Override
     public long getNow() {
+        if (dependencyListener != null) {
+            dependencyListener.onNonDeterministicInput();
+        }
         return now;
     }
 
@@ -157,9 +174,30 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
 
     @Override
     public Rnd getRandom() {
+        if (dependencyListener != null) {
+            dependencyListener.onNonDeterministicInput();
+        }
         return random != null ? random : SharedRandom.getRandom(cairoConfiguration);
     }
 
+    @Override
+    public TableReader getReader(TableToken tableName, long version) {
+        final TableReader reader = cairoEngine.getReader(cairoSecurityContext, tableName, version);
+        if (dependencyListener != null) {
+            dependencyListener.onTableReader(reader);
+        }
+        return reader;
+    }
+
+    @Override
+    public TableReader getReader(TableToken tableName) {
+        final TableReader reader = cairoEngine.getReader(cairoSecurityContext, tableName);
+        if (dependencyListener != null) {
+            dependencyListener.onTableReader(reader);
+        }
+        return reader;
+    }
+
     @Override
     public long getRequestFd() {
         return requestFd;
@@ -190,6 +228,11 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         return parallelFilterEnabled;
     }
 
+    @Override
+    public boolean isParallelGroupByEnabled() {
+        return parallelGroupByEnabled;
+    }
+
     @Override
     public boolean isTimestampRequired() {
         return timestampRequiredStack.notEmpty() && timestampRequiredStack.peek() == 1;
@@ -220,6 +263,14 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         this.columnPreTouchEnabled = columnPreTouchEnabled;
     }
 
+    /**
+     * Sets listener to be notified of the tables and non-deterministic inputs used by queries
+     * executed in this context. Pass null to stop notifications.
+     */
+    public void setDependencyListener(@Nullable QueryDependencyListener dependencyListener) {
+        this.dependencyListener = dependencyListener;
+    }
+
     @Override
     public void setJitMode(int jitMode) {
         this.jitMode = jitMode;
@@ -236,6 +287,11 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         this.parallelFilterEnabled = parallelFilterEnabled;
     }
 
+    @Override
+    public void setParallelGroupByEnabled(boolean parallelGroupByEnabled) {
+        this.parallelGroupByEnabled = parallelGroupByEnabled;
+    }
+
     @Override
     public void setRandom(Rnd rnd) {
         this.random = rnd;
@@ -28,6 +28,7 @@ import io.questdb.cairo.*;
 import io.questdb.cutlass.text.Atomicity;
 import io.questdb.griffin.model.*;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -132,6 +133,28 @@ public final class SqlParser {
         }
     }
 
+    private static long timeUnitMicros(CharSequence tok) {
+        if (Chars.equalsLowerCaseAscii(tok, "microsecond") || Chars.equalsLowerCaseAscii(tok, "microseconds")) {
+            return 1;
+        }
+        if (Chars.equalsLowerCaseAscii(tok, "millisecond") || Chars.equalsLowerCaseAscii(tok, "milliseconds")) {
+            return Timestamps.MILLI_MICROS;
+        }
+        if (Chars.equalsLowerCaseAscii(tok, "second") || Chars.equalsLowerCaseAscii(tok, "seconds")) {
+            return Timestamps.SECOND_MICROS;
+        }
+        if (Chars.equalsLowerCaseAscii(tok, "minute") || Chars.equalsLowerCaseAscii(tok, "minutes")) {
+            return Timestamps.MINUTE_MICROS;
+        }
+        if (Chars.equalsLowerCaseAscii(tok, "hour") || Chars.equalsLowerCaseAscii(tok, "hours")) {
+            return Timestamps.HOUR_MICROS;
+        }
+        if (Chars.equalsLowerCaseAscii(tok, "day") || Chars.equalsLowerCaseAscii(tok, "days")) {
+            return Timestamps.DAY_MICROS;
+        }
+        return -1;
+    }
+
     private void addConcatArgs(ObjList<ExpressionNode> args, ExpressionNode leaf) {
         if (leaf.type != ExpressionNode.FUNCTION || !isConcatKeyword(leaf.token)) {
             args.add(leaf);
@@ -153,6 +176,12 @@ public final class SqlParser {
         }
     }
 
+    private void checkCopyEnabled(int position) throws SqlException {
+        if (Chars.isBlank(configuration.getSqlCopyInputRoot())) {
+            throw SqlException.$(position, "COPY is disabled ['cairo.sql.copy.root' is not set?]");
+        }
+    }
+
     //prevent full/right from being used as table aliases
     private void checkSupportedJoinType(GenericLexer lexer, CharSequence tok) throws SqlException {
         if (tok != null && (SqlKeywords.isFullKeyword(tok) || SqlKeywords.isRightKeyword(tok))) {
@@ -352,14 +381,98 @@ public final class SqlParser {
         return model;
     }
 
+    private CharSequence parseAnalyticFrame(GenericLexer lexer, AnalyticColumn col, CharSequence tok) throws SqlException {
+        final int framingPosition = lexer.lastTokenPosition();
+        final int framingMode = isRowsKeyword(tok) ? AnalyticColumn.FRAMING_ROWS : AnalyticColumn.FRAMING_RANGE;
+
+        tok = tok(lexer, "'between', 'unbounded', 'current' or number");
+        final boolean between = isBetweenKeyword(tok);
+        if (between) {
+            tok = tok(lexer, "'unbounded', 'current' or number");
+        }
+
+        // frame start
+        final long preceding;
+        if (isUnboundedKeyword(tok)) {
+            expectTok(lexer, "preceding");
+            preceding = AnalyticColumn.FRAME_UNBOUNDED;
+        } else if (isCurrentKeyword(tok)) {
+            expectTok(lexer, "row");
+            preceding = 0;
+        } else {
+            preceding = parseAnalyticFrameOffset(lexer, tok, framingMode);
+            expectTok(lexer, "preceding");
+        }
+
+        // frame end
+        long following = 0;
+        if (between) {
+            expectTok(lexer, "and");
+            tok = tok(lexer, "'unbounded' or 'current'");
+            if (isUnboundedKeyword(tok)) {
+                expectTok(lexer, "following");
+                if (preceding != AnalyticColumn.FRAME_UNBOUNDED) {
+                    throw SqlException.$(lexer.lastTokenPosition(), "UNBOUNDED FOLLOWING frame end requires UNBOUNDED PRECEDING frame start");
+                }
+                following = AnalyticColumn.FRAME_UNBOUNDED;
+            } else if (isCurrentKeyword(tok)) {
+                expectTok(lexer, "row");
+            } else {
+                throw SqlException.$(lexer.lastTokenPosition(), "frame end must be CURRENT ROW or UNBOUNDED FOLLOWING");
+            }
+        }
+
+        col.setFrame(framingMode, framingPosition, preceding, following);
+        return tokIncludingLocalBrace(lexer, "')'");
+    }
+
+    private long parseAnalyticFrameOffset(GenericLexer lexer, CharSequence tok, int framingMode) throws SqlException {
+        final int position = lexer.lastTokenPosition();
+        long offset;
+        try {
+            offset = Numbers.parseLong(tok);
+        } catch (NumericException e) {
+            throw SqlException.$(position, "'unbounded', 'current' or non-negative integer expected");
+        }
+        if (offset < 0) {
+            throw SqlException.$(position, "'unbounded', 'current' or non-negative integer expected");
+        }
+
+        if (framingMode == AnalyticColumn.FRAMING_RANGE) {
+            // range offset is in timestamp units, i.e. microseconds, unless the unit is specified
+            tok = tok(lexer, "time unit or 'preceding'");
+            final long unit = timeUnitMicros(tok);
+            if (unit > 0) {
+                if (offset > Long.MAX_VALUE / unit - 1) {
+                    throw SqlException.$(position, "frame offset is too large");
+                }
+                offset *= unit;
+            } else {
+                lexer.unparseLast();
+            }
+        }
+        return offset;
+    }
+
     private ExecutionModel parseCopy(GenericLexer lexer) throws SqlException {
-        if (Chars.isBlank(configuration.getSqlCopyInputRoot())) {
-            throw SqlException.$(lexer.lastTokenPosition(), "COPY is disabled ['cairo.sql.copy.root' is not set?]");
+        // COPY FROM STDIN streams data over the client connection, so it does not need the copy root
+        final int copyPosition = lexer.lastTokenPosition();
+        CharSequence tok = tok(lexer, "table name or query expected");
+        if (Chars.equals(tok, '(')) {
+            checkCopyEnabled(copyPosition);
+            // COPY (select ...) TO 'file.parquet'
+            final QueryModel queryModel = parseDml(lexer, null, lexer.getPosition(), true);
+            expectTok(lexer, ')');
+            expectTok(lexer, "to");
+            return parseCopyTo(lexer, null, queryModel);
         }
+        lexer.unparseLast();
+
         ExpressionNode target = expectExpr(lexer);
-        CharSequence tok = tok(lexer, "'from' or 'to' or 'cancel'");
+        tok = tok(lexer, "'from' or 'to' or 'cancel'");
 
         if (isCancelKeyword(tok)) {
+            checkCopyEnabled(copyPosition);
             CopyModel model = copyModelPool.next();
             model.setCancel(true);
             model.setTarget(target);
@@ -371,17 +484,39 @@ public final class SqlParser {
             if (fileName.token.length() < 3 && Chars.startsWith(fileName.token, '\'')) {
                 throw SqlException.$(fileName.position, "file name expected");
             }
+            final boolean stdin = isStdinKeyword(fileName.token);
+            if (!stdin) {
+                checkCopyEnabled(copyPosition);
+            }
 
             CopyModel model = copyModelPool.next();
             model.setTarget(target);
             model.setFileName(fileName);
 
             tok = optTok(lexer);
-            if (tok != null && isWithKeyword(tok)) {
-                tok = tok(lexer, "copy option");
+            // PostgreSQL clients may omit 'with' and use either "(FORMAT csv, HEADER)" or legacy "CSV HEADER" syntax
+            final boolean hasOptions = tok != null && (isWithKeyword(tok) || (stdin && !isSemicolon(tok)));
+            if (hasOptions) {
+                if (isWithKeyword(tok)) {
+                    tok = tok(lexer, "copy option");
+                }
+                if (stdin && Chars.equals(tok, '(')) {
+                    tok = tok(lexer, "copy option");
+                }
                 while (tok != null && !isSemicolon(tok)) {
-                    if (isHeaderKeyword(tok)) {
-                        model.setHeader(isTrueKeyword(tok(lexer, "'true' or 'false'")));
+                    if (stdin && (Chars.equals(tok, ',') || Chars.equals(tok, ')'))) {
+                        tok = optTok(lexer);
+                    } else if (isHeaderKeyword(tok)) {
+                        tok = stdin ? optTok(lexer) : tok(lexer, "'true' or 'false'");
+                        if (!stdin || (tok != null && (isTrueKeyword(tok) || isFalseKeyword(tok)))) {
+                            model.setHeader(isTrueKeyword(tok));
+                            tok = optTok(lexer);
+                        } else {
+                            // bare HEADER option means the first line is a header
+                            model.setHeader(true);
+                        }
+                    } else if (stdin && isCsvKeyword(tok)) {
+                        setCopyFormatDelimiter(model, (byte) ',');
                         tok = optTok(lexer);
                     } else if (isPartitionKeyword(tok)) {
                         expectTok(lexer, "by");
@@ -402,6 +537,19 @@ public final class SqlParser {
                         tok = optTok(lexer);
                     } else if (isFormatKeyword(tok)) {
                         tok = tok(lexer, "timestamp format expected");
+                        if (stdin && isCsvKeyword(tok)) {
+                            setCopyFormatDelimiter(model, (byte) ',');
+                            tok = optTok(lexer);
+                            continue;
+                        }
+                        if (stdin && isTextKeyword(tok)) {
+                            setCopyFormatDelimiter(model, (byte) '\t');
+                            tok = optTok(lexer);
+                            continue;
+                        }
+                        if (stdin && isBinaryKeyword(tok)) {
+                            throw SqlException.$(lexer.lastTokenPosition(), "binary COPY format is not supported");
+                        }
                         CharSequence format = GenericLexer.immutableOf(GenericLexer.unquote(tok));
                         model.setTimestampFormat(format);
                         tok = optTok(lexer);
@@ -420,6 +568,9 @@ public final class SqlParser {
                         tok = optTok(lexer);
                     } else if (isDelimiterKeyword(tok)) {
                         tok = tok(lexer, "timestamp character expected");
+                        if (stdin && isAsKeyword(tok)) {
+                            tok = tok(lexer, "delimiter character expected");
+                        }
                         CharSequence delimiter = GenericLexer.immutableOf(GenericLexer.unquote(tok));
                         if (delimiter == null || delimiter.length() != 1) {
                             throw SqlException.$(lexer.getPosition(), "delimiter is empty or contains more than 1 character");
@@ -439,7 +590,39 @@ public final class SqlParser {
             }
             return model;
         }
-        throw SqlException.$(lexer.lastTokenPosition(), "'from' expected");
+
+        if (isToKeyword(tok)) {
+            checkCopyEnabled(copyPosition);
+            // COPY table TO 'file.parquet' is a shorthand for COPY (table) TO 'file.parquet'
+            final QueryModel queryModel = queryModelPool.next();
+            queryModel.setModelPosition(target.position);
+            SqlUtil.addSelectStar(queryModel, queryColumnPool, expressionNodePool);
+            final QueryModel nestedModel = queryModelPool.next();
+            nestedModel.setModelPosition(target.position);
+            nestedModel.setTableNameExpr(literal(target.token, target.position));
+            queryModel.setSelectModelType(QueryModel.SELECT_MODEL_CHOOSE);
+            queryModel.setNestedModel(nestedModel);
+            return parseCopyTo(lexer, target, queryModel);
+        }
+        throw SqlException.$(lexer.lastTokenPosition(), "'from' or 'to' expected");
+    }
+
+    private ExecutionModel parseCopyTo(GenericLexer lexer, ExpressionNode target, QueryModel queryModel) throws SqlException {
+        final ExpressionNode fileName = expectExpr(lexer);
+        if (fileName.token.length() < 3 || !Chars.startsWith(fileName.token, '\'')) {
+            throw SqlException.$(fileName.position, "file name expected");
+        }
+
+        final CharSequence tok = optTok(lexer);
+        if (tok != null && !isSemicolon(tok)) {
+            throw errUnexpected(lexer, tok);
+        }
+
+        CopyModel model = copyModelPool.next();
+        model.setTarget(target);
+        model.setFileName(fileName);
+        model.setQueryModel(queryModel);
+        return model;
     }
 
     private ExecutionModel parseCreateStatement(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
@@ -543,6 +726,14 @@ public final class SqlParser {
                 ((walSetting == WAL_NOT_SET && configuration.getWalEnabledDefault()) || walSetting == WAL_ENABLED);
         model.setWalEnabled(isWalEnabled);
 
+        if (tok != null && isDedupKeyword(tok)) {
+            if (!isWalEnabled) {
+                throw SqlException.position(lexer.lastTokenPosition()).put("deduplication is possible only on WAL tables");
+            }
+            parseCreateTableDedupKeys(lexer, model);
+            tok = optTok(lexer);
+        }
+
         int maxUncommittedRows = configuration.getMaxUncommittedRows();
         long o3MaxLag = configuration.getO3MaxLag();
 
@@ -742,14 +933,39 @@ public final class SqlParser {
         }
     }
 
+    private void parseCreateTableDedupKeys(GenericLexer lexer, CreateTableModel model) throws SqlException {
+        expectTok(lexer, "keys");
+        expectTok(lexer, '(');
+        final int listPosition = lexer.lastTokenPosition();
+        CharSequence tok;
+        do {
+            final ExpressionNode columnName = expectLiteral(lexer);
+            final int columnIndex = getCreateTableColumnIndex(model, columnName.token, columnName.position);
+            if (ColumnType.isVariableLength(model.getColumnType(columnIndex))) {
+                throw SqlException.position(columnName.position).put("deduplicate key column can only be fixed size column [column=")
+                        .put(columnName.token).put(", type=").put(ColumnType.nameOf(model.getColumnType(columnIndex))).put(']');
+            }
+            model.setDedupKeyFlag(columnIndex);
+            tok = tok(lexer, "',' or ')'");
+        } while (Chars.equals(tok, ','));
+
+        if (!Chars.equals(tok, ')')) {
+            throw errUnexpected(lexer, tok);
+        }
+
+        if (!model.isDedupKey(model.getTimestampIndex())) {
+            throw SqlException.position(listPosition).put("deduplicate key list must include designated timestamp column");
+        }
+    }
+
     private void parseCreateTableIndexDef(GenericLexer lexer, CreateTableModel model) throws SqlException {
         expectTok(lexer, '(');
         final CharSequence columnName = expectLiteral(lexer).token;
         final int position = lexer.lastTokenPosition();
         final int columnIndex = getCreateTableColumnIndex(model, columnName, position);
         final int columnType = model.getColumnType(columnIndex);
-        if (columnType > -1 && !ColumnType.isSymbol(columnType)) {
-            throw SqlException.$(position, "indexes are supported only for SYMBOL columns: ").put(columnName);
+        if (columnType > -1 && !ColumnType.isSymbol(columnType) && !HashIndexUtils.isSupported(columnType)) {
+            throw SqlException.$(position, "indexes are supported only for SYMBOL, INT, LONG and UUID columns: ").put(columnName);
         }
 
         if (isCapacityKeyword(tok(lexer, "'capacity'"))) {
@@ -1599,7 +1815,7 @@ public final class SqlParser {
                 expectTok(lexer, '(');
 
                 col = analyticColumnPool.next().of(null, expr);
-                tok = tokIncludingLocalBrace(lexer, "'partition' or 'order' or ')'");
+                tok = tokIncludingLocalBrace(lexer, "'partition' or 'order' or 'rows' or 'range' or ')'");
 
                 if (isPartitionKeyword(tok)) {
                     expectTok(lexer, "by");
@@ -1608,7 +1824,7 @@ public final class SqlParser {
 
                     do {
                         partitionBy.add(expectExpr(lexer));
-                        tok = tok(lexer, "'order' or ')'");
+                        tok = tok(lexer, "'order' or 'rows' or 'range' or ')'");
                     } while (Chars.equals(tok, ','));
                 }
                 if (isOrderKeyword(tok)) {
@@ -1630,6 +1846,9 @@ public final class SqlParser {
                         }
                     } while (Chars.equals(tok, ','));
                 }
+                if (isRowsKeyword(tok) || isRangeKeyword(tok)) {
+                    tok = parseAnalyticFrame(lexer, (AnalyticColumn) col, tok);
+                }
                 expectTok(tok, lexer.lastTokenPosition(), ')');
                 tok = optTok(lexer);
 
@@ -2057,6 +2276,13 @@ public final class SqlParser {
         }
     }
 
+    private void setCopyFormatDelimiter(CopyModel model, byte delimiter) {
+        // explicit DELIMITER option wins over the format default regardless of the option order
+        if (model.getDelimiter() < 0) {
+            model.setDelimiter(delimiter);
+        }
+    }
+
     private CharSequence setModelAliasAndGetOptTok(GenericLexer lexer, QueryModel joinModel) throws SqlException {
         CharSequence tok = optTok(lexer);
         if (tok != null && tableAliasStop.excludes(tok)) {
@@ -1458,10 +1458,15 @@ final class WhereClauseParser implements Mutable {
             RecordMetadata m,
             boolean latestByMultiColumn
     ) {
-        return !latestByMultiColumn &&
-                (Chars.equalsIgnoreCaseNc(columnName, preferredKeyColumn)
-                        ||
-                        (preferredKeyColumn == null && m.isColumnIndexed(m.getColumnIndex(columnName))));
+        if (latestByMultiColumn) {
+            return false;
+        }
+        if (preferredKeyColumn != null) {
+            return Chars.equalsIgnoreCase(columnName, preferredKeyColumn);
+        }
+        // key values are symbol keys, hash indexes on other column types are picked up by the code generator
+        final int columnIndex = m.getColumnIndex(columnName);
+        return m.isColumnIndexed(columnIndex) && ColumnType.isSymbol(m.getColumnType(columnIndex));
     }
 
     private Function createKeyValueBindVariable(
@@ -31,6 +31,19 @@ import io.questdb.cairo.sql.VirtualRecord;
 public interface AnalyticContext {
     boolean baseSupportsRandomAccess();
 
+    /**
+     * @return number of rows (ROWS) or timestamp units (RANGE) the frame starts before the current row
+     */
+    long getFramePreceding();
+
+    int getFramingMode();
+
+    /**
+     * @return index of the timestamp column analytic function is ordered by, -1 when order is not
+     * a single ascending timestamp column
+     */
+    int getOrderByTimestampIndex();
+
     ColumnTypes getPartitionByKeyTypes();
 
     VirtualRecord getPartitionByRecord();
@@ -40,4 +53,6 @@ public interface AnalyticContext {
     boolean isEmpty();
 
     boolean isOrdered();
+
+    boolean isWholePartitionFrame();
 }
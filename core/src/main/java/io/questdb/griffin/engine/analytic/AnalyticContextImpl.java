@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.analytic;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.griffin.model.AnalyticColumn;
 import io.questdb.std.Mutable;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.Nullable;
@@ -34,10 +35,14 @@ import org.jetbrains.annotations.Nullable;
 public class AnalyticContextImpl implements AnalyticContext, Mutable {
     private boolean baseSupportsRandomAccess;
     private boolean empty = true;
+    private long framePreceding;
+    private int framingMode;
+    private int orderByTimestampIndex;
     private boolean ordered;
     private ColumnTypes partitionByKeyTypes;
     private VirtualRecord partitionByRecord;
     private RecordSink partitionBySink;
+    private boolean wholePartitionFrame;
 
     @Override
     public boolean baseSupportsRandomAccess() {
@@ -52,6 +57,25 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
         this.partitionByKeyTypes = null;
         this.ordered = false;
         this.baseSupportsRandomAccess = false;
+        this.framingMode = AnalyticColumn.FRAMING_DEFAULT;
+        this.framePreceding = AnalyticColumn.FRAME_UNBOUNDED;
+        this.wholePartitionFrame = false;
+        this.orderByTimestampIndex = -1;
+    }
+
+    @Override
+    public long getFramePreceding() {
+        return framePreceding;
+    }
+
+    @Override
+    public int getFramingMode() {
+        return framingMode;
+    }
+
+    @Override
+    public int getOrderByTimestampIndex() {
+        return orderByTimestampIndex;
     }
 
     @Override
@@ -79,12 +103,21 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
         return ordered;
     }
 
+    @Override
+    public boolean isWholePartitionFrame() {
+        return wholePartitionFrame;
+    }
+
     public void of(
             VirtualRecord partitionByRecord,
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes partitionByKeyTypes,
             boolean ordered,
-            boolean baseSupportsRandomAccess
+            boolean baseSupportsRandomAccess,
+            int framingMode,
+            long framePreceding,
+            boolean wholePartitionFrame,
+            int orderByTimestampIndex
     ) {
         this.empty = false;
         this.partitionByRecord = partitionByRecord;
@@ -92,5 +125,9 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
         this.partitionByKeyTypes = partitionByKeyTypes;
         this.ordered = ordered;
         this.baseSupportsRandomAccess = baseSupportsRandomAccess;
+        this.framingMode = framingMode;
+        this.framePreceding = framePreceding;
+        this.wholePartitionFrame = wholePartitionFrame;
+        this.orderByTimestampIndex = orderByTimestampIndex;
     }
 }
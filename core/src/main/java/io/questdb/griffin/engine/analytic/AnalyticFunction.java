@@ -33,15 +33,34 @@ import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.std.IntList;
 
 public interface AnalyticFunction extends Function {
-    int STREAM = 1;
-    int THREE_PASS = 3;
+    int ONE_PASS = 1;
     int TWO_PASS = 2;
+    int ZERO_PASS = 0;
+
+    /**
+     * Computes function value for the record and advances function state. Records are passed in the order
+     * of the base cursor and the value is read back via getXXX() methods. Only called on functions, which
+     * pass count is {@link #ZERO_PASS}.
+     *
+     * @param record base record
+     */
+    default void computeNext(Record record) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return number of passes over cached records function needs to compute its values. {@link #ZERO_PASS}
+     * functions are computed as records are read from the base cursor and do not require caching.
+     */
+    default int getPassCount() {
+        return ONE_PASS;
+    }
 
     void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order);
 
     void pass1(Record record, long recordOffset, AnalyticSPI spi);
 
-    void pass2(Record record);
+    void pass2(Record record, long recordOffset, AnalyticSPI spi);
 
     void preparePass2(RecordCursor cursor);
 
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.analytic;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+/**
+ * Computes analytic functions in a single pass over the base cursor without caching the rows.
+ * This is only possible when base cursor returns rows in the order analytic functions require,
+ * e.g. ordered by designated timestamp, and all functions are able to compute their value from
+ * the current and preceding rows.
+ * <p>
+ * Records are assembled in the same layout as the records of {@link CachedAnalyticRecordCursorFactory}'s
+ * record chain, so that analytic functions and their partition by clauses can be used with
+ * either of the factories.
+ */
+public class AnalyticRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final ObjList<AnalyticFunction> analyticFunctions;
+    private final RecordCursorFactory base;
+    private final ObjList<Function> columnFunctions;
+    private final IntList columnIndexes;
+    private final AnalyticRecordCursor cursor;
+    private final ObjList<Function> functions;
+
+    public AnalyticRecordCursorFactory(
+            RecordCursorFactory base,
+            RecordMetadata metadata,
+            ObjList<Function> functions,
+            ObjList<Function> columnFunctions,
+            ObjList<AnalyticFunction> analyticFunctions,
+            IntList columnIndexes
+    ) {
+        super(metadata);
+        this.base = base;
+        this.columnIndexes = columnIndexes;
+        this.functions = functions;
+        this.columnFunctions = columnFunctions;
+        this.analyticFunctions = analyticFunctions;
+        this.cursor = new AnalyticRecordCursor(functions, columnIndexes);
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    @Override
+    public String getBaseColumnName(int idx) {
+        // analytic function arguments are columns of the chain layout, map them back to the base
+        return base.getMetadata().getColumnName(columnIndexes.getQuick(idx));
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable th) {
+            cursor.close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean hasDescendingOrder() {
+        return base.hasDescendingOrder();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Analytic");
+        sink.optAttr("functions", analyticFunctions, true);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(cursor);
+        Misc.freeObjList(functions);
+    }
+
+    private class AnalyticRecordCursor implements RecordCursor {
+        private final IntList columnIndexes;
+        private final VirtualRecord record;
+        private RecordCursor baseCursor;
+        private boolean isOpen = true;
+
+        public AnalyticRecordCursor(ObjList<Function> functions, IntList columnIndexes) {
+            this.record = new VirtualRecord(functions);
+            this.columnIndexes = columnIndexes;
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                baseCursor = Misc.free(baseCursor);
+                for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+                    analyticFunctions.getQuick(i).reset();
+                }
+                isOpen = false;
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public Record getRecordB() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnIndexes.getQuick(columnIndex));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (baseCursor.hasNext()) {
+                for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+                    analyticFunctions.getQuick(i).computeNext(record);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return baseCursor.newSymbolTable(columnIndexes.getQuick(columnIndex));
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long size() {
+            return baseCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            baseCursor.toTop();
+            for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+                analyticFunctions.getQuick(i).toTop();
+            }
+        }
+
+        private void of(RecordCursor baseCursor, SqlExecutionContext executionContext) throws SqlException {
+            this.baseCursor = baseCursor;
+            if (!isOpen) {
+                for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+                    final AnalyticFunction function = analyticFunctions.getQuick(i);
+                    if (function instanceof Reopenable) {
+                        ((Reopenable) function).reopen();
+                    }
+                }
+                isOpen = true;
+            }
+            record.of(baseCursor.getRecord());
+            // column functions read base record, whereas analytic functions read the record
+            // this cursor assembles, hence symbol tables are looked up via this cursor
+            Function.init(columnFunctions, baseCursor, executionContext);
+            Function.init(analyticFunctions, this, executionContext);
+            for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+                analyticFunctions.getQuick(i).toTop();
+            }
+        }
+    }
+}
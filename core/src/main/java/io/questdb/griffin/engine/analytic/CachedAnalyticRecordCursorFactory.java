@@ -44,9 +44,11 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
     private final ObjList<AnalyticFunction> allFunctions;
     private final RecordCursorFactory base;
     private final ObjList<RecordComparator> comparators;
+    private final IntList columnIndexes;
     private final CachedAnalyticRecordCursor cursor;
     private final ObjList<ObjList<AnalyticFunction>> orderedFunctions;
     private final int orderedGroupCount;
+    private final ObjList<AnalyticFunction> twoPassFunctions;
     @Nullable
     private final ObjList<AnalyticFunction> unorderedFunctions;
     private boolean closed = false;
@@ -64,6 +66,7 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
     ) {
         super(metadata);
         this.base = base;
+        this.columnIndexes = columnIndexes;
         this.orderedGroupCount = comparators.size();
         assert orderedGroupCount == orderedFunctions.size();
         this.orderedFunctions = orderedFunctions;
@@ -99,6 +102,14 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
         }
 
         this.unorderedFunctions = unorderedFunctions;
+
+        this.twoPassFunctions = new ObjList<>();
+        for (int i = 0, n = allFunctions.size(); i < n; i++) {
+            final AnalyticFunction function = allFunctions.getQuick(i);
+            if (function.getPassCount() == AnalyticFunction.TWO_PASS) {
+                twoPassFunctions.add(function);
+            }
+        }
     }
 
     @Override
@@ -106,6 +117,12 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
         return base.followedOrderByAdvice();
     }
 
+    @Override
+    public String getBaseColumnName(int idx) {
+        // analytic function arguments are columns of the chain layout, map them back to the base
+        return base.getMetadata().getColumnName(columnIndexes.getQuick(idx));
+    }
+
     @Override
     public RecordCursorFactory getBaseFactory() {
         return base;
@@ -126,7 +143,7 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
     @Override
     public void toPlan(PlanSink sink) {
         sink.type("CachedAnalytic");
-        sink.optAttr("functions", allFunctions);
+        sink.optAttr("functions", allFunctions, true);
         sink.child(base);
     }
 
@@ -284,6 +301,18 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
                 }
             }
 
+            // run pass2 for functions that need to see all rows of the partition first
+            if (twoPassFunctions.size() > 0) {
+                final int n = twoPassFunctions.size();
+                recordChain.toTop();
+                while (recordChain.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    for (int j = 0; j < n; j++) {
+                        twoPassFunctions.getQuick(j).pass2(chainRecord, chainRecord.getRowId(), recordChain);
+                    }
+                }
+            }
+
             recordChain.toTop();
         }
 
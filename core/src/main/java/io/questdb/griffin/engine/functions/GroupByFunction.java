@@ -58,10 +58,32 @@ public interface GroupByFunction extends Function, Mutable {
         return false;
     }
 
+    /**
+     * Returns true if partial aggregates built over disjoint row sets can be
+     * combined with {@link #merge(MapValue, MapValue)}, i.e. the result does not
+     * depend on the order in which rows are aggregated.
+     *
+     * @return true if the function can be used in parallel GROUP BY
+     */
+    default boolean isParallelismSupported() {
+        return false;
+    }
+
     default boolean isScalar() {
         return true;
     }
 
+    /**
+     * Merges partial aggregate held by srcValue into destValue. Both values
+     * are expected to be created for the same value types.
+     *
+     * @param destValue map value to be updated
+     * @param srcValue  map value holding the partial aggregate
+     */
+    default void merge(MapValue destValue, MapValue srcValue) {
+        throw new UnsupportedOperationException();
+    }
+
     void pushValueTypes(ArrayColumnTypes columnTypes);
 
     default void setByte(MapValue mapValue, byte value) {
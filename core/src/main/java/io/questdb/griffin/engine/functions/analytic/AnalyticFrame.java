@@ -0,0 +1,403 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.SingleColumnType;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Maintains state of the analytic frame, which ends at the current row, for every partition.
+ * Records must be added in the order of the analytic function's ORDER BY clause. State of all
+ * partitions lives in a single native memory block. Bounded frames keep (key, value) pairs of
+ * the frame rows in a ring buffer, where the key is either row number within the partition (ROWS)
+ * or value of the ORDER BY timestamp (RANGE). Rows leave the frame once their key is
+ * further than the frame's PRECEDING offset from the key of the current row.
+ * <p>
+ * MIN and MAX frames keep only rows that can still become extremum, e.g. values in the ring
+ * are monotonic, so that the result is always at the ring's head.
+ */
+public class AnalyticFrame implements Mutable, Reopenable {
+    public static final int AVG = 0;
+    public static final int COUNT = 1;
+    public static final int FIRST_VALUE = 2;
+    public static final int MAX = 3;
+    public static final int MIN = 4;
+    public static final int SUM = 5;
+    private static final int ENTRY_SIZE = 2 * Long.BYTES;
+    private static final int INITIAL_RING_CAPACITY = 16;
+    private static final SingleColumnType LONG_COLUMN_TYPE = new SingleColumnType(ColumnType.LONG);
+    private static final int STATE_BYTES = 56;
+    private static final int STATE_CAPACITY = 8;
+    private static final int STATE_COUNT = 48;
+    private static final int STATE_HEAD = 16;
+    private static final int STATE_RING = 0;
+    private static final int STATE_ROW_COUNT = 32;
+    private static final int STATE_SIZE = 24;
+    // aggregate value, e.g. sum, cumulative min/max or the very first value of the partition
+    private static final int STATE_VALUE = 40;
+    private final boolean cumulative;
+    private final int kind;
+    @Nullable
+    private final Map map;
+    private final MemoryCARW memory;
+    @Nullable
+    private final VirtualRecord partitionByRecord;
+    @Nullable
+    private final RecordSink partitionBySink;
+    private final long preceding;
+    private final int timestampIndex;
+    private long singleState = -1;
+
+    public AnalyticFrame(
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext,
+            int kind,
+            int framingMode,
+            long preceding,
+            boolean wholePartition
+    ) {
+        this.kind = kind;
+        this.preceding = preceding;
+        this.cumulative = wholePartition || preceding == AnalyticColumn.FRAME_UNBOUNDED;
+        this.timestampIndex = framingMode == AnalyticColumn.FRAMING_RANGE ? analyticContext.getOrderByTimestampIndex() : -1;
+        this.partitionByRecord = analyticContext.getPartitionByRecord();
+        this.partitionBySink = analyticContext.getPartitionBySink();
+        if (partitionByRecord != null) {
+            this.map = MapFactory.createMap(configuration, analyticContext.getPartitionByKeyTypes(), LONG_COLUMN_TYPE);
+        } else {
+            this.map = null;
+        }
+        this.memory = Vm.getCARWInstance(
+                configuration.getSqlAnalyticStorePageSize(),
+                configuration.getSqlAnalyticStoreMaxPages(),
+                MemoryTag.NATIVE_ANALYTIC
+        );
+    }
+
+    /**
+     * @return analytic context of the function being created, fails when function is called without OVER clause
+     */
+    public static AnalyticContext getAnalyticContext(int position, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
+        if (analyticContext.isEmpty()) {
+            throw SqlException.$(position, "analytic function called in non-analytic context, make sure to add OVER clause");
+        }
+        return analyticContext;
+    }
+
+    /**
+     * Creates frame as defined by the OVER clause of the analytic function.
+     */
+    public static AnalyticFrame newInstance(CairoConfiguration configuration, AnalyticContext analyticContext, int kind) {
+        return new AnalyticFrame(
+                configuration,
+                analyticContext,
+                kind,
+                analyticContext.getFramingMode(),
+                analyticContext.getFramePreceding(),
+                analyticContext.isWholePartitionFrame()
+        );
+    }
+
+    /**
+     * Adds current row to the frame of the given partition.
+     *
+     * @param state  partition state as returned by {@link #getState(Record)}
+     * @param record current record
+     * @param value  value the function aggregates, NaN values are ignored by all aggregates except FIRST_VALUE
+     */
+    public void add(long state, Record record, double value) {
+        final long key = nextKey(state, record);
+        if (cumulative) {
+            addCumulative(state, value);
+            return;
+        }
+        evict(state, key);
+        switch (kind) {
+            case FIRST_VALUE:
+                push(state, key, Double.doubleToRawLongBits(value));
+                break;
+            case MIN:
+            case MAX:
+                if (!Double.isNaN(value)) {
+                    long size = memory.getLong(state + STATE_SIZE);
+                    while (size > 0 && dominates(value, Double.longBitsToDouble(memory.getLong(entryOffset(state, size - 1) + Long.BYTES)))) {
+                        size--;
+                    }
+                    memory.putLong(state + STATE_SIZE, size);
+                    push(state, key, Double.doubleToRawLongBits(value));
+                }
+                break;
+            default:
+                if (!Double.isNaN(value)) {
+                    push(state, key, Double.doubleToRawLongBits(value));
+                    memory.putDouble(state + STATE_VALUE, memory.getDouble(state + STATE_VALUE) + value);
+                    memory.putLong(state + STATE_COUNT, memory.getLong(state + STATE_COUNT) + 1);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Adds current row to the frame keeping arbitrary long value for the row. Frame must be of FIRST_VALUE kind.
+     */
+    public void add(long state, Record record, long value) {
+        assert kind == FIRST_VALUE && !cumulative;
+        final long key = nextKey(state, record);
+        evict(state, key);
+        push(state, key, value);
+    }
+
+    @Override
+    public void clear() {
+        if (map != null) {
+            map.clear();
+        }
+        memory.jumpTo(0);
+        singleState = -1;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(map);
+        Misc.free(memory);
+        if (partitionByRecord != null) {
+            Misc.freeObjList(partitionByRecord.getFunctions());
+        }
+        singleState = -1;
+    }
+
+    public long getCount(long state) {
+        return memory.getLong(state + STATE_COUNT);
+    }
+
+    public double getDouble(long state) {
+        switch (kind) {
+            case AVG: {
+                final long count = memory.getLong(state + STATE_COUNT);
+                return count > 0 ? memory.getDouble(state + STATE_VALUE) / count : Double.NaN;
+            }
+            case COUNT:
+                return memory.getLong(state + STATE_COUNT);
+            case SUM:
+                return memory.getLong(state + STATE_COUNT) > 0 ? memory.getDouble(state + STATE_VALUE) : Double.NaN;
+            default:
+                // FIRST_VALUE, MIN, MAX
+                if (cumulative) {
+                    return memory.getDouble(state + STATE_VALUE);
+                }
+                return memory.getLong(state + STATE_SIZE) > 0 ? Double.longBitsToDouble(getFirstLong(state)) : Double.NaN;
+        }
+    }
+
+    /**
+     * @return value of the first row in the frame, frame must not be empty
+     */
+    public long getFirstLong(long state) {
+        return memory.getLong(entryOffset(state, 0) + Long.BYTES);
+    }
+
+    /**
+     * @return number of rows in the frame, only meaningful for bounded FIRST_VALUE frames
+     */
+    public long getFrameSize(long state) {
+        return memory.getLong(state + STATE_SIZE);
+    }
+
+    /**
+     * Finds or creates state of the partition current record belongs to.
+     *
+     * @param record current record
+     * @return offset of the partition state
+     */
+    public long getState(Record record) {
+        if (map == null) {
+            if (singleState == -1) {
+                singleState = newState();
+            }
+            return singleState;
+        }
+        partitionByRecord.of(record);
+        final MapKey key = map.withKey();
+        key.put(partitionByRecord, partitionBySink);
+        final MapValue value = key.createValue();
+        if (value.isNew()) {
+            final long state = newState();
+            value.putLong(0, state);
+            return state;
+        }
+        return value.getLong(0);
+    }
+
+    public boolean isCumulative() {
+        return cumulative;
+    }
+
+    @Override
+    public void reopen() {
+        if (map != null) {
+            map.reopen();
+        }
+    }
+
+    public void reset() {
+        if (map != null) {
+            map.close();
+        }
+        memory.close();
+        singleState = -1;
+    }
+
+    private void addCumulative(long state, double value) {
+        if (kind == FIRST_VALUE) {
+            if (memory.getLong(state + STATE_ROW_COUNT) == 1) {
+                memory.putDouble(state + STATE_VALUE, value);
+            }
+            return;
+        }
+
+        if (Double.isNaN(value)) {
+            return;
+        }
+
+        final long count = memory.getLong(state + STATE_COUNT);
+        memory.putLong(state + STATE_COUNT, count + 1);
+        switch (kind) {
+            case MIN:
+            case MAX:
+                if (count == 0 || dominates(value, memory.getDouble(state + STATE_VALUE))) {
+                    memory.putDouble(state + STATE_VALUE, value);
+                }
+                break;
+            default:
+                memory.putDouble(state + STATE_VALUE, memory.getDouble(state + STATE_VALUE) + value);
+                break;
+        }
+    }
+
+    // true when the new value makes the old one redundant for MIN and MAX frames
+    private boolean dominates(double value, double other) {
+        return kind == MIN ? value <= other : value >= other;
+    }
+
+    private long entryOffset(long state, long index) {
+        final long capacity = memory.getLong(state + STATE_CAPACITY);
+        return memory.getLong(state + STATE_RING) + ((memory.getLong(state + STATE_HEAD) + index) % capacity) * ENTRY_SIZE;
+    }
+
+    private void evict(long state, long key) {
+        // rows with key below the lower boundary of the frame are evicted
+        final long lo = key >= Long.MIN_VALUE + preceding ? key - preceding : Long.MIN_VALUE;
+        long size = memory.getLong(state + STATE_SIZE);
+        if (size == 0) {
+            return;
+        }
+        final long capacity = memory.getLong(state + STATE_CAPACITY);
+        long head = memory.getLong(state + STATE_HEAD);
+        final long ring = memory.getLong(state + STATE_RING);
+        final boolean aggregate = kind == AVG || kind == COUNT || kind == SUM;
+        while (size > 0) {
+            final long entry = ring + head * ENTRY_SIZE;
+            if (memory.getLong(entry) >= lo) {
+                break;
+            }
+            if (aggregate) {
+                final long count = memory.getLong(state + STATE_COUNT) - 1;
+                memory.putLong(state + STATE_COUNT, count);
+                // reset sum once frame is empty to stop accumulating rounding errors
+                memory.putDouble(
+                        state + STATE_VALUE,
+                        count > 0 ? memory.getDouble(state + STATE_VALUE) - Double.longBitsToDouble(memory.getLong(entry + Long.BYTES)) : 0
+                );
+            }
+            head = (head + 1) % capacity;
+            size--;
+        }
+        memory.putLong(state + STATE_HEAD, head);
+        memory.putLong(state + STATE_SIZE, size);
+    }
+
+    private long newState() {
+        final long state = memory.getAppendOffset();
+        memory.skip(STATE_BYTES);
+        memory.putLong(state + STATE_RING, -1);
+        memory.putLong(state + STATE_CAPACITY, 0);
+        memory.putLong(state + STATE_HEAD, 0);
+        memory.putLong(state + STATE_SIZE, 0);
+        memory.putLong(state + STATE_ROW_COUNT, 0);
+        memory.putDouble(state + STATE_VALUE, kind == FIRST_VALUE || kind == MIN || kind == MAX ? Double.NaN : 0);
+        memory.putLong(state + STATE_COUNT, 0);
+        return state;
+    }
+
+    private long nextKey(long state, Record record) {
+        final long rowNumber = memory.getLong(state + STATE_ROW_COUNT);
+        memory.putLong(state + STATE_ROW_COUNT, rowNumber + 1);
+        return timestampIndex == -1 ? rowNumber : record.getTimestamp(timestampIndex);
+    }
+
+    private void push(long state, long key, long value) {
+        final long size = memory.getLong(state + STATE_SIZE);
+        final long capacity = memory.getLong(state + STATE_CAPACITY);
+        if (size == capacity) {
+            // ring is full, move entries to a new ring twice the size, old ring is abandoned
+            final long newCapacity = capacity == 0 ? INITIAL_RING_CAPACITY : capacity * 2;
+            final long newRing = memory.getAppendOffset();
+            memory.skip(newCapacity * ENTRY_SIZE);
+            for (long i = 0; i < size; i++) {
+                final long entry = entryOffset(state, i);
+                memory.putLong(newRing + i * ENTRY_SIZE, memory.getLong(entry));
+                memory.putLong(newRing + i * ENTRY_SIZE + Long.BYTES, memory.getLong(entry + Long.BYTES));
+            }
+            memory.putLong(state + STATE_RING, newRing);
+            memory.putLong(state + STATE_CAPACITY, newCapacity);
+            memory.putLong(state + STATE_HEAD, 0);
+        }
+        final long entry = entryOffset(state, size);
+        memory.putLong(entry, key);
+        memory.putLong(entry + Long.BYTES, value);
+        memory.putLong(state + STATE_SIZE, size + 1);
+    }
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+
+/**
+ * Aggregates double argument over the analytic frame, e.g. sum(price) over (partition by sym order by ts rows 10 preceding).
+ */
+public class AnalyticFrameDoubleFunction extends DoubleFunction implements ScalarFunction, AnalyticFunction, Reopenable {
+    private final Function arg;
+    private final AnalyticFrame frame;
+    private final String name;
+    private final int passCount;
+    private int columnIndex;
+    private double value;
+
+    public AnalyticFrameDoubleFunction(String name, Function arg, AnalyticFrame frame, int passCount) {
+        this.name = name;
+        this.arg = arg;
+        this.frame = frame;
+        this.passCount = passCount;
+    }
+
+    public static AnalyticFrameDoubleFunction newInstance(
+            int position,
+            String name,
+            int kind,
+            Function arg,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final AnalyticContext analyticContext = AnalyticFrame.getAnalyticContext(position, sqlExecutionContext);
+        return new AnalyticFrameDoubleFunction(
+                name,
+                arg,
+                AnalyticFrame.newInstance(configuration, analyticContext, kind),
+                analyticContext.isWholePartitionFrame() ? TWO_PASS : ZERO_PASS
+        );
+    }
+
+    @Override
+    public void close() {
+        Misc.free(arg);
+        Misc.free(frame);
+    }
+
+    @Override
+    public void computeNext(Record record) {
+        final long state = frame.getState(record);
+        frame.add(state, record, arg.getDouble(record));
+        value = frame.getDouble(state);
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        return value;
+    }
+
+    @Override
+    public int getPassCount() {
+        return passCount;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        arg.init(symbolTableSource, executionContext);
+    }
+
+    @Override
+    public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+    }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+        final long state = frame.getState(record);
+        frame.add(state, record, arg.getDouble(record));
+        if (passCount == ZERO_PASS) {
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), frame.getDouble(state));
+        }
+    }
+
+    @Override
+    public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+        Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), frame.getDouble(frame.getState(record)));
+    }
+
+    @Override
+    public void preparePass2(RecordCursor cursor) {
+    }
+
+    @Override
+    public void reopen() {
+        frame.reopen();
+    }
+
+    @Override
+    public void reset() {
+        frame.reset();
+    }
+
+    @Override
+    public void setColumnIndex(int columnIndex) {
+        this.columnIndex = columnIndex;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(name).val('(').val(arg).val(')');
+    }
+
+    @Override
+    public void toTop() {
+        arg.toTop();
+        frame.clear();
+    }
+}
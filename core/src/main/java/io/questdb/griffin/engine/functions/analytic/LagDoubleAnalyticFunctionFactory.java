@@ -0,0 +1,216 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.constants.DoubleConstant;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+public class LagDoubleAnalyticFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "lag(DV)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final AnalyticContext analyticContext = AnalyticFrame.getAnalyticContext(position, sqlExecutionContext);
+        final long offset = getOffset(args, argPositions);
+        return new LagFunction(
+                args.getQuick(0),
+                offset,
+                getDefaultValue(args, argPositions),
+                new AnalyticFrame(configuration, analyticContext, AnalyticFrame.FIRST_VALUE, AnalyticColumn.FRAMING_ROWS, offset, false)
+        );
+    }
+
+    static Function getDefaultValue(ObjList<Function> args, IntList argPositions) throws SqlException {
+        if (args.size() < 3) {
+            return DoubleConstant.NULL;
+        }
+        final Function defaultValue = args.getQuick(2);
+        switch (ColumnType.tagOf(defaultValue.getType())) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+            case ColumnType.NULL:
+                return defaultValue;
+            default:
+                throw SqlException.$(argPositions.getQuick(2), "numeric default value expected");
+        }
+    }
+
+    /**
+     * Validates arguments of lag() and lead() and returns the offset, which defaults to 1.
+     */
+    static long getOffset(ObjList<Function> args, IntList argPositions) throws SqlException {
+        if (args.size() > 3) {
+            throw SqlException.$(argPositions.getQuick(3), "too many arguments");
+        }
+        if (args.size() < 2) {
+            return 1;
+        }
+        final Function offset = args.getQuick(1);
+        final int type = ColumnType.tagOf(offset.getType());
+        if (!offset.isConstant() || (type != ColumnType.BYTE && type != ColumnType.SHORT && type != ColumnType.INT && type != ColumnType.LONG)) {
+            throw SqlException.$(argPositions.getQuick(1), "offset must be a constant integer");
+        }
+        final long value = offset.getLong(null);
+        if (value < 0) {
+            throw SqlException.$(argPositions.getQuick(1), "offset must be a non-negative integer");
+        }
+        return value;
+    }
+
+    private static class LagFunction extends DoubleFunction implements ScalarFunction, AnalyticFunction, Reopenable {
+        private final Function arg;
+        private final Function defaultValue;
+        private final AnalyticFrame frame;
+        private final long offset;
+        private int columnIndex;
+        private double value;
+
+        public LagFunction(Function arg, long offset, Function defaultValue, AnalyticFrame frame) {
+            this.arg = arg;
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+            this.frame = frame;
+        }
+
+        @Override
+        public void close() {
+            Misc.free(arg);
+            Misc.free(defaultValue);
+            Misc.free(frame);
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            final long state = frame.getState(record);
+            frame.add(state, record, arg.getDouble(record));
+            // frame holds offset + 1 rows once there are enough rows in the partition
+            value = frame.getFrameSize(state) > offset ? Double.longBitsToDouble(frame.getFirstLong(state)) : defaultValue.getDouble(record);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return value;
+        }
+
+        @Override
+        public int getPassCount() {
+            return ZERO_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            arg.init(symbolTableSource, executionContext);
+            defaultValue.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+        }
+
+        @Override
+        public boolean isReadThreadSafe() {
+            return false;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+        }
+
+        @Override
+        public void preparePass2(RecordCursor cursor) {
+        }
+
+        @Override
+        public void reopen() {
+            frame.reopen();
+        }
+
+        @Override
+        public void reset() {
+            frame.reset();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val("lag(").val(arg).val(',').val(offset).val(',').val(defaultValue).val(')');
+        }
+
+        @Override
+        public void toTop() {
+            arg.toTop();
+            defaultValue.toTop();
+            frame.clear();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+public class LeadDoubleAnalyticFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "lead(DV)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final AnalyticContext analyticContext = AnalyticFrame.getAnalyticContext(position, sqlExecutionContext);
+        final long offset = LagDoubleAnalyticFunctionFactory.getOffset(args, argPositions);
+        return new LeadFunction(
+                args.getQuick(0),
+                offset,
+                LagDoubleAnalyticFunctionFactory.getDefaultValue(args, argPositions),
+                new AnalyticFrame(configuration, analyticContext, AnalyticFrame.FIRST_VALUE, AnalyticColumn.FRAMING_ROWS, offset, false)
+        );
+    }
+
+    /**
+     * Value of the following row is not known when the current row is read, hence lead() cannot be
+     * computed on the fly. Instead, cached rows keep their default values until the row
+     * which is offset rows ahead arrives and overwrites it.
+     */
+    private static class LeadFunction extends DoubleFunction implements ScalarFunction, AnalyticFunction, Reopenable {
+        private final Function arg;
+        private final Function defaultValue;
+        private final AnalyticFrame frame;
+        private final long offset;
+        private int columnIndex;
+
+        public LeadFunction(Function arg, long offset, Function defaultValue, AnalyticFrame frame) {
+            this.arg = arg;
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+            this.frame = frame;
+        }
+
+        @Override
+        public void close() {
+            Misc.free(arg);
+            Misc.free(defaultValue);
+            Misc.free(frame);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            // not called
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            arg.init(symbolTableSource, executionContext);
+            defaultValue.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+        }
+
+        @Override
+        public boolean isReadThreadSafe() {
+            return false;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            final long state = frame.getState(record);
+            // frame keeps offsets of the rows still waiting for their lead value
+            frame.add(state, record, recordOffset);
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), defaultValue.getDouble(record));
+            if (frame.getFrameSize(state) > offset) {
+                Unsafe.getUnsafe().putDouble(spi.getAddress(frame.getFirstLong(state), columnIndex), arg.getDouble(record));
+            }
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+        }
+
+        @Override
+        public void preparePass2(RecordCursor cursor) {
+        }
+
+        @Override
+        public void reopen() {
+            frame.reopen();
+        }
+
+        @Override
+        public void reset() {
+            frame.reset();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val("lead(").val(arg).val(',').val(offset).val(',').val(defaultValue).val(')');
+        }
+
+        @Override
+        public void toTop() {
+            arg.toTop();
+            defaultValue.toTop();
+            frame.clear();
+        }
+    }
+}
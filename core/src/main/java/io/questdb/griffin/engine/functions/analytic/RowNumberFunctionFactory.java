@@ -54,6 +54,11 @@ public class RowNumberFunctionFactory implements FunctionFactory {
         return SIGNATURE;
     }
 
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -117,7 +122,7 @@ public class RowNumberFunctionFactory implements FunctionFactory {
         }
 
         @Override
-        public void pass2(Record record) {
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
         }
 
         @Override
@@ -195,7 +200,7 @@ public class RowNumberFunctionFactory implements FunctionFactory {
         }
 
         @Override
-        public void pass2(Record record) {
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
         }
 
         @Override
@@ -248,7 +253,7 @@ public class RowNumberFunctionFactory implements FunctionFactory {
         }
 
         @Override
-        public void pass2(Record record) {
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
         }
 
         @Override
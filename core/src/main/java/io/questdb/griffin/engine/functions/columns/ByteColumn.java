@@ -53,6 +53,10 @@ public class ByteColumn extends ByteFunction implements ScalarFunction {
         return rec.getByte(columnIndex);
     }
 
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
     @Override
     public boolean isReadThreadSafe() {
         return true;
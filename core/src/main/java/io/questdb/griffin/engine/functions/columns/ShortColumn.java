@@ -47,6 +47,10 @@ public class ShortColumn extends ShortFunction implements ScalarFunction {
         return new ShortColumn(columnIndex);
     }
 
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
     @Override
     public short getShort(Record rec) {
         return rec.getShort(columnIndex);
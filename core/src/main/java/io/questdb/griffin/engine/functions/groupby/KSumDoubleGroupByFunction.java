@@ -90,6 +90,22 @@ public class KSumDoubleGroupByFunction extends DoubleFunction implements GroupBy
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        // src holds (sum, c) pair where c is the lost low-order part, so we add (sum - c) to dest
+        final double sum = destValue.getDouble(valueIndex);
+        final double y = srcValue.getDouble(valueIndex) - srcValue.getDouble(valueIndex + 1) - destValue.getDouble(valueIndex + 1);
+        final double t = sum + y;
+        destValue.putDouble(valueIndex, t);
+        destValue.putDouble(valueIndex + 1, t - sum - y);
+        destValue.addLong(valueIndex + 2, srcValue.getLong(valueIndex + 2));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
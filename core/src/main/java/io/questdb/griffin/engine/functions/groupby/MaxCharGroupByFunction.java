@@ -71,6 +71,20 @@ public class MaxCharGroupByFunction extends CharFunction implements GroupByFunct
         return "max";
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        char srcMax = srcValue.getChar(valueIndex);
+        char destMax = destValue.getChar(valueIndex);
+        if (srcMax > destMax) {
+            destValue.putChar(valueIndex, srcMax);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -110,6 +110,35 @@ public class StdDevSampleDoubleGroupByFunction extends DoubleFunction implements
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final long srcCount = srcValue.getLong(valueIndex + 2);
+        if (srcCount == 0) {
+            return;
+        }
+        final long destCount = destValue.getLong(valueIndex + 2);
+        final double srcMean = srcValue.getDouble(valueIndex);
+        final double srcSum = srcValue.getDouble(valueIndex + 1);
+        if (destCount == 0) {
+            destValue.putDouble(valueIndex, srcMean);
+            destValue.putDouble(valueIndex + 1, srcSum);
+            destValue.putLong(valueIndex + 2, srcCount);
+            return;
+        }
+        // Chan et al. pairwise update of the running mean and sum of squared differences
+        final double destMean = destValue.getDouble(valueIndex);
+        final long count = destCount + srcCount;
+        final double delta = srcMean - destMean;
+        destValue.putDouble(valueIndex, destMean + delta * srcCount / count);
+        destValue.putDouble(valueIndex + 1, destValue.getDouble(valueIndex + 1) + srcSum + delta * delta * ((double) destCount * srcCount / count));
+        destValue.putLong(valueIndex + 2, count);
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
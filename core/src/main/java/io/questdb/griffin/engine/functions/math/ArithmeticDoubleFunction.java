@@ -0,0 +1,42 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.math;
+
+import io.questdb.cairo.sql.Function;
+
+/**
+ * Implemented by the DOUBLE arithmetic operators, so that a tree of them can be
+ * recognised and compiled into a single method by {@link DoubleExpressionCompiler}.
+ * Binary operators also implement {@link io.questdb.griffin.engine.functions.BinaryFunction},
+ * unary minus implements {@link io.questdb.griffin.engine.functions.UnaryFunction}.
+ */
+public interface ArithmeticDoubleFunction extends Function {
+
+    /**
+     * @return one of '+', '-', '*' or '/'
+     */
+    char getOperator();
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.math;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+
+/**
+ * Base class for the code generated by {@link DoubleExpressionCompiler}. Subclass implements
+ * getDouble() as a single method over the whole arithmetic tree, everything else,
+ * including the plan, is delegated to the original function.
+ */
+public abstract class CompiledDoubleFunction extends DoubleFunction implements UnaryFunction {
+    private Function arg;
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public String getName() {
+        return arg.getName();
+    }
+
+    @Override
+    public boolean isOperator() {
+        return arg.isOperator();
+    }
+
+    /**
+     * Captures functions the compiled code could not inline. This method is called by
+     * the compiler and should not be called by the caller.
+     *
+     * @param leaves functions, which values are read via getDouble() call
+     */
+    public abstract void setLeaves(@Transient ObjList<Function> leaves);
+
+    @Override
+    public boolean supportsRandomAccess() {
+        return arg.supportsRandomAccess();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        arg.toPlan(sink);
+    }
+
+    void of(Function arg, @Transient ObjList<Function> leaves) {
+        this.arg = arg;
+        setLeaves(leaves);
+    }
+}
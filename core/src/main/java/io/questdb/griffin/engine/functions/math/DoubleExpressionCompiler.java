@@ -0,0 +1,299 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.math;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.BinaryFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.columns.*;
+import io.questdb.std.*;
+
+/**
+ * Compiles trees of DOUBLE arithmetic operators into bytecode. Virtual getDouble() calls
+ * between the operators are replaced with a single straight-line method, in which columns
+ * are read from the record directly and constants are inlined. Call sites in the generated
+ * method are unique to the expression, so JIT compiler sees them as monomorphic and can
+ * compile the entire expression into native code.
+ */
+public class DoubleExpressionCompiler {
+    private static final int FIELD_POOL_OFFSET = 3;
+    private static final int OP_ADD = 0;
+    private static final int OP_BYTE_COLUMN = 1;
+    private static final int OP_CONSTANT = 2;
+    private static final int OP_DIV = 3;
+    private static final int OP_DOUBLE_COLUMN = 4;
+    private static final int OP_FLOAT_COLUMN = 5;
+    private static final int OP_FUNCTION = 6;
+    private static final int OP_INT_COLUMN = 7;
+    private static final int OP_LONG_COLUMN = 8;
+    private static final int OP_MUL = 9;
+    private static final int OP_NEG = 10;
+    private static final int OP_SHORT_COLUMN = 11;
+    private static final int OP_SUB = 12;
+    private final BytecodeAssembler asm;
+    // pairs of (op, operand) in evaluation order
+    private final IntList code = new IntList();
+    private final ObjList<Function> leaves = new ObjList<>();
+
+    public DoubleExpressionCompiler(BytecodeAssembler asm) {
+        this.asm = asm;
+    }
+
+    /**
+     * Generates byte code for DOUBLE arithmetic expression. The generated function
+     * is equivalent to the following:
+     * <code>
+     * public double getDouble(Record rec) {
+     * return (rec.getDouble(0) + rec.getDouble(1)) / 2.0;
+     * }
+     * </code>
+     * Functions, that are neither arithmetic operators, numeric columns nor constants
+     * are kept as fields and their values are read with getDouble(rec) call.
+     *
+     * @param function function to compile
+     * @return compiled function or the argument itself when it is not an arithmetic expression
+     */
+    public Function compile(Function function) {
+        if (!(function instanceof ArithmeticDoubleFunction) || function.isConstant()) {
+            return function;
+        }
+
+        asm.init(CompiledDoubleFunction.class);
+        asm.setupPool();
+
+        code.clear();
+        leaves.clear();
+        // constants are added to the pool while we walk the tree
+        final int maxStack = visit(function);
+
+        final int thisClassIndex = asm.poolClass(asm.poolUtf8("io/questdb/griffin/engine/functions/math/CompiledDoubleFunctionAsm"));
+        final int superclassIndex = asm.poolClass(CompiledDoubleFunction.class);
+        final int superIndex = asm.poolMethod(superclassIndex, "<init>", "()V");
+
+        final int typeIndex = asm.poolUtf8("Lio/questdb/cairo/sql/Function;");
+        final int leafCount = leaves.size();
+
+        int firstFieldNameIndex = 0;
+        int firstFieldIndex = 0;
+        for (int i = 0; i < leafCount; i++) {
+            // if you change pool calls then you will likely need to change the FIELD_POOL_OFFSET constant
+            int fieldNameIndex = asm.poolUtf8().put("f").put(i).$();
+            int nameAndType = asm.poolNameAndType(fieldNameIndex, typeIndex);
+            int fieldIndex = asm.poolField(thisClassIndex, nameAndType);
+            if (i == 0) {
+                firstFieldNameIndex = fieldNameIndex;
+                firstFieldIndex = fieldIndex;
+            }
+        }
+
+        final int functionGetDoubleIndex = asm.poolInterfaceMethod(Function.class, "getDouble", "(Lio/questdb/cairo/sql/Record;)D");
+        final int getByteIndex = asm.poolInterfaceMethod(Record.class, "getByte", "(I)B");
+        final int getDoubleIndex = asm.poolInterfaceMethod(Record.class, "getDouble", "(I)D");
+        final int getFloatIndex = asm.poolInterfaceMethod(Record.class, "getFloat", "(I)F");
+        final int getIntIndex = asm.poolInterfaceMethod(Record.class, "getInt", "(I)I");
+        final int getLongIndex = asm.poolInterfaceMethod(Record.class, "getLong", "(I)J");
+        final int getShortIndex = asm.poolInterfaceMethod(Record.class, "getShort", "(I)S");
+        final int intToDoubleIndex = asm.poolMethod(Numbers.class, "intToDouble", "(I)D");
+        final int longToDoubleIndex = asm.poolMethod(Numbers.class, "longToDouble", "(J)D");
+
+        final int getDoubleNameIndex = asm.poolUtf8("getDouble");
+        final int getDoubleSigIndex = asm.poolUtf8("(Lio/questdb/cairo/sql/Record;)D");
+        final int setLeavesNameIndex = asm.poolUtf8("setLeaves");
+        final int setLeavesSigIndex = asm.poolUtf8("(Lio/questdb/std/ObjList;)V");
+
+        final int listGetIndex = asm.poolMethod(ObjList.class, "get", "(I)Ljava/lang/Object;");
+
+        asm.finishPool();
+
+        asm.defineClass(thisClassIndex, superclassIndex);
+        asm.interfaceCount(0);
+        asm.fieldCount(leafCount);
+        for (int i = 0; i < leafCount; i++) {
+            asm.defineField(firstFieldNameIndex + (i * FIELD_POOL_OFFSET), typeIndex);
+        }
+        asm.methodCount(3);
+        asm.defineDefaultConstructor(superIndex);
+
+        // getDouble(Record)
+        asm.startMethod(getDoubleNameIndex, getDoubleSigIndex, maxStack, 2);
+        for (int i = 0, n = code.size(); i < n; i += 2) {
+            final int operand = code.getQuick(i + 1);
+            switch (code.getQuick(i)) {
+                case OP_ADD:
+                    asm.dadd();
+                    break;
+                case OP_BYTE_COLUMN:
+                    readColumn(getByteIndex, operand);
+                    asm.i2d();
+                    break;
+                case OP_CONSTANT:
+                    asm.ldc2_w(operand);
+                    break;
+                case OP_DIV:
+                    asm.ddiv();
+                    break;
+                case OP_DOUBLE_COLUMN:
+                    readColumn(getDoubleIndex, operand);
+                    break;
+                case OP_FLOAT_COLUMN:
+                    readColumn(getFloatIndex, operand);
+                    asm.f2d();
+                    break;
+                case OP_FUNCTION:
+                    asm.aload(0);
+                    asm.getfield(firstFieldIndex + (operand * FIELD_POOL_OFFSET));
+                    asm.aload(1);
+                    asm.invokeInterface(functionGetDoubleIndex, 1);
+                    break;
+                case OP_INT_COLUMN:
+                    readColumn(getIntIndex, operand);
+                    asm.invokeStatic(intToDoubleIndex);
+                    break;
+                case OP_LONG_COLUMN:
+                    readColumn(getLongIndex, operand);
+                    asm.invokeStatic(longToDoubleIndex);
+                    break;
+                case OP_MUL:
+                    asm.dmul();
+                    break;
+                case OP_NEG:
+                    asm.dneg();
+                    break;
+                case OP_SHORT_COLUMN:
+                    readColumn(getShortIndex, operand);
+                    asm.i2d();
+                    break;
+                case OP_SUB:
+                    asm.dsub();
+                    break;
+                default:
+                    assert false;
+            }
+        }
+        asm.dreturn();
+        asm.endMethodCode();
+        // exceptions
+        asm.putShort(0);
+        // attributes
+        asm.putShort(0);
+        asm.endMethod();
+
+        // setLeaves(ObjList)
+        asm.startMethod(setLeavesNameIndex, setLeavesSigIndex, 3, 2);
+        for (int i = 0; i < leafCount; i++) {
+            asm.aload(0);
+            asm.aload(1);
+            asm.iconst(i);
+            asm.invokeVirtual(listGetIndex);
+            asm.putfield(firstFieldIndex + (i * FIELD_POOL_OFFSET));
+        }
+        asm.return_();
+        asm.endMethodCode();
+        // exceptions
+        asm.putShort(0);
+        // attributes
+        asm.putShort(0);
+        asm.endMethod();
+
+        // class attribute count
+        asm.putShort(0);
+
+        final CompiledDoubleFunction compiled = asm.newInstance();
+        compiled.of(function, leaves);
+        return compiled;
+    }
+
+    private static int toOp(char operator) {
+        switch (operator) {
+            case '+':
+                return OP_ADD;
+            case '-':
+                return OP_SUB;
+            case '*':
+                return OP_MUL;
+            default:
+                assert operator == '/';
+                return OP_DIV;
+        }
+    }
+
+    private void emit(int op, int operand) {
+        code.add(op);
+        code.add(operand);
+    }
+
+    private void readColumn(int getterIndex, int columnIndex) {
+        asm.aload(1);
+        asm.iconst(columnIndex);
+        asm.invokeInterface(getterIndex, 1);
+    }
+
+    /**
+     * Appends code for the function in post-order.
+     *
+     * @return max stack depth, in slots, required to evaluate the function
+     */
+    private int visit(Function function) {
+        if (function.isConstant()) {
+            emit(OP_CONSTANT, asm.poolDoubleConst(function.getDouble(null)));
+            return 2;
+        }
+
+        if (function instanceof ArithmeticDoubleFunction) {
+            if (function instanceof UnaryFunction) {
+                final int depth = visit(((UnaryFunction) function).getArg());
+                emit(OP_NEG, 0);
+                return depth;
+            }
+            final BinaryFunction binary = (BinaryFunction) function;
+            final int leftDepth = visit(binary.getLeft());
+            // left value stays on the stack while right is evaluated
+            final int rightDepth = visit(binary.getRight()) + 2;
+            emit(toOp(((ArithmeticDoubleFunction) function).getOperator()), 0);
+            return Math.max(leftDepth, rightDepth);
+        }
+
+        // column reads need record reference and column index on the stack, that is 2 slots
+        if (function instanceof DoubleColumn) {
+            emit(OP_DOUBLE_COLUMN, ((DoubleColumn) function).getColumnIndex());
+        } else if (function instanceof IntColumn) {
+            emit(OP_INT_COLUMN, ((IntColumn) function).getColumnIndex());
+        } else if (function instanceof LongColumn) {
+            emit(OP_LONG_COLUMN, ((LongColumn) function).getColumnIndex());
+        } else if (function instanceof FloatColumn) {
+            emit(OP_FLOAT_COLUMN, ((FloatColumn) function).getColumnIndex());
+        } else if (function instanceof ShortColumn) {
+            emit(OP_SHORT_COLUMN, ((ShortColumn) function).getColumnIndex());
+        } else if (function instanceof ByteColumn) {
+            emit(OP_BYTE_COLUMN, ((ByteColumn) function).getColumnIndex());
+        } else {
+            emit(OP_FUNCTION, leaves.size());
+            leaves.add(function);
+        }
+        return 2;
+    }
+}
@@ -46,7 +46,7 @@ public class NegDoubleFunctionFactory implements FunctionFactory {
         return new Func(args.getQuick(0));
     }
 
-    private static class Func extends DoubleFunction implements UnaryFunction {
+    private static class Func extends DoubleFunction implements UnaryFunction, ArithmeticDoubleFunction {
         final Function arg;
 
         public Func(Function arg) {
@@ -63,6 +63,11 @@ public class NegDoubleFunctionFactory implements FunctionFactory {
             return -arg.getDouble(rec);
         }
 
+        @Override
+        public char getOperator() {
+            return '-';
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val('-').val(arg);
@@ -46,7 +46,7 @@ public class SubDoubleFunctionFactory implements FunctionFactory {
         return new Func(args.getQuick(0), args.getQuick(1));
     }
 
-    private static class Func extends DoubleFunction implements BinaryFunction {
+    private static class Func extends DoubleFunction implements BinaryFunction, ArithmeticDoubleFunction {
         private final Function left;
         private final Function right;
 
@@ -65,6 +65,11 @@ public class SubDoubleFunctionFactory implements FunctionFactory {
             return left;
         }
 
+        @Override
+        public char getOperator() {
+            return '-';
+        }
+
         @Override
         public Function getRight() {
             return right;
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.table.AsyncGroupByAtom;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Parallel GROUP BY state extended with the sampler used to assign rows to buckets.
+ * Bucket timestamp is stored as the last map key column and in the first map value.
+ */
+class AsyncSampleByAtom extends AsyncGroupByAtom {
+    private final int timestampIndex;
+    private final TimestampSampler timestampSampler;
+
+    AsyncSampleByAtom(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull RecordSink mapSink,
+            @NotNull ObjList<GroupByFunction> ownerFunctions,
+            @Nullable ObjList<ObjList<GroupByFunction>> perWorkerFunctions,
+            @NotNull TimestampSampler timestampSampler,
+            int timestampIndex,
+            int workerCount
+    ) {
+        super(asm, configuration, keyTypes, valueTypes, mapSink, ownerFunctions, perWorkerFunctions, null, workerCount);
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = timestampIndex;
+    }
+
+    int getTimestampIndex() {
+        return timestampIndex;
+    }
+
+    // Sampler start is set by the query owner thread before any frame is dispatched,
+    // after that workers only read it.
+    TimestampSampler getTimestampSampler() {
+        return timestampSampler;
+    }
+}
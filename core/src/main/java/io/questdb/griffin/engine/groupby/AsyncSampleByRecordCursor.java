@@ -0,0 +1,406 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+class AsyncSampleByRecordCursor implements NoRandomAccessRecordCursor, Closeable {
+
+    private static final Log LOG = LogFactory.getLog(AsyncSampleByRecordCursor.class);
+    private static final String exceptionMessage = "timeout, query aborted";
+    private final LongList bucketRowIds = new LongList();
+    // (bucket timestamp, entry index) pairs, sorted by timestamp once the data map is built
+    private final DirectLongList entries;
+    private final IntList entryKeyOrdinals = new IntList();
+    private final LongList entryRowIds = new LongList();
+    private final int fillMode;
+    private final Map fillKeyMap;
+    private final LongList fillKeyRowIds = new LongList();
+    private final RecordSink fillKeySink;
+    private final long fixedOffset;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final LongList prevRowIds = new LongList();
+    private final SplitVirtualRecord record;
+    private final ObjList<Function> recordFunctions;
+    private final int timestampIndex;
+    private final TimestampSampler timestampSampler;
+    private boolean allFramesActive;
+    private AsyncSampleByAtom atom;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private long currentBucket;
+    private long cursor = -1;
+    private long entryCount;
+    private long entryIndex;
+    private RecordCursor fillKeyCursor;
+    private Record fillKeyRecord;
+    private int frameIndex;
+    private int frameLimit;
+    private PageFrameSequence<AsyncSampleByAtom> frameSequence;
+    private boolean isDataMapBuilt;
+    private boolean isFirstBucket;
+    private boolean isOpen;
+    private int keyCount;
+    private int keyOrdinal;
+    private RecordCursor mapCursor;
+    private Record mapRecord;
+
+    AsyncSampleByRecordCursor(
+            CairoConfiguration configuration,
+            ObjList<Function> recordFunctions,
+            ObjList<Function> placeholderFunctions,
+            ObjList<GroupByFunction> groupByFunctions,
+            @Nullable Map fillKeyMap,
+            @Nullable RecordSink fillKeySink,
+            TimestampSampler timestampSampler,
+            int timestampIndex,
+            long fixedOffset,
+            int fillMode
+    ) {
+        this.recordFunctions = recordFunctions;
+        this.groupByFunctions = groupByFunctions;
+        this.fillKeyMap = fillKeyMap;
+        this.fillKeySink = fillKeySink;
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = timestampIndex;
+        this.fixedOffset = fixedOffset;
+        this.fillMode = fillMode;
+        this.record = new SplitVirtualRecord(recordFunctions, placeholderFunctions);
+        final TimestampFunc timestampFunc = new TimestampFunc();
+        for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+            if (recordFunctions.getQuick(i) == null) {
+                recordFunctions.setQuick(i, timestampFunc);
+                placeholderFunctions.setQuick(i, timestampFunc);
+            }
+        }
+        this.entries = new DirectLongList(configuration.getSqlSortKeyPageSize() / Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            LOG.debug()
+                    .$("closing [shard=").$(frameSequence.getShard())
+                    .$(", frameIndex=").$(frameIndex)
+                    .$(", frameCount=").$(frameLimit)
+                    .$(", frameId=").$(frameSequence.getId())
+                    .$(", cursor=").$(cursor)
+                    .I$();
+
+            collectCursor(true);
+            if (frameLimit > -1) {
+                frameSequence.await();
+            }
+            frameSequence.clear();
+            // map cursors do not own any resources, so we release maps directly
+            mapCursor = null;
+            mapRecord = null;
+            fillKeyCursor = null;
+            fillKeyRecord = null;
+            atom.clear();
+            circuitBreaker = null;
+            isOpen = false;
+        }
+        Misc.free(fillKeyMap);
+        Misc.free(entries);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return (SymbolTable) recordFunctions.getQuick(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isDataMapBuilt) {
+            buildMap();
+        }
+
+        if (fillMode == AsyncSampleByRecordCursorFactory.FILL_NONE) {
+            if (entryIndex < entryCount) {
+                currentBucket = entries.get(2 * entryIndex);
+                mapCursor.recordAt(mapRecord, entryRowIds.getQuick((int) entries.get(2 * entryIndex + 1)));
+                entryIndex++;
+                return true;
+            }
+            return false;
+        }
+
+        while (++keyOrdinal >= keyCount) {
+            if (entryIndex >= entryCount) {
+                return false;
+            }
+            nextBucket();
+        }
+        fill(keyOrdinal);
+        return true;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return ((SymbolFunction) recordFunctions.getQuick(columnIndex)).newSymbolTable();
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        GroupByUtils.toTop(recordFunctions);
+        if (isDataMapBuilt) {
+            resetIteration();
+        }
+    }
+
+    private void buildMap() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+            // sampler has to be aligned before any frame is dispatched
+            if (fixedOffset != Long.MIN_VALUE) {
+                timestampSampler.setStart(fixedOffset);
+            } else if (frameLimit > -1) {
+                // this is the default path, we align time intervals to the first observation
+                final long firstTimestampAddress = frameSequence.getPageAddressCache().getPageAddress(0, timestampIndex);
+                timestampSampler.setStart(Unsafe.getUnsafe().getLong(firstTimestampAddress));
+            }
+        }
+
+        try {
+            do {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+                    collectCursor(false);
+                } else if (cursor == -2) {
+                    break; // No frames to aggregate
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            LOG.critical().$("unexpected error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+
+        if (!allFramesActive) {
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+
+        mapCursor = atom.mergeWorkerMaps().getCursor();
+        mapRecord = mapCursor.getRecord();
+        indexEntries();
+        isDataMapBuilt = true;
+        resetIteration();
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private void fill(int keyOrdinal) {
+        final long rowId = bucketRowIds.getQuick(keyOrdinal);
+        if (rowId != -1) {
+            mapCursor.recordAt(mapRecord, rowId);
+            record.of(mapRecord);
+            record.setActiveA();
+            if (fillMode == AsyncSampleByRecordCursorFactory.FILL_PREV) {
+                prevRowIds.setQuick(keyOrdinal, rowId);
+            }
+            return;
+        }
+
+        if (fillMode == AsyncSampleByRecordCursorFactory.FILL_PREV) {
+            final long prevRowId = prevRowIds.getQuick(keyOrdinal);
+            if (prevRowId != -1) {
+                mapCursor.recordAt(mapRecord, prevRowId);
+                record.of(mapRecord);
+            } else {
+                // key has not been observed yet, fill key map holds null values for it
+                fillKeyCursor.recordAt(fillKeyRecord, fillKeyRowIds.getQuick(keyOrdinal));
+                record.of(fillKeyRecord);
+            }
+            record.setActiveA();
+            return;
+        }
+
+        // null fill, placeholder functions only need the key columns
+        if (fillKeyCursor != null) {
+            fillKeyCursor.recordAt(fillKeyRecord, fillKeyRowIds.getQuick(keyOrdinal));
+            record.of(fillKeyRecord);
+        } else {
+            record.of(mapRecord);
+        }
+        record.setActiveB();
+    }
+
+    private int getKeyOrdinal(Record mapRecord) {
+        final MapKey key = fillKeyMap.withKey();
+        fillKeySink.copy(mapRecord, key);
+        final MapValue value = key.createValue();
+        if (value.isNew()) {
+            // first value slot is reserved for the bucket timestamp, we keep key ordinal there
+            value.putLong(0, keyCount++);
+            for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+                groupByFunctions.getQuick(i).setNull(value);
+            }
+        }
+        return (int) value.getLong(0);
+    }
+
+    private void indexEntries() {
+        entries.clear();
+        entryRowIds.clear();
+        entryKeyOrdinals.clear();
+        keyCount = fillKeyMap != null ? 0 : 1;
+
+        int index = 0;
+        while (mapCursor.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            entryRowIds.add(mapRecord.getRowId());
+            entries.add(mapRecord.getTimestamp(0));
+            entries.add(index++);
+            if (fillKeyMap != null) {
+                entryKeyOrdinals.add(getKeyOrdinal(mapRecord));
+            }
+        }
+        entryCount = index;
+        Vect.sortLongIndexAscInPlace(entries.getAddress(), entryCount);
+
+        if (fillKeyMap != null) {
+            fillKeyRowIds.setPos(keyCount);
+            fillKeyCursor = fillKeyMap.getCursor();
+            fillKeyRecord = fillKeyCursor.getRecord();
+            while (fillKeyCursor.hasNext()) {
+                fillKeyRowIds.setQuick((int) fillKeyRecord.getLong(0), fillKeyRecord.getRowId());
+            }
+        }
+
+        if (fillMode == AsyncSampleByRecordCursorFactory.FILL_NONE) {
+            record.of(mapRecord);
+            record.setActiveA();
+        }
+    }
+
+    private void nextBucket() {
+        if (isFirstBucket) {
+            currentBucket = entries.get(0);
+            isFirstBucket = false;
+        } else {
+            currentBucket = timestampSampler.nextTimestamp(currentBucket);
+        }
+        bucketRowIds.setAll(keyCount, -1);
+        while (entryIndex < entryCount && entries.get(2 * entryIndex) == currentBucket) {
+            final int index = (int) entries.get(2 * entryIndex + 1);
+            bucketRowIds.setQuick(fillKeyMap != null ? entryKeyOrdinals.getQuick(index) : 0, entryRowIds.getQuick(index));
+            entryIndex++;
+        }
+        assert entryIndex == entryCount || entries.get(2 * entryIndex) > currentBucket;
+        keyOrdinal = -1;
+    }
+
+    private void resetIteration() {
+        entryIndex = 0;
+        isFirstBucket = true;
+        // forces the first hasNext() call to move on to the first bucket
+        keyOrdinal = keyCount;
+        prevRowIds.setAll(keyCount, -1);
+    }
+
+    void of(PageFrameSequence<AsyncSampleByAtom> frameSequence, SqlExecutionContext executionContext) {
+        isOpen = true;
+        this.frameSequence = frameSequence;
+        this.atom = frameSequence.getAtom();
+        circuitBreaker = executionContext.getCircuitBreaker();
+        if (fillKeyMap != null) {
+            fillKeyMap.reopen();
+        }
+        entries.reopen();
+        frameIndex = -1;
+        frameLimit = -1;
+        allFramesActive = true;
+        isDataMapBuilt = false;
+    }
+
+    private class TimestampFunc extends TimestampFunction implements Function {
+
+        @Override
+        public long getTimestamp(Record rec) {
+            return currentBucket;
+        }
+
+        @Override
+        public boolean isReadThreadSafe() {
+            return false;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val("Timestamp");
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * SAMPLE BY that aggregates page frames in parallel. Rows are reduced into per-worker maps
+ * keyed by the GROUP BY keys and the sample bucket. Partial maps are merged on the query owner
+ * thread, after which buckets are emitted in timestamp order and gaps are filled.
+ * Only fixed-size samplers without timezone conversion are supported.
+ */
+public class AsyncSampleByRecordCursorFactory extends AbstractRecordCursorFactory {
+    public static final int FILL_NONE = 0;
+    public static final int FILL_NULL = 1;
+    public static final int FILL_PREV = 2;
+    private static final PageFrameReducer REDUCER = AsyncSampleByRecordCursorFactory::aggregate;
+
+    private final AsyncSampleByAtom atom;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncSampleByRecordCursor cursor;
+    private final int fillMode;
+    private final PageFrameSequence<AsyncSampleByAtom> frameSequence;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final ObjList<Function> recordFunctions;
+    private final int workerCount;
+
+    public AsyncSampleByRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @NotNull RecordMetadata groupByMetadata,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @Nullable ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions,
+            @NotNull ObjList<Function> recordFunctions,
+            @Transient @NotNull IntList recordFunctionPositions,
+            @NotNull TimestampSampler timestampSampler,
+            int timestampIndex,
+            int fillMode,
+            @NotNull Function offsetFunc,
+            int offsetFuncPos,
+            @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool,
+            int workerCount
+    ) throws SqlException {
+        super(groupByMetadata);
+        Map fillKeyMap = null;
+        try {
+            this.base = base;
+            this.groupByFunctions = groupByFunctions;
+            this.recordFunctions = recordFunctions;
+            this.fillMode = fillMode;
+
+            final long fixedOffset = parseOffset(offsetFunc, offsetFuncPos);
+            final int keyCount = keyTypes.getColumnCount();
+            final int valueCount = valueTypes.getColumnCount();
+
+            // map key is the GROUP BY key followed by the bucket timestamp
+            final ArrayColumnTypes mapKeyTypes = new ArrayColumnTypes();
+            for (int i = 0; i < keyCount; i++) {
+                mapKeyTypes.add(keyTypes.getColumnType(i));
+            }
+            mapKeyTypes.add(ColumnType.TIMESTAMP);
+
+            final RecordSink mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
+            this.atom = new AsyncSampleByAtom(
+                    asm,
+                    configuration,
+                    mapKeyTypes,
+                    valueTypes,
+                    mapSink,
+                    groupByFunctions,
+                    perWorkerGroupByFunctions,
+                    timestampSampler,
+                    timestampIndex,
+                    workerCount
+            );
+
+            // keyed fill needs the set of all distinct keys, it is collected into a map
+            // with the same layout as the data map minus the bucket key column
+            RecordSink fillKeySink = null;
+            if (fillMode != FILL_NONE && keyCount > 0) {
+                final ArrayColumnTypes mapColumnTypes = new ArrayColumnTypes();
+                final ListColumnFilter fillKeyFilter = new ListColumnFilter();
+                for (int i = 0; i < valueCount; i++) {
+                    mapColumnTypes.add(valueTypes.getColumnType(i));
+                }
+                for (int i = 0; i < keyCount; i++) {
+                    mapColumnTypes.add(keyTypes.getColumnType(i));
+                    fillKeyFilter.add(valueCount + i + 1);
+                }
+                mapColumnTypes.add(ColumnType.TIMESTAMP);
+                fillKeySink = RecordSinkFactory.getInstance(asm, mapColumnTypes, fillKeyFilter, false);
+                fillKeyMap = MapFactory.createMap(configuration, keyTypes, valueTypes);
+            }
+
+            final ObjList<Function> placeholderFunctions = fillMode == FILL_NULL
+                    ? SampleByFillNullRecordCursorFactory.createPlaceholderFunctions(recordFunctions, recordFunctionPositions)
+                    : new ObjList<>(recordFunctions);
+
+            this.cursor = new AsyncSampleByRecordCursor(
+                    configuration,
+                    recordFunctions,
+                    placeholderFunctions,
+                    groupByFunctions,
+                    fillKeyMap,
+                    fillKeySink,
+                    timestampSampler,
+                    timestampIndex,
+                    fixedOffset,
+                    fillMode
+            );
+        } catch (Throwable e) {
+            Misc.free(fillKeyMap);
+            Misc.freeObjList(recordFunctions);
+            throw e;
+        } finally {
+            Misc.free(offsetFunc);
+        }
+        this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
+        this.workerCount = workerCount;
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final PageFrameSequence<AsyncSampleByAtom> frameSequence = this.frameSequence.of(base, executionContext, collectSubSeq, atom, ORDER_ASC);
+        try {
+            // init all record function for this cursor, in case functions require metadata and/or symbol tables
+            Function.init(recordFunctions, frameSequence.getSymbolTableSource(), executionContext);
+        } catch (Throwable e) {
+            frameSequence.clear();
+            throw e;
+        }
+        cursor.of(frameSequence, executionContext);
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Sample By");
+        switch (fillMode) {
+            case FILL_NULL:
+                sink.attr("fill").val("null");
+                break;
+            case FILL_PREV:
+                sink.attr("fill").val("prev");
+                break;
+            default:
+                sink.attr("fill").val("none");
+                break;
+        }
+        sink.optAttr("keys", GroupByRecordCursorFactory.getKeys(recordFunctions, getMetadata()));
+        sink.optAttr("values", groupByFunctions, true);
+        sink.attr("workers").val(workerCount);
+        sink.child(base, ORDER_ASC);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private static void aggregate(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncSampleByAtom atom = task.getFrameSequence(AsyncSampleByAtom.class).getAtom();
+        final TimestampSampler timestampSampler = atom.getTimestampSampler();
+        final int timestampIndex = atom.getTimestampIndex();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final Map map = atom.getMap(slotId);
+        final GroupByFunctionsUpdater updater = atom.getUpdater(slotId);
+        final RecordSink mapSink = atom.getMapSink();
+        try {
+            // frame rows are in timestamp order, so bucket changes only when we cross its upper bound
+            long bucket = Long.MIN_VALUE;
+            long nextBucket = Long.MIN_VALUE;
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                final long timestamp = record.getTimestamp(timestampIndex);
+                if (timestamp >= nextBucket) {
+                    bucket = timestampSampler.round(timestamp);
+                    nextBucket = timestampSampler.nextTimestamp(bucket);
+                }
+                final MapKey key = map.withKey();
+                mapSink.copy(record, key);
+                key.putTimestamp(bucket);
+                final MapValue value = key.createValue();
+                if (value.isNew()) {
+                    value.putTimestamp(0, bucket);
+                    updater.updateNew(value, record);
+                } else {
+                    updater.updateExisting(value, record);
+                }
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private static long parseOffset(Function offsetFunc, int offsetFuncPos) throws SqlException {
+        final CharSequence offset = offsetFunc.getStr(null);
+        if (offset == null) {
+            // align to the first observation
+            return Long.MIN_VALUE;
+        }
+        final long val = Timestamps.parseOffset(offset);
+        if (val == Numbers.LONG_NaN) {
+            throw SqlException.$(offsetFuncPos, "invalid offset: ").put(offset);
+        }
+        return Numbers.decodeLowInt(val) * Timestamps.MINUTE_MICROS;
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.free(base);
+        Misc.free(atom);
+        Misc.free(frameSequence);
+        Misc.freeObjList(recordFunctions);
+    }
+}
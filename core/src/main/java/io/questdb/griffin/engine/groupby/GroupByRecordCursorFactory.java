@@ -31,23 +31,32 @@ import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.api.MemoryARW;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.griffin.engine.functions.GroupByFunction;
-import io.questdb.std.BytecodeAssembler;
-import io.questdb.std.Misc;
-import io.questdb.std.ObjList;
-import io.questdb.std.Transient;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
+    private static final Log LOG = LogFactory.getLog(GroupByRecordCursorFactory.class);
+    // how many times partition that does not fit map limits can be split further
+    private static final int MAX_PARTITION_LEVEL = 4;
+    private static final int PARTITION_BITS = 4;
+    private static final int PARTITION_COUNT = 1 << PARTITION_BITS;
     protected final RecordCursorFactory base;
     private final GroupByRecordCursor cursor;
     private final ObjList<GroupByFunction> groupByFunctions;
     // this sink is used to copy recordKeyMap keys to dataMap
     private final RecordSink mapSink;
+    // this sink copies all columns of base records to spilled partitions
+    private final RecordSink partitionSink;
     private final ObjList<Function> recordFunctions;
 
     public GroupByRecordCursorFactory(
@@ -69,7 +78,21 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             this.groupByFunctions = groupByFunctions;
             this.recordFunctions = recordFunctions;
             final GroupByFunctionsUpdater updater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
-            this.cursor = new GroupByRecordCursor(recordFunctions, updater, keyTypes, valueTypes, configuration);
+            if (configuration.isSqlSpillEnabled()) {
+                final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
+                entityColumnFilter.of(base.getMetadata().getColumnCount());
+                this.partitionSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), entityColumnFilter, false);
+            } else {
+                this.partitionSink = null;
+            }
+            this.cursor = new GroupByRecordCursor(
+                    recordFunctions,
+                    updater,
+                    keyTypes,
+                    valueTypes,
+                    configuration,
+                    partitionSink != null ? new SpillStorage(configuration, configuration.getSqlMapPageSize()) : null
+            );
         } catch (Throwable e) {
             Misc.freeObjList(recordFunctions);
             throw e;
@@ -98,7 +121,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
     @Override
     public boolean recordCursorSupportsRandomAccess() {
-        return true;
+        // spilled result is produced one partition at a time, rows of previous partitions are gone
+        return partitionSink == null;
     }
 
     @Override
@@ -115,7 +139,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         return base.usesCompiledFilter();
     }
 
-    static ObjList<String> getKeys(ObjList<Function> recordFunctions, RecordMetadata metadata) {
+    public static ObjList<String> getKeys(ObjList<Function> recordFunctions, RecordMetadata metadata) {
         ObjList<String> keyFuncs = null;
         for (int i = 0, n = recordFunctions.size(); i < n; i++) {
             if (!(recordFunctions.get(i) instanceof GroupByFunction)) {
@@ -136,23 +160,170 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         Misc.free(cursor);
     }
 
+    private static class PartitionHasher implements RecordSinkSPI {
+        private long hash;
+
+        @Override
+        public void putBin(BinarySequence value) {
+            if (value == null) {
+                mix(TableUtils.NULL_LEN);
+            } else {
+                final long len = value.length();
+                mix(len);
+                for (long i = 0; i < len; i++) {
+                    mix(value.byteAt(i));
+                }
+            }
+        }
+
+        @Override
+        public void putBool(boolean value) {
+            mix(value ? 1 : 0);
+        }
+
+        @Override
+        public void putByte(byte value) {
+            mix(value);
+        }
+
+        @Override
+        public void putChar(char value) {
+            mix(value);
+        }
+
+        @Override
+        public void putDate(long value) {
+            mix(value);
+        }
+
+        @Override
+        public void putDouble(double value) {
+            mix(Double.doubleToLongBits(value));
+        }
+
+        @Override
+        public void putFloat(float value) {
+            mix(Float.floatToIntBits(value));
+        }
+
+        @Override
+        public void putInt(int value) {
+            mix(value);
+        }
+
+        @Override
+        public void putLong(long value) {
+            mix(value);
+        }
+
+        @Override
+        public void putLong128(long lo, long hi) {
+            mix(lo);
+            mix(hi);
+        }
+
+        @Override
+        public void putLong256(Long256 value) {
+            mix(value.getLong0());
+            mix(value.getLong1());
+            mix(value.getLong2());
+            mix(value.getLong3());
+        }
+
+        @Override
+        public void putRecord(Record value) {
+            // noop
+        }
+
+        @Override
+        public void putShort(short value) {
+            mix(value);
+        }
+
+        @Override
+        public void putStr(CharSequence value) {
+            if (value == null) {
+                mix(TableUtils.NULL_LEN);
+            } else {
+                putStr(value, 0, value.length());
+            }
+        }
+
+        @Override
+        public void putStr(CharSequence value, int lo, int hi) {
+            mix(hi - lo);
+            for (int i = lo; i < hi; i++) {
+                mix(value.charAt(i));
+            }
+        }
+
+        @Override
+        public void putStrLowerCase(CharSequence value) {
+            if (value == null) {
+                mix(TableUtils.NULL_LEN);
+            } else {
+                putStrLowerCase(value, 0, value.length());
+            }
+        }
+
+        @Override
+        public void putStrLowerCase(CharSequence value, int lo, int hi) {
+            mix(hi - lo);
+            for (int i = lo; i < hi; i++) {
+                mix(Character.toLowerCase(value.charAt(i)));
+            }
+        }
+
+        @Override
+        public void putTimestamp(long value) {
+            mix(value);
+        }
+
+        @Override
+        public void skip(int bytes) {
+            // noop
+        }
+
+        private void mix(long value) {
+            hash = Hash.fastLongMix(hash ^ value);
+        }
+
+        // each level uses own seed, so that keys of a partition spread over all partitions of the next level
+        int partitionOf(Record record, RecordSink keySink, int level) {
+            hash = level;
+            keySink.copy(record, this);
+            return (int) (Hash.fastLongMix(hash) >>> (Long.SIZE - PARTITION_BITS));
+        }
+    }
+
     class GroupByRecordCursor extends VirtualFunctionSkewedSymbolRecordCursor {
         private final Map dataMap;
         private final GroupByFunctionsUpdater groupByFunctionsUpdater;
+        private final PartitionHasher hasher;
+        private final IntList partitionLevels = new IntList();
+        private final ObjList<MemoryARW> partitionMemories = new ObjList<>();
+        private final LongList partitionTails = new LongList();
+        private final ObjList<RecordChain> partitions = new ObjList<>();
+        private final SpillStorage spillStorage;
         private SqlExecutionCircuitBreaker circuitBreaker;
         private boolean isDataMapBuilt;
         private boolean isOpen;
+        private boolean isSpilled;
+        private int partitionIndex;
 
         public GroupByRecordCursor(
                 ObjList<Function> functions,
                 GroupByFunctionsUpdater groupByFunctionsUpdater,
                 @Transient @NotNull ArrayColumnTypes keyTypes,
                 @Transient @NotNull ArrayColumnTypes valueTypes,
-                CairoConfiguration configuration
+                CairoConfiguration configuration,
+                @Nullable SpillStorage spillStorage
         ) {
             super(functions);
             this.dataMap = MapFactory.createMap(configuration, keyTypes, valueTypes);
             this.groupByFunctionsUpdater = groupByFunctionsUpdater;
+            this.spillStorage = spillStorage;
+            this.hasher = spillStorage != null ? new PartitionHasher() : null;
             this.isOpen = true;
         }
 
@@ -162,6 +333,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 isOpen = false;
                 Misc.free(dataMap);
                 Misc.clearObjList(groupByFunctions);
+                freePartitions();
+                Misc.free(spillStorage);
                 super.close();
             }
         }
@@ -169,22 +342,18 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         @Override
         public boolean hasNext() {
             if (!isDataMapBuilt) {
-                final Record baseRecord = managedCursor.getRecord();
-                while (managedCursor.hasNext()) {
-                    circuitBreaker.statefulThrowExceptionIfTripped();
-                    final MapKey key = dataMap.withKey();
-                    mapSink.copy(baseRecord, key);
-                    MapValue value = key.createValue();
-                    if (value.isNew()) {
-                        groupByFunctionsUpdater.updateNew(value, baseRecord);
-                    } else {
-                        groupByFunctionsUpdater.updateExisting(value, baseRecord);
-                    }
-                }
-                super.of(dataMap.getCursor());
+                buildDataMap();
                 isDataMapBuilt = true;
             }
-            return super.hasNext();
+            if (super.hasNext()) {
+                return true;
+            }
+            while (isSpilled && nextPartition()) {
+                if (super.hasNext()) {
+                    return true;
+                }
+            }
+            return false;
         }
 
         public void of(RecordCursor managedCursor, SqlExecutionCircuitBreaker circuitBreaker) {
@@ -192,9 +361,131 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 isOpen = true;
                 dataMap.reopen();
             }
+            freePartitions();
             this.circuitBreaker = circuitBreaker;
             this.managedCursor = managedCursor;
             isDataMapBuilt = false;
         }
+
+        @Override
+        public long size() {
+            return isSpilled ? -1 : super.size();
+        }
+
+        @Override
+        public void toTop() {
+            if (isSpilled) {
+                partitionIndex = 0;
+                resetDataMap();
+                super.of(dataMap.getCursor());
+            } else {
+                super.toTop();
+            }
+        }
+
+        private void aggregate(Record record) {
+            final MapKey key = dataMap.withKey();
+            mapSink.copy(record, key);
+            MapValue value = key.createValue();
+            if (value.isNew()) {
+                groupByFunctionsUpdater.updateNew(value, record);
+            } else {
+                groupByFunctionsUpdater.updateExisting(value, record);
+            }
+        }
+
+        private void buildDataMap() {
+            final Record baseRecord = managedCursor.getRecord();
+            try {
+                while (managedCursor.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    aggregate(baseRecord);
+                }
+            } catch (LimitOverflowException e) {
+                if (spillStorage == null) {
+                    throw e;
+                }
+                LOG.info().$("group by map is full, partitioning input on disk [error=").$(e.getFlyweightMessage()).$(']').$();
+                // start over and write base rows to disk partitioned by hash of the key,
+                // then aggregate partitions one by one, each of them is expected to fit the map
+                resetDataMap();
+                managedCursor.toTop();
+                partition(managedCursor, 0);
+                isSpilled = true;
+                partitionIndex = 0;
+            }
+            super.of(dataMap.getCursor());
+        }
+
+        private void freePartitions() {
+            partitions.clear();
+            partitionMemories.clear();
+            partitionLevels.clear();
+            partitionTails.clear();
+            isSpilled = false;
+            if (spillStorage != null) {
+                spillStorage.clear();
+            }
+        }
+
+        private boolean nextPartition() {
+            while (partitionIndex < partitions.size()) {
+                final int index = partitionIndex++;
+                final RecordChain partition = partitions.getQuick(index);
+                if (partition == null) {
+                    // partition was split to the next level
+                    continue;
+                }
+                resetDataMap();
+                final Record record = partition.getRecord();
+                partition.toTop();
+                try {
+                    while (partition.hasNext()) {
+                        circuitBreaker.statefulThrowExceptionIfTripped();
+                        aggregate(record);
+                    }
+                } catch (LimitOverflowException e) {
+                    final int level = partitionLevels.getQuick(index);
+                    if (level == MAX_PARTITION_LEVEL) {
+                        throw e;
+                    }
+                    resetDataMap();
+                    partition.toTop();
+                    partition(partition, level + 1);
+                    partitions.setQuick(index, null);
+                    spillStorage.release(partitionMemories.getQuick(index));
+                    partitionMemories.setQuick(index, null);
+                    continue;
+                }
+                super.of(dataMap.getCursor());
+                return true;
+            }
+            return false;
+        }
+
+        private void partition(RecordCursor source, int level) {
+            final int lo = partitions.size();
+            for (int i = 0; i < PARTITION_COUNT; i++) {
+                final MemoryARW mem = spillStorage.allocate();
+                partitionMemories.add(mem);
+                final RecordChain partition = new RecordChain(base.getMetadata(), partitionSink, mem);
+                partition.setSymbolTableResolver(managedCursor);
+                partitions.add(partition);
+                partitionLevels.add(level);
+                partitionTails.add(-1);
+            }
+
+            final Record record = source.getRecord();
+            while (source.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final int index = lo + hasher.partitionOf(record, mapSink, level);
+                partitionTails.setQuick(index, partitions.getQuick(index).put(record, partitionTails.getQuick(index)));
+            }
+        }
+
+        private void resetDataMap() {
+            dataMap.clear();
+            Misc.clearObjList(groupByFunctions);
+        }
     }
 }
@@ -44,6 +44,24 @@ import org.jetbrains.annotations.NotNull;
 
 public class GroupByUtils {
 
+    public static boolean isParallelismSupported(ObjList<GroupByFunction> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            if (!functions.getQuick(i).isParallelismSupported()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isReadThreadSafe(ObjList<GroupByFunction> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            if (!functions.getQuick(i).isReadThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static void prepareGroupByFunctions(
             QueryModel model,
             RecordMetadata metadata,
@@ -205,7 +223,7 @@ public class GroupByUtils {
                     // timestamp function returns value of class member which makes it impossible
                     // to create these columns in advance of cursor instantiation
                     recordFunctions.add(null);
-                    groupByFunctionPositions.add(0);
+                    recordFunctionPositions.add(node.position);
                     if (groupByMetadata.getTimestampIndex() == -1) {
                         groupByMetadata.setTimestampIndex(i);
                     }
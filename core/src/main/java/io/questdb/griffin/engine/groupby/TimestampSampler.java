@@ -32,6 +32,15 @@ public interface TimestampSampler extends Sinkable {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns true when all buckets have the same size, so that {@link #round(long)}
+     * maps any timestamp to its bucket regardless of the order in which timestamps
+     * are visited. Parallel SAMPLE BY relies on this.
+     */
+    default boolean isFixedSize() {
+        return false;
+    }
+
     long nextTimestamp(long timestamp);
 
     long previousTimestamp(long timestamp);
@@ -44,6 +44,7 @@ public class AlterOperation extends AbstractOperation implements Mutable {
     public final static short ADD_SYMBOL_CACHE = 6;
     public final static short ATTACH_PARTITION = 3;
     public final static String CMD_NAME = "ALTER TABLE";
+    public final static short COMPRESS_PARTITION = 13;
     public final static short DETACH_PARTITION = 12;
     public final static short DO_NOTHING = 0;
     public final static short DROP_COLUMN = 8;
@@ -103,6 +104,9 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case ATTACH_PARTITION:
                     applyAttachPartition(svc);
                     break;
+                case COMPRESS_PARTITION:
+                    applyCompressPartition(svc);
+                    break;
                 case ADD_INDEX:
                     applyAddIndex(svc);
                     break;
@@ -338,6 +342,21 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyCompressPartition(MetadataService svc) {
+        // long list is a set of two longs per partition - (timestamp, partitionNamePosition)
+        for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
+            long partitionTimestamp = extraInfo.getQuick(i * 2);
+            if (!svc.compressPartition(partitionTimestamp)) {
+                throw CairoException.nonCritical()
+                        .put("could not compress partition [table=").put(tableToken != null ? tableToken.getTableName() : "<null>")
+                        .put(", partitionTimestamp=").ts(partitionTimestamp)
+                        .put(", partitionBy=").put(PartitionBy.toString(svc.getPartitionBy()))
+                        .put(']')
+                        .position((int) extraInfo.getQuick(i * 2 + 1));
+            }
+        }
+    }
+
     private void applyDetachPartition(MetadataService svc) {
         for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
             final long partitionTimestamp = extraInfo.getQuick(i * 2);
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.orderby;
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.SpillStorage;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
@@ -227,7 +228,8 @@ public class LimitedSizeSortedLightRecordCursorFactory extends AbstractRecordCur
                 configuration.getSqlSortKeyPageSize(),
                 configuration.getSqlSortKeyMaxPages(),
                 configuration.getSqlSortLightValuePageSize(),
-                configuration.getSqlSortLightValueMaxPages()
+                configuration.getSqlSortLightValueMaxPages(),
+                configuration.isSqlSpillEnabled() ? new SpillStorage(configuration, configuration.getSqlSortLightValuePageSize()) : null
         );
         this.cursor = new SortedLightRecordCursor(chain, comparator);
     }
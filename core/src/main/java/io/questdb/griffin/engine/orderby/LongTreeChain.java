@@ -25,28 +25,68 @@
 package io.questdb.griffin.engine.orderby;
 
 import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.SpillStorage;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryARW;
 import io.questdb.griffin.engine.AbstractRedBlackTree;
 import io.questdb.griffin.engine.RecordComparator;
-import io.questdb.std.MemoryTag;
-import io.questdb.std.Misc;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
 
 public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
     private final TreeCursor cursor = new TreeCursor();
+    private final RunHeap heap = new RunHeap() {
+        // tree returns equal rows starting from the latest one,
+        // keep it that way by merging equal rows of later runs first
+        @Override
+        protected boolean isLess(int runA, int runB) {
+            mergeSourceCursor.recordAt(mergeLeftRecord, headOf(runA));
+            mergeComparator.setLeft(mergeLeftRecord);
+            mergeSourceCursor.recordAt(mergeRightRecord, headOf(runB));
+            final int cmp = mergeComparator.compare(mergeRightRecord);
+            return cmp < 0 || (cmp == 0 && runA > runB);
+        }
+    };
+    private final long keySpillThreshold;
+    // read offsets of sorted runs
+    private final LongList runOffsets = new LongList();
+    private final ObjList<MemoryARW> runs = new ObjList<>();
+    private final SpillStorage spillStorage;
     private final MemoryARW valueChain;
+    private final long valueSpillThreshold;
+    private RecordComparator mergeComparator;
+    private Record mergeLeftRecord;
+    private Record mergeRightRecord;
+    private RecordCursor mergeSourceCursor;
+    private MemoryARW merged;
 
     public LongTreeChain(long keyPageSize, int keyMaxPages, long valuePageSize, int valueMaxPages) {
+        this(keyPageSize, keyMaxPages, valuePageSize, valueMaxPages, null);
+    }
+
+    /**
+     * When spill storage is provided, tree does not run into page limits. Instead, it writes
+     * row ids in current sort order to disk as a sorted run and starts over. Runs are k-way merged by
+     * {@link #mergeRuns(RecordCursor, Record, Record, RecordComparator, SqlExecutionCircuitBreaker)}.
+     */
+    public LongTreeChain(long keyPageSize, int keyMaxPages, long valuePageSize, int valueMaxPages, @Nullable SpillStorage spillStorage) {
         super(keyPageSize, keyMaxPages);
         this.valueChain = Vm.getARWInstance(valuePageSize, valueMaxPages, MemoryTag.NATIVE_TREE_CHAIN);
+        this.spillStorage = spillStorage;
+        this.keySpillThreshold = Numbers.ceilPow2(keyPageSize) * keyMaxPages;
+        // leave last page for the value that crosses the threshold
+        final long alignedValuePageSize = Numbers.ceilPow2(valuePageSize);
+        this.valueSpillThreshold = valueMaxPages > 1 ? alignedValuePageSize * (valueMaxPages - 1) : alignedValuePageSize / 2;
     }
 
     @Override
     public void clear() {
         super.clear();
         this.valueChain.jumpTo(0);
+        freeRuns();
     }
 
     @Override
@@ -54,6 +94,8 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
         super.close();
         Misc.free(valueChain);
         cursor.clear();
+        freeRuns();
+        Misc.free(spillStorage);
     }
 
     public TreeCursor getCursor() {
@@ -61,12 +103,74 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
         return cursor;
     }
 
+    /**
+     * Merges sorted runs written to disk, if any. Must be called after the last put() and before
+     * cursor is used. Records are used to position source cursor at row ids being compared.
+     */
+    public void mergeRuns(
+            RecordCursor sourceCursor,
+            Record leftRecord,
+            Record rightRecord,
+            RecordComparator comparator,
+            SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        if (runs.size() == 0) {
+            return;
+        }
+        if (root != -1) {
+            spillRun();
+        }
+
+        mergeSourceCursor = sourceCursor;
+        mergeLeftRecord = leftRecord;
+        mergeRightRecord = rightRecord;
+        mergeComparator = comparator;
+        try {
+            merged = spillStorage.allocate();
+            heap.clear();
+            for (int i = 0, n = runs.size(); i < n; i++) {
+                runOffsets.add(0);
+                if (runs.getQuick(i).getAppendOffset() > 0) {
+                    heap.add(i);
+                }
+            }
+
+            while (!heap.isEmpty()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final int run = heap.top();
+                merged.putLong(headOf(run));
+                final long offset = runOffsets.getQuick(run) + Long.BYTES;
+                runOffsets.setQuick(run, offset);
+                if (offset < runs.getQuick(run).getAppendOffset()) {
+                    heap.siftDown();
+                } else {
+                    heap.removeTop();
+                }
+            }
+
+            for (int i = 0, n = runs.size(); i < n; i++) {
+                spillStorage.release(runs.getQuick(i));
+            }
+            runs.clear();
+            runOffsets.clear();
+        } finally {
+            mergeSourceCursor = null;
+            mergeLeftRecord = null;
+            mergeRightRecord = null;
+            mergeComparator = null;
+        }
+    }
+
     public void put(
             Record leftRecord,
             RecordCursor sourceCursor,
             Record rightRecord,
             RecordComparator comparator
     ) {
+        if (spillStorage != null && root != -1 && isFull()) {
+            spillRun();
+        }
+
         if (root == -1) {
             putParent(leftRecord.getRowId());
             return;
@@ -110,6 +214,36 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
         //nothing to do here
     }
 
+    private void freeRuns() {
+        runs.clear();
+        runOffsets.clear();
+        heap.clear();
+        merged = null;
+        if (spillStorage != null) {
+            spillStorage.clear();
+        }
+    }
+
+    private long headOf(int run) {
+        return runs.getQuick(run).getLong(runOffsets.getQuick(run));
+    }
+
+    private boolean isFull() {
+        return mem.size() + getBlockSize() > keySpillThreshold || valueChain.getAppendOffset() > valueSpillThreshold;
+    }
+
+    private void spillRun() {
+        final MemoryARW run = spillStorage.allocate();
+        runs.add(run);
+        for (long p = findMinNode(); p != -1; p = successor(p)) {
+            for (long r = refOf(p); r != -1; r = valueChain.getLong(r + Long.BYTES)) {
+                run.putLong(valueChain.getLong(r));
+            }
+        }
+        super.clear();
+        valueChain.jumpTo(0);
+    }
+
     private long appendValue(long value, long prevValueOffset) {
         final long offset = valueChain.getAppendOffset();
         valueChain.putLong128(value, prevValueOffset);
@@ -126,14 +260,20 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
     public class TreeCursor {
 
         private long chainCurrent;
+        private long mergedOffset;
         private long treeCurrent;
 
         public void clear() {
             treeCurrent = -1;
             chainCurrent = -1;
+            mergedOffset = 0;
         }
 
         public boolean hasNext() {
+            if (merged != null) {
+                return mergedOffset < merged.getAppendOffset();
+            }
+
             if (chainCurrent != -1) {
                 return true;
             }
@@ -148,12 +288,18 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
         }
 
         public long next() {
+            if (merged != null) {
+                final long result = merged.getLong(mergedOffset);
+                mergedOffset += Long.BYTES;
+                return result;
+            }
             long result = chainCurrent;
             chainCurrent = valueChain.getLong(chainCurrent + 8);
             return valueChain.getLong(result);
         }
 
         public void toTop() {
+            mergedOffset = 0;
             setup();
         }
 
@@ -24,19 +24,16 @@
 
 package io.questdb.griffin.engine.orderby;
 
-import io.questdb.cairo.ColumnTypes;
-import io.questdb.cairo.RecordChain;
-import io.questdb.cairo.RecordSink;
-import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.*;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.api.MemoryARW;
 import io.questdb.griffin.engine.RecordComparator;
-import io.questdb.std.MemoryPages;
-import io.questdb.std.Misc;
-import io.questdb.std.Mutable;
-import io.questdb.std.Unsafe;
+import io.questdb.std.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -50,11 +47,28 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
     private static final int O_RIGHT = 16;
     private static final int O_TOP = 33;
     private static final byte RED = 1;
+    private final ColumnTypes columnTypes;
     private final RecordComparator comparator;
     private final TreeCursor cursor = new TreeCursor();
+    private final RunHeap heap = new RunHeap() {
+        // equal records keep order of runs, i.e. order of insertion
+        @Override
+        protected boolean isLess(int runA, int runB) {
+            comparator.setLeft(runs.getQuick(runA).getRecord());
+            final int cmp = comparator.compare(runs.getQuick(runB).getRecord());
+            return cmp < 0 || (cmp == 0 && runA < runB);
+        }
+    };
+    private final long keySpillThreshold;
     private final MemoryPages mem;
     private final RecordChain recordChain;
     private final Record recordChainRecord;
+    private final RecordSink recordSink;
+    private final ObjList<MemoryARW> runMemories = new ObjList<>();
+    private final ObjList<RecordChain> runs = new ObjList<>();
+    private final SpillStorage spillStorage;
+    private final long valueSpillThreshold;
+    private boolean isMerged;
     private long root = -1;
 
     public RecordTreeChain(
@@ -66,10 +80,35 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
             long valuePageSize,
             int valueMaxPages
     ) {
+        this(columnTypes, recordSink, comparator, keyPageSize, keyMaxPages, valuePageSize, valueMaxPages, null);
+    }
+
+    /**
+     * When spill storage is provided, tree chain does not run into page limits. Instead, it writes
+     * current tree content to disk as a sorted run and starts over. Runs are k-way merged into
+     * a single file-backed record chain by {@link #mergeRuns(SqlExecutionCircuitBreaker)}.
+     */
+    public RecordTreeChain(
+            @NotNull ColumnTypes columnTypes,
+            @NotNull RecordSink recordSink,
+            @NotNull RecordComparator comparator,
+            long keyPageSize,
+            int keyMaxPages,
+            long valuePageSize,
+            int valueMaxPages,
+            @Nullable SpillStorage spillStorage
+    ) {
+        this.columnTypes = columnTypes;
         this.comparator = comparator;
         this.mem = new MemoryPages(keyPageSize, keyMaxPages);
         this.recordChain = new RecordChain(columnTypes, recordSink, valuePageSize, valueMaxPages);
         this.recordChainRecord = this.recordChain.getRecordB();
+        this.recordSink = recordSink;
+        this.spillStorage = spillStorage;
+        this.keySpillThreshold = Numbers.ceilPow2(keyPageSize) * keyMaxPages;
+        // leave last page for the record that crosses the threshold
+        final long alignedValuePageSize = Numbers.ceilPow2(valuePageSize);
+        this.valueSpillThreshold = valueMaxPages > 1 ? alignedValuePageSize * (valueMaxPages - 1) : alignedValuePageSize / 2;
     }
 
     @Override
@@ -77,6 +116,7 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
         root = -1;
         mem.clear();
         recordChain.clear();
+        freeRuns();
     }
 
     @Override
@@ -85,6 +125,8 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
         Misc.free(recordChain);
         Misc.free(mem);
         Misc.free(cursor);
+        freeRuns();
+        Misc.free(spillStorage);
     }
 
     public TreeCursor getCursor(RecordCursor base) {
@@ -92,7 +134,51 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
         return cursor;
     }
 
+    /**
+     * Merges sorted runs written to disk, if any, into single record chain. Must be called
+     * after the last {@link #put(Record)} and before cursor is used.
+     *
+     * @param circuitBreaker circuit breaker to check while merging
+     */
+    public void mergeRuns(SqlExecutionCircuitBreaker circuitBreaker) {
+        if (runs.size() == 0) {
+            return;
+        }
+        if (root != -1) {
+            spillRun();
+        }
+        final MemoryARW out = spillStorage.allocate();
+        recordChain.switchTo(out);
+
+        heap.clear();
+        for (int i = 0, n = runs.size(); i < n; i++) {
+            final RecordChain run = runs.getQuick(i);
+            run.toTop();
+            if (run.hasNext()) {
+                heap.add(i);
+            }
+        }
+
+        long offset = -1L;
+        while (!heap.isEmpty()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            final RecordChain run = runs.getQuick(heap.top());
+            offset = recordChain.put(run.getRecord(), offset);
+            if (run.hasNext()) {
+                heap.siftDown();
+            } else {
+                heap.removeTop();
+            }
+        }
+        releaseRuns();
+        isMerged = true;
+    }
+
     public void put(Record record) {
+        if (spillStorage != null && root != -1 && isFull()) {
+            spillRun();
+        }
+
         if (root == -1) {
             putParent(record);
             return;
@@ -211,6 +297,16 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
         return blockAddress == -1 ? -1 : Unsafe.getUnsafe().getLong(blockAddress + O_TOP);
     }
 
+    private static long leftmostOf(long blockAddress) {
+        long p = blockAddress;
+        if (p != -1) {
+            while (leftOf(p) != -1) {
+                p = leftOf(p);
+            }
+        }
+        return p;
+    }
+
     private long allocateBlock() {
         long p = mem.allocate(BLOCK_SIZE);
         setLeft(p, -1);
@@ -260,6 +356,20 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
         setColor(root, BLACK);
     }
 
+    private void freeRuns() {
+        Misc.freeObjListAndClear(runs);
+        runMemories.clear();
+        heap.clear();
+        isMerged = false;
+        if (spillStorage != null) {
+            spillStorage.clear();
+        }
+    }
+
+    private boolean isFull() {
+        return mem.size() + BLOCK_SIZE > keySpillThreshold || recordChain.memorySize() > valueSpillThreshold;
+    }
+
     private void putParent(Record record) {
         root = allocateBlock();
         long r = recordChain.put(record, -1L);
@@ -270,6 +380,16 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
         setRight(root, -1);
     }
 
+    private void releaseRuns() {
+        for (int i = 0, n = runs.size(); i < n; i++) {
+            Misc.free(runs.getQuick(i));
+            spillStorage.release(runMemories.getQuick(i));
+        }
+        runs.clear();
+        runMemories.clear();
+        heap.clear();
+    }
+
     private void rotateLeft(long p) {
         if (p != -1) {
             long r = rightOf(p);
@@ -310,6 +430,25 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
         }
     }
 
+    private void spillRun() {
+        final MemoryARW runMem = spillStorage.allocate();
+        runMemories.add(runMem);
+        final RecordChain run = new RecordChain(columnTypes, recordSink, runMem);
+        runs.add(run);
+        run.setSymbolTableResolver(cursor.base);
+        final Record chainRecord = recordChain.getRecord();
+        long offset = -1L;
+        for (long p = leftmostOf(root); p != -1; p = successor(p)) {
+            recordChain.of(topOf(p));
+            while (recordChain.hasNext()) {
+                offset = run.put(chainRecord, offset);
+            }
+        }
+        root = -1;
+        mem.clear();
+        recordChain.clear();
+    }
+
     public class TreeCursor implements RecordCursor {
         private RecordCursor base;
         private long current;
@@ -349,6 +488,10 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
                 return true;
             }
 
+            if (isMerged) {
+                return false;
+            }
+
             current = successor(current);
             if (current == -1) {
                 return false;
@@ -375,13 +518,12 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
 
         @Override
         public void toTop() {
-            long p = root;
-            if (p != -1) {
-                while (leftOf(p) != -1) {
-                    p = leftOf(p);
-                }
+            if (isMerged) {
+                current = -1;
+                recordChain.toTop();
+            } else {
+                recordChain.of(topOf(current = leftmostOf(root)));
             }
-            recordChain.of(topOf(current = p));
         }
 
         private void of(RecordCursor base) {
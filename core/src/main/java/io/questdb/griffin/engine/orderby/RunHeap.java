@@ -0,0 +1,110 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.std.IntList;
+import io.questdb.std.Mutable;
+
+/**
+ * Binary min-heap of indexes of sorted runs, used by k-way merge of runs spilled to disk.
+ * Order of runs is defined by their current head records.
+ */
+abstract class RunHeap implements Mutable {
+    private final IntList heap = new IntList();
+
+    public void add(int run) {
+        heap.add(run);
+        int index = heap.size() - 1;
+        while (index > 0) {
+            final int parent = (index - 1) / 2;
+            if (!isLess(heap.getQuick(index), heap.getQuick(parent))) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    @Override
+    public void clear() {
+        heap.clear();
+    }
+
+    public boolean isEmpty() {
+        return heap.size() == 0;
+    }
+
+    /**
+     * Removes the top run, it must be called when the run is exhausted.
+     */
+    public void removeTop() {
+        final int last = heap.size() - 1;
+        heap.setQuick(0, heap.getQuick(last));
+        heap.setPos(last);
+        siftDown();
+    }
+
+    /**
+     * Restores heap order after head of the top run has moved.
+     */
+    public void siftDown() {
+        final int size = heap.size();
+        int index = 0;
+        while (true) {
+            final int left = 2 * index + 1;
+            if (left >= size) {
+                break;
+            }
+            int min = left;
+            final int right = left + 1;
+            if (right < size && isLess(heap.getQuick(right), heap.getQuick(left))) {
+                min = right;
+            }
+            if (!isLess(heap.getQuick(min), heap.getQuick(index))) {
+                break;
+            }
+            swap(index, min);
+            index = min;
+        }
+    }
+
+    public int top() {
+        return heap.getQuick(0);
+    }
+
+    private void swap(int a, int b) {
+        final int t = heap.getQuick(a);
+        heap.setQuick(a, heap.getQuick(b));
+        heap.setQuick(b, t);
+    }
+
+    /**
+     * @param runA index of run
+     * @param runB index of another run
+     * @return true when head of runA must be merged before head of runB
+     */
+    protected abstract boolean isLess(int runA, int runB);
+}
@@ -134,6 +134,7 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
                     comparator
             );
         }
+        chain.mergeRuns(base, baseRecord, placeHolderRecord, comparator, circuitBreaker);
         toTop();
     }
 }
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.orderby;
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.SpillStorage;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
@@ -53,7 +54,9 @@ public class SortedLightRecordCursorFactory extends AbstractRecordCursorFactory
                 configuration.getSqlSortKeyMaxPages(),
                 configuration
                         .getSqlSortLightValuePageSize(),
-                configuration.getSqlSortLightValueMaxPages());
+                configuration.getSqlSortLightValueMaxPages(),
+                configuration.isSqlSpillEnabled() ? new SpillStorage(configuration, configuration.getSqlSortLightValuePageSize()) : null
+        );
         this.base = base;
         this.cursor = new SortedLightRecordCursor(chain, comparator);
         this.sortColumnFilter = sortColumnFilter;
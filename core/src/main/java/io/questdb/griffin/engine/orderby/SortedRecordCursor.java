@@ -119,6 +119,7 @@ class SortedRecordCursor implements DelegatingRecordCursor {
             // state in the record it returns.
             chain.put(record);
         }
+        chain.mergeRuns(circuitBreaker);
         toTop();
     }
 }
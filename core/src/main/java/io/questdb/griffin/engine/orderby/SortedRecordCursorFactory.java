@@ -28,6 +28,7 @@ import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ListColumnFilter;
 import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.SpillStorage;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
@@ -59,7 +60,8 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
                 configuration.getSqlSortKeyPageSize(),
                 configuration.getSqlSortKeyMaxPages(),
                 configuration.getSqlSortValuePageSize(),
-                configuration.getSqlSortValueMaxPages()
+                configuration.getSqlSortValueMaxPages(),
+                configuration.isSqlSpillEnabled() ? new SpillStorage(configuration, configuration.getSqlSortValuePageSize()) : null
         );
         this.base = base;
         this.cursor = new SortedRecordCursor(chain);
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.table;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.Plannable;
 import io.questdb.griffin.SqlException;
@@ -99,6 +100,42 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
         Misc.freeObjList(perWorkerFilters);
     }
 
+    /**
+     * Evaluates the filter over the task's page frame and stores ids of the matching
+     * rows in the task's row list.
+     *
+     * @param workerId       id of the reducing worker, -1 for work stealing threads
+     * @param owner          true if the reducing thread is the query owner
+     * @param record         record positioned over the task's page frame
+     * @param task           task to filter
+     * @param circuitBreaker circuit breaker to check while waiting for a filter
+     */
+    public void filter(
+            int workerId,
+            boolean owner,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        final DirectLongList rows = task.getRows();
+        final long frameRowCount = task.getFrameRowCount();
+
+        rows.clear();
+
+        final int filterId = acquireFilter(workerId, owner, circuitBreaker);
+        final Function filter = getFilter(filterId);
+        try {
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                if (filter.getBool(record)) {
+                    rows.add(r);
+                }
+            }
+        } finally {
+            releaseFilter(filterId);
+        }
+    }
+
     public Function getFilter(int filterId) {
         if (filterId == -1) {
             return filter;
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.table;
 import io.questdb.MessageBus;
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.TableToken;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
@@ -67,6 +68,7 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
             @Nullable ObjList<Function> perWorkerFilters,
             @Nullable Function limitLoFunction,
             int limitLoPos,
+            @Nullable IntList filterColumnIndexes,
             boolean preTouchColumns,
             int workerCount
     ) {
@@ -79,8 +81,12 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
         if (preTouchColumns) {
             preTouchColumnTypes = new IntList();
             for (int i = 0, n = base.getMetadata().getColumnCount(); i < n; i++) {
-                int columnType = base.getMetadata().getColumnType(i);
-                preTouchColumnTypes.add(columnType);
+                // pages of the filter columns are already touched by the filter itself
+                if (filterColumnIndexes != null && filterColumnIndexes.contains(i)) {
+                    preTouchColumnTypes.add(ColumnType.UNDEFINED);
+                } else {
+                    preTouchColumnTypes.add(base.getMetadata().getColumnType(i));
+                }
             }
         }
         this.filterAtom = new AsyncFilterAtom(configuration, filter, perWorkerFilters, preTouchColumnTypes);
@@ -142,6 +148,14 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
         return cursor;
     }
 
+    /**
+     * Returns the filter atom, so that a downstream parallel GROUP BY can evaluate the filter
+     * in the same reduce task as the aggregation. The atom stays owned by this factory.
+     */
+    public AsyncFilterAtom getFilterAtom() {
+        return filterAtom;
+    }
+
     @Override
     public boolean hasDescendingOrder() {
         return base.hasDescendingOrder();
@@ -201,28 +215,12 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
             @NotNull SqlExecutionCircuitBreaker circuitBreaker,
             @Nullable PageFrameSequence<?> stealingFrameSequence
     ) {
-        final DirectLongList rows = task.getRows();
-        final long frameRowCount = task.getFrameRowCount();
         final AsyncFilterAtom atom = task.getFrameSequence(AsyncFilterAtom.class).getAtom();
-
-        rows.clear();
-
         final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
-        final int filterId = atom.acquireFilter(workerId, owner, circuitBreaker);
-        final Function filter = atom.getFilter(filterId);
-        try {
-            for (long r = 0; r < frameRowCount; r++) {
-                record.setRowIndex(r);
-                if (filter.getBool(record)) {
-                    rows.add(r);
-                }
-            }
-        } finally {
-            atom.releaseFilter(filterId);
-        }
+        atom.filter(workerId, owner, record, task, circuitBreaker);
 
         // Pre-touch fixed-size columns, if asked.
-        atom.preTouchColumns(record, rows);
+        atom.preTouchColumns(record, task.getRows());
     }
 
     @Override
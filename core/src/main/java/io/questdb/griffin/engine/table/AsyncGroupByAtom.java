@@ -0,0 +1,251 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.MapValueMergeFunction;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdaterFactory;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Holds per-worker state of a parallel keyed GROUP BY. Each worker slot owns a hash map
+ * with partial aggregates. Page frames are reduced into whichever slot the reducing thread
+ * manages to acquire, and the query owner thread merges all partial maps into its own map
+ * once all frames are reduced. When the GROUP BY has a filter, the filter is evaluated
+ * by the same reduce task, so that filtered rows never leave the worker thread.
+ */
+public class AsyncGroupByAtom implements StatefulAtom, Closeable, MapValueMergeFunction {
+
+    // Filter fused into the reduce task. Owned by the filter factory, so we don't close it.
+    private final AsyncFilterAtom filterAtom;
+    private final RecordSink mapSink;
+    private final ObjList<GroupByFunction> ownerFunctions;
+    private final Map ownerMap;
+    private final GroupByFunctionsUpdater ownerUpdater;
+    // Null when group by functions are thread-safe and can be shared by all workers.
+    private final ObjList<ObjList<GroupByFunction>> perWorkerFunctions;
+    private final AtomicIntegerArray perWorkerLocks;
+    private final ObjList<Map> perWorkerMaps;
+    private final ObjList<GroupByFunctionsUpdater> perWorkerUpdaters;
+    // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
+    private final Rnd rnd;
+
+    public AsyncGroupByAtom(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull RecordSink mapSink,
+            @NotNull ObjList<GroupByFunction> ownerFunctions,
+            @Nullable ObjList<ObjList<GroupByFunction>> perWorkerFunctions,
+            @Nullable AsyncFilterAtom filterAtom,
+            int workerCount
+    ) {
+        assert perWorkerFunctions == null || perWorkerFunctions.size() == workerCount;
+        this.filterAtom = filterAtom;
+        this.rnd = new Rnd(
+                configuration.getNanosecondClock().getTicks(),
+                configuration.getMicrosecondClock().getTicks()
+        );
+        this.mapSink = mapSink;
+        this.ownerFunctions = ownerFunctions;
+        this.perWorkerFunctions = perWorkerFunctions;
+        this.perWorkerLocks = new AtomicIntegerArray(workerCount);
+        this.perWorkerMaps = new ObjList<>(workerCount);
+        this.perWorkerUpdaters = new ObjList<>(workerCount);
+        try {
+            this.ownerMap = MapFactory.createMap(configuration, keyTypes, valueTypes);
+            this.ownerUpdater = GroupByFunctionsUpdaterFactory.getInstance(asm, ownerFunctions);
+            for (int i = 0; i < workerCount; i++) {
+                perWorkerMaps.extendAndSet(i, MapFactory.createMap(configuration, keyTypes, valueTypes));
+                if (perWorkerFunctions != null) {
+                    perWorkerUpdaters.extendAndSet(i, GroupByFunctionsUpdaterFactory.getInstance(asm, perWorkerFunctions.getQuick(i)));
+                } else {
+                    perWorkerUpdaters.extendAndSet(i, ownerUpdater);
+                }
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own map and functions anytime.
+            return -1;
+        }
+        final int size = perWorkerMaps.size();
+        workerId = workerId == -1 ? rnd.nextInt(size) : workerId;
+        while (true) {
+            for (int i = 0; i < size; i++) {
+                int id = (i + workerId) % size;
+                if (perWorkerLocks.compareAndSet(id, 0, 1)) {
+                    return id;
+                }
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            Os.pause();
+        }
+    }
+
+    /**
+     * Releases partial aggregates and shrinks the maps. Called when cursor is closed.
+     */
+    public void clear() {
+        Misc.free(ownerMap);
+        Misc.freeObjListAndKeepObjects(perWorkerMaps);
+        Misc.clearObjList(ownerFunctions);
+        if (perWorkerFunctions != null) {
+            for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                Misc.clearObjList(perWorkerFunctions.getQuick(i));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerMap);
+        Misc.freeObjList(perWorkerMaps);
+        if (perWorkerFunctions != null) {
+            for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                Misc.freeObjList(perWorkerFunctions.getQuick(i));
+            }
+        }
+    }
+
+    @Nullable
+    public AsyncFilterAtom getFilterAtom() {
+        return filterAtom;
+    }
+
+    public Map getMap(int slotId) {
+        if (slotId == -1) {
+            return ownerMap;
+        }
+        return perWorkerMaps.getQuick(slotId);
+    }
+
+    public RecordSink getMapSink() {
+        return mapSink;
+    }
+
+    public GroupByFunctionsUpdater getUpdater(int slotId) {
+        if (slotId == -1) {
+            return ownerUpdater;
+        }
+        return perWorkerUpdaters.getQuick(slotId);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        ownerMap.reopen();
+        for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+            perWorkerMaps.getQuick(i).reopen();
+        }
+
+        if (filterAtom != null) {
+            filterAtom.init(symbolTableSource, executionContext);
+        }
+
+        Function.init(ownerFunctions, symbolTableSource, executionContext);
+        if (perWorkerFunctions != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                    Function.init(perWorkerFunctions.getQuick(i), symbolTableSource, executionContext);
+                }
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filterAtom != null) {
+            filterAtom.initCursor();
+        }
+        Function.initCursor(ownerFunctions);
+        if (perWorkerFunctions != null) {
+            // Initialize all per-worker functions on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when aggregating.
+            for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                Function.initCursor(perWorkerFunctions.getQuick(i));
+            }
+        }
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        for (int i = 0, n = ownerFunctions.size(); i < n; i++) {
+            ownerFunctions.getQuick(i).merge(destValue, srcValue);
+        }
+    }
+
+    /**
+     * Merges partial aggregates built by workers into the owner map. Must be called
+     * on the query owner thread once all page frames are reduced.
+     *
+     * @return the owner map holding the final aggregates
+     */
+    public Map mergeWorkerMaps() {
+        for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+            final Map workerMap = perWorkerMaps.getQuick(i);
+            if (workerMap.size() > 0) {
+                ownerMap.merge(workerMap, this);
+                workerMap.clear();
+            }
+        }
+        return ownerMap;
+    }
+
+    public void release(int slotId) {
+        if (slotId == -1) {
+            return;
+        }
+        perWorkerLocks.set(slotId, 0);
+    }
+}
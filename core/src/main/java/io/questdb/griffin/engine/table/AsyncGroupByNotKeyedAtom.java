@@ -0,0 +1,241 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdaterFactory;
+import io.questdb.griffin.engine.groupby.SimpleMapValue;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Holds per-worker state of a parallel non-keyed GROUP BY. Each worker slot owns a single
+ * value with partial aggregates, the query owner thread merges them into its own value
+ * once all frames are reduced. Slot -1 stands for the query owner.
+ */
+public class AsyncGroupByNotKeyedAtom implements StatefulAtom, Closeable {
+
+    // Filter fused into the reduce task. Owned by the filter factory, so we don't close it.
+    private final AsyncFilterAtom filterAtom;
+    private final ObjList<GroupByFunction> ownerFunctions;
+    // Null when group by functions are thread-safe and can be shared by all workers.
+    private final ObjList<ObjList<GroupByFunction>> perWorkerFunctions;
+    private final AtomicIntegerArray perWorkerLocks;
+    // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
+    private final Rnd rnd;
+    // Value and updater lists are indexed by slot id + 1, the owner goes first.
+    private final ObjList<GroupByFunctionsUpdater> updaters;
+    private final ObjList<SimpleMapValue> values;
+    // Whether the value in the slot has aggregated at least one row.
+    private final boolean[] valuesUpdated;
+
+    public AsyncGroupByNotKeyedAtom(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull ObjList<GroupByFunction> ownerFunctions,
+            @Nullable ObjList<ObjList<GroupByFunction>> perWorkerFunctions,
+            @Nullable AsyncFilterAtom filterAtom,
+            int valueCount,
+            int workerCount
+    ) {
+        assert perWorkerFunctions == null || perWorkerFunctions.size() == workerCount;
+        this.rnd = new Rnd(
+                configuration.getNanosecondClock().getTicks(),
+                configuration.getMicrosecondClock().getTicks()
+        );
+        this.filterAtom = filterAtom;
+        this.ownerFunctions = ownerFunctions;
+        this.perWorkerFunctions = perWorkerFunctions;
+        this.perWorkerLocks = new AtomicIntegerArray(workerCount);
+        this.updaters = new ObjList<>(workerCount + 1);
+        this.values = new ObjList<>(workerCount + 1);
+        this.valuesUpdated = new boolean[workerCount + 1];
+
+        final GroupByFunctionsUpdater ownerUpdater = GroupByFunctionsUpdaterFactory.getInstance(asm, ownerFunctions);
+        updaters.add(ownerUpdater);
+        values.add(new SimpleMapValue(valueCount));
+        for (int i = 0; i < workerCount; i++) {
+            if (perWorkerFunctions != null) {
+                updaters.add(GroupByFunctionsUpdaterFactory.getInstance(asm, perWorkerFunctions.getQuick(i)));
+            } else {
+                updaters.add(ownerUpdater);
+            }
+            values.add(new SimpleMapValue(valueCount));
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own value and functions anytime.
+            return -1;
+        }
+        final int size = perWorkerLocks.length();
+        workerId = workerId == -1 ? rnd.nextInt(size) : workerId;
+        while (true) {
+            for (int i = 0; i < size; i++) {
+                int id = (i + workerId) % size;
+                if (perWorkerLocks.compareAndSet(id, 0, 1)) {
+                    return id;
+                }
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            Os.pause();
+        }
+    }
+
+    /**
+     * Adds the record to the partial aggregate held by the slot.
+     *
+     * @param slotId slot acquired by the calling thread
+     * @param record record to aggregate
+     */
+    public void aggregate(int slotId, Record record) {
+        final int index = slotId + 1;
+        if (valuesUpdated[index]) {
+            updaters.getQuick(index).updateExisting(values.getQuick(index), record);
+        } else {
+            updaters.getQuick(index).updateNew(values.getQuick(index), record);
+            valuesUpdated[index] = true;
+        }
+    }
+
+    /**
+     * Releases function state. Called when cursor is closed.
+     */
+    public void clear() {
+        Misc.clearObjList(ownerFunctions);
+        if (perWorkerFunctions != null) {
+            for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                Misc.clearObjList(perWorkerFunctions.getQuick(i));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (perWorkerFunctions != null) {
+            for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                Misc.freeObjList(perWorkerFunctions.getQuick(i));
+            }
+        }
+    }
+
+    @Nullable
+    public AsyncFilterAtom getFilterAtom() {
+        return filterAtom;
+    }
+
+    public SimpleMapValue getOwnerValue() {
+        return values.getQuick(0);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        Arrays.fill(valuesUpdated, false);
+
+        if (filterAtom != null) {
+            filterAtom.init(symbolTableSource, executionContext);
+        }
+
+        Function.init(ownerFunctions, symbolTableSource, executionContext);
+        if (perWorkerFunctions != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                    Function.init(perWorkerFunctions.getQuick(i), symbolTableSource, executionContext);
+                }
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filterAtom != null) {
+            filterAtom.initCursor();
+        }
+        Function.initCursor(ownerFunctions);
+        if (perWorkerFunctions != null) {
+            // Initialize all per-worker functions on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when aggregating.
+            for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                Function.initCursor(perWorkerFunctions.getQuick(i));
+            }
+        }
+    }
+
+    /**
+     * Merges partial aggregates built by workers into the owner value. Must be called
+     * on the query owner thread once all page frames are reduced.
+     *
+     * @return the owner value holding the final aggregates
+     */
+    public SimpleMapValue mergeWorkerValues() {
+        final SimpleMapValue ownerValue = values.getQuick(0);
+        for (int i = 1, n = values.size(); i < n; i++) {
+            if (!valuesUpdated[i]) {
+                continue;
+            }
+            final SimpleMapValue workerValue = values.getQuick(i);
+            if (valuesUpdated[0]) {
+                for (int j = 0, m = ownerFunctions.size(); j < m; j++) {
+                    ownerFunctions.getQuick(j).merge(ownerValue, workerValue);
+                }
+            } else {
+                ownerValue.copy(workerValue);
+                valuesUpdated[0] = true;
+            }
+            valuesUpdated[i] = false;
+        }
+        if (!valuesUpdated[0]) {
+            updaters.getQuick(0).updateEmpty(ownerValue);
+        }
+        return ownerValue;
+    }
+
+    public void release(int slotId) {
+        if (slotId == -1) {
+            return;
+        }
+        perWorkerLocks.set(slotId, 0);
+    }
+}
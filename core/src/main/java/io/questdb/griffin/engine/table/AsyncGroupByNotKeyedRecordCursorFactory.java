@@ -0,0 +1,184 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Non-keyed GROUP BY that aggregates page frames in parallel. Each frame is reduced into
+ * a per-worker value; partial values are merged on the query owner thread before the
+ * row is returned.
+ * <p>
+ * When base is an async filter factory, the filter is fused into the reduce task the same
+ * way as in {@link AsyncGroupByRecordCursorFactory}.
+ */
+public class AsyncGroupByNotKeyedRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncGroupByNotKeyedRecordCursorFactory::aggregate;
+
+    private final AsyncGroupByNotKeyedAtom atom;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncGroupByNotKeyedRecordCursor cursor;
+    // page frame source, either base or base of the fused filter
+    private final RecordCursorFactory frameFactory;
+    private final PageFrameSequence<AsyncGroupByNotKeyedAtom> frameSequence;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final ObjList<Function> recordFunctions;
+    private final int workerCount;
+
+    public AsyncGroupByNotKeyedRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @Nullable AsyncFilterAtom filterAtom,
+            @NotNull RecordMetadata groupByMetadata,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @Nullable ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions,
+            @NotNull ObjList<Function> recordFunctions,
+            @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool,
+            int valueCount,
+            int workerCount
+    ) {
+        super(groupByMetadata);
+        try {
+            this.base = base;
+            this.frameFactory = filterAtom != null ? base.getBaseFactory() : base;
+            this.groupByFunctions = groupByFunctions;
+            this.recordFunctions = recordFunctions;
+            this.atom = new AsyncGroupByNotKeyedAtom(
+                    asm,
+                    configuration,
+                    groupByFunctions,
+                    perWorkerGroupByFunctions,
+                    filterAtom,
+                    valueCount,
+                    workerCount
+            );
+        } catch (Throwable e) {
+            Misc.freeObjList(recordFunctions);
+            throw e;
+        }
+        this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
+        this.cursor = new AsyncGroupByNotKeyedRecordCursor(groupByFunctions, recordFunctions);
+        this.workerCount = workerCount;
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final PageFrameSequence<AsyncGroupByNotKeyedAtom> frameSequence = this.frameSequence.of(frameFactory, executionContext, collectSubSeq, atom, ORDER_ASC);
+        try {
+            // init all record function for this cursor, in case functions require metadata and/or symbol tables
+            Function.init(recordFunctions, frameSequence.getSymbolTableSource(), executionContext);
+        } catch (Throwable e) {
+            frameSequence.clear();
+            throw e;
+        }
+        cursor.of(frameSequence);
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Group By");
+        sink.optAttr("values", groupByFunctions, true);
+        sink.attr("workers").val(workerCount);
+        sink.child(base, ORDER_ASC);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private static void aggregate(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncGroupByNotKeyedAtom atom = task.getFrameSequence(AsyncGroupByNotKeyedAtom.class).getAtom();
+        final AsyncFilterAtom filterAtom = atom.getFilterAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        try {
+            if (filterAtom != null) {
+                filterAtom.filter(workerId, owner, record, task, circuitBreaker);
+                final DirectLongList rows = task.getRows();
+                for (long p = 0, n = rows.size(); p < n; p++) {
+                    record.setRowIndex(rows.get(p));
+                    atom.aggregate(slotId, record);
+                }
+            } else {
+                for (long r = 0; r < frameRowCount; r++) {
+                    record.setRowIndex(r);
+                    atom.aggregate(slotId, record);
+                }
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.free(base);
+        Misc.free(atom);
+        Misc.free(frameSequence);
+        Misc.freeObjList(recordFunctions);
+    }
+}
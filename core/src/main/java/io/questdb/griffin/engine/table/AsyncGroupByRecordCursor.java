@@ -0,0 +1,161 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.engine.AbstractVirtualFunctionRecordCursor;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.ObjList;
+import io.questdb.std.Os;
+
+class AsyncGroupByRecordCursor extends AbstractVirtualFunctionRecordCursor {
+
+    private static final Log LOG = LogFactory.getLog(AsyncGroupByRecordCursor.class);
+    private static final String exceptionMessage = "timeout, query aborted";
+    private boolean allFramesActive;
+    private AsyncGroupByAtom atom;
+    private long cursor = -1;
+    private int frameIndex;
+    private int frameLimit;
+    private PageFrameSequence<AsyncGroupByAtom> frameSequence;
+    private boolean isDataMapBuilt;
+    private boolean isOpen;
+
+    public AsyncGroupByRecordCursor(ObjList<Function> recordFunctions) {
+        super(recordFunctions, true);
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            LOG.debug()
+                    .$("closing [shard=").$(frameSequence.getShard())
+                    .$(", frameIndex=").$(frameIndex)
+                    .$(", frameCount=").$(frameLimit)
+                    .$(", frameId=").$(frameSequence.getId())
+                    .$(", cursor=").$(cursor)
+                    .I$();
+
+            collectCursor(true);
+            if (frameLimit > -1) {
+                frameSequence.await();
+            }
+            frameSequence.clear();
+            // map cursor does not own any resources, so we release maps directly
+            baseCursor = null;
+            atom.clear();
+            isOpen = false;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isDataMapBuilt) {
+            buildMap();
+        }
+        return super.hasNext();
+    }
+
+    @Override
+    public long size() {
+        if (!isDataMapBuilt) {
+            buildMap();
+        }
+        return super.size();
+    }
+
+    @Override
+    public void toTop() {
+        if (isDataMapBuilt) {
+            super.toTop();
+        }
+    }
+
+    private void buildMap() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+
+        try {
+            do {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+                    collectCursor(false);
+                } else if (cursor == -2) {
+                    break; // No frames to aggregate
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            LOG.critical().$("unexpected error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+
+        if (!allFramesActive) {
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+
+        super.of(atom.mergeWorkerMaps().getCursor());
+        isDataMapBuilt = true;
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    void of(PageFrameSequence<AsyncGroupByAtom> frameSequence) {
+        isOpen = true;
+        this.frameSequence = frameSequence;
+        this.atom = frameSequence.getAtom();
+        frameIndex = -1;
+        frameLimit = -1;
+        allFramesActive = true;
+        isDataMapBuilt = false;
+    }
+}
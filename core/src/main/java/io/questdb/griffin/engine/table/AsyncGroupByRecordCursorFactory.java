@@ -0,0 +1,214 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
+import io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Keyed GROUP BY that aggregates page frames in parallel. Each frame is reduced into
+ * a per-worker map; partial maps are merged on the query owner thread before the
+ * first row is returned.
+ * <p>
+ * When base is an async filter factory, the filter is fused into the reduce task: page frames
+ * are read from the filter's base and each task filters its frame before aggregating the
+ * matching rows, instead of sending filtered rows back to the query owner thread.
+ */
+public class AsyncGroupByRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncGroupByRecordCursorFactory::aggregate;
+
+    private final AsyncGroupByAtom atom;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncGroupByRecordCursor cursor;
+    // page frame source, either base or base of the fused filter
+    private final RecordCursorFactory frameFactory;
+    private final PageFrameSequence<AsyncGroupByAtom> frameSequence;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final ObjList<Function> recordFunctions;
+    private final int workerCount;
+
+    public AsyncGroupByRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @Nullable AsyncFilterAtom filterAtom,
+            @NotNull RecordMetadata groupByMetadata,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @Nullable ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions,
+            @NotNull ObjList<Function> recordFunctions,
+            @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool,
+            int workerCount
+    ) {
+        super(groupByMetadata);
+        try {
+            this.base = base;
+            this.frameFactory = filterAtom != null ? base.getBaseFactory() : base;
+            this.groupByFunctions = groupByFunctions;
+            this.recordFunctions = recordFunctions;
+            final RecordSink mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
+            this.atom = new AsyncGroupByAtom(
+                    asm,
+                    configuration,
+                    keyTypes,
+                    valueTypes,
+                    mapSink,
+                    groupByFunctions,
+                    perWorkerGroupByFunctions,
+                    filterAtom,
+                    workerCount
+            );
+        } catch (Throwable e) {
+            Misc.freeObjList(recordFunctions);
+            throw e;
+        }
+        this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
+        this.cursor = new AsyncGroupByRecordCursor(recordFunctions);
+        this.workerCount = workerCount;
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final PageFrameSequence<AsyncGroupByAtom> frameSequence = this.frameSequence.of(frameFactory, executionContext, collectSubSeq, atom, ORDER_ASC);
+        try {
+            // init all record function for this cursor, in case functions require metadata and/or symbol tables
+            Function.init(recordFunctions, frameSequence.getSymbolTableSource(), executionContext);
+        } catch (Throwable e) {
+            frameSequence.clear();
+            throw e;
+        }
+        cursor.of(frameSequence);
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Group By");
+        sink.optAttr("keys", GroupByRecordCursorFactory.getKeys(recordFunctions, getMetadata()));
+        sink.optAttr("values", groupByFunctions, true);
+        sink.attr("workers").val(workerCount);
+        sink.child(base, ORDER_ASC);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private static void aggregate(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncGroupByAtom atom = task.getFrameSequence(AsyncGroupByAtom.class).getAtom();
+        final AsyncFilterAtom filterAtom = atom.getFilterAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final Map map = atom.getMap(slotId);
+        final GroupByFunctionsUpdater updater = atom.getUpdater(slotId);
+        final RecordSink mapSink = atom.getMapSink();
+        try {
+            if (filterAtom != null) {
+                filterAtom.filter(workerId, owner, record, task, circuitBreaker);
+                final DirectLongList rows = task.getRows();
+                for (long p = 0, n = rows.size(); p < n; p++) {
+                    record.setRowIndex(rows.get(p));
+                    aggregateRecord(record, map, mapSink, updater);
+                }
+            } else {
+                for (long r = 0; r < frameRowCount; r++) {
+                    record.setRowIndex(r);
+                    aggregateRecord(record, map, mapSink, updater);
+                }
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private static void aggregateRecord(
+            PageAddressCacheRecord record,
+            Map map,
+            RecordSink mapSink,
+            GroupByFunctionsUpdater updater
+    ) {
+        final MapKey key = map.withKey();
+        mapSink.copy(record, key);
+        final MapValue value = key.createValue();
+        if (value.isNew()) {
+            updater.updateNew(value, record);
+        } else {
+            updater.updateExisting(value, record);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.free(base);
+        Misc.free(atom);
+        Misc.free(frameSequence);
+        Misc.freeObjList(recordFunctions);
+    }
+}
@@ -74,6 +74,7 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
             @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool,
             @Nullable Function limitLoFunction,
             int limitLoPos,
+            @Nullable IntList filterColumnIndexes,
             boolean preTouchColumns,
             int workerCount
     ) {
@@ -89,8 +90,12 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         if (preTouchColumns) {
             preTouchColumnTypes = new IntList();
             for (int i = 0, n = base.getMetadata().getColumnCount(); i < n; i++) {
-                int columnType = base.getMetadata().getColumnType(i);
-                preTouchColumnTypes.add(columnType);
+                // pages of the filter columns are already touched by the filter itself
+                if (filterColumnIndexes != null && filterColumnIndexes.contains(i)) {
+                    preTouchColumnTypes.add(ColumnType.UNDEFINED);
+                } else {
+                    preTouchColumnTypes.add(base.getMetadata().getColumnType(i));
+                }
             }
         }
         this.filterAtom = new AsyncJitFilterAtom(
@@ -100,6 +105,7 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
                 compiledFilter,
                 bindVarMemory,
                 bindVarFunctions,
+                filterColumnIndexes,
                 preTouchColumnTypes
         );
         this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
@@ -160,6 +166,14 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         return cursor;
     }
 
+    /**
+     * Returns the filter atom, so that a downstream parallel GROUP BY can evaluate the filter
+     * in the same reduce task as the aggregation. The atom stays owned by this factory.
+     */
+    public AsyncFilterAtom getFilterAtom() {
+        return filterAtom;
+    }
+
     public boolean hasDescendingOrder() {
         return base.hasDescendingOrder();
     }
@@ -218,61 +232,12 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
             @NotNull SqlExecutionCircuitBreaker circuitBreaker,
             @Nullable PageFrameSequence<?> stealingFrameSequence
     ) {
-        final DirectLongList rows = task.getRows();
-        final DirectLongList columns = task.getColumns();
-        final long frameRowCount = task.getFrameRowCount();
         final AsyncJitFilterAtom atom = task.getFrameSequence(AsyncJitFilterAtom.class).getAtom();
-        final PageAddressCache pageAddressCache = task.getPageAddressCache();
-
-        rows.clear();
-
-        if (pageAddressCache.hasColumnTops(task.getFrameIndex())) {
-            // Use Java-based filter in case of a page frame with column tops.
-            final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
-            final int filterId = atom.acquireFilter(workerId, owner, circuitBreaker);
-            final Function filter = atom.getFilter(filterId);
-            try {
-                for (long r = 0; r < frameRowCount; r++) {
-                    record.setRowIndex(r);
-                    if (filter.getBool(record)) {
-                        rows.add(r);
-                    }
-                }
-                return;
-            } finally {
-                atom.releaseFilter(filterId);
-            }
-        }
-
-        // Use JIT-compiled filter.
-
-        final long columnCount = pageAddressCache.getColumnCount();
-        if (columns.getCapacity() < columnCount) {
-            columns.setCapacity(columnCount);
-        }
-        columns.clear();
-        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
-            columns.add(pageAddressCache.getPageAddress(task.getFrameIndex(), columnIndex));
-        }
-
-        final long rowCount = task.getFrameRowCount();
-        if (rows.getCapacity() < rowCount) {
-            rows.setCapacity(rowCount);
-        }
-
-        long hi = atom.compiledFilter.call(
-                columns.getAddress(),
-                columns.size(),
-                atom.bindVarMemory.getAddress(),
-                atom.bindVarFunctions.size(),
-                rows.getAddress(),
-                rowCount,
-                0
-        );
-        rows.setPos(hi);
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        atom.filter(workerId, owner, record, task, circuitBreaker);
 
         // Pre-touch fixed-size columns, if asked.
-        atom.preTouchColumns(record, rows);
+        atom.preTouchColumns(record, task.getRows());
     }
 
     @Override
@@ -290,6 +255,8 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         final ObjList<Function> bindVarFunctions;
         final MemoryCARW bindVarMemory;
         final CompiledFilter compiledFilter;
+        // Columns read by the compiled filter, null if unknown.
+        final IntList filterColumnIndexes;
 
         public AsyncJitFilterAtom(
                 CairoConfiguration configuration,
@@ -298,12 +265,14 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
                 CompiledFilter compiledFilter,
                 MemoryCARW bindVarMemory,
                 ObjList<Function> bindVarFunctions,
+                @Nullable IntList filterColumnIndexes,
                 @Nullable IntList preTouchColumnTypes
         ) {
             super(configuration, filter, perWorkerFilters, preTouchColumnTypes);
             this.compiledFilter = compiledFilter;
             this.bindVarMemory = bindVarMemory;
             this.bindVarFunctions = bindVarFunctions;
+            this.filterColumnIndexes = filterColumnIndexes;
         }
 
         @Override
@@ -314,6 +283,55 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
             Misc.freeObjList(bindVarFunctions);
         }
 
+        @Override
+        public void filter(
+                int workerId,
+                boolean owner,
+                @NotNull PageAddressCacheRecord record,
+                @NotNull PageFrameReduceTask task,
+                @NotNull SqlExecutionCircuitBreaker circuitBreaker
+        ) {
+            final PageAddressCache pageAddressCache = task.getPageAddressCache();
+            if (pageAddressCache.hasColumnTops(task.getFrameIndex(), filterColumnIndexes)) {
+                // Use Java-based filter in case of a page frame with column tops in the filter columns.
+                // Tops in the other columns don't matter since the compiled filter never reads them.
+                super.filter(workerId, owner, record, task, circuitBreaker);
+                return;
+            }
+
+            // Use JIT-compiled filter.
+
+            final DirectLongList rows = task.getRows();
+            final DirectLongList columns = task.getColumns();
+
+            rows.clear();
+
+            final long columnCount = pageAddressCache.getColumnCount();
+            if (columns.getCapacity() < columnCount) {
+                columns.setCapacity(columnCount);
+            }
+            columns.clear();
+            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                columns.add(pageAddressCache.getPageAddress(task.getFrameIndex(), columnIndex));
+            }
+
+            final long rowCount = task.getFrameRowCount();
+            if (rows.getCapacity() < rowCount) {
+                rows.setCapacity(rowCount);
+            }
+
+            long hi = compiledFilter.call(
+                    columns.getAddress(),
+                    columns.size(),
+                    bindVarMemory.getAddress(),
+                    bindVarFunctions.size(),
+                    rows.getAddress(),
+                    rowCount,
+                    0
+            );
+            rows.setPos(hi);
+        }
+
         @Override
         public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
             super.init(symbolTableSource, executionContext);
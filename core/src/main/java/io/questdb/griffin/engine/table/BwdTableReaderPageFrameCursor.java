@@ -172,11 +172,11 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
                     long fixOffset = partitionLoAdjusted << 3;
 
                     long varAddress = col.getPageAddress(0);
-                    long varAddressSize = Unsafe.getUnsafe().getLong(fixAddress + fixAddressSize);
 
                     columnPageAddress.setQuick(i * 2, varAddress);
                     columnPageAddress.setQuick(i * 2 + 1, fixAddress + fixOffset);
-                    pageSizes.setQuick(i * 2, varAddressSize);
+                    // var address size is read from the index lazily, see getPageSize()
+                    pageSizes.setQuick(i * 2, -1);
                     pageSizes.setQuick(i * 2 + 1, fixAddressSize - fixOffset);
                 }
             } else {
@@ -230,6 +230,12 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
 
         @Override
         public long getPageSize(int columnIndex) {
+            final long indexPageAddress = columnPageAddress.getQuick(columnIndex * 2 + 1);
+            if (columnSizes.getQuick(columnIndex) < 0 && indexPageAddress != 0) {
+                // Var column data size is stored in the index entry that follows the frame's last row.
+                // We don't read it upfront to avoid touching columns that the consumer doesn't need.
+                return Unsafe.getUnsafe().getLong(indexPageAddress + pageSizes.getQuick(columnIndex * 2 + 1));
+            }
             return pageSizes.getQuick(columnIndex * 2);
         }
 
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.IntList;
+import io.questdb.std.NumericException;
+import io.questdb.std.Uuid;
+
+/**
+ * Point lookup over INT, LONG or UUID column with a hash index. Index key is computed
+ * from the value function once per cursor, index returns all rows of the hash bucket,
+ * so the filter, which includes the equality itself, is applied to every row.
+ */
+public class HashIndexFilteredRowCursorFactory implements FunctionBasedRowCursorFactory {
+    private static final int NO_KEY = -1;
+    private final int columnIndex;
+    private final int columnType;
+    private final HashIndexFilteredRowCursor cursor = new HashIndexFilteredRowCursor();
+    private final Function filter;
+    private final int indexDirection;
+    private final TableReaderSelectedColumnRecord record;
+    private final Function valueFunction;
+    private int indexKey = NO_KEY;
+
+    public HashIndexFilteredRowCursorFactory(
+            int columnIndex,
+            int columnType,
+            Function valueFunction,
+            Function filter,
+            int indexDirection,
+            IntList columnIndexes
+    ) {
+        assert HashIndexUtils.isSupported(columnType);
+        this.columnIndex = columnIndex;
+        this.columnType = columnType;
+        this.valueFunction = valueFunction;
+        this.filter = filter;
+        this.indexDirection = indexDirection;
+        this.record = new TableReaderSelectedColumnRecord(columnIndexes);
+    }
+
+    /**
+     * Checks if values of the given type can be looked up in hash index of the column.
+     *
+     * @param columnType type of the indexed column
+     * @param valueType  type of the value function
+     * @return true when index key of the value matches index key of the equal column value
+     */
+    public static boolean isValueTypeSupported(int columnType, int valueType) {
+        switch (ColumnType.tagOf(valueType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+                return ColumnType.tagOf(columnType) == ColumnType.INT || ColumnType.tagOf(columnType) == ColumnType.LONG;
+            case ColumnType.LONG:
+                return ColumnType.tagOf(columnType) == ColumnType.LONG;
+            case ColumnType.STRING:
+            case ColumnType.UUID:
+                return ColumnType.tagOf(columnType) == ColumnType.UUID;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public RowCursor getCursor(DataFrame dataFrame) {
+        if (indexKey == NO_KEY) {
+            return EmptyRowCursor.INSTANCE;
+        }
+        return cursor.of(dataFrame);
+    }
+
+    @Override
+    public Function getFunction() {
+        return valueFunction;
+    }
+
+    @Override
+    public void init(TableReader tableReader, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        valueFunction.init(tableReader, sqlExecutionContext);
+    }
+
+    @Override
+    public boolean isEntity() {
+        return false;
+    }
+
+    @Override
+    public boolean isUsingIndex() {
+        return true;
+    }
+
+    @Override
+    public void prepareCursor(TableReader tableReader) {
+        indexKey = computeIndexKey();
+        record.of(tableReader);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Index ").type(BitmapIndexReader.nameOf(indexDirection)).type(" scan").meta("on").putBaseColumnName(columnIndex);
+        sink.attr("hashFilter").putBaseColumnName(columnIndex).val('=').val(valueFunction);
+        sink.attr("filter").val(filter);
+    }
+
+    private int computeIndexKey() {
+        switch (ColumnType.tagOf(valueFunction.getType())) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+                return HashIndexUtils.toIndexKey(valueFunction.getInt(null));
+            case ColumnType.LONG:
+                return HashIndexUtils.toIndexKey(valueFunction.getLong(null));
+            case ColumnType.STRING:
+                final CharSequence uuid = valueFunction.getStr(null);
+                if (uuid == null) {
+                    return HashIndexUtils.NULL_KEY;
+                }
+                try {
+                    Uuid.checkDashesAndLength(uuid);
+                    return HashIndexUtils.toIndexKey(Uuid.parseLo(uuid), Uuid.parseHi(uuid));
+                } catch (NumericException e) {
+                    // not a UUID, so it can't be equal to any column value
+                    return NO_KEY;
+                }
+            default:
+                assert ColumnType.tagOf(columnType) == ColumnType.UUID;
+                return HashIndexUtils.toIndexKey(valueFunction.getLong128Lo(null), valueFunction.getLong128Hi(null));
+        }
+    }
+
+    private class HashIndexFilteredRowCursor implements RowCursor {
+        private RowCursor indexCursor;
+        private long rowid;
+
+        @Override
+        public boolean hasNext() {
+            while (indexCursor.hasNext()) {
+                final long rowid = indexCursor.next();
+                record.setRecordIndex(rowid);
+                if (filter.getBool(record)) {
+                    this.rowid = rowid;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long next() {
+            return rowid;
+        }
+
+        private HashIndexFilteredRowCursor of(DataFrame dataFrame) {
+            indexCursor = dataFrame
+                    .getBitmapIndexReader(columnIndex, indexDirection)
+                    .getCursor(true, indexKey, dataFrame.getRowLo(), dataFrame.getRowHi() - 1);
+            record.jumpTo(dataFrame.getPartitionIndex(), 0);
+            return this;
+        }
+    }
+}
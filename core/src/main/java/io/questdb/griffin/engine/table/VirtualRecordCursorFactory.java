@@ -35,6 +35,7 @@ import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
+import org.jetbrains.annotations.TestOnly;
 
 public class VirtualRecordCursorFactory extends AbstractRecordCursorFactory {
     private final RecordCursorFactory baseFactory;
@@ -78,6 +79,11 @@ public class VirtualRecordCursorFactory extends AbstractRecordCursorFactory {
         }
     }
 
+    @TestOnly
+    public ObjList<Function> getFunctions() {
+        return functions;
+    }
+
     @Override
     public boolean hasDescendingOrder() {
         return baseFactory.hasDescendingOrder();
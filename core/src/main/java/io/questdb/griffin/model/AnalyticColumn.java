@@ -30,9 +30,19 @@ import io.questdb.std.ObjectFactory;
 
 public final class AnalyticColumn extends QueryColumn {
     public final static ObjectFactory<AnalyticColumn> FACTORY = AnalyticColumn::new;
+    public static final long FRAME_UNBOUNDED = Long.MAX_VALUE;
+    public static final int FRAMING_DEFAULT = 0;
+    public static final int FRAMING_RANGE = 1;
+    public static final int FRAMING_ROWS = 2;
     private final ObjList<ExpressionNode> orderBy = new ObjList<>(2);
     private final IntList orderByDirection = new IntList(2);
     private final ObjList<ExpressionNode> partitionBy = new ObjList<>(2);
+    // number of rows (ROWS) or timestamp units (RANGE) after the current row, 0 is the current row
+    private long frameFollowing;
+    // number of rows (ROWS) or timestamp units (RANGE) before the current row, 0 is the current row
+    private long framePreceding = FRAME_UNBOUNDED;
+    private int framingMode = FRAMING_DEFAULT;
+    private int framingPosition;
 
     private AnalyticColumn() {
     }
@@ -48,6 +58,26 @@ public final class AnalyticColumn extends QueryColumn {
         partitionBy.clear();
         orderBy.clear();
         orderByDirection.clear();
+        framingMode = FRAMING_DEFAULT;
+        framingPosition = 0;
+        framePreceding = FRAME_UNBOUNDED;
+        frameFollowing = 0;
+    }
+
+    public long getFrameFollowing() {
+        return frameFollowing;
+    }
+
+    public long getFramePreceding() {
+        return framePreceding;
+    }
+
+    public int getFramingMode() {
+        return framingMode;
+    }
+
+    public int getFramingPosition() {
+        return framingPosition;
     }
 
     public ObjList<ExpressionNode> getOrderBy() {
@@ -62,8 +92,26 @@ public final class AnalyticColumn extends QueryColumn {
         return partitionBy;
     }
 
+    /**
+     * Whole partition is the frame when neither order nor frame is specified,
+     * or when frame spans from unbounded preceding to unbounded following row.
+     *
+     * @return true when frame of every row is the whole partition
+     */
+    public boolean isWholePartitionFrame() {
+        return (framingMode == FRAMING_DEFAULT && orderBy.size() == 0)
+                || (framePreceding == FRAME_UNBOUNDED && frameFollowing == FRAME_UNBOUNDED);
+    }
+
     @Override
     public AnalyticColumn of(CharSequence alias, ExpressionNode ast) {
         return (AnalyticColumn) super.of(alias, ast);
     }
+
+    public void setFrame(int framingMode, int framingPosition, long framePreceding, long frameFollowing) {
+        this.framingMode = framingMode;
+        this.framingPosition = framingPosition;
+        this.framePreceding = framePreceding;
+        this.frameFollowing = frameFollowing;
+    }
 }
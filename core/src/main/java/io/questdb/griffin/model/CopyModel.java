@@ -37,7 +37,8 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
     private ExpressionNode fileName;
     private boolean header;
     private int partitionBy;
-    private ExpressionNode target; // holds table name (new import) or import id (cancel model)
+    private QueryModel queryModel; // query to export, null for import
+    private ExpressionNode target; // holds table name (new import or export) or import id (cancel model)
     private CharSequence timestampColumnName;
     private CharSequence timestampFormat;
 
@@ -55,6 +56,7 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         partitionBy = -1;
         delimiter = -1;
         atomicity = -1;
+        queryModel = null;
     }
 
     public int getAtomicity() {
@@ -78,6 +80,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return partitionBy;
     }
 
+    public QueryModel getQueryModel() {
+        return queryModel;
+    }
+
     public ExpressionNode getTarget() {
         return target;
     }
@@ -122,6 +128,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.partitionBy = partitionBy;
     }
 
+    public void setQueryModel(QueryModel queryModel) {
+        this.queryModel = queryModel;
+    }
+
     public void setTarget(ExpressionNode tableName) {
         this.target = tableName;
     }
@@ -34,6 +34,7 @@ import io.questdb.std.str.CharSink;
 public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, TableStructure {
     public static final ObjectFactory<CreateTableModel> FACTORY = CreateTableModel::new;
     private static final int COLUMN_FLAG_CACHED = 1;
+    private static final int COLUMN_FLAG_DEDUP_KEY = 4;
     private static final int COLUMN_FLAG_INDEXED = 2;
     private final LongList columnBits = new LongList();
     private final CharSequenceObjHashMap<ColumnCastModel> columnCastModels = new CharSequenceObjHashMap<>();
@@ -189,6 +190,11 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return volumeAlias;
     }
 
+    @Override
+    public boolean isDedupKey(int index) {
+        return (getLowAt(index * 2 + 1) & COLUMN_FLAG_DEDUP_KEY) != 0;
+    }
+
     public boolean isIgnoreIfExists() {
         return ignoreIfExists;
     }
@@ -209,6 +215,11 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return walEnabled;
     }
 
+    public void setDedupKeyFlag(int columnIndex) {
+        final int index = columnIndex * 2 + 1;
+        columnBits.setQuick(index, Numbers.encodeLowHighInts(getLowAt(index) | COLUMN_FLAG_DEDUP_KEY, getHighAt(index)));
+    }
+
     public void setIgnoreIfExists(boolean flag) {
         this.ignoreIfExists = flag;
     }
@@ -358,6 +369,18 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
             }
         }
 
+        boolean dedup = false;
+        for (int i = 0, n = getColumnCount(); i < n; i++) {
+            if (isDedupKey(i)) {
+                sink.put(dedup ? ", " : " dedup keys(");
+                sink.put(getColumnName(i));
+                dedup = true;
+            }
+        }
+        if (dedup) {
+            sink.put(')');
+        }
+
         if (volumeAlias != null) {
             sink.put(" in volume '").put(volumeAlias).put('\'');
         }
@@ -1228,6 +1228,25 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                             }
                         }
                     }
+
+                    if (ac.getFramingMode() != AnalyticColumn.FRAMING_DEFAULT) {
+                        if (partitionBy.size() > 0 || orderBy.size() > 0) {
+                            sink.put(' ');
+                        }
+                        sink.put(ac.getFramingMode() == AnalyticColumn.FRAMING_ROWS ? "rows between " : "range between ");
+                        if (ac.getFramePreceding() == AnalyticColumn.FRAME_UNBOUNDED) {
+                            sink.put("unbounded preceding");
+                        } else if (ac.getFramePreceding() == 0) {
+                            sink.put("current row");
+                        } else {
+                            sink.put(ac.getFramePreceding()).put(" preceding");
+                        }
+                        if (ac.getFrameFollowing() == AnalyticColumn.FRAME_UNBOUNDED) {
+                            sink.put(" and unbounded following");
+                        } else {
+                            sink.put(" and current row");
+                        }
+                    }
                     sink.put(')');
                 }
             } else {
@@ -25,6 +25,7 @@ package io.questdb.jit;
 
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.ImplicitCastException;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.*;
@@ -69,6 +70,8 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
     static final int IMM = 1;
     static final int LE = 11;  // a <= b
     static final int LT = 10;  // a <  b
+    // IN lists are expanded into a chain of equality checks, hence the limit
+    static final int MAX_IN_LIST_SIZE = 64;
     // Columns
     static final int MEM = 2;
     static final int MUL = 16;  // a * b
@@ -129,6 +132,20 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
             }
         }
 
+        // IN lists and BETWEEN are expanded into comparisons supported by the backend
+        if (node.paramCount > 1 && predicateContext.isRootOrNegatedRoot(node)) {
+            if (SqlKeywords.isInKeyword(node.token)) {
+                serializeIn(node);
+                onNodeVisited(node);
+                return false;
+            }
+            if (SqlKeywords.isBetweenKeyword(node.token)) {
+                serializeBetween(node);
+                onNodeVisited(node);
+                return false;
+            }
+        }
+
         return true;
     }
 
@@ -215,25 +232,7 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
             serializeOperator(node.position, node.token, argCount);
         }
 
-        boolean predicateLeft = predicateContext.onNodeVisited(node);
-
-        if (predicateLeft) {
-            // We're out of a predicate
-
-            // Force scalar mode if the predicate had byte or short arithmetic operations.
-            // That's because SIMD mode uses byte/short-sized overflows for arithmetic
-            // calculations instead of implicit upcast to int done by *.sql.Function classes.
-            forceScalarMode |=
-                    predicateContext.hasArithmeticOperations && predicateContext.localTypesObserver.maxSize() <= 2;
-
-            // Then backfill constants and symbol bind variables and clean up
-            try {
-                backfillNodes.forEach(backfillNodeConsumer);
-                backfillNodes.clear();
-            } catch (SqlWrapperException e) {
-                throw e.wrappedException;
-            }
-        }
+        onNodeVisited(node);
     }
 
     private static byte bindVariableTypeCode(int columnTypeTag) {
@@ -323,6 +322,12 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         if (node.paramCount < 2) {
             return false;
         }
+        if (SqlKeywords.isInKeyword(token)) {
+            return true;
+        }
+        if (SqlKeywords.isBetweenKeyword(token)) {
+            return node.paramCount == 3;
+        }
         if (Chars.equals(token, "=")) {
             return true;
         }
@@ -408,6 +413,22 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         putOperand(offset, VAR, typeCode, index);
     }
 
+    private void checkColumnType(ExpressionNode node, int expectedColumnType) throws SqlException {
+        if (node.type != ExpressionNode.LITERAL) {
+            throw SqlException.position(node.position).put("column expected: ").put(node.token);
+        }
+        final int index = metadata.getColumnIndexQuiet(node.token);
+        if (index == -1) {
+            throw SqlException.invalidColumn(node.position, node.token);
+        }
+        final int columnTypeTag = ColumnType.tagOf(metadata.getColumnType(index));
+        if (columnTypeTag != expectedColumnType) {
+            throw SqlException.position(node.position)
+                    .put("unsupported column type: ")
+                    .put(ColumnType.nameOf(columnTypeTag));
+        }
+    }
+
     private Function getBindVariableFunction(int position, CharSequence token) throws SqlException {
         Function varFunction;
 
@@ -476,6 +497,50 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         return false;
     }
 
+    private void onNodeVisited(ExpressionNode node) throws SqlException {
+        boolean predicateLeft = predicateContext.onNodeVisited(node);
+
+        if (predicateLeft) {
+            // We're out of a predicate
+
+            // Force scalar mode if the predicate had byte or short arithmetic operations.
+            // That's because SIMD mode uses byte/short-sized overflows for arithmetic
+            // calculations instead of implicit upcast to int done by *.sql.Function classes.
+            forceScalarMode |=
+                    predicateContext.hasArithmeticOperations && predicateContext.localTypesObserver.maxSize() <= 2;
+
+            // Then backfill constants and symbol bind variables and clean up
+            try {
+                backfillNodes.forEach(backfillNodeConsumer);
+                backfillNodes.clear();
+            } catch (SqlWrapperException e) {
+                throw e.wrappedException;
+            }
+        }
+    }
+
+
+    private long parseBetweenBound(ExpressionNode node) throws SqlException {
+        if (node.type != ExpressionNode.CONSTANT || SqlKeywords.isNullKeyword(node.token)) {
+            throw SqlException.position(node.position).put("unsupported between bound: ").put(node.token);
+        }
+        final CharSequence token = node.token;
+        long value;
+        try {
+            if (Chars.isQuoted(token)) {
+                value = SqlUtil.implicitCastStrAsTimestamp(token.subSequence(1, token.length() - 1));
+            } else {
+                value = Numbers.parseLong(token);
+            }
+        } catch (ImplicitCastException | NumericException e) {
+            throw SqlException.position(node.position).put("invalid between bound: ").put(token);
+        }
+        if (value == Numbers.LONG_NaN) {
+            throw SqlException.position(node.position).put("unsupported between bound: ").put(token);
+        }
+        return value;
+    }
+
     private void putDoubleOperand(long offset, int type, double payload) {
         memory.putInt(offset, CompiledFilterIRSerializer.IMM);
         memory.putInt(offset + Integer.BYTES, type);
@@ -509,6 +574,23 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         memory.putLong(0L);
     }
 
+    private void serializeBetween(final ExpressionNode node) throws SqlException {
+        // args are in reverse order: hi, lo, column
+        final ExpressionNode column = node.args.getQuick(2);
+        checkColumnType(column, ColumnType.TIMESTAMP);
+        final long lo = parseBetweenBound(node.args.getQuick(1));
+        final long hi = parseBetweenBound(node.args.getQuick(0));
+
+        // bounds may come in any order, so they are sorted here just like BETWEEN function does
+        putOperand(IMM, I8_TYPE, Math.min(lo, hi));
+        visit(column);
+        putOperator(GE);
+        putOperand(IMM, I8_TYPE, Math.max(lo, hi));
+        visit(column);
+        putOperator(LE);
+        putOperator(AND);
+    }
+
     private void serializeBindVariable(final ExpressionNode node) throws SqlException {
         if (!predicateContext.isActive()) {
             throw SqlException.position(node.position)
@@ -691,6 +773,48 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         }
     }
 
+    private void serializeIn(final ExpressionNode node) throws SqlException {
+        final int valueCount = node.paramCount - 1;
+        if (valueCount > MAX_IN_LIST_SIZE) {
+            throw SqlException.position(node.position).put("too many values in IN list: ").put(valueCount);
+        }
+        // args are in reverse order, i.e. the column comes last
+        final ExpressionNode column = node.paramCount < 3 ? node.lhs : node.args.getLast();
+        if (column.type != ExpressionNode.LITERAL) {
+            throw SqlException.position(column.position).put("column expected in IN expression: ").put(column.token);
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex == -1) {
+            throw SqlException.invalidColumn(column.position, column.token);
+        }
+        // only IN over symbols matches nulls, IN functions for other types skip null list values
+        final boolean nullableList = ColumnType.isSymbol(metadata.getColumnType(columnIndex));
+
+        // col in (a, b, c) is serialized as col = a or col = b or col = c;
+        // unknown symbols and bind variables are resolved when the cursor is opened
+        for (int i = 0; i < valueCount; i++) {
+            final ExpressionNode value = node.paramCount < 3 ? node.rhs : node.args.getQuick(valueCount - i - 1);
+            final boolean negativeConstant = value.type == ExpressionNode.OPERATION && value.paramCount == 1;
+            if (value.type != ExpressionNode.CONSTANT && value.type != ExpressionNode.BIND_VARIABLE && !negativeConstant) {
+                throw SqlException.position(value.position).put("unsupported IN list value: ").put(value.token);
+            }
+            if (!nullableList && SqlKeywords.isNullKeyword(value.token)) {
+                throw SqlException.position(value.position).put("null in IN list of non-symbol column: ").put(column.token);
+            }
+            if (descend(value)) {
+                if (negativeConstant) {
+                    throw SqlException.position(value.position).put("unsupported IN list value: ").put(value.token);
+                }
+                visit(value);
+            }
+            visit(column);
+            putOperator(EQ);
+            if (i > 0) {
+                putOperator(OR);
+            }
+        }
+    }
+
     private void serializeNull(long offset, int position, int typeCode, boolean geoHashPredicate) throws SqlException {
         switch (typeCode) {
             case I1_TYPE:
@@ -1068,6 +1192,15 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
             return rootNode != null;
         }
 
+        public boolean isRootOrNegatedRoot(ExpressionNode node) {
+            if (rootNode == node) {
+                return true;
+            }
+            return rootNode != null
+                    && SqlKeywords.isNotKeyword(rootNode.token)
+                    && (rootNode.lhs == node || rootNode.rhs == node);
+        }
+
         public void onNodeDescended(final ExpressionNode node) {
             if (rootNode == null) {
                 boolean topLevelOperation = isTopLevelOperation(node);
@@ -31,6 +31,7 @@ import io.questdb.std.*;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public abstract class AbstractIODispatcher<C extends IOContext<C>> extends SynchronizedJob implements IODispatcher<C>, EagerThreadSetup {
     protected static final int DISCONNECT_SRC_IDLE = 1;
@@ -64,6 +65,8 @@ public abstract class AbstractIODispatcher<C extends IOContext<C>> extends Synch
     protected final ObjLongMatrix<C> pendingHeartbeats = new ObjLongMatrix<>(OPM_COLUMN_COUNT);
     private final IODispatcherConfiguration configuration;
     private final AtomicInteger connectionCount = new AtomicInteger();
+    private final LongAdder ioEventCount = new LongAdder();
+    private final LongAdder ioEventLatencyNanos = new LongAdder();
     private final boolean peerNoLinger;
     private final long queuedConnectionTimeoutMs;
     private final int rcvBufSize;
@@ -162,6 +165,16 @@ public abstract class AbstractIODispatcher<C extends IOContext<C>> extends Synch
         return connectionCount.get();
     }
 
+    @Override
+    public long getIOEventCount() {
+        return ioEventCount.sum();
+    }
+
+    @Override
+    public long getIOEventLatencyNanos() {
+        return ioEventLatencyNanos.sum();
+    }
+
     @Override
     public int getPort() {
         return port;
@@ -185,7 +198,10 @@ public abstract class AbstractIODispatcher<C extends IOContext<C>> extends Synch
             IOEvent<C> event = ioEventQueue.get(cursor);
             C connectionContext = event.context;
             final int operation = event.operation;
+            final long publishedNanos = event.publishedNanos;
             ioEventSubSeq.done(cursor);
+            ioEventLatencyNanos.add(System.nanoTime() - publishedNanos);
+            ioEventCount.increment();
             useful = processor.onRequest(operation, connectionContext);
         }
 
@@ -224,6 +240,10 @@ public abstract class AbstractIODispatcher<C extends IOContext<C>> extends Synch
 
     private void createListenFd() throws NetworkError {
         this.serverFd = nf.socketTcp(false);
+        if (configuration.getDispatcherCount() > 1 && nf.setReusePort(serverFd) < 0) {
+            // sibling dispatchers will not be able to bind to the same port
+            LOG.error().$("could not set SO_REUSEPORT [fd=").$(serverFd).$(", errno=").$(nf.errno()).I$();
+        }
         final int backlog = configuration.getListenBacklog();
         if (this.port == 0) {
             // Note that `configuration.getBindPort()` might also be 0.
@@ -367,6 +387,7 @@ public abstract class AbstractIODispatcher<C extends IOContext<C>> extends Synch
         IOEvent<C> evt = ioEventQueue.get(cursor);
         evt.context = context;
         evt.operation = operation;
+        evt.publishedNanos = System.nanoTime();
         ioEventPubSeq.done(cursor);
         LOG.debug().$("fired [fd=").$(context.getFd())
                 .$(", op=").$(operation)
@@ -55,8 +55,30 @@ public interface IODispatcher<C extends IOContext> extends Closeable, Job {
 
     int getConnectionCount();
 
+    /**
+     * @return number of IO events handed over to the workers so far
+     */
+    default long getIOEventCount() {
+        return 0;
+    }
+
+    /**
+     * @return total time, in nanoseconds, IO events spent in the IO queue before a worker picked them up
+     */
+    default long getIOEventLatencyNanos() {
+        return 0;
+    }
+
     int getPort();
 
+    default IODispatcher<C> getReactor(int index) {
+        return this;
+    }
+
+    default int getReactorCount() {
+        return 1;
+    }
+
     boolean isListening();
 
     boolean processIOQueue(IORequestProcessor<C> processor);
@@ -24,6 +24,8 @@
 
 package io.questdb.network;
 
+import io.questdb.std.IOURingFacade;
+import io.questdb.std.IOURingFacadeImpl;
 import io.questdb.std.Numbers;
 import io.questdb.std.Os;
 import io.questdb.std.datetime.millitime.MillisecondClock;
@@ -38,6 +40,14 @@ public interface IODispatcherConfiguration {
 
     MillisecondClock getClock();
 
+    /**
+     * Number of dispatchers (reactors) that share the listening port via SO_REUSEPORT.
+     * Each of them owns its own epoll set and IO queue. Only Linux honours values above 1.
+     */
+    default int getDispatcherCount() {
+        return 1;
+    }
+
     default String getDispatcherLogName() {
         return "IODispatcher";
     }
@@ -56,6 +66,10 @@ public interface IODispatcherConfiguration {
         return Numbers.ceilPow2(getLimit());
     }
 
+    default IOURingFacade getIOURingFacade() {
+        return IOURingFacadeImpl.INSTANCE;
+    }
+
     int getInitialBias();
 
     default int getInterestQueueCapacity() {
@@ -96,4 +110,12 @@ public interface IODispatcherConfiguration {
     long getTimeout();
 
     long getHeartbeatInterval();
+
+    /**
+     * When enabled and supported by the kernel, Linux dispatcher waits for socket
+     * readiness with io_uring rather than epoll.
+     */
+    default boolean isIOURingEnabled() {
+        return false;
+    }
 }
@@ -0,0 +1,299 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.network;
+
+import io.questdb.mp.EagerThreadSetup;
+import io.questdb.std.IOURingFacade;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Set of dispatchers (reactors) listening on the same port. Each reactor binds its own
+ * listening socket with SO_REUSEPORT, so that the kernel spreads incoming connections
+ * between them, and owns its own epoll set and IO queue. Connection contexts keep the
+ * reference to the reactor that accepted them, so all further IO for a connection
+ * stays on that reactor.
+ */
+public class IODispatcherGroup<C extends IOContext<C>> implements IODispatcher<C>, EagerThreadSetup {
+    private final ObjList<IODispatcher<C>> reactors;
+
+    public IODispatcherGroup(IODispatcherConfiguration configuration, IOContextFactory<C> ioContextFactory) {
+        final int reactorCount = configuration.getDispatcherCount();
+        this.reactors = new ObjList<>(reactorCount);
+        try {
+            // the first reactor resolves ephemeral port, the rest must bind to the same one
+            reactors.add(IODispatchers.createReactor(new ReactorConfiguration(configuration, 0, configuration.getBindPort()), ioContextFactory));
+            final int port = reactors.getQuick(0).getPort();
+            for (int i = 1; i < reactorCount; i++) {
+                reactors.add(IODispatchers.createReactor(new ReactorConfiguration(configuration, i, port), ioContextFactory));
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjListAndClear(reactors);
+    }
+
+    @Override
+    public void disconnect(C context, int reason) {
+        context.getDispatcher().disconnect(context, reason);
+    }
+
+    @Override
+    public int getConnectionCount() {
+        int count = 0;
+        for (int i = 0, n = reactors.size(); i < n; i++) {
+            count += reactors.getQuick(i).getConnectionCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getIOEventCount() {
+        long count = 0;
+        for (int i = 0, n = reactors.size(); i < n; i++) {
+            count += reactors.getQuick(i).getIOEventCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getIOEventLatencyNanos() {
+        long latency = 0;
+        for (int i = 0, n = reactors.size(); i < n; i++) {
+            latency += reactors.getQuick(i).getIOEventLatencyNanos();
+        }
+        return latency;
+    }
+
+    @Override
+    public int getPort() {
+        return reactors.getQuick(0).getPort();
+    }
+
+    @Override
+    public IODispatcher<C> getReactor(int index) {
+        return reactors.getQuick(index);
+    }
+
+    @Override
+    public int getReactorCount() {
+        return reactors.size();
+    }
+
+    @Override
+    public boolean isListening() {
+        for (int i = 0, n = reactors.size(); i < n; i++) {
+            if (reactors.getQuick(i).isListening()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean processIOQueue(IORequestProcessor<C> processor) {
+        boolean useful = false;
+        for (int i = 0, n = reactors.size(); i < n; i++) {
+            useful |= reactors.getQuick(i).processIOQueue(processor);
+        }
+        return useful;
+    }
+
+    @Override
+    public void registerChannel(C context, int operation) {
+        context.getDispatcher().registerChannel(context, operation);
+    }
+
+    @Override
+    public boolean run(int workerId, @NotNull RunStatus runStatus) {
+        // reactors are synchronized jobs, start from a different one on every
+        // worker to let the workers poll reactors in parallel
+        final int n = reactors.size();
+        boolean useful = false;
+        for (int i = 0; i < n; i++) {
+            useful |= reactors.getQuick((workerId + i) % n).run(workerId, runStatus);
+        }
+        return useful;
+    }
+
+    @Override
+    public void setup() {
+        for (int i = 0, n = reactors.size(); i < n; i++) {
+            final IODispatcher<C> reactor = reactors.getQuick(i);
+            if (reactor instanceof EagerThreadSetup) {
+                ((EagerThreadSetup) reactor).setup();
+            }
+        }
+    }
+
+    private static class ReactorConfiguration implements IODispatcherConfiguration {
+        private final int bindPort;
+        private final IODispatcherConfiguration delegate;
+        private final int limit;
+        private final String logName;
+
+        private ReactorConfiguration(IODispatcherConfiguration delegate, int index, int bindPort) {
+            this.delegate = delegate;
+            this.bindPort = bindPort;
+            // connection limit is shared evenly between the reactors
+            final int reactorCount = delegate.getDispatcherCount();
+            this.limit = (delegate.getLimit() + reactorCount - 1) / reactorCount;
+            this.logName = delegate.getDispatcherLogName() + '-' + index;
+        }
+
+        @Override
+        public int getBindIPv4Address() {
+            return delegate.getBindIPv4Address();
+        }
+
+        @Override
+        public int getBindPort() {
+            return bindPort;
+        }
+
+        @Override
+        public MillisecondClock getClock() {
+            return delegate.getClock();
+        }
+
+        @Override
+        public int getDispatcherCount() {
+            return delegate.getDispatcherCount();
+        }
+
+        @Override
+        public String getDispatcherLogName() {
+            return logName;
+        }
+
+        @Override
+        public EpollFacade getEpollFacade() {
+            return delegate.getEpollFacade();
+        }
+
+        @Override
+        public int getEventCapacity() {
+            return delegate.getEventCapacity();
+        }
+
+        @Override
+        public long getHeartbeatInterval() {
+            return delegate.getHeartbeatInterval();
+        }
+
+        @Override
+        public boolean getHint() {
+            return delegate.getHint();
+        }
+
+        @Override
+        public int getIOQueueCapacity() {
+            return delegate.getIOQueueCapacity();
+        }
+
+        @Override
+        public IOURingFacade getIOURingFacade() {
+            return delegate.getIOURingFacade();
+        }
+
+        @Override
+        public int getInitialBias() {
+            return delegate.getInitialBias();
+        }
+
+        @Override
+        public int getInterestQueueCapacity() {
+            return delegate.getInterestQueueCapacity();
+        }
+
+        @Override
+        public KqueueFacade getKqueueFacade() {
+            return delegate.getKqueueFacade();
+        }
+
+        @Override
+        public int getLimit() {
+            return limit;
+        }
+
+        @Override
+        public int getListenBacklog() {
+            return delegate.getListenBacklog();
+        }
+
+        @Override
+        public NetworkFacade getNetworkFacade() {
+            return delegate.getNetworkFacade();
+        }
+
+        @Override
+        public boolean getPeerNoLinger() {
+            return delegate.getPeerNoLinger();
+        }
+
+        @Override
+        public long getQueueTimeout() {
+            return delegate.getQueueTimeout();
+        }
+
+        @Override
+        public int getRcvBufSize() {
+            return delegate.getRcvBufSize();
+        }
+
+        @Override
+        public SelectFacade getSelectFacade() {
+            return delegate.getSelectFacade();
+        }
+
+        @Override
+        public int getSndBufSize() {
+            return delegate.getSndBufSize();
+        }
+
+        @Override
+        public int getTestConnectionBufferSize() {
+            return delegate.getTestConnectionBufferSize();
+        }
+
+        @Override
+        public long getTimeout() {
+            return delegate.getTimeout();
+        }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return delegate.isIOURingEnabled();
+        }
+    }
+}
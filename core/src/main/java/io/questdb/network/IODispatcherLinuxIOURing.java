@@ -0,0 +1,430 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.network;
+
+import io.questdb.std.IOURing;
+import io.questdb.std.LongMatrix;
+import io.questdb.std.Numbers;
+
+/**
+ * Linux dispatcher that waits for socket readiness with io_uring one-shot polls instead of epoll.
+ * Epoll needs an epoll_ctl() call to re-arm every socket after each event, whereas here
+ * the re-arms are queued in the submission ring and submitted with a single syscall per
+ * dispatcher iteration. Completions are read from the shared ring without a syscall.
+ * <p>
+ * Unlike epoll, io_uring polls hold a reference to the socket, so a poll has to be removed
+ * explicitly before the socket is closed or handed over to a heartbeat.
+ */
+public class IODispatcherLinuxIOURing<C extends IOContext<C>> extends AbstractIODispatcher<C> {
+    private static final int ECANCELED = 125;
+    private static final int EVM_DEADLINE = 1;
+    private static final int EVM_ID = 0;
+    private static final int EVM_OPERATION_ID = 2;
+    // io_uring does not accept more entries without IORING_SETUP_CLAMP
+    private static final int MAX_RING_CAPACITY = 32768;
+    // user data of poll removal sqes; it has to be non-negative, since -1 is returned
+    // by the ring when it is full, and it is never reached by operation and event ids
+    private static final long POLL_REMOVE_ID = Long.MAX_VALUE;
+    protected final LongMatrix pendingEvents = new LongMatrix(3);
+    private final IOURing ring;
+    // the final ids are shifted by 1 bit which is reserved to distinguish socket operations (0) and suspend events (1);
+    // id 0 is reserved for operations on the server fd
+    private long idSeq = 1;
+    private boolean listenerArmed;
+    private boolean listenerRegistered;
+
+    public IODispatcherLinuxIOURing(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory
+    ) {
+        super(configuration, ioContextFactory);
+        this.ring = configuration.getIOURingFacade().newInstance(
+                Math.min(Numbers.ceilPow2(configuration.getEventCapacity()), MAX_RING_CAPACITY)
+        );
+        registerListenerFd();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        // closing the ring cancels outstanding polls and releases the sockets they hold
+        ring.close();
+        LOG.info().$("closed").$();
+    }
+
+    private static boolean isEventId(long id) {
+        return (id & 1) == 1;
+    }
+
+    private void armPoll(int fd, long id, int operation) {
+        final int events = operation == IOOperation.READ ? EpollAccessor.EPOLLIN : EpollAccessor.EPOLLOUT;
+        while (ring.enqueuePollAdd(fd, events, id) == -1) {
+            // submission queue is full, flush it to the kernel
+            ring.submit();
+        }
+    }
+
+    private void doDisconnect(C context, long id, int reason) {
+        final SuspendEvent suspendEvent = context.getSuspendEvent();
+        if (suspendEvent != null) {
+            // yes, we can do a binary search over EVM_OPERATION_ID since
+            // these ref ids are monotonically growing
+            int eventRow = pendingEvents.binarySearch(id, EVM_OPERATION_ID);
+            if (eventRow < 0) {
+                LOG.critical().$("internal error: suspend event not found [id=").$(id).I$();
+            } else {
+                removePoll(pendingEvents.get(eventRow, EVM_ID));
+                pendingEvents.deleteRow(eventRow);
+            }
+        }
+        doDisconnect(context, reason);
+    }
+
+    private void enqueuePending(int watermark) {
+        for (int i = watermark, sz = pending.size(); i < sz; i++) {
+            final long id = pending.get(i, OPM_ID);
+            final int fd = (int) pending.get(i, OPM_FD);
+            int operation = initialBias == IODispatcherConfiguration.BIAS_READ ? IOOperation.READ : IOOperation.WRITE;
+            pending.set(i, OPM_OPERATION, operation);
+            armPoll(fd, id, operation);
+        }
+    }
+
+    private boolean handleSocketOperation(long id, int res) {
+        // find row in pending for two reasons:
+        // 1. find payload
+        // 2. remove row from pending, remaining rows will be timed out
+        final int row = pending.binarySearch(id, OPM_ID);
+        if (row < 0) {
+            // poll has completed right before it was removed, e.g. on heartbeat
+            LOG.debug().$("stale poll completion [id=").$(id).$(", res=").$(res).I$();
+            return false;
+        }
+
+        final C context = pending.get(row);
+        final SuspendEvent suspendEvent = context.getSuspendEvent();
+        if (suspendEvent != null) {
+            // the operation is suspended, check if we have a client disconnect
+            if (testConnection(context.getFd())) {
+                doDisconnect(context, id, DISCONNECT_SRC_PEER_DISCONNECT);
+                pending.deleteRow(row);
+                return true;
+            }
+        } else {
+            publishOperation(
+                    // Check POLLOUT flag and treat all other events, including POLLIN, POLLHUP and errors, as a read.
+                    res > 0 && (res & EpollAccessor.EPOLLOUT) > 0 ? IOOperation.WRITE : IOOperation.READ,
+                    context
+            );
+            pending.deleteRow(row);
+            return true;
+        }
+        return false;
+    }
+
+    private void handleSuspendEvent(long id) {
+        final int eventsRow = pendingEvents.binarySearch(id, EVM_ID);
+        if (eventsRow < 0) {
+            LOG.debug().$("stale suspend event completion [eventId=").$(id).I$();
+            return;
+        }
+
+        final long opId = pendingEvents.get(eventsRow, EVM_OPERATION_ID);
+        final int row = pending.binarySearch(opId, OPM_ID);
+        if (row < 0) {
+            LOG.critical().$("internal error: suspended operation not found [id=").$(opId).$(", eventId=").$(id).I$();
+            return;
+        }
+
+        final int operation = (int) pending.get(row, OPM_OPERATION);
+        final C context = pending.get(row);
+        final SuspendEvent suspendEvent = context.getSuspendEvent();
+        assert suspendEvent != null;
+
+        resumeOperation(context, opId, operation);
+        pendingEvents.deleteRow(eventsRow);
+    }
+
+    private long nextEventId() {
+        return (idSeq++ << 1) + 1;
+    }
+
+    private long nextOpId() {
+        return idSeq++ << 1;
+    }
+
+    private void processHeartbeats(int watermark, long timestamp) {
+        int count = 0;
+        for (int i = 0; i < watermark && pending.get(i, OPM_HEARTBEAT_TIMESTAMP) < timestamp; i++, count++) {
+            final C context = pending.get(i);
+
+            // Remove pending operation poll. We'll arm it again when we get a heartbeat pong.
+            final int fd = context.getFd();
+            final long opId = pending.get(i, OPM_ID);
+            removePoll(opId);
+            context.setHeartbeatId(opId);
+            publishOperation(IOOperation.HEARTBEAT, context);
+
+            final int operation = (int) pending.get(i, OPM_OPERATION);
+            int r = pendingHeartbeats.addRow();
+            pendingHeartbeats.set(r, OPM_CREATE_TIMESTAMP, pending.get(i, OPM_CREATE_TIMESTAMP));
+            pendingHeartbeats.set(r, OPM_FD, fd);
+            pendingHeartbeats.set(r, OPM_ID, opId);
+            pendingHeartbeats.set(r, OPM_OPERATION, operation);
+            pendingHeartbeats.set(r, context);
+
+            LOG.debug().$("published heartbeat [fd=").$(fd)
+                    .$(", op=").$(operation)
+                    .$(", id=").$(opId).I$();
+
+            final SuspendEvent suspendEvent = context.getSuspendEvent();
+            if (suspendEvent != null) {
+                // Also, remove suspend event poll.
+                int eventRow = pendingEvents.binarySearch(opId, EVM_OPERATION_ID);
+                if (eventRow < 0) {
+                    LOG.critical().$("internal error: suspend event not found on heartbeat [id=").$(opId).I$();
+                } else {
+                    removePoll(pendingEvents.get(eventRow, EVM_ID));
+                    pendingEvents.deleteRow(eventRow);
+                }
+            }
+        }
+        pending.zapTop(count);
+    }
+
+    private int processIdleConnections(long idleTimestamp) {
+        int count = 0;
+        for (int i = 0, n = pending.size(); i < n && pending.get(i, OPM_CREATE_TIMESTAMP) < idleTimestamp; i++, count++) {
+            final long opId = pending.get(i, OPM_ID);
+            // the poll would otherwise keep the socket open after it is closed
+            removePoll(opId);
+            doDisconnect(pending.get(i), opId, DISCONNECT_SRC_IDLE);
+        }
+        pending.zapTop(count);
+        return count;
+    }
+
+    private boolean processRegistrations(long timestamp) {
+        boolean useful = false;
+        long cursor;
+        while ((cursor = interestSubSeq.next()) > -1) {
+            final IOEvent<C> event = interestQueue.get(cursor);
+            final C context = event.context;
+            final int requestedOperation = event.operation;
+            final long srcOpId = context.getAndResetHeartbeatId();
+            interestSubSeq.done(cursor);
+
+            useful = true;
+            final long opId = nextOpId();
+            final int fd = context.getFd();
+
+            int operation = requestedOperation;
+            final SuspendEvent suspendEvent = context.getSuspendEvent();
+            if (requestedOperation == IOOperation.HEARTBEAT) {
+                assert srcOpId != -1;
+
+                int heartbeatRow = pendingHeartbeats.binarySearch(srcOpId, OPM_ID);
+                if (heartbeatRow < 0) {
+                    continue; // The connection is already closed.
+                } else {
+                    operation = (int) pendingHeartbeats.get(heartbeatRow, OPM_OPERATION);
+
+                    LOG.debug().$("processing heartbeat registration [fd=").$(fd)
+                            .$(", op=").$(operation)
+                            .$(", srcId=").$(srcOpId)
+                            .$(", id=").$(opId).I$();
+
+                    int r = pending.addRow();
+                    pending.set(r, OPM_CREATE_TIMESTAMP, pendingHeartbeats.get(heartbeatRow, OPM_CREATE_TIMESTAMP));
+                    pending.set(r, OPM_HEARTBEAT_TIMESTAMP, timestamp);
+                    pending.set(r, OPM_FD, fd);
+                    pending.set(r, OPM_ID, opId);
+                    pending.set(r, OPM_OPERATION, operation);
+                    pending.set(r, context);
+
+                    pendingHeartbeats.deleteRow(heartbeatRow);
+                }
+            } else {
+                LOG.debug().$("processing registration [fd=").$(fd)
+                        .$(", op=").$(operation)
+                        .$(", id=").$(opId).I$();
+
+                int opRow = pending.addRow();
+                pending.set(opRow, OPM_CREATE_TIMESTAMP, timestamp);
+                pending.set(opRow, OPM_HEARTBEAT_TIMESTAMP, timestamp);
+                pending.set(opRow, OPM_FD, fd);
+                pending.set(opRow, OPM_ID, opId);
+                pending.set(opRow, OPM_OPERATION, requestedOperation);
+                pending.set(opRow, context);
+            }
+
+            if (suspendEvent != null) {
+                // if the operation was suspended, we request a read to be able to detect a client disconnect
+                operation = IOOperation.READ;
+                // ok, the operation was suspended, so we need to track the suspend event
+                final long eventId = nextEventId();
+                LOG.debug().$("registering suspend event [fd=").$(fd)
+                        .$(", op=").$(operation)
+                        .$(", eventId=").$(eventId)
+                        .$(", suspendedOpId=").$(opId)
+                        .$(", deadline=").$(suspendEvent.getDeadline()).I$();
+
+                int eventRow = pendingEvents.addRow();
+                pendingEvents.set(eventRow, EVM_ID, eventId);
+                pendingEvents.set(eventRow, EVM_OPERATION_ID, opId);
+                pendingEvents.set(eventRow, EVM_DEADLINE, suspendEvent.getDeadline());
+
+                armPoll(suspendEvent.getFd(), eventId, IOOperation.READ);
+            }
+
+            armPoll(fd, opId, operation);
+        }
+        return useful;
+    }
+
+    private void processSuspendEventDeadlines(long timestamp) {
+        int count = 0;
+        for (int i = 0, n = pendingEvents.size(); i < n && pendingEvents.get(i, EVM_DEADLINE) < timestamp; i++, count++) {
+            final long eventId = pendingEvents.get(i, EVM_ID);
+            final long opId = pendingEvents.get(i, EVM_OPERATION_ID);
+            final int pendingRow = pending.binarySearch(opId, OPM_ID);
+            if (pendingRow < 0) {
+                LOG.critical().$("internal error: failed to find operation for expired suspend event [id=").$(opId).I$();
+                continue;
+            }
+            // First, remove the suspend event poll.
+            final C context = pending.get(pendingRow);
+            final int operation = (int) pending.get(pendingRow, OPM_OPERATION);
+            assert context.getSuspendEvent() != null;
+            removePoll(eventId);
+            // Next, resume the original operation and close the event.
+            resumeOperation(context, opId, operation);
+        }
+        pendingEvents.zapTop(count);
+    }
+
+    private void removePoll(long id) {
+        while (ring.enqueuePollRemove(id, POLL_REMOVE_ID) == -1) {
+            // submission queue is full, flush it to the kernel
+            ring.submit();
+        }
+    }
+
+    private void resumeOperation(C context, long id, int operation) {
+        // the read poll used to detect a disconnect may still be armed,
+        // remove it before arming the original operation
+        removePoll(id);
+        armPoll(context.getFd(), id, operation);
+        context.clearSuspendEvent();
+    }
+
+    @Override
+    protected void pendingAdded(int index) {
+        pending.set(index, OPM_ID, nextOpId());
+    }
+
+    @Override
+    protected void registerListenerFd() {
+        listenerRegistered = true;
+        if (!listenerArmed) {
+            armPoll(serverFd, 0, IOOperation.READ);
+            listenerArmed = true;
+        }
+    }
+
+    @Override
+    protected boolean runSerially() {
+        boolean useful = false;
+
+        final long timestamp = clock.getTicks();
+        processDisconnects(timestamp);
+        int watermark = pending.size();
+        while (ring.nextCqe()) {
+            final long id = ring.getCqeId();
+            final int res = ring.getCqeRes();
+            if (id == POLL_REMOVE_ID || res == -ECANCELED) {
+                // poll removals and the polls they have cancelled
+                continue;
+            }
+            // this is server socket, accept if there aren't too many already
+            if (id == 0) {
+                listenerArmed = false;
+                accept(timestamp);
+                if (listenerRegistered && !listenerArmed) {
+                    armPoll(serverFd, 0, IOOperation.READ);
+                    listenerArmed = true;
+                }
+                useful = true;
+                continue;
+            }
+            if (isEventId(id)) {
+                handleSuspendEvent(id);
+                continue;
+            }
+            if (handleSocketOperation(id, res)) {
+                useful = true;
+                watermark--;
+            }
+        }
+
+        // process rows over watermark (new connections)
+        if (watermark < pending.size()) {
+            enqueuePending(watermark);
+        }
+
+        // process timed out suspend events and resume the original operations
+        if (pendingEvents.size() > 0 && pendingEvents.get(0, EVM_DEADLINE) < timestamp) {
+            processSuspendEventDeadlines(timestamp);
+        }
+
+        // process timed out connections
+        final long idleTimestamp = timestamp - idleConnectionTimeout;
+        if (pending.size() > 0 && pending.get(0, OPM_CREATE_TIMESTAMP) < idleTimestamp) {
+            watermark -= processIdleConnections(idleTimestamp);
+            useful = true;
+        }
+
+        // process heartbeat timers
+        final long heartbeatTimestamp = timestamp - heartbeatIntervalMs;
+        if (watermark > 0 && pending.get(0, OPM_HEARTBEAT_TIMESTAMP) < heartbeatTimestamp) {
+            processHeartbeats(watermark, heartbeatTimestamp);
+            useful = true;
+        }
+
+        useful |= processRegistrations(timestamp);
+        // all polls armed and removed during this iteration are submitted with a single syscall
+        ring.submit();
+        return useful;
+    }
+
+    @Override
+    protected void unregisterListenerFd() {
+        listenerRegistered = false;
+        if (listenerArmed) {
+            removePoll(0);
+            listenerArmed = false;
+        }
+    }
+}
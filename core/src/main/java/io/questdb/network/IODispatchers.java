@@ -24,9 +24,12 @@
 
 package io.questdb.network;
 
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
 import io.questdb.std.Os;
 
 public class IODispatchers {
+    private static final Log LOG = LogFactory.getLog(IODispatchers.class);
 
     private IODispatchers() {
     }
@@ -34,10 +37,32 @@ public class IODispatchers {
     public static <C extends IOContext<C>> IODispatcher<C> create(
             IODispatcherConfiguration configuration,
             IOContextFactory<C> ioContextFactory
+    ) {
+        if (configuration.getDispatcherCount() > 1) {
+            if (Os.isLinux()) {
+                return new IODispatcherGroup<>(configuration, ioContextFactory);
+            }
+            // SO_REUSEPORT does not balance connections outside Linux
+            LOG.info().$("multiple dispatchers are supported on Linux only, using single dispatcher [dispatcher=")
+                    .$(configuration.getDispatcherLogName()).I$();
+        }
+        return createReactor(configuration, ioContextFactory);
+    }
+
+    static <C extends IOContext<C>> IODispatcher<C> createReactor(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory
     ) {
         switch (Os.type) {
             case Os.LINUX_AMD64:
             case Os.LINUX_ARM64:
+                if (configuration.isIOURingEnabled()) {
+                    if (configuration.getIOURingFacade().isAvailable()) {
+                        return new IODispatcherLinuxIOURing<>(configuration, ioContextFactory);
+                    }
+                    LOG.info().$("io_uring is not supported by the kernel, falling back to epoll [dispatcher=")
+                            .$(configuration.getDispatcherLogName()).I$();
+                }
                 return new IODispatcherLinux<>(configuration, ioContextFactory);
             case Os.OSX_AMD64:
             case Os.OSX_ARM64:
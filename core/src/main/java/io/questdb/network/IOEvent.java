@@ -27,4 +27,5 @@ package io.questdb.network;
 public class IOEvent<C extends IOContext> {
     public C context;
     public int operation;
+    public long publishedNanos;
 }
@@ -36,6 +36,21 @@ public interface IOURing extends Closeable {
     @TestOnly
     long enqueueNop();
 
+    /**
+     * Enqueues one-shot poll of the given fd. Completion result is the mask of ready events.
+     *
+     * @return user data of the enqueued sqe or -1 if the submission queue is full.
+     */
+    long enqueuePollAdd(int fd, int events, long userData);
+
+    /**
+     * Enqueues removal of the poll previously enqueued with the target user data.
+     * The removed poll completes with -ECANCELED result.
+     *
+     * @return user data of the enqueued sqe or -1 if the submission queue is full.
+     */
+    long enqueuePollRemove(long targetUserData, long userData);
+
     long enqueueRead(int fd, long offset, long bufPtr, int len);
 
     long getCqeId();
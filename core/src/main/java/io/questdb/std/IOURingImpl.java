@@ -97,6 +97,16 @@ public class IOURingImpl implements IOURing {
         return enqueueSqe(IORING_OP_NOP, 0, 0, 0, 0);
     }
 
+    @Override
+    public long enqueuePollAdd(int fd, int events, long userData) {
+        return enqueueSqe(IORING_OP_POLL_ADD, fd, 0, 0, 0, events, userData);
+    }
+
+    @Override
+    public long enqueuePollRemove(long targetUserData, long userData) {
+        return enqueueSqe(IORING_OP_POLL_REMOVE, -1, 0, targetUserData, 0, 0, userData);
+    }
+
     @Override
     public long enqueueRead(int fd, long offset, long bufAddr, int len) {
         return enqueueSqe(IORING_OP_READ, fd, offset, bufAddr, len);
@@ -153,6 +163,10 @@ public class IOURingImpl implements IOURing {
     }
 
     private long enqueueSqe(byte op, int fd, long offset, long bufAddr, int len) {
+        return enqueueSqe(op, fd, offset, bufAddr, len, 0, idSeq++);
+    }
+
+    private long enqueueSqe(byte op, int fd, long offset, long bufAddr, int len, int opFlags, long userData) {
         final long sqeAddr = nextSqe();
         if (sqeAddr == 0) {
             return -1;
@@ -162,9 +176,10 @@ public class IOURingImpl implements IOURing {
         Unsafe.getUnsafe().putLong(sqeAddr + SQE_OFF_OFFSET, offset);
         Unsafe.getUnsafe().putLong(sqeAddr + SQE_ADDR_OFFSET, bufAddr);
         Unsafe.getUnsafe().putInt(sqeAddr + SQE_LEN_OFFSET, len);
-        final long id = idSeq++;
-        Unsafe.getUnsafe().putLong(sqeAddr + SQE_USER_DATA_OFFSET, id);
-        return id;
+        // sqes are reused, so op specific flags have to be reset even when not used by the op
+        Unsafe.getUnsafe().putInt(sqeAddr + SQE_OP_FLAGS_OFFSET, opFlags);
+        Unsafe.getUnsafe().putLong(sqeAddr + SQE_USER_DATA_OFFSET, userData);
+        return userData;
     }
 
     /**
@@ -34,6 +34,8 @@ public class IOUringAccessor {
     static final short CQ_KRING_MASK_OFFSET;
     static final short CQ_KTAIL_OFFSET;
     static final byte IORING_OP_NOP = 0;
+    static final byte IORING_OP_POLL_ADD = 6;
+    static final byte IORING_OP_POLL_REMOVE = 7;
     static final byte IORING_OP_READ = 22;
     static final short RING_FD_OFFSET;
     static final short SIZEOF_CQE;
@@ -43,6 +45,8 @@ public class IOUringAccessor {
     static final short SQE_LEN_OFFSET;
     static final short SQE_OFF_OFFSET;
     static final short SQE_OPCODE_OFFSET;
+    // offset of the op specific flags union (rw_flags, poll32_events, etc.), fixed by the kernel ABI
+    static final short SQE_OP_FLAGS_OFFSET = 28;
     static final short SQE_USER_DATA_OFFSET;
     static final short SQ_KHEAD_OFFSET;
     static final short SQ_KRING_ENTRIES_OFFSET;
@@ -98,6 +98,7 @@ open module io.questdb {
     exports io.questdb.griffin.engine.functions.long128;
     exports io.questdb.cairo.wal;
     exports io.questdb.cairo.wal.seq;
+    exports io.questdb.cairo.mv;
 
     provides FunctionFactory with
             // test functions
@@ -705,6 +706,15 @@ open module io.questdb {
 
             // analytic functions
             io.questdb.griffin.engine.functions.analytic.RowNumberFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.SumDoubleAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.AvgDoubleAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MinDoubleAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MaxDoubleAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.CountAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.CountDoubleAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.FirstValueDoubleAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LagDoubleAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LeadDoubleAnalyticFunctionFactory,
             // this factory seems to corrupt memory, symptoms of which are visible on M1 CPU
             //io.questdb.griffin.engine.functions.analytic.RankFunctionFactory,
 
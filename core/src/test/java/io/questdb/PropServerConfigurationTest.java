@@ -94,6 +94,9 @@ public class PropServerConfigurationTest {
         Assert.assertTrue(configuration.getHttpServerConfiguration().isQueryCacheEnabled());
         Assert.assertEquals(4, configuration.getHttpServerConfiguration().getQueryCacheBlockCount());
         Assert.assertEquals(4, configuration.getHttpServerConfiguration().getQueryCacheRowCount());
+        Assert.assertFalse(configuration.getHttpServerConfiguration().isQueryResultCacheEnabled());
+        Assert.assertEquals(16 * Numbers.SIZE_1MB, configuration.getHttpServerConfiguration().getQueryResultCacheMemoryLimit());
+        Assert.assertEquals(64 * 1024, configuration.getHttpServerConfiguration().getQueryResultCachePageSize());
 
         Assert.assertEquals(10, configuration.getWorkerPoolConfiguration().getYieldThreshold());
         Assert.assertEquals(10000, configuration.getWorkerPoolConfiguration().getSleepThreshold());
@@ -111,6 +114,8 @@ public class PropServerConfigurationTest {
         Assert.assertEquals("Keep-Alive: timeout=5, max=10000" + Misc.EOL, configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getKeepAliveHeader());
 
         Assert.assertEquals(64, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getLimit());
+        Assert.assertFalse(configuration.getHttpServerConfiguration().getDispatcherConfiguration().isIOURingEnabled());
+        Assert.assertEquals(1, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getDispatcherCount());
         Assert.assertEquals(64, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getEventCapacity());
         Assert.assertEquals(64, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getIOQueueCapacity());
         Assert.assertEquals(300000, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getTimeout());
@@ -143,6 +148,8 @@ public class PropServerConfigurationTest {
 
         Assert.assertFalse(configuration.getHttpServerConfiguration().getHttpContextConfiguration().readOnlySecurityContext());
         Assert.assertEquals(Long.MAX_VALUE, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getMaxQueryResponseRowLimit());
+        Assert.assertTrue(configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().isEnabled());
+        Assert.assertEquals(16 * Numbers.SIZE_1MB, configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().getMaxRequestSize());
         Assert.assertTrue(configuration.getCairoConfiguration().getCircuitBreakerConfiguration().isEnabled());
         Assert.assertEquals(2_000_000, configuration.getCairoConfiguration().getCircuitBreakerConfiguration().getCircuitBreakerThrottle());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getCircuitBreakerConfiguration().getBufferSize());
@@ -193,6 +200,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlHashJoinLightValueMaxPages());
         Assert.assertEquals(16 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortValuePageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlSortValueMaxPages());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlSpillEnabled());
         Assert.assertEquals(10000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
         Assert.assertTrue(configuration.getCairoConfiguration().isParallelIndexingEnabled());
         Assert.assertEquals(16 * 1024, configuration.getCairoConfiguration().getSqlJoinMetadataPageSize());
@@ -228,6 +236,7 @@ public class PropServerConfigurationTest {
 
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterPreTouchEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelGroupByEnabled());
         Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
         Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlPageFrameMinRows());
         Assert.assertEquals(4, configuration.getCairoConfiguration().getPageFrameReduceShardCount());
@@ -265,6 +274,7 @@ public class PropServerConfigurationTest {
         TestUtils.assertEquals(new File(root, "db").getAbsolutePath(), configuration.getCairoConfiguration().getRoot());
         TestUtils.assertEquals(new File(root, "conf").getAbsolutePath(), configuration.getCairoConfiguration().getConfRoot());
         TestUtils.assertEquals(new File(root, "snapshot").getAbsolutePath(), configuration.getCairoConfiguration().getSnapshotRoot());
+        TestUtils.assertEquals(new File(new File(root, "db"), ".spill").getAbsolutePath(), configuration.getCairoConfiguration().getSqlSpillRoot());
 
         Assert.assertEquals("", configuration.getCairoConfiguration().getSnapshotInstanceId());
         Assert.assertTrue(configuration.getCairoConfiguration().isSnapshotRecoveryEnabled());
@@ -279,6 +289,8 @@ public class PropServerConfigurationTest {
         // influxdb line TCP protocol
         Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().isEnabled());
         Assert.assertEquals(256, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getLimit());
+        Assert.assertFalse(configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().isIOURingEnabled());
+        Assert.assertEquals(1, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getDispatcherCount());
         Assert.assertEquals(0, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getBindIPv4Address());
         Assert.assertEquals(9009, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getBindPort());
         Assert.assertEquals(256, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getEventCapacity());
@@ -307,6 +319,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(PropServerConfiguration.COMMIT_INTERVAL_DEFAULT, configuration.getLineTcpReceiverConfiguration().getCommitIntervalDefault());
         Assert.assertEquals(PartitionBy.DAY, configuration.getLineTcpReceiverConfiguration().getDefaultPartitionBy());
         Assert.assertEquals(500, configuration.getLineTcpReceiverConfiguration().getWriterIdleTimeout());
+        Assert.assertEquals(1000, configuration.getLineTcpReceiverConfiguration().getWriterRebalanceInterval());
         Assert.assertEquals(0, configuration.getCairoConfiguration().getSampleByIndexSearchPageSize());
         Assert.assertEquals(32, configuration.getCairoConfiguration().getWriterCommandQueueCapacity());
         Assert.assertEquals(2048, configuration.getCairoConfiguration().getWriterCommandQueueSlotSize());
@@ -340,8 +353,11 @@ public class PropServerConfigurationTest {
 
         // Pg wire
         Assert.assertEquals(64, configuration.getPGWireConfiguration().getDispatcherConfiguration().getLimit());
+        Assert.assertFalse(configuration.getPGWireConfiguration().getDispatcherConfiguration().isIOURingEnabled());
+        Assert.assertEquals(1, configuration.getPGWireConfiguration().getDispatcherConfiguration().getDispatcherCount());
         Assert.assertEquals(64, configuration.getPGWireConfiguration().getDispatcherConfiguration().getTestConnectionBufferSize());
         Assert.assertEquals(2, configuration.getPGWireConfiguration().getBinParamCountCapacity());
+        Assert.assertEquals(1048576, configuration.getPGWireConfiguration().getCopyBufferSize());
         Assert.assertTrue(configuration.getPGWireConfiguration().isSelectCacheEnabled());
         Assert.assertEquals(8, configuration.getPGWireConfiguration().getSelectCacheBlockCount());
         Assert.assertEquals(8, configuration.getPGWireConfiguration().getSelectCacheRowCount());
@@ -377,6 +393,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(60_000, configuration.getCairoConfiguration().getInactiveWalWriterTTL());
         Assert.assertEquals(4096, configuration.getCairoConfiguration().getWalTxnNotificationQueueCapacity());
         Assert.assertTrue(configuration.getCairoConfiguration().isWalSupported());
+        Assert.assertTrue(configuration.getCairoConfiguration().isZoneMapEnabled());
         Assert.assertFalse(configuration.getCairoConfiguration().getWalEnabledDefault());
         Assert.assertTrue(configuration.getWalApplyPoolConfiguration().isEnabled());
         Assert.assertFalse(configuration.getWalApplyPoolConfiguration().haltOnError());
@@ -873,6 +890,9 @@ public class PropServerConfigurationTest {
             Assert.assertFalse(configuration.getHttpServerConfiguration().isQueryCacheEnabled());
             Assert.assertEquals(32, configuration.getHttpServerConfiguration().getQueryCacheBlockCount());
             Assert.assertEquals(16, configuration.getHttpServerConfiguration().getQueryCacheRowCount());
+            Assert.assertTrue(configuration.getHttpServerConfiguration().isQueryResultCacheEnabled());
+            Assert.assertEquals(32 * Numbers.SIZE_1MB, configuration.getHttpServerConfiguration().getQueryResultCacheMemoryLimit());
+            Assert.assertEquals(128 * 1024, configuration.getHttpServerConfiguration().getQueryResultCachePageSize());
 
             Assert.assertTrue(configuration.getHttpServerConfiguration().getHttpContextConfiguration().readOnlySecurityContext());
             Assert.assertEquals(50000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getMaxQueryResponseRowLimit());
@@ -977,6 +997,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1025, configuration.getCairoConfiguration().getSqlHashJoinLightValueMaxPages());
             Assert.assertEquals(4 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortValuePageSize());
             Assert.assertEquals(1028, configuration.getCairoConfiguration().getSqlSortValueMaxPages());
+            Assert.assertTrue(configuration.getCairoConfiguration().isSqlSpillEnabled());
             Assert.assertEquals(1000000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
             Assert.assertFalse(configuration.getCairoConfiguration().isParallelIndexingEnabled());
             Assert.assertEquals(8 * 1024, configuration.getCairoConfiguration().getSqlJoinMetadataPageSize());
@@ -1025,6 +1046,7 @@ public class PropServerConfigurationTest {
 
             Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
             Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterPreTouchEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelGroupByEnabled());
             Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
             Assert.assertEquals(100, configuration.getCairoConfiguration().getSqlPageFrameMinRows());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getPageFrameReduceShardCount());
@@ -1076,6 +1098,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1000, configuration.getLineTcpReceiverConfiguration().getMaintenanceInterval());
             Assert.assertEquals(PartitionBy.MONTH, configuration.getLineTcpReceiverConfiguration().getDefaultPartitionBy());
             Assert.assertEquals(5_000, configuration.getLineTcpReceiverConfiguration().getWriterIdleTimeout());
+            Assert.assertEquals(2_500, configuration.getLineTcpReceiverConfiguration().getWriterRebalanceInterval());
             Assert.assertEquals(16, configuration.getCairoConfiguration().getPartitionPurgeListCapacity());
             Assert.assertEquals(ColumnType.FLOAT, configuration.getLineTcpReceiverConfiguration().getDefaultColumnTypeForFloat());
             Assert.assertEquals(ColumnType.INT, configuration.getLineTcpReceiverConfiguration().getDefaultColumnTypeForInteger());
@@ -1102,6 +1125,7 @@ public class PropServerConfigurationTest {
 
             // Pg wire
             Assert.assertEquals(9, configuration.getPGWireConfiguration().getBinParamCountCapacity());
+            Assert.assertEquals(262144, configuration.getPGWireConfiguration().getCopyBufferSize());
             Assert.assertFalse(configuration.getPGWireConfiguration().isSelectCacheEnabled());
             Assert.assertEquals(1, configuration.getPGWireConfiguration().getSelectCacheBlockCount());
             Assert.assertEquals(2, configuration.getPGWireConfiguration().getSelectCacheRowCount());
@@ -1137,6 +1161,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(333303, configuration.getCairoConfiguration().getInactiveWalWriterTTL());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getWalTxnNotificationQueueCapacity());
             Assert.assertTrue(configuration.getCairoConfiguration().isWalSupported());
+            Assert.assertFalse(configuration.getCairoConfiguration().isZoneMapEnabled());
             Assert.assertTrue(configuration.getCairoConfiguration().getWalEnabledDefault());
             Assert.assertTrue(configuration.getWalApplyPoolConfiguration().isEnabled());
             Assert.assertTrue(configuration.getWalApplyPoolConfiguration().haltOnError());
@@ -1177,6 +1202,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(4194304, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getSndBufSize());
             Assert.assertEquals(8388608, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getRcvBufSize());
             Assert.assertTrue(configuration.getHttpServerConfiguration().getDispatcherConfiguration().getHint());
+            Assert.assertTrue(configuration.getHttpServerConfiguration().getDispatcherConfiguration().isIOURingEnabled());
+            Assert.assertEquals(4, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getDispatcherCount());
 
             Assert.assertEquals(9120, configuration.getHttpMinServerConfiguration().getDispatcherConfiguration().getBindPort());
             Assert.assertEquals(8, configuration.getHttpMinServerConfiguration().getDispatcherConfiguration().getLimit());
@@ -1193,6 +1220,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1_002, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getQueueTimeout());
             Assert.assertEquals(32768, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getRcvBufSize());
             Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getHint());
+            Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().isIOURingEnabled());
+            Assert.assertEquals(2, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getDispatcherCount());
 
             // Pg wire
             Assert.assertEquals(11, configuration.getPGWireConfiguration().getDispatcherConfiguration().getLimit());
@@ -1201,6 +1230,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(32768, configuration.getPGWireConfiguration().getDispatcherConfiguration().getRcvBufSize());
             Assert.assertEquals(32800, configuration.getPGWireConfiguration().getDispatcherConfiguration().getSndBufSize());
             Assert.assertTrue(configuration.getPGWireConfiguration().getDispatcherConfiguration().getHint());
+            Assert.assertTrue(configuration.getPGWireConfiguration().getDispatcherConfiguration().isIOURingEnabled());
+            Assert.assertEquals(3, configuration.getPGWireConfiguration().getDispatcherConfiguration().getDispatcherCount());
         }
     }
 
@@ -376,6 +376,11 @@ public abstract class AbstractCairoTest {
         node1.getConfigurationOverrides().setWalSegmentRolloverRowCount(walSegmentRolloverRowCount);
     }
 
+    @SuppressWarnings("SameParameterValue")
+    protected static void configOverrideZoneMapEnabled(Boolean zoneMapEnabled) {
+        node1.getConfigurationOverrides().setZoneMapEnabled(zoneMapEnabled);
+    }
+
     protected static void configureForBackups() throws IOException {
         backupDir = temp.newFolder().getAbsolutePath();
         backupDirTimestampFormat = new TimestampFormatCompiler().compile("ddMMMyyyy");
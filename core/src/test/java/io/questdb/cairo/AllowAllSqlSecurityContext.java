@@ -49,7 +49,11 @@ public final class AllowAllSqlSecurityContext {
                     @Nullable RecordSink partitionBySink,
                     @Nullable ColumnTypes keyTypes,
                     boolean isOrdered,
-                    boolean baseSupportsRandomAccess
+                    boolean baseSupportsRandomAccess,
+                    int framingMode,
+                    long framePreceding,
+                    boolean wholePartitionFrame,
+                    int orderByTimestampIndex
             ) {
             }
 
@@ -132,6 +136,11 @@ public final class AllowAllSqlSecurityContext {
                 return false;
             }
 
+            @Override
+            public boolean isParallelGroupByEnabled() {
+                return false;
+            }
+
             @Override
             public boolean isTimestampRequired() {
                 return false;
@@ -170,6 +179,10 @@ public final class AllowAllSqlSecurityContext {
             public void setParallelFilterEnabled(boolean parallelFilterEnabled) {
             }
 
+            @Override
+            public void setParallelGroupByEnabled(boolean parallelGroupByEnabled) {
+            }
+
             @Override
             public void setRandom(Rnd rnd) {
             }
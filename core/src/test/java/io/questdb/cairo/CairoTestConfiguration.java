@@ -341,6 +341,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return overrides.isZoneMapEnabled() != null ? overrides.isZoneMapEnabled() : super.isZoneMapEnabled();
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return overrides.mangleTableDirNames();
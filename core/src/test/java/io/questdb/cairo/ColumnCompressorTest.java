@@ -0,0 +1,185 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.MemoryCDRImpl;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ColumnCompressorTest extends AbstractCairoTest {
+    private static final FilesFacade FF = TestFilesFacadeImpl.INSTANCE;
+
+    @BeforeClass
+    public static void setUpStatic() {
+        AbstractCairoTest.setUpStatic();
+        // static initialisation of Zip allocates memory, do it outside of leak checks
+        Zip.init();
+    }
+
+    @Test
+    public void testCompressEmpty() throws Exception {
+        assertRoundTrip(0, false);
+    }
+
+    @Test
+    public void testCompressIncompressibleBlocks() throws Exception {
+        // random data is stored as is
+        final long size = ColumnCompressor.BLOCK_SIZE + 1000;
+        assertRoundTrip(size, true);
+    }
+
+    @Test
+    public void testCompressMultipleBlocks() throws Exception {
+        assertRoundTrip(3L * ColumnCompressor.BLOCK_SIZE + 12345, false);
+    }
+
+    @Test
+    public void testCompressSmall() throws Exception {
+        assertRoundTrip(17, false);
+    }
+
+    @Test
+    public void testCorruptFile() throws Exception {
+        assertMemoryLeak(() -> {
+            final long size = 2L * ColumnCompressor.BLOCK_SIZE;
+            try (Path src = new Path(); Path dst = new Path()) {
+                src.of(root).concat("x.d").$();
+                dst.of(root).concat("x.dz").$();
+                writeFile(src, size, false);
+                final long compressedSize;
+                try (ColumnCompressor compressor = new ColumnCompressor(FF)) {
+                    compressedSize = compressor.compress(src, dst, size);
+                }
+                // cut the file in the middle of the second block
+                final int fd = TableUtils.openRW(FF, dst, LOG, CairoConfiguration.O_NONE);
+                try {
+                    Assert.assertTrue(FF.truncate(fd, compressedSize - 10));
+                } finally {
+                    FF.close(fd);
+                }
+
+                try (MemoryCDRImpl mem = new MemoryCDRImpl(MemoryTag.NATIVE_DEFAULT)) {
+                    mem.of(FF, dst, 0, -1, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE, -1);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    Assert.assertTrue(e.getMessage().contains("corrupt compressed column file"));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testPartialRead() throws Exception {
+        assertMemoryLeak(() -> {
+            final long size = 2L * ColumnCompressor.BLOCK_SIZE + 100;
+            try (Path src = new Path(); Path dst = new Path()) {
+                src.of(root).concat("x.d").$();
+                dst.of(root).concat("x.dz").$();
+                writeFile(src, size, false);
+                try (ColumnCompressor compressor = new ColumnCompressor(FF)) {
+                    compressor.compress(src, dst, size);
+                }
+
+                // reader may ask for a prefix of the column, e.g. when the partition has fewer rows committed
+                final long prefix = ColumnCompressor.BLOCK_SIZE + 8;
+                try (MemoryCDRImpl mem = new MemoryCDRImpl(MemoryTag.NATIVE_DEFAULT)) {
+                    mem.of(FF, dst, 0, prefix, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE, -1);
+                    Assert.assertEquals(prefix, mem.size());
+                    for (long i = 0; i < prefix; i += 8) {
+                        Assert.assertEquals(i, mem.getLong(i));
+                    }
+                }
+            }
+        });
+    }
+
+    private static void writeFile(Path path, long size, boolean random) {
+        final long address = size > 0 ? Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT) : 0;
+        try {
+            final Rnd rnd = new Rnd();
+            for (long i = 0; i + 7 < size; i += 8) {
+                Unsafe.getUnsafe().putLong(address + i, random ? rnd.nextLong() : i);
+            }
+            for (long i = size & ~7L; i < size; i++) {
+                Unsafe.getUnsafe().putByte(address + i, (byte) i);
+            }
+            final int fd = TableUtils.openRW(FF, path, LOG, CairoConfiguration.O_NONE);
+            try {
+                Assert.assertEquals(size, FF.write(fd, address, size, 0));
+            } finally {
+                FF.close(fd);
+            }
+        } finally {
+            if (address != 0) {
+                Unsafe.free(address, size, MemoryTag.NATIVE_DEFAULT);
+            }
+        }
+    }
+
+    private void assertRoundTrip(long size, boolean random) throws Exception {
+        assertMemoryLeak(() -> {
+            try (Path src = new Path(); Path dst = new Path()) {
+                src.of(root).concat("x.d").$();
+                dst.of(root).concat("x.dz").$();
+                writeFile(src, size, random);
+
+                final long compressedSize;
+                try (ColumnCompressor compressor = new ColumnCompressor(FF)) {
+                    compressedSize = compressor.compress(src, dst, size);
+                }
+                Assert.assertEquals(compressedSize, FF.length(dst));
+                if (random) {
+                    final long blocks = (size + ColumnCompressor.BLOCK_SIZE - 1) / ColumnCompressor.BLOCK_SIZE;
+                    Assert.assertEquals(ColumnCompressor.HEADER_SIZE + blocks * ColumnCompressor.BLOCK_HEADER_SIZE + size, compressedSize);
+                } else if (size > 1024) {
+                    Assert.assertTrue(compressedSize < size / 2);
+                }
+
+                try (MemoryCDRImpl mem = new MemoryCDRImpl(MemoryTag.NATIVE_DEFAULT)) {
+                    mem.of(FF, dst, 0, -1, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE, -1);
+                    Assert.assertEquals(size, mem.size());
+                    final int srcFd = TableUtils.openRO(FF, src, LOG);
+                    final long srcAddress = size > 0 ? TableUtils.mapRO(FF, srcFd, size, MemoryTag.MMAP_DEFAULT) : 0;
+                    try {
+                        for (long i = 0; i < size; i++) {
+                            if (Unsafe.getUnsafe().getByte(srcAddress + i) != mem.getByte(i)) {
+                                Assert.fail("mismatch at offset " + i);
+                            }
+                        }
+                    } finally {
+                        if (srcAddress != 0) {
+                            FF.munmap(srcAddress, size, MemoryTag.MMAP_DEFAULT);
+                        }
+                        FF.close(srcFd);
+                    }
+                }
+            }
+        });
+    }
+}
@@ -138,6 +138,8 @@ public interface ConfigurationOverrides {
 
     Boolean isParallelFilterEnabled();
 
+    Boolean isZoneMapEnabled();
+
     boolean mangleTableDirNames();
 
     void reset();
@@ -249,4 +251,6 @@ public interface ConfigurationOverrides {
     void setWriterCommandQueueCapacity(int writerCommandQueueCapacity);
 
     void setWriterCommandQueueSlotSize(long writerCommandQueueSlotSize);
+
+    void setZoneMapEnabled(Boolean zoneMapEnabled);
 }
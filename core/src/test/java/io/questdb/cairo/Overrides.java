@@ -87,6 +87,7 @@ public class Overrides implements ConfigurationOverrides {
     private long writerAsyncCommandMaxTimeout = -1;
     private int writerCommandQueueCapacity = 4;
     private long writerCommandQueueSlotSize = 2048L;
+    private Boolean zoneMapEnabled = null;
 
     @Override
     public String getAttachableDirSuffix() {
@@ -353,6 +354,11 @@ public class Overrides implements ConfigurationOverrides {
         return parallelFilterEnabled;
     }
 
+    @Override
+    public Boolean isZoneMapEnabled() {
+        return zoneMapEnabled;
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return mangleTableDirNames;
@@ -401,6 +407,7 @@ public class Overrides implements ConfigurationOverrides {
         mangleTableDirNames = true;
         walPurgeInterval = -1;
         tableRegistryCompactionThreshold = -1;
+        zoneMapEnabled = null;
     }
 
     @Override
@@ -672,4 +679,9 @@ public class Overrides implements ConfigurationOverrides {
     public void setWriterCommandQueueSlotSize(long writerCommandQueueSlotSize) {
         this.writerCommandQueueSlotSize = writerCommandQueueSlotSize;
     }
+
+    @Override
+    public void setZoneMapEnabled(Boolean zoneMapEnabled) {
+        this.zoneMapEnabled = zoneMapEnabled;
+    }
 }
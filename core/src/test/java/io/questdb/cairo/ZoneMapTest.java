@@ -0,0 +1,206 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.str.Path;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ZoneMapTest extends AbstractGriffinTest {
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x");
+            compile("alter table x add column j int");
+            compile("alter table x add column s short");
+            compile("insert into x select 100 + x, 100.0 + x, timestamp_sequence('1970-01-05', 3600000000), 42, cast(7 as short) from long_sequence(48)");
+
+            // added columns are null (int) and 0 (short) in the older partitions
+            assertSql("select count() from x where j = 42", "count\n48\n");
+            assertSql("select count() from x where j < 0", "count\n0\n");
+            assertSql("select count() from x where s = 0", "count\n96\n");
+            assertSql("select count() from x where s = 7", "count\n48\n");
+            assertSql("select count() from x where s > 0 and i < 5", "count\n0\n");
+        });
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            configOverrideZoneMapEnabled(false);
+            createTable("x");
+            assertZoneMap("x", "1970-01-01", false);
+            assertSql("select count() from x where i < 10", "count\n9\n");
+        });
+    }
+
+    @Test
+    public void testFramesSkipped() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x");
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), engine.getTableToken("x"))) {
+                final TableReaderMetadata metadata = reader.getMetadata();
+                final IntList columnIndexes = new IntList();
+                final IntList operators = new IntList();
+                final LongList values = new LongList();
+                columnIndexes.add(metadata.getColumnIndex("i"));
+                operators.add(ZoneMapDataFrameCursorFactory.OP_LT);
+                values.add(10);
+
+                try (
+                        DataFrameCursorFactory factory = new ZoneMapDataFrameCursorFactory(
+                                configuration,
+                                new FullFwdDataFrameCursorFactory(reader.getTableToken(), metadata.getTableId(), reader.getVersion(), GenericRecordMetadata.copyOf(metadata)),
+                                columnIndexes,
+                                operators,
+                                values
+                        )
+                ) {
+                    try (DataFrameCursor cursor = factory.getCursor(sqlExecutionContext, DataFrameCursorFactory.ORDER_ASC)) {
+                        // first partition may match, the last one has no zone map
+                        Assert.assertEquals(0, cursor.next().getPartitionIndex());
+                        Assert.assertEquals(3, cursor.next().getPartitionIndex());
+                        Assert.assertNull(cursor.next());
+                        Assert.assertEquals(2, ((ZoneMapDataFrameCursor) cursor).getSkippedPartitionCount());
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testNulls() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (n int, d double, ts timestamp) timestamp(ts) partition by DAY");
+            compile("insert into x select " +
+                    "case when x > 24 then cast(x as int) else null end, " +
+                    "case when x > 24 then x * 1.5 else null end, " +
+                    "timestamp_sequence(0, 3600000000) " +
+                    "from long_sequence(96)");
+
+            assertSql("select count() from x where n > -100", "count\n72\n");
+            assertSql("select count() from x where d < 1000.0", "count\n72\n");
+            assertSql("select count() from x where n = 30 and d = 45.0", "count\n1\n");
+            assertSql("select count() from x where n = null", "count\n24\n");
+        });
+    }
+
+    @Test
+    public void testO3RefreshesZoneMap() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x");
+            // lands in the middle of the first partition, which is rewritten
+            compile("insert into x values (1000, 0.5, '1970-01-01T10:30')");
+            assertSql("select i, d, ts from x where i = 1000", "i\td\tts\n" +
+                    "1000\t0.5\t1970-01-01T10:30:00.000000Z\n");
+            // appended to the end of the second partition
+            compile("insert into x values (2000, -3.0, '1970-01-02T23:30')");
+            assertSql("select i, d, ts from x where d < 0", "i\td\tts\n" +
+                    "2000\t-3.0\t1970-01-02T23:30:00.000000Z\n");
+            assertSql("select count() from x where i >= 1000", "count\n2\n");
+        });
+    }
+
+    @Test
+    public void testPredicates() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x");
+            assertZoneMap("x", "1970-01-01", true);
+            assertZoneMap("x", "1970-01-03", true);
+            assertZoneMap("x", "1970-01-04", false);
+
+            assertSql("select count() from x where i < 10", "count\n9\n");
+            assertSql("select count() from x where 10 > i", "count\n9\n");
+            assertSql("select count() from x where i <= 24", "count\n24\n");
+            assertSql("select count() from x where i = 50", "count\n1\n");
+            assertSql("select count() from x where i >= 48 and i < 50", "count\n2\n");
+            assertSql("select count() from x where i > 95", "count\n1\n");
+            assertSql("select count() from x where i > -1", "count\n96\n");
+            assertSql("select count() from x where d > 70.5", "count\n49\n");
+            assertSql("select count() from x where d = 36.0", "count\n1\n");
+            assertSql("select count() from x where d < 0", "count\n0\n");
+            assertSql("select count() from x where i < 10 or i > 90", "count\n15\n");
+        });
+    }
+
+    @Test
+    public void testUpdateInvalidatesZoneMap() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x");
+            compile("update x set i = 1000 where i = 30");
+            assertSql("select i, ts from x where i > 999", "i\tts\n" +
+                    "1000\t1970-01-02T05:00:00.000000Z\n");
+        });
+    }
+
+    @Test
+    public void testWalTable() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (i long, d double, ts timestamp) timestamp(ts) partition by DAY WAL");
+            compile("insert into x select x, x * 1.5, timestamp_sequence(0, 3600000000) from long_sequence(48)");
+            drainWalQueue();
+            compile("insert into x select 100 + x, 1.0, timestamp_sequence('1970-01-03', 3600000000) from long_sequence(24)");
+            drainWalQueue();
+            assertZoneMap("x", "1970-01-02", true);
+
+            compile("insert into x values (500, 2.0, '1970-01-02T01:30')");
+            drainWalQueue();
+            assertSql("select count() from x where i = 500", "count\n1\n");
+            assertSql("select count() from x where i > 40", "count\n33\n");
+        });
+    }
+
+    private static void assertZoneMap(String tableName, String partitionName, boolean exists) {
+        try (
+                TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), engine.getTableToken(tableName));
+                Path path = new Path()
+        ) {
+            final TxReader txFile = reader.getTxFile();
+            for (int i = 0, n = txFile.getPartitionCount(); i < n; i++) {
+                path.of(root).concat(reader.getTableToken());
+                TableUtils.setPathForPartition(path, PartitionBy.DAY, txFile.getPartitionTimestamp(i), false);
+                if (path.toString().endsWith(partitionName)) {
+                    TableUtils.txnPartitionConditionally(path, txFile.getPartitionNameTxn(i));
+                    Assert.assertEquals(exists, configuration.getFilesFacade().exists(path.concat(TableUtils.ZONE_MAP_FILE_NAME).$()));
+                    return;
+                }
+            }
+            Assert.fail("partition not found: " + partitionName);
+        }
+    }
+
+    private static void createTable(String tableName) throws Exception {
+        compile("create table " + tableName + " as (" +
+                "select x i, x * 1.5 d, timestamp_sequence(0, 3600000000) ts " +
+                "from long_sequence(96)) timestamp(ts) partition by DAY");
+    }
+}
@@ -785,6 +785,16 @@ public class FastMapTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testMergeFixedSizeKey() throws Exception {
+        testMerge(new SingleColumnType(ColumnType.LONG), false);
+    }
+
+    @Test
+    public void testMergeVarSizeKey() throws Exception {
+        testMerge(new SingleColumnType(ColumnType.STRING), true);
+    }
+
     @Test
     public void testNoValueColumns() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -1073,6 +1083,14 @@ public class FastMapTest extends AbstractCairoTest {
         });
     }
 
+    private static void putMergeKey(MapKey key, boolean varSizeKey, long k) {
+        if (varSizeKey) {
+            key.putStr("k" + k);
+        } else {
+            key.putLong(k);
+        }
+    }
+
     private void assertCursor2(Rnd rnd, TestRecord.ArrayBinarySequence binarySequence, int keyColumnOffset, Rnd rnd2, RecordCursor mapCursor) {
         long c = 0;
         rnd.reset();
@@ -1481,6 +1499,50 @@ public class FastMapTest extends AbstractCairoTest {
         });
     }
 
+    private void testMerge(ColumnTypes keyTypes, boolean varSizeKey) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final SingleColumnType valueTypes = new SingleColumnType(ColumnType.LONG);
+            // small capacities make both maps resize and rehash while merging
+            try (
+                    FastMap mapA = new FastMap(64, keyTypes, valueTypes, 16, 0.5, Integer.MAX_VALUE);
+                    FastMap mapB = new FastMap(64, keyTypes, valueTypes, 16, 0.5, Integer.MAX_VALUE)
+            ) {
+                // keys [0, 1000) go to mapA and keys [500, 1500) go to mapB, values are equal to keys
+                final int N = 1000;
+                for (int i = 0; i < N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    putMergeKey(keyA, varSizeKey, i);
+                    keyA.createValue().putLong(0, i);
+
+                    MapKey keyB = mapB.withKey();
+                    putMergeKey(keyB, varSizeKey, i + N / 2);
+                    keyB.createValue().putLong(0, i + N / 2);
+                }
+
+                mapA.merge(mapB, (destValue, srcValue) -> destValue.addLong(0, srcValue.getLong(0)));
+
+                Assert.assertEquals(N + N / 2, mapA.size());
+                for (int i = 0; i < N + N / 2; i++) {
+                    MapKey key = mapA.withKey();
+                    putMergeKey(key, varSizeKey, i);
+                    MapValue value = key.findValue();
+                    Assert.assertNotNull(value);
+                    final boolean overlap = i >= N / 2 && i < N;
+                    Assert.assertEquals(overlap ? 2L * i : i, value.getLong(0));
+                }
+
+                // merged entries must be reachable through the cursor too
+                long count = 0;
+                try (RecordCursor cursor = mapA.getCursor()) {
+                    while (cursor.hasNext()) {
+                        count++;
+                    }
+                }
+                Assert.assertEquals(N + N / 2, count);
+            }
+        });
+    }
+
     private void testUnsupportedValueType() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
             try (FastMap ignore = new FastMap(Numbers.SIZE_1MB, new SingleColumnType(ColumnType.LONG), new SingleColumnType(ColumnType.BINARY), 64, 0.5, 1)) {
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.ObjList;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MatViewTest extends AbstractGriffinTest {
+    private static final String VIEW_QUERY = "select sym, first(price) open, max(price) high, min(price) low, last(price) close, ts from trades sample by 1h align to calendar";
+
+    @Test
+    public void testBaseTableMustBeWal() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table trades (sym symbol, price double, ts timestamp) timestamp(ts) partition by DAY bypass wal");
+            assertFailure(
+                    "create materialized view trades_1h as (" + VIEW_QUERY + ")",
+                    "materialized view base table must be a WAL table"
+            );
+        });
+    }
+
+    @Test
+    public void testCreatePopulatesView() throws Exception {
+        assertMemoryLeak(() -> {
+            createTrades();
+            executeInsert("insert into trades values ('a', 1, '2023-01-01T10:00'), ('a', 3, '2023-01-01T10:30'), ('b', 2, '2023-01-01T11:15')");
+            drainWalQueue();
+
+            compile("create materialized view trades_1h as (" + VIEW_QUERY + ") partition by day");
+
+            assertSql("trades_1h", "sym\topen\thigh\tlow\tclose\tts\n" +
+                    "a\t1.0\t3.0\t1.0\t3.0\t2023-01-01T10:00:00.000000Z\n" +
+                    "b\t2.0\t2.0\t2.0\t2.0\t2023-01-01T11:00:00.000000Z\n");
+            Assert.assertFalse(engine.isWalTable(engine.getTableToken("trades_1h")));
+        });
+    }
+
+    @Test
+    public void testDroppedViewIsUnregistered() throws Exception {
+        assertMemoryLeak(() -> {
+            createTrades();
+            compile("create materialized view trades_1h as (" + VIEW_QUERY + ")");
+            Assert.assertTrue(engine.getMatViewGraph().hasViews("trades"));
+
+            compile("drop table trades_1h");
+            executeInsert("insert into trades values ('a', 1, '2023-01-01T10:00')");
+            drainWalQueue();
+
+            Assert.assertFalse(engine.getMatViewGraph().hasViews("trades"));
+            assertSql("trades", "sym\tprice\tts\n" +
+                    "a\t1.0\t2023-01-01T10:00:00.000000Z\n");
+        });
+    }
+
+    @Test
+    public void testIncrementalRefresh() throws Exception {
+        assertMemoryLeak(() -> {
+            createTrades();
+            executeInsert("insert into trades values ('a', 1, '2023-01-01T10:00'), ('b', 2, '2023-01-01T11:15'), ('a', 5, '2023-01-02T09:00')");
+            drainWalQueue();
+            compile("create materialized view trades_1h as (" + VIEW_QUERY + ") partition by day");
+
+            // late row updates an existing bucket, the other buckets of the day are preserved
+            executeInsert("insert into trades values ('a', 7, '2023-01-01T10:45')");
+            drainWalQueue();
+            assertSql("trades_1h", "sym\topen\thigh\tlow\tclose\tts\n" +
+                    "a\t1.0\t7.0\t1.0\t7.0\t2023-01-01T10:00:00.000000Z\n" +
+                    "b\t2.0\t2.0\t2.0\t2.0\t2023-01-01T11:00:00.000000Z\n" +
+                    "a\t5.0\t5.0\t5.0\t5.0\t2023-01-02T09:00:00.000000Z\n");
+
+            // new buckets, including a new partition
+            executeInsert("insert into trades values ('b', 4, '2023-01-02T09:10'), ('a', 6, '2023-01-03T00:05')");
+            executeInsert("insert into trades values ('a', 2, '2023-01-02T09:20')");
+            drainWalQueue();
+            assertSql("trades_1h", "sym\topen\thigh\tlow\tclose\tts\n" +
+                    "a\t1.0\t7.0\t1.0\t7.0\t2023-01-01T10:00:00.000000Z\n" +
+                    "b\t2.0\t2.0\t2.0\t2.0\t2023-01-01T11:00:00.000000Z\n" +
+                    "a\t5.0\t5.0\t2.0\t2.0\t2023-01-02T09:00:00.000000Z\n" +
+                    "b\t4.0\t4.0\t4.0\t4.0\t2023-01-02T09:00:00.000000Z\n" +
+                    "a\t6.0\t6.0\t6.0\t6.0\t2023-01-03T00:00:00.000000Z\n");
+
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, VIEW_QUERY, "trades_1h", LOG, true);
+        });
+    }
+
+    @Test
+    public void testInvalidQueries() throws Exception {
+        assertMemoryLeak(() -> {
+            createTrades();
+            compile("create table other (sym symbol, ts timestamp) timestamp(ts) partition by DAY wal");
+            assertFailure(
+                    "create materialized view v as (select sym, last(price), ts from trades)",
+                    "materialized view query must use SAMPLE BY"
+            );
+            assertFailure(
+                    "create materialized view v as (select sym, last(price), ts from trades sample by 1h)",
+                    "materialized view query must be ALIGN TO CALENDAR"
+            );
+            assertFailure(
+                    "create materialized view v as (select sym, last(price), ts from trades sample by 1h fill(prev) align to calendar)",
+                    "FILL is not supported in materialized view"
+            );
+            assertFailure(
+                    "create materialized view v as (select sym, last(price), ts from trades sample by 1h align to calendar time zone 'Europe/London')",
+                    "time zone and offset are not supported in materialized view"
+            );
+            assertFailure(
+                    "create materialized view v as (select t.sym, last(price), t.ts from trades t join other o on sym sample by 1h align to calendar)",
+                    "materialized view query must select from a single table"
+            );
+            assertFailure(
+                    "create materialized view v as (" + VIEW_QUERY + ") partition by none",
+                    "'HOUR', 'DAY', 'WEEK', 'MONTH' or 'YEAR' expected"
+            );
+            Assert.assertNull(engine.getTableTokenIfExists("v"));
+        });
+    }
+
+    @Test
+    public void testRefreshQueryUsesInterval() throws Exception {
+        assertMemoryLeak(() -> {
+            createTrades();
+            compile("create materialized view trades_1h as (" + VIEW_QUERY + ")");
+
+            final ObjList<MatViewDefinition> views = new ObjList<>();
+            engine.getMatViewGraph().getViews("trades", views);
+            Assert.assertEquals(1, views.size());
+            Assert.assertEquals("1h", views.getQuick(0).getSamplingInterval());
+            Assert.assertEquals(VIEW_QUERY, views.getQuick(0).getViewSql());
+
+            sink.clear();
+            try (
+                    RecordCursorFactory factory = compiler.compile("explain " + views.getQuick(0).getRefreshSql(), sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                while (cursor.hasNext()) {
+                    sink.put(cursor.getRecord().getStr(0)).put('\n');
+                }
+            }
+            TestUtils.assertContains(sink, "Interval forward scan on: trades");
+        });
+    }
+
+    @Test
+    public void testViewIsReloaded() throws Exception {
+        assertMemoryLeak(() -> {
+            createTrades();
+            compile("create materialized view trades_1h as (" + VIEW_QUERY + ")");
+
+            engine.getMatViewGraph().clear();
+            engine.reloadTableNames();
+            Assert.assertTrue(engine.getMatViewGraph().hasViews("trades"));
+
+            executeInsert("insert into trades values ('a', 1, '2023-01-01T10:00')");
+            drainWalQueue();
+            assertSql("trades_1h", "sym\topen\thigh\tlow\tclose\tts\n" +
+                    "a\t1.0\t1.0\t1.0\t1.0\t2023-01-01T10:00:00.000000Z\n");
+        });
+    }
+
+    private static void createTrades() throws SqlException {
+        compile("create table trades (sym symbol, price double, ts timestamp) timestamp(ts) partition by DAY wal");
+    }
+
+    private void assertFailure(String sql, String expectedMessage) {
+        try {
+            compile(sql);
+            Assert.fail();
+        } catch (SqlException e) {
+            TestUtils.assertContains(e.getFlyweightMessage(), expectedMessage);
+        }
+    }
+}
@@ -95,6 +95,19 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testAsyncDoubleSet() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder().enableAsync();
+            try {
+                builder.enableAsync();
+                fail("should not allow double async set");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "already enabled");
+            }
+        });
+    }
+
     @Test
     public void testAuthDoubleSet() throws Exception {
         assertMemoryLeak(() -> {
@@ -136,6 +149,32 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testAutoFlushBytesNotSmallerThanBuffer() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder().address(LOCALHOST).bufferCapacity(1024).autoFlushBytes(1024);
+            try {
+                builder.build();
+                fail("auto-flush bytes must be smaller than buffer capacity");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "must be smaller than buffer capacity");
+            }
+        });
+    }
+
+    @Test
+    public void testAutoFlushRowsNegative() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder();
+            try {
+                builder.autoFlushRows(-1);
+                fail("negative auto-flush rows should fail");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "cannot be negative");
+            }
+        });
+    }
+
     @Test
     public void testBufferSizeDoubleSet() throws Exception {
         assertMemoryLeak(() -> {
@@ -160,6 +199,40 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testConnectPlainAsync() throws Exception {
+        runInContext(r -> {
+            try (Sender sender = Sender.builder()
+                    .address(LOCALHOST)
+                    .port(bindPort)
+                    .enableAsync()
+                    .bufferCapacity(1024)
+                    .autoFlushRows(10)
+                    .build()) {
+                for (int i = 0; i < 1000; i++) {
+                    sender.table("mytable").symbol("symbol", "symbol").longColumn("value", i).atNow();
+                }
+            }
+            assertTableSizeEventually(engine, "mytable", 1000);
+        });
+    }
+
+    @Test
+    public void testConnectPlainAsyncAuthWithTokenSuccess() throws Exception {
+        authKeyId = AUTH_KEY_ID1;
+        runInContext(r -> {
+            try (Sender sender = Sender.builder()
+                    .address(LOCALHOST)
+                    .port(bindPort)
+                    .enableAsync()
+                    .enableAuth(AUTH_KEY_ID1).authToken(AUTH_TOKEN_KEY1)
+                    .build()) {
+                sender.table("mytable").symbol("symbol", "symbol").atNow();
+            }
+            assertTableSizeEventually(engine, "mytable", 1);
+        });
+    }
+
     @Test
     public void testConnectPlainAuthWithPrivKeySuccess() throws Exception {
         authKeyId = AUTH_KEY_ID1;
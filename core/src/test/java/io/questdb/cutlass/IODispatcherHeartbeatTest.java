@@ -31,6 +31,7 @@ import io.questdb.std.*;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.Timeout;
@@ -53,7 +54,69 @@ public class IODispatcherHeartbeatTest {
     @Test
     public void testHeartbeatIntervals() throws Exception {
         LOG.info().$("started testHeartbeatIntervals").$();
+        assertHeartbeatIntervals(false);
+    }
+
+    @Test
+    public void testHeartbeatIntervalsIOURing() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        LOG.info().$("started testHeartbeatIntervalsIOURing").$();
+        assertHeartbeatIntervals(true);
+    }
+
+    @Test
+    public void testHeartbeatsDoNotPreventIdleDisconnects() throws Exception {
+        LOG.info().$("started testHeartbeatsDoNotPreventIdleDisconnects").$();
+        assertHeartbeatsDoNotPreventIdleDisconnects(false);
+    }
+
+    @Test
+    public void testHeartbeatsDoNotPreventIdleDisconnectsIOURing() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        LOG.info().$("started testHeartbeatsDoNotPreventIdleDisconnectsIOURing").$();
+        assertHeartbeatsDoNotPreventIdleDisconnects(true);
+    }
+
+    @Test
+    public void testHeartbeatsDoNotPreventSuspendEventDeadlines() throws Exception {
+        LOG.info().$("started testHeartbeatsDoNotPreventSuspendEventDeadlines").$();
+        assertHeartbeatsDoNotPreventSuspendEventDeadlines(false);
+    }
 
+    @Test
+    public void testHeartbeatsDoNotPreventSuspendEventDeadlinesIOURing() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        LOG.info().$("started testHeartbeatsDoNotPreventSuspendEventDeadlinesIOURing").$();
+        assertHeartbeatsDoNotPreventSuspendEventDeadlines(true);
+    }
+
+    @Test
+    public void testSuspendEventDoesNotPreventHeartbeats() throws Exception {
+        LOG.info().$("started testSuspendEventDoesNotPreventHeartbeats").$();
+        assertSuspendEventDoesNotPreventHeartbeats(false);
+    }
+
+    @Test
+    public void testSuspendEventDoesNotPreventHeartbeatsIOURing() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        LOG.info().$("started testSuspendEventDoesNotPreventHeartbeatsIOURing").$();
+        assertSuspendEventDoesNotPreventHeartbeats(true);
+    }
+
+    @Test
+    public void testSuspendEventDoesNotPreventIdleDisconnects() throws Exception {
+        LOG.info().$("started testSuspendEventDoesNotPreventIdleDisconnects").$();
+        assertSuspendEventDoesNotPreventIdleDisconnects(false);
+    }
+
+    @Test
+    public void testSuspendEventDoesNotPreventIdleDisconnectsIOURing() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        LOG.info().$("started testSuspendEventDoesNotPreventIdleDisconnectsIOURing").$();
+        assertSuspendEventDoesNotPreventIdleDisconnects(true);
+    }
+
+    private void assertHeartbeatIntervals(boolean ioURing) throws Exception {
         final long heartbeatInterval = 5;
         final long tickCount = 1000;
         final long pingRndEveryN = 3;
@@ -73,6 +136,11 @@ public class IODispatcherHeartbeatTest {
                         public long getHeartbeatInterval() {
                             return heartbeatInterval;
                         }
+
+                        @Override
+                        public boolean isIOURingEnabled() {
+                            return ioURing;
+                        }
                     },
                     (fd, d) -> {
                         connected.incrementAndGet();
@@ -123,10 +191,7 @@ public class IODispatcherHeartbeatTest {
         });
     }
 
-    @Test
-    public void testHeartbeatsDoNotPreventIdleDisconnects() throws Exception {
-        LOG.info().$("started testHeartbeatsDoNotPreventIdleDisconnects").$();
-
+    private void assertHeartbeatsDoNotPreventIdleDisconnects(boolean ioURing) throws Exception {
         final long heartbeatInterval = 5;
         final long heartbeatToIdleRatio = 10;
         // the extra ticks are required to detect idle connections and close them
@@ -148,6 +213,11 @@ public class IODispatcherHeartbeatTest {
                             return heartbeatInterval;
                         }
 
+                        @Override
+                        public boolean isIOURingEnabled() {
+                            return ioURing;
+                        }
+
                         @Override
                         public long getTimeout() {
                             return heartbeatToIdleRatio * heartbeatInterval;
@@ -202,10 +272,7 @@ public class IODispatcherHeartbeatTest {
         });
     }
 
-    @Test
-    public void testHeartbeatsDoNotPreventSuspendEventDeadlines() throws Exception {
-        LOG.info().$("started testHeartbeatsDoNotPreventSuspendEventDeadlines").$();
-
+    private void assertHeartbeatsDoNotPreventSuspendEventDeadlines(boolean ioURing) throws Exception {
         final long heartbeatInterval = 5;
         final long suspendEventDeadline = 10 * heartbeatInterval;
         // the extra ticks are required to detect suspend event deadline
@@ -224,6 +291,11 @@ public class IODispatcherHeartbeatTest {
                 public long getHeartbeatInterval() {
                     return heartbeatInterval;
                 }
+
+                @Override
+                public boolean isIOURingEnabled() {
+                    return ioURing;
+                }
             };
             try (IODispatcher<TestContext> dispatcher = IODispatchers.create(
                     ioDispatcherConfig,
@@ -274,10 +346,7 @@ public class IODispatcherHeartbeatTest {
         });
     }
 
-    @Test
-    public void testSuspendEventDoesNotPreventHeartbeats() throws Exception {
-        LOG.info().$("started testSuspendEventDoesNotPreventHeartbeats").$();
-
+    private void assertSuspendEventDoesNotPreventHeartbeats(boolean ioURing) throws Exception {
         final long heartbeatInterval = 5;
         final long tickCount = 1000;
         AtomicInteger connected = new AtomicInteger();
@@ -294,6 +363,11 @@ public class IODispatcherHeartbeatTest {
                 public long getHeartbeatInterval() {
                     return heartbeatInterval;
                 }
+
+                @Override
+                public boolean isIOURingEnabled() {
+                    return ioURing;
+                }
             };
             try (IODispatcher<TestContext> dispatcher = IODispatchers.create(
                     ioDispatcherConfig,
@@ -348,10 +422,7 @@ public class IODispatcherHeartbeatTest {
         });
     }
 
-    @Test
-    public void testSuspendEventDoesNotPreventIdleDisconnects() throws Exception {
-        LOG.info().$("started testSuspendEventDoesNotPreventIdleDisconnects").$();
-
+    private void assertSuspendEventDoesNotPreventIdleDisconnects(boolean ioURing) throws Exception {
         final long heartbeatInterval = 5;
         final long heartbeatToIdleRatio = 10;
         // the extra ticks are required to detect idle connection and close it
@@ -371,6 +442,11 @@ public class IODispatcherHeartbeatTest {
                     return heartbeatInterval;
                 }
 
+                @Override
+                public boolean isIOURingEnabled() {
+                    return ioURing;
+                }
+
                 @Override
                 public long getTimeout() {
                     return heartbeatToIdleRatio * heartbeatInterval;
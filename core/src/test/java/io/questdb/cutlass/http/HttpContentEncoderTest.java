@@ -0,0 +1,121 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http;
+
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Rnd;
+import io.questdb.std.Unsafe;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+public class HttpContentEncoderTest {
+
+    @Test
+    public void testDeflate() throws IOException {
+        try (DeflateContentEncoder encoder = new DeflateContentEncoder()) {
+            Assert.assertEquals("deflate", encoder.getContentEncoding().toString());
+            // encoder is reused between requests
+            for (int i = 0; i < 3; i++) {
+                byte[] expected = randomText(new Rnd(i, i), 100_000 * i);
+                byte[] encoded = encode(encoder, expected);
+                Assert.assertArrayEquals(expected, readAll(new InflaterInputStream(new ByteArrayInputStream(encoded))));
+                encoder.clear();
+            }
+        }
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        try (GzipContentEncoder encoder = new GzipContentEncoder()) {
+            Assert.assertEquals("gzip", encoder.getContentEncoding().toString());
+            // encoder is reused between requests
+            for (int i = 0; i < 3; i++) {
+                byte[] expected = randomText(new Rnd(i, i), 100_000 * i);
+                byte[] encoded = encode(encoder, expected);
+                Assert.assertArrayEquals(expected, readAll(new GZIPInputStream(new ByteArrayInputStream(encoded))));
+                encoder.clear();
+            }
+        }
+    }
+
+    private static byte[] encode(HttpContentEncoder encoder, byte[] input) {
+        // buffers are deliberately small to exercise partial input consumption
+        final int inSize = 4096;
+        final int outSize = 1024;
+        final long in = Unsafe.malloc(inSize, MemoryTag.NATIVE_DEFAULT);
+        final long out = Unsafe.malloc(outSize, MemoryTag.NATIVE_DEFAULT);
+        try {
+            ByteArrayOutputStream sink = new ByteArrayOutputStream();
+            int pos = 0;
+            while (!encoder.isFinished()) {
+                final int len = Math.min(inSize, input.length - pos);
+                for (int i = 0; i < len; i++) {
+                    Unsafe.getUnsafe().putByte(in + i, input[pos + i]);
+                }
+                pos += len;
+                encoder.setInput(in, len);
+                do {
+                    final int n = encoder.encode(out, outSize, pos == input.length);
+                    for (int i = 0; i < n; i++) {
+                        sink.write(Unsafe.getUnsafe().getByte(out + i));
+                    }
+                } while (encoder.getAvailableInput() > 0 || (pos == input.length && !encoder.isFinished()));
+            }
+            return sink.toByteArray();
+        } finally {
+            Unsafe.free(in, inSize, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(out, outSize, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    private static byte[] randomText(Rnd rnd, int len) {
+        byte[] bytes = new byte[len];
+        for (int i = 0; i < len; i++) {
+            // narrow alphabet keeps the data compressible
+            bytes[i] = (byte) ('a' + rnd.nextPositiveInt() % 8);
+        }
+        return bytes;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = stream.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http;
+
+import io.questdb.Metrics;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+public class HttpQueryResultCacheTest {
+
+    private static final String QUERY = "select sym, sum(v) s from x order by sym";
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    @Rule
+    public Timeout timeout = Timeout.builder()
+            .withTimeout(10 * 60 * 1000, TimeUnit.MILLISECONDS)
+            .withLookingForStuckThread(true)
+            .build();
+
+    @Test
+    public void testCacheDisabled() throws Exception {
+        final Metrics metrics = Metrics.enabled();
+        testQueryResultCache(false, -1, metrics, (compiler, executionContext) -> {
+            createTable(compiler, executionContext);
+            assertQuery("[[\"a\",3],[\"b\",3]]");
+            assertQuery("[[\"a\",3],[\"b\",3]]");
+
+            Assert.assertEquals(0, metrics.jsonQuery().resultCacheHitCount());
+            Assert.assertEquals(0, metrics.jsonQuery().resultCacheMissCount());
+        });
+    }
+
+    @Test
+    public void testEvictionByMemoryLimit() throws Exception {
+        final Metrics metrics = Metrics.enabled();
+        // a single cache page, so that the cache holds one result at a time
+        testQueryResultCache(true, 64 * 1024, metrics, (compiler, executionContext) -> {
+            createTable(compiler, executionContext);
+            assertQuery("[[\"a\",3],[\"b\",3]]");
+            Assert.assertEquals(64 * 1024, metrics.jsonQuery().resultCacheMemoryGauge().getValue());
+
+            assertQuery("select count() from x", "count", "LONG", "[[3]]");
+            Assert.assertEquals(64 * 1024, metrics.jsonQuery().resultCacheMemoryGauge().getValue());
+
+            // first query has been evicted
+            assertQuery("[[\"a\",3],[\"b\",3]]");
+            Assert.assertEquals(0, metrics.jsonQuery().resultCacheHitCount());
+            Assert.assertEquals(3, metrics.jsonQuery().resultCacheMissCount());
+        });
+    }
+
+    @Test
+    public void testNonDeterministicQueryIsNotCached() throws Exception {
+        final Metrics metrics = Metrics.enabled();
+        testQueryResultCache(true, -1, metrics, (compiler, executionContext) -> {
+            createTable(compiler, executionContext);
+            final String query = "select count() from x where ts < now()";
+            assertQuery(query, "count", "LONG", "[[3]]");
+            assertQuery(query, "count", "LONG", "[[3]]");
+
+            Assert.assertEquals(0, metrics.jsonQuery().resultCacheHitCount());
+            Assert.assertEquals(2, metrics.jsonQuery().resultCacheMissCount());
+            Assert.assertEquals(0, metrics.jsonQuery().resultCacheMemoryGauge().getValue());
+        });
+    }
+
+    @Test
+    public void testResultInvalidatedOnCommit() throws Exception {
+        final Metrics metrics = Metrics.enabled();
+        testQueryResultCache(true, -1, metrics, (compiler, executionContext) -> {
+            createTable(compiler, executionContext);
+            assertQuery("[[\"a\",3],[\"b\",3]]");
+            Assert.assertEquals(0, metrics.jsonQuery().resultCacheHitCount());
+            Assert.assertEquals(1, metrics.jsonQuery().resultCacheMissCount());
+
+            assertQuery("[[\"a\",3],[\"b\",3]]");
+            assertQuery("[[\"a\",3],[\"b\",3]]");
+            Assert.assertEquals(2, metrics.jsonQuery().resultCacheHitCount());
+            Assert.assertEquals(1, metrics.jsonQuery().resultCacheMissCount());
+
+            TestUtils.insert(compiler, executionContext, "insert into x values ('b', 10, '1970-01-02')");
+            assertQuery("[[\"a\",3],[\"b\",13]]");
+            Assert.assertEquals(2, metrics.jsonQuery().resultCacheHitCount());
+            Assert.assertEquals(2, metrics.jsonQuery().resultCacheMissCount());
+
+            assertQuery("[[\"a\",3],[\"b\",13]]");
+            Assert.assertEquals(3, metrics.jsonQuery().resultCacheHitCount());
+            Assert.assertEquals(2, metrics.jsonQuery().resultCacheMissCount());
+        });
+    }
+
+    private static void assertQuery(String expectedDataset) throws InterruptedException {
+        assertQuery(
+                QUERY,
+                "{\"name\":\"sym\",\"type\":\"SYMBOL\"},{\"name\":\"s\",\"type\":\"LONG\"}",
+                expectedDataset
+        );
+    }
+
+    private static void assertQuery(String query, String columnName, String columnType, String expectedDataset) throws InterruptedException {
+        assertQuery(query, "{\"name\":\"" + columnName + "\",\"type\":\"" + columnType + "\"}", expectedDataset);
+    }
+
+    private static void assertQuery(String query, String expectedColumns, String expectedDataset) throws InterruptedException {
+        final String body = "{\"query\":\"" + query + "\",\"columns\":[" + expectedColumns + "],\"dataset\":" + expectedDataset
+                + ",\"timestamp\":-1,\"count\":" + countRows(expectedDataset) + "}";
+        final StringSink chunkSize = new StringSink();
+        final int len = body.getBytes(StandardCharsets.UTF_8).length;
+        chunkSize.put(Integer.toHexString(len));
+        if ((chunkSize.length() & 1) == 1) {
+            chunkSize.clear();
+            chunkSize.put('0').put(Integer.toHexString(len));
+        }
+        new SendAndReceiveRequestBuilder()
+                .withNetworkFacade(NetworkFacadeImpl.INSTANCE)
+                .execute(
+                        "GET /query?query=" + HttpUtils.urlEncodeQuery(query) + "&count=true HTTP/1.1\r\n" +
+                                "Host: localhost:9000\r\n" +
+                                "Connection: keep-alive\r\n" +
+                                "Accept: */*\r\n" +
+                                "\r\n",
+                        "HTTP/1.1 200 OK\r\n" +
+                                "Server: questDB/1.0\r\n" +
+                                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                "Transfer-Encoding: chunked\r\n" +
+                                "Content-Type: application/json; charset=utf-8\r\n" +
+                                "Keep-Alive: timeout=5, max=10000\r\n" +
+                                "\r\n" +
+                                chunkSize + "\r\n" +
+                                body + "\r\n" +
+                                "00\r\n" +
+                                "\r\n"
+                );
+    }
+
+    private static int countRows(String dataset) {
+        int count = 0;
+        for (int i = 1, n = dataset.length(); i < n; i++) {
+            if (dataset.charAt(i) == '[') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void createTable(SqlCompiler compiler, SqlExecutionContextImpl executionContext) throws SqlException {
+        compiler.compile("create table x (sym symbol, v long, ts timestamp) timestamp(ts) partition by day", executionContext);
+        TestUtils.insert(compiler, executionContext, "insert into x values ('a', 3, '1970-01-01'), ('b', 1, '1970-01-01'), ('b', 2, '1970-01-01')");
+    }
+
+    private void testQueryResultCache(boolean enabled, long memoryLimit, Metrics metrics, ResultCacheCode code) throws Exception {
+        new HttpQueryTestBuilder()
+                .withWorkerCount(1)
+                .withTempFolder(temp)
+                .withHttpServerConfigBuilder(new HttpServerConfigurationBuilder().withQueryResultCache(enabled, memoryLimit))
+                .withMetrics(metrics)
+                .run(engine -> {
+                    try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                        final SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1)
+                                .with(AllowAllCairoSecurityContext.INSTANCE, null, null);
+                        code.run(compiler, executionContext);
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ResultCacheCode {
+        void run(SqlCompiler compiler, SqlExecutionContextImpl executionContext) throws InterruptedException, SqlException;
+    }
+}
@@ -229,6 +229,18 @@ public class HttpQueryTestBuilder {
                     }
                 });
 
+                httpServer.bind(new HttpRequestProcessorFactory() {
+                    @Override
+                    public String getUrl() {
+                        return "/write";
+                    }
+
+                    @Override
+                    public HttpRequestProcessor newInstance() {
+                        return new LineHttpProcessor(engine, httpConfiguration.getLineHttpProcessorConfiguration());
+                    }
+                });
+
                 httpServer.bind(new HttpRequestProcessorFactory() {
                     @Override
                     public String getUrl() {
@@ -242,6 +254,7 @@ public class HttpQueryTestBuilder {
                 });
 
                 QueryCache.configure(httpConfiguration, metrics);
+                QueryResultCache.configure(httpConfiguration, metrics);
 
                 workerPool.start(LOG);
 
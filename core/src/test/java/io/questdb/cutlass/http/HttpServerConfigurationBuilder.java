@@ -44,6 +44,8 @@ public class HttpServerConfigurationBuilder {
     private String httpProtocolVersion = "HTTP/1.1 ";
     private long multipartIdleSpinCount = -1;
     private NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
+    private boolean queryResultCacheEnabled;
+    private long queryResultCacheMemoryLimit = -1;
     private int receiveBufferSize = 1024 * 1024;
     private int rerunProcessingQueueSize = 4096;
     private int sendBufferSize = 1024 * 1024;
@@ -183,6 +185,12 @@ public class HttpServerConfigurationBuilder {
                 return jsonQueryProcessorConfiguration;
             }
 
+            @Override
+            public long getQueryResultCacheMemoryLimit() {
+                if (queryResultCacheMemoryLimit < 0) return super.getQueryResultCacheMemoryLimit();
+                return queryResultCacheMemoryLimit;
+            }
+
             @Override
             public StaticContentProcessorConfiguration getStaticContentProcessorConfiguration() {
                 return staticContentProcessorConfiguration;
@@ -217,6 +225,11 @@ public class HttpServerConfigurationBuilder {
                     }
                 };
             }
+
+            @Override
+            public boolean isQueryResultCacheEnabled() {
+                return queryResultCacheEnabled;
+            }
         };
     }
 
@@ -255,6 +268,12 @@ public class HttpServerConfigurationBuilder {
         return this;
     }
 
+    public HttpServerConfigurationBuilder withQueryResultCache(boolean enabled, long memoryLimit) {
+        this.queryResultCacheEnabled = enabled;
+        this.queryResultCacheMemoryLimit = memoryLimit;
+        return this;
+    }
+
     public HttpServerConfigurationBuilder withReceiveBufferSize(int receiveBufferSize) {
         this.receiveBufferSize = receiveBufferSize;
         return this;
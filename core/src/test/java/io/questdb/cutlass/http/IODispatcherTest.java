@@ -313,101 +313,30 @@ public class IODispatcherTest {
 
     @Test
     public void testConnectDisconnect() throws Exception {
-
         LOG.info().$("started testConnectDisconnect").$();
+        testConnectDisconnect(new DefaultIODispatcherConfiguration());
+    }
 
-        assertMemoryLeak(() -> {
-            HttpServerConfiguration httpServerConfiguration = new DefaultHttpServerConfiguration();
-
-            SOCountDownLatch connectLatch = new SOCountDownLatch(1);
-            SOCountDownLatch contextClosedLatch = new SOCountDownLatch(1);
-            AtomicInteger closeCount = new AtomicInteger(0);
-
-            try (IODispatcher<HttpConnectionContext> dispatcher = IODispatchers.create(
-                    new DefaultIODispatcherConfiguration(),
-                    new IOContextFactory<HttpConnectionContext>() {
-                        @Override
-                        public HttpConnectionContext newInstance(int fd, IODispatcher<HttpConnectionContext> dispatcher1) {
-                            connectLatch.countDown();
-                            return new HttpConnectionContext(httpServerConfiguration.getHttpContextConfiguration(), metrics) {
-                                @Override
-                                public void close() {
-                                    // it is possible that context is closed twice in error
-                                    // when crashes occur put debug line here to see how many times
-                                    // context is closed
-                                    if (closeCount.incrementAndGet() == 1) {
-                                        super.close();
-                                        contextClosedLatch.countDown();
-                                    }
-                                }
-                            }.of(fd, dispatcher1);
-                        }
-                    }
-            )) {
-                HttpRequestProcessorSelector selector = new HttpRequestProcessorSelector() {
-
-                    @Override
-                    public void close() {
-                    }
-
-                    @Override
-                    public HttpRequestProcessor getDefaultProcessor() {
-                        return new HttpRequestProcessor() {
-                        };
-                    }
-
-                    @Override
-                    public HttpRequestProcessor select(CharSequence url) {
-                        return null;
-                    }
-                };
-
-                AtomicBoolean serverRunning = new AtomicBoolean(true);
-                SOCountDownLatch serverHaltLatch = new SOCountDownLatch(1);
-
-                new Thread(() -> {
-                    try {
-                        while (serverRunning.get()) {
-                            dispatcher.run(0);
-                            dispatcher.processIOQueue(
-                                    (operation, context) -> context.handleClientOperation(operation, selector, EmptyRescheduleContext)
-                            );
-                        }
-                    } finally {
-                        serverHaltLatch.countDown();
-                    }
-                }).start();
-
-                int fd = Net.socketTcp(true);
-                try {
-                    long sockAddr = Net.sockaddr("127.0.0.1", 9001);
-                    try {
-                        try {
-                            TestUtils.assertConnect(fd, sockAddr);
-
-                            connectLatch.await();
-
-                            Assert.assertEquals(0, Net.close(fd));
-                            LOG.info().$("closed [fd=").$(fd).$(']').$();
-                            fd = -1;
-
-                            contextClosedLatch.await();
-
-                        } finally {
-                            serverRunning.set(false);
-                            serverHaltLatch.await();
-                        }
-                        Assert.assertEquals(0, dispatcher.getConnectionCount());
-                    } finally {
-                        Net.freeSockAddr(sockAddr);
-                    }
-                } finally {
-                    if (fd != -1) {
-                        Net.close(fd);
-                    }
-                }
+    @Test
+    public void testConnectDisconnectIOURing() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        LOG.info().$("started testConnectDisconnectIOURing").$();
+        testConnectDisconnect(new DefaultIODispatcherConfiguration() {
+            @Override
+            public boolean isIOURingEnabled() {
+                return true;
+            }
+        });
+    }
 
-                Assert.assertEquals(1, closeCount.get());
+    @Test
+    public void testConnectDisconnectMultipleDispatchers() throws Exception {
+        Assume.assumeTrue(Os.isLinux());
+        LOG.info().$("started testConnectDisconnectMultipleDispatchers").$();
+        testConnectDisconnect(new DefaultIODispatcherConfiguration() {
+            @Override
+            public int getDispatcherCount() {
+                return 4;
             }
         });
     }
@@ -7978,6 +7907,103 @@ public class IODispatcherTest {
                 false);
     }
 
+    private void testConnectDisconnect(IODispatcherConfiguration configuration) throws Exception {
+        assertMemoryLeak(() -> {
+            HttpServerConfiguration httpServerConfiguration = new DefaultHttpServerConfiguration();
+
+            SOCountDownLatch connectLatch = new SOCountDownLatch(1);
+            SOCountDownLatch contextClosedLatch = new SOCountDownLatch(1);
+            AtomicInteger closeCount = new AtomicInteger(0);
+
+            try (IODispatcher<HttpConnectionContext> dispatcher = IODispatchers.create(
+                    configuration,
+                    new IOContextFactory<HttpConnectionContext>() {
+                        @Override
+                        public HttpConnectionContext newInstance(int fd, IODispatcher<HttpConnectionContext> dispatcher1) {
+                            connectLatch.countDown();
+                            return new HttpConnectionContext(httpServerConfiguration.getHttpContextConfiguration(), metrics) {
+                                @Override
+                                public void close() {
+                                    // it is possible that context is closed twice in error
+                                    // when crashes occur put debug line here to see how many times
+                                    // context is closed
+                                    if (closeCount.incrementAndGet() == 1) {
+                                        super.close();
+                                        contextClosedLatch.countDown();
+                                    }
+                                }
+                            }.of(fd, dispatcher1);
+                        }
+                    }
+            )) {
+                HttpRequestProcessorSelector selector = new HttpRequestProcessorSelector() {
+
+                    @Override
+                    public void close() {
+                    }
+
+                    @Override
+                    public HttpRequestProcessor getDefaultProcessor() {
+                        return new HttpRequestProcessor() {
+                        };
+                    }
+
+                    @Override
+                    public HttpRequestProcessor select(CharSequence url) {
+                        return null;
+                    }
+                };
+
+                AtomicBoolean serverRunning = new AtomicBoolean(true);
+                SOCountDownLatch serverHaltLatch = new SOCountDownLatch(1);
+
+                new Thread(() -> {
+                    try {
+                        while (serverRunning.get()) {
+                            dispatcher.run(0);
+                            dispatcher.processIOQueue(
+                                    (operation, context) -> context.handleClientOperation(operation, selector, EmptyRescheduleContext)
+                            );
+                        }
+                    } finally {
+                        serverHaltLatch.countDown();
+                    }
+                }).start();
+
+                int fd = Net.socketTcp(true);
+                try {
+                    long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+                    try {
+                        try {
+                            TestUtils.assertConnect(fd, sockAddr);
+
+                            connectLatch.await();
+
+                            Assert.assertEquals(0, Net.close(fd));
+                            LOG.info().$("closed [fd=").$(fd).$(']').$();
+                            fd = -1;
+
+                            contextClosedLatch.await();
+
+                        } finally {
+                            serverRunning.set(false);
+                            serverHaltLatch.await();
+                        }
+                        Assert.assertEquals(0, dispatcher.getConnectionCount());
+                    } finally {
+                        Net.freeSockAddr(sockAddr);
+                    }
+                } finally {
+                    if (fd != -1) {
+                        Net.close(fd);
+                    }
+                }
+
+                Assert.assertEquals(1, closeCount.get());
+            }
+        });
+    }
+
     private void testDisconnectOnDataUnavailableEventNeverFired(String request) throws Exception {
         new HttpQueryTestBuilder()
                 .withTempFolder(temp)
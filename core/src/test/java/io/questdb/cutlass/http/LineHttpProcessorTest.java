@@ -0,0 +1,178 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultTestCairoConfiguration;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.wal.ApplyWal2TableJob;
+import io.questdb.cairo.wal.CheckWalTransactionsJob;
+import io.questdb.network.NetworkFacadeImpl;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.util.concurrent.TimeUnit;
+
+public class LineHttpProcessorTest {
+
+    private static final String JSON_DDL_RESPONSE = "0c\r\n" +
+            "{\"ddl\":\"OK\"}\r\n" +
+            "00\r\n" +
+            "\r\n";
+    private static final String NO_CONTENT_RESPONSE = "HTTP/1.1 204 No Content\r\n" +
+            "Server: questDB/1.0\r\n" +
+            "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+            "Content-Type: text/html; charset=utf-8\r\n" +
+            "\r\n";
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    @Rule
+    public Timeout timeout = Timeout.builder()
+            .withTimeout(10 * 60 * 1000, TimeUnit.MILLISECONDS)
+            .withLookingForStuckThread(true)
+            .build();
+
+    @Test
+    public void testNewColumnIsAddedAndRequestReplayed() throws Exception {
+        testLineHttp(engine -> {
+            sendAndReceiveDdl("CREATE TABLE test (sym SYMBOL, val LONG, ts TIMESTAMP) TIMESTAMP(ts) PARTITION BY DAY WAL");
+            drainWalQueue(engine);
+
+            sendAndReceiveLines(
+                    "test,sym=a val=1i 1000\n" +
+                            "test,sym=b val=2i,extra=3.5 2000\n",
+                    NO_CONTENT_RESPONSE
+            );
+            drainWalQueue(engine);
+
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, engine.getTableToken("test"))) {
+                Assert.assertEquals(2, reader.size());
+                Assert.assertTrue(reader.getMetadata().getColumnIndexQuiet("extra") > -1);
+            }
+        });
+    }
+
+    @Test
+    public void testNonWalTableIsRejected() throws Exception {
+        testLineHttp(engine -> {
+            sendAndReceiveDdl("CREATE TABLE nonwal (sym SYMBOL, val LONG, ts TIMESTAMP) TIMESTAMP(ts) PARTITION BY DAY");
+
+            sendAndReceiveLines(
+                    "nonwal,sym=a val=1i 1000\n",
+                    "HTTP/1.1 400 Bad request\r\n" +
+                            "Server: questDB/1.0\r\n" +
+                            "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                            "Transfer-Encoding: chunked\r\n" +
+                            "Content-Type: application/json; charset=utf-8\r\n" +
+                            "\r\n" +
+                            "4f\r\n" +
+                            "{\"code\":\"invalid\",\"message\":\"table is not WAL enabled [table=nonwal]\",\"line\":1}\r\n" +
+                            "00\r\n" +
+                            "\r\n"
+            );
+
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, engine.getTableToken("nonwal"))) {
+                Assert.assertEquals(0, reader.size());
+            }
+        });
+    }
+
+    @Test
+    public void testRowsAreCommittedPerRequest() throws Exception {
+        testLineHttp(engine -> {
+            sendAndReceiveDdl("CREATE TABLE test (sym SYMBOL, val LONG, ts TIMESTAMP) TIMESTAMP(ts) PARTITION BY DAY WAL");
+            drainWalQueue(engine);
+
+            sendAndReceiveLines(
+                    "test,sym=a val=1i 1000\n" +
+                            "test,sym=b val=2i 2000\n" +
+                            "test,sym=c val=3i 3000",
+                    NO_CONTENT_RESPONSE
+            );
+            drainWalQueue(engine);
+
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, engine.getTableToken("test"))) {
+                Assert.assertEquals(3, reader.size());
+            }
+        });
+    }
+
+    private static void drainWalQueue(CairoEngine engine) {
+        try (final ApplyWal2TableJob walApplyJob = new ApplyWal2TableJob(engine, 1, 1, null)) {
+            walApplyJob.drain(0);
+            new CheckWalTransactionsJob(engine).run(0);
+            // run once again as there might be notifications to handle now
+            walApplyJob.drain(0);
+        }
+    }
+
+    private static void sendAndReceive(String request, CharSequence response) throws InterruptedException {
+        new SendAndReceiveRequestBuilder()
+                .withNetworkFacade(NetworkFacadeImpl.INSTANCE)
+                .execute(request, response);
+    }
+
+    private static void sendAndReceiveDdl(String rawDdl) throws InterruptedException {
+        sendAndReceive(
+                "GET /query?query=" + HttpUtils.urlEncodeQuery(rawDdl) + "&count=true HTTP/1.1\r\n" +
+                        "Host: localhost:9000\r\n" +
+                        "Connection: keep-alive\r\n" +
+                        "Accept: */*\r\n" +
+                        "\r\n",
+                "HTTP/1.1 200 OK\r\n" +
+                        "Server: questDB/1.0\r\n" +
+                        "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                        "Transfer-Encoding: chunked\r\n" +
+                        "Content-Type: application/json; charset=utf-8\r\n" +
+                        "Keep-Alive: timeout=5, max=10000\r\n" +
+                        "\r\n" +
+                        JSON_DDL_RESPONSE
+        );
+    }
+
+    private static void sendAndReceiveLines(String lines, String response) throws InterruptedException {
+        sendAndReceive(
+                "POST /write HTTP/1.1\r\n" +
+                        "Host: localhost:9000\r\n" +
+                        "Connection: keep-alive\r\n" +
+                        "Content-Length: " + lines.length() + "\r\n" +
+                        "\r\n" +
+                        lines,
+                response
+        );
+    }
+
+    private void testLineHttp(HttpQueryTestBuilder.HttpClientCode code) throws Exception {
+        new HttpQueryTestBuilder()
+                .withWorkerCount(1)
+                .withTempFolder(temp)
+                .withHttpServerConfigBuilder(new HttpServerConfigurationBuilder())
+                .run(new DefaultTestCairoConfiguration(temp.getRoot().getAbsolutePath()), code);
+    }
+}
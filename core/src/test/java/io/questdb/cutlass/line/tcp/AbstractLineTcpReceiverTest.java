@@ -95,6 +95,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
     protected NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
     protected int partitionByDefault = PartitionBy.DAY;
     protected boolean symbolAsFieldSupported;
+    protected long writerRebalanceInterval = 1000;
     protected final LineTcpReceiverConfiguration lineConfiguration = new DefaultLineTcpReceiverConfiguration() {
         @Override
         public String getAuthDbPath() {
@@ -180,6 +181,11 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
             return 4;
         }
 
+        @Override
+        public long getWriterRebalanceInterval() {
+            return writerRebalanceInterval;
+        }
+
         @Override
         public boolean isSymbolAsFieldSupported() {
             return symbolAsFieldSupported;
@@ -142,6 +142,23 @@ public class LineTcpParser2Test extends LineUdpLexerTest {
         );
     }
 
+    @Test
+    public void testLongTokens() {
+        // tokens are longer than a machine word so that the parser skips them in 8-byte steps
+        assertThat(
+                "measurement_with_a_long_name,tag_with_a_long_name=value_with_a_long_body,region=eu_central_1_availability_zone_a field_with_a_long_name=1234567890123i,another_long_field_name=\"long string value, with separators\" 1465839830102351000\n",
+                "measurement_with_a_long_name,tag_with_a_long_name=value_with_a_long_body,region=eu_central_1_availability_zone_a field_with_a_long_name=1234567890123i,another_long_field_name=\"long string value, with separators\" 1465839830102351000\n"
+        );
+        assertThat(
+                "measurement_name,tag=abcdefghijklmnopqrstuvwxyzé_after field=1i 1000--non ascii--\n",
+                "measurement_name,tag=abcdefghijklmnopqrstuvwxyzé_after field=1i 1000\n"
+        );
+        assertThat(
+                "measurement_name,tag_name=abcdefghijklmnop qrstuvwxyz field=1i 1000\n",
+                "measurement_name,tag_name=abcdefghijklmnop\\ qrstuvwxyz field=1i 1000\n"
+        );
+    }
+
     @Test
     public void testMangledMeasurementNameFromBothEnds() {
         assertThat(
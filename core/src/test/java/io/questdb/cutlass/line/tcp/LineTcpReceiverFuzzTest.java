@@ -99,6 +99,14 @@ public class LineTcpReceiverFuzzTest extends AbstractLineTcpReceiverFuzzTest {
         runTest();
     }
 
+    @Test
+    public void testLoadWithWriterRebalance() throws Exception {
+        // tables are moved between writer threads while data is streaming in
+        writerRebalanceInterval = 5;
+        initLoadParameters(100, Os.isWindows() ? 3 : 5, 7, 12, 20);
+        runTest();
+    }
+
     @Test
     public void testOnSingleConnectionSingeWalUsed() throws Exception {
         Assume.assumeTrue(walEnabled);
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.test.tools.TestUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+public class ParquetExportTest extends AbstractGriffinTest {
+
+    @BeforeClass
+    public static void setUpStatic() {
+        try {
+            inputRoot = temp.newFolder("export" + System.nanoTime()).getAbsolutePath();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        AbstractGriffinTest.setUpStatic();
+    }
+
+    @AfterClass
+    public static void tearDownStatic() {
+        AbstractGriffinTest.tearDownStatic();
+        inputRoot = null;
+    }
+
+    @After
+    public void tearDown() {
+        super.tearDown();
+        final File[] files = new File(inputRoot).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Assert.assertTrue(file.delete());
+            }
+        }
+    }
+
+    @Test
+    public void testExportEmptyTable() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (i int, s string, ts timestamp) timestamp(ts) partition by DAY");
+            compile("copy x to 'empty.parquet'");
+            assertParquetFile("empty.parquet");
+        });
+    }
+
+    @Test
+    public void testExportFailsWhenFileExists() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x i from long_sequence(10))");
+            compile("copy x to 'x.parquet'");
+            try {
+                compile("copy x to 'x.parquet'");
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "file already exists");
+            }
+            assertParquetFile("x.parquet");
+        });
+    }
+
+    @Test
+    public void testExportFileNameWithDots() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x i from long_sequence(10))");
+            try {
+                compile("copy x to '../x.parquet'");
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(10, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "'.' is not allowed");
+            }
+        });
+    }
+
+    @Test
+    public void testExportPartitionedTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(true, "DAY");
+            compile("copy x to 'x.parquet'");
+            assertParquetFile("x.parquet");
+        });
+    }
+
+    @Test
+    public void testExportQuery() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(true, "DAY");
+            compile("copy (select sym, count() c from x order by sym) to 'counts.parquet'");
+            assertParquetFile("counts.parquet");
+        });
+    }
+
+    @Test
+    public void testExportQueryIsTheSameAsTable() throws Exception {
+        assertMemoryLeak(() -> {
+            // page frame and record export paths must produce identical files
+            createTable(false, "NONE");
+            compile("copy x to 'frames.parquet'");
+            compile("copy (x limit 1000) to 'records.parquet'");
+            final byte[] frames = assertParquetFile("frames.parquet");
+            final byte[] records = assertParquetFile("records.parquet");
+            Assert.assertArrayEquals(frames, records);
+        });
+    }
+
+    @Test
+    public void testExportSyntaxError() throws Exception {
+        assertFailure("copy x to 'x.parquet' with header true", null, 22, "unexpected token");
+        assertFailure("copy (select * from x) from 'x.parquet'", null, 23, "'to' expected");
+        assertFailure("copy x into 'x.parquet'", null, 7, "'from' or 'to' expected");
+        assertFailure("copy x to", null, 9, "Expression expected");
+    }
+
+    @Test
+    public void testExportUnsupportedColumnType() throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                compile("copy (select to_long128(1, 2) l from long_sequence(1)) to 'l.parquet'");
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "column type is not supported by parquet export [column=l, type=LONG128]");
+            }
+            Assert.assertFalse(new File(inputRoot, "l.parquet").exists());
+        });
+    }
+
+    private static byte[] assertParquetFile(String fileName) throws IOException {
+        final byte[] bytes = Files.readAllBytes(new File(inputRoot, fileName).toPath());
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertTrue(bytes.length > 12);
+        Assert.assertEquals("PAR1", new String(bytes, 0, 4));
+        Assert.assertEquals("PAR1", new String(bytes, bytes.length - 4, 4));
+        final int footerLength = buffer.getInt(bytes.length - 8);
+        Assert.assertTrue(footerLength > 0);
+        Assert.assertTrue(footerLength <= bytes.length - 12);
+        return bytes;
+    }
+
+    private static void createTable(boolean withSymbol, String partitionBy) throws SqlException {
+        compile(
+                "create table x as (" +
+                        "select" +
+                        " rnd_boolean() bool," +
+                        " rnd_byte() b," +
+                        " rnd_short() sh," +
+                        " rnd_char() ch," +
+                        " rnd_int(0, 1000, 2) i," +
+                        " rnd_long(0, 100000, 2) l," +
+                        " rnd_date(to_date('2022', 'yyyy'), to_date('2023', 'yyyy'), 2) d," +
+                        " rnd_float(2) f," +
+                        " rnd_double(2) db," +
+                        " rnd_str(3, 10, 2) str," +
+                        (withSymbol ? " rnd_symbol('a', 'b', 'c', null) sym," : "") +
+                        " rnd_bin(2, 20, 2) bin," +
+                        " rnd_uuid4() u," +
+                        " rnd_long256() l256," +
+                        " rnd_geohash(5) g1," +
+                        " rnd_geohash(15) g2," +
+                        " rnd_geohash(30) g4," +
+                        " rnd_geohash(60) g8," +
+                        " timestamp_sequence('2022-01-01', 60 * 60 * 1000000L) ts" +
+                        " from long_sequence(100)" +
+                        ") timestamp(ts) partition by " + partitionBy
+        );
+    }
+}
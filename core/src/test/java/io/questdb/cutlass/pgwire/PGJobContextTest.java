@@ -1295,6 +1295,49 @@ if __name__ == "__main__":
         });
     }
 
+    @Test
+    public void testBatchInsertIsCommittedOnSync() throws Exception {
+        skipOnWalRun(); // Non-partitioned
+        assertWithPgServer(CONN_AWARE_ALL & ~(CONN_AWARE_SIMPLE_TEXT | CONN_AWARE_SIMPLE_BINARY), (connection, binary) -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("create table test (id long, k timestamp) timestamp(k)");
+            }
+
+            try (PreparedStatement batchInsert = connection.prepareStatement("insert into test(id, k) values(?,?)")) {
+                for (int i = 0; i < 3; i++) {
+                    batchInsert.setLong(1, i);
+                    batchInsert.setLong(2, i * 1_000L);
+                    batchInsert.addBatch();
+                }
+                batchInsert.executeLargeBatch();
+            }
+
+            // the whole batch is a single transaction
+            try (TableReader reader = getReader("test")) {
+                Assert.assertEquals(3, reader.size());
+                Assert.assertEquals(1, reader.getTxn());
+            }
+
+            // out-of-order row fails the batch, rows bound before it are rolled back
+            try (PreparedStatement batchInsert = connection.prepareStatement("insert into test(id, k) values(?,?)")) {
+                batchInsert.setLong(1, 3L);
+                batchInsert.setLong(2, 3_000L);
+                batchInsert.addBatch();
+                batchInsert.setLong(1, 4L);
+                batchInsert.setLong(2, 0L);
+                batchInsert.addBatch();
+                batchInsert.executeLargeBatch();
+                Assert.fail();
+            } catch (Exception e) {
+                LOG.error().$(e).$();
+            }
+
+            StringSink sink = new StringSink();
+            ResultSet rs = connection.createStatement().executeQuery("select id from test");
+            assertResultSet("id[BIGINT]\n0\n1\n2\n", sink, rs);
+        });
+    }
+
     @Test
     public void testBatchInsertWithTransaction() throws Exception {
         skipOnWalRun(); // Non-partitioned
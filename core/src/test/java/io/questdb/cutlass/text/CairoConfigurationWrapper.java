@@ -733,6 +733,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSqlSortValuePageSize();
     }
 
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return conf.getSqlSpillRoot();
+    }
+
     @Override
     public int getStrFunctionMaxBufferLength() {
         return conf.getStrFunctionMaxBufferLength();
@@ -893,6 +898,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.isSqlParallelFilterPreTouchEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return conf.isSqlParallelGroupByEnabled();
+    }
+
+    @Override
+    public boolean isSqlSpillEnabled() {
+        return conf.isSqlSpillEnabled();
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return conf.isTableTypeConversionEnabled();
@@ -903,6 +918,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.isWalSupported();
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return conf.isZoneMapEnabled();
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return conf.mangleTableDirNames();
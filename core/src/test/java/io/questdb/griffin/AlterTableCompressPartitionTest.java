@@ -0,0 +1,261 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.*;
+import io.questdb.std.Files;
+import io.questdb.std.Misc;
+import io.questdb.std.Zip;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AlterTableCompressPartitionTest extends AbstractGriffinTest {
+
+    private static O3PartitionPurgeJob purgeJob;
+
+    @BeforeClass
+    public static void setUpStatic() {
+        AbstractGriffinTest.setUpStatic();
+        purgeJob = new O3PartitionPurgeJob(engine.getMessageBus(), 1);
+        // static initialisation of Zip allocates memory, do it outside of leak checks
+        Zip.init();
+    }
+
+    @AfterClass
+    public static void tearDownStatic() {
+        purgeJob = Misc.free(purgeJob);
+        AbstractGriffinTest.tearDownStatic();
+    }
+
+    @Test
+    public void testAddIndexAfterCompress() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(false);
+            compress("alter table x compress partition list '2022-01-01', '2022-01-02'");
+            compile("alter table x alter column sym add index");
+            assertTablesEqual("select count() from x where sym = 'b'", "select count() from y where sym = 'b'");
+            assertTablesEqual("select * from x where sym = 'c'", "select * from y where sym = 'c'");
+        });
+    }
+
+    @Test
+    public void testAddRenameAndDropColumnAfterCompress() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(true);
+            compress("alter table x compress partition list '2022-01-01'");
+            compile("alter table x add column k long");
+            compile("alter table x rename column l to m");
+            compile("alter table x drop column d");
+            compile("alter table y add column k long");
+            compile("alter table y rename column l to m");
+            compile("alter table y drop column d");
+            assertTablesEqual("x", "y");
+        });
+    }
+
+    @Test
+    public void testCannotCompressActivePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(true);
+            assertAlterFails("alter table x compress partition list '2022-01-04'", "could not compress partition");
+            assertCompressed("x", false, false, false, false);
+        });
+    }
+
+    @Test
+    public void testCannotDetachCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(true);
+            compress("alter table x compress partition list '2022-01-01'");
+            assertAlterFails("alter table x detach partition list '2022-01-01'", "detachStatus=DETACH_ERR_COMPRESSED");
+            assertTablesEqual("x", "y");
+        });
+    }
+
+    @Test
+    public void testCannotDropActivePartitionBeforeCompressed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(true);
+            compress("alter table x compress partition list '2022-01-03'");
+            assertAlterFails("alter table x drop partition list '2022-01-04'", "could not remove partition");
+            compile("alter table x drop partition list '2022-01-01'");
+            compile("alter table y drop partition list '2022-01-01'");
+            assertTablesEqual("x", "y");
+        });
+    }
+
+    @Test
+    public void testCompressList() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(true);
+            compress("alter table x compress partition list '2022-01-01', '2022-01-03'");
+            assertCompressed("x", true, false, true, false);
+            assertTablesEqual("x", "y");
+
+            // compressing again is no-op
+            compress("alter table x compress partition list '2022-01-01'");
+            assertCompressed("x", true, false, true, false);
+            assertTablesEqual("x", "y");
+
+            try (
+                    TableReader reader = getReader("x");
+                    Path path = new Path()
+            ) {
+                path.of(configuration.getRoot()).concat(reader.getTableToken());
+                final int rootLen = path.length();
+                TableUtils.setPathForPartition(path, rootLen, PartitionBy.DAY, reader.getPartitionTimestampByIndex(0), reader.getTxFile().getPartitionNameTxn(0));
+                final int plen = path.length();
+                // 24 rows * 4 bytes
+                Assert.assertTrue(Files.length(path.concat("i.d").$()) < 96);
+                // designated timestamp is kept as is
+                Assert.assertTrue(Files.length(path.trimTo(plen).concat("ts.d").$()) >= 24 * 8);
+            }
+        });
+    }
+
+    @Test
+    public void testCompressWhere() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(true);
+            compress("alter table x compress partition where ts < '2022-01-03'");
+            assertCompressed("x", true, true, false, false);
+            assertTablesEqual("x", "y");
+        });
+    }
+
+    @Test
+    public void testCompressWalTable() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tableName = testName.getMethodName();
+            compile("create table " + tableName + " as (" +
+                    "select x, rnd_symbol('a','b') sym, timestamp_sequence('2022-01-01', 3600000000) ts from long_sequence(72)" +
+                    ") timestamp(ts) partition by DAY WAL");
+            drainWalQueue();
+            compile("create table y as (select * from " + tableName + ")");
+
+            compile("alter table " + tableName + " compress partition list '2022-01-01', '2022-01-02'");
+            drainWalQueue();
+            purgePartitions();
+
+            assertCompressed(tableName, true, true, false);
+            assertTablesEqual(tableName, "y");
+        });
+    }
+
+    @Test
+    public void testCompressedPartitionIsReadOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(true);
+            compress("alter table x compress partition list '2022-01-01'");
+
+            try {
+                executeOperation("update x set i = 0 where ts < '2022-01-02'", CompiledQuery.UPDATE);
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "cannot update read-only partition");
+            }
+
+            // o3 rows are ignored
+            executeInsert("insert into x(i, ts) values (1000, '2022-01-01T00:30')");
+            assertTablesEqual("x", "y");
+
+            // rows can be appended to the active partition
+            executeInsert("insert into x(i, ts) values (1000, '2022-01-05')");
+            executeInsert("insert into y(i, ts) values (1000, '2022-01-05')");
+            assertTablesEqual("x", "y");
+        });
+    }
+
+    @Test
+    public void testOpenReaderReloadsCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(true);
+            try (TableReader reader = getReader("x")) {
+                assertTablesEqual("x", "y");
+                compile("alter table x compress partition list '2022-01-02'");
+                Assert.assertTrue(reader.reload());
+                Assert.assertTrue(reader.getTxFile().isPartitionCompressed(1));
+                assertTablesEqual("x", "y");
+            }
+            purgePartitions();
+            assertCompressed("x", false, true, false, false);
+        });
+    }
+
+    private static void assertAlterFails(String sql, String message) throws SqlException {
+        try {
+            compile(sql);
+            Assert.fail();
+        } catch (CairoException e) {
+            TestUtils.assertContains(e.getFlyweightMessage(), message);
+        }
+    }
+
+    private static void assertCompressed(String tableName, boolean... expected) {
+        try (TableReader reader = getReader(tableName)) {
+            Assert.assertEquals(expected.length, reader.getPartitionCount());
+            for (int i = 0; i < expected.length; i++) {
+                Assert.assertEquals(expected[i], reader.getTxFile().isPartitionCompressed(i));
+                Assert.assertEquals(expected[i], reader.getTxFile().isPartitionReadOnly(i));
+            }
+        }
+    }
+
+    private static void assertTablesEqual(String actual, String expected) throws SqlException {
+        TestUtils.assertSqlCursors(compiler, sqlExecutionContext, expected, actual, LOG);
+    }
+
+    private static void compress(String sql) throws SqlException {
+        compile(sql);
+        purgePartitions();
+    }
+
+    private static void createTables(boolean indexed) throws SqlException {
+        final String index = indexed ? ", index(sym)" : "";
+        compile("create table x as (" +
+                "select" +
+                " cast(x % 10 as int) i," +
+                " x * 1000 l," +
+                " rnd_double() d," +
+                " rnd_str('alpha', 'beta', 'gamma', null) s," +
+                " rnd_symbol('a', 'b', 'c') sym," +
+                " rnd_bin(1, 32, 2) b," +
+                " timestamp_sequence('2022-01-01', 3600000000) ts" +
+                " from long_sequence(96)" +
+                ")" + index + " timestamp(ts) partition by DAY");
+        compile("create table y as (select * from x)" + index + " timestamp(ts) partition by DAY");
+    }
+
+    private static void purgePartitions() {
+        // old partition versions are purged once pooled readers let go of them
+        engine.releaseInactive();
+        purgeJob.drain(0);
+    }
+}
@@ -2040,7 +2040,7 @@ public class AlterTableDetachPartitionTest extends AbstractAlterTableAttachParti
             AbstractSqlParserTest.assertSyntaxError(
                     "ALTER TABLE tab foobar",
                     16,
-                    "'add', 'drop', 'attach', 'detach', 'set', 'rename' or 'resume' expected",
+                    "'add', 'drop', 'attach', 'detach', 'compress', 'set', 'rename' or 'resume' expected",
                     tableModel
             );
         }
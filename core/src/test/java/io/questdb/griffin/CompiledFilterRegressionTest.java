@@ -503,6 +503,17 @@ public class CompiledFilterRegressionTest extends AbstractGriffinTest {
         assertQueryNotNull(query, ddl);
     }
 
+    @Test
+    public void testSymbolInList() throws Exception {
+        final String query = "select * from x where sym in ('HBC', 'DXR', 'XYZ', null)";
+        final String ddl = "create table x as " +
+                "(select rnd_symbol('ABB','HBC','DXR',null) sym, \n" +
+                " rnd_double() price, \n" +
+                " timestamp_sequence(172800000000, 360000000) ts \n" +
+                "from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp (ts)";
+        assertQueryNotNull(query, ddl);
+    }
+
     @Test
     public void testSymbolNull() throws Exception {
         final String query = "select * from x where sym <> null";
@@ -524,6 +535,16 @@ public class CompiledFilterRegressionTest extends AbstractGriffinTest {
         assertQueryNotNull(query, ddl);
     }
 
+    @Test
+    public void testTimestampBetween() throws Exception {
+        final String query = "select * from x where t between '2020-07-01' and '2020-03-01'";
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_timestamp(to_timestamp('2020', 'yyyy'), to_timestamp('2021', 'yyyy'), 5) t" +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        assertQueryNotNull(query, ddl);
+    }
+
     @Test
     public void testTimestampNull() throws Exception {
         final String query = "select * from x where t <> null";
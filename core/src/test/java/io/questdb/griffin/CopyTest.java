@@ -138,6 +138,39 @@ public class CopyTest extends AbstractGriffinTest {
         testCopy(insert, assertion);
     }
 
+    @Test
+    public void testCopyFromStdinBinaryFormatIsNotSupported() {
+        try {
+            compiler.testCompileModel("copy x from stdin (format binary);", sqlExecutionContext);
+            Assert.fail();
+        } catch (SqlException e) {
+            assertEquals("[26] binary COPY format is not supported", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCopyFromStdinLegacyOptions() throws SqlException {
+        CopyModel model = (CopyModel) compiler.testCompileModel("copy x from stdin csv header;", sqlExecutionContext);
+
+        assertEquals("x", model.getTarget().token.toString());
+        assertEquals("stdin", model.getFileName().token.toString());
+        assertTrue(model.isHeader());
+        assertEquals(',', model.getDelimiter());
+    }
+
+    @Test
+    public void testCopyFromStdinPgOptions() throws SqlException {
+        CopyModel model = (CopyModel) compiler.testCompileModel("copy x from stdin with (delimiter '|', format csv, header false);", sqlExecutionContext);
+
+        assertEquals("x", model.getTarget().token.toString());
+        assertFalse(model.isHeader());
+        assertEquals('|', model.getDelimiter());
+
+        model = (CopyModel) compiler.testCompileModel("COPY x FROM STDIN (FORMAT text, HEADER);", sqlExecutionContext);
+        assertTrue(model.isHeader());
+        assertEquals('\t', model.getDelimiter());
+    }
+
     @Test
     public void testCopyThrowsExceptionOnEmptyDelimiter() throws Exception {
         assertMemoryLeak(() -> {
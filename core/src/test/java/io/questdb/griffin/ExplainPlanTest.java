@@ -33,7 +33,8 @@ import io.questdb.cairo.sql.Function;
 import io.questdb.griffin.engine.EmptyTableRecordCursorFactory;
 import io.questdb.griffin.engine.functions.CursorFunction;
 import io.questdb.griffin.engine.functions.NegatableBooleanFunction;
-import io.questdb.griffin.engine.functions.analytic.RowNumberFunctionFactory;
+import io.questdb.griffin.engine.functions.analytic.LagDoubleAnalyticFunctionFactory;
+import io.questdb.griffin.engine.functions.analytic.LeadDoubleAnalyticFunctionFactory;
 import io.questdb.griffin.engine.functions.bool.InCharFunctionFactory;
 import io.questdb.griffin.engine.functions.bool.InTimestampStrFunctionFactory;
 import io.questdb.griffin.engine.functions.bool.InTimestampTimestampFunctionFactory;
@@ -48,6 +49,7 @@ import io.questdb.griffin.engine.functions.date.*;
 import io.questdb.griffin.engine.functions.eq.EqIntStrCFunctionFactory;
 import io.questdb.griffin.engine.functions.rnd.LongSequenceFunctionFactory;
 import io.questdb.griffin.engine.functions.test.TestSumXDoubleGroupByFunctionFactory;
+import io.questdb.griffin.model.AnalyticColumn;
 import io.questdb.jit.JitUtil;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -282,6 +284,28 @@ public class ExplainPlanTest extends AbstractGriffinTest {
                         "                Frame forward scan on: t\n");
     }
 
+    @Test
+    public void testAnalytic3() throws Exception {
+        assertPlan("create table t as ( select x l, x::double d, timestamp_sequence(0, 1000) ts from long_sequence(100)) timestamp(ts)",
+                "select ts, sum(d) over (partition by l order by ts rows 10 preceding), lag(d) over (order by ts) from t",
+                "Analytic\n" +
+                        "  functions: [sum(d),lag(d,1,NaN)]\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: t\n");
+    }
+
+    @Test
+    public void testAnalytic4() throws Exception {
+        assertPlan("create table t as ( select x l, x::double d, timestamp_sequence(0, 1000) ts from long_sequence(100)) timestamp(ts)",
+                "select ts, sum(d) over (order by l rows 10 preceding), lead(d) over (order by ts) from t",
+                "CachedAnalytic\n" +
+                        "  functions: [sum(d),lead(d,1,NaN)]\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: t\n");
+    }
+
     @Test
     public void testAsOfJoin0() throws Exception {
         assertMemoryLeak(() -> {
@@ -1689,6 +1713,8 @@ public class ExplainPlanTest extends AbstractGriffinTest {
                                     sigArgType = ColumnType.CHAR;
                                 } else if (factory instanceof InTimestampTimestampFunctionFactory) {
                                     sigArgType = ColumnType.TIMESTAMP;
+                                } else if (factory instanceof LagDoubleAnalyticFunctionFactory || factory instanceof LeadDoubleAnalyticFunctionFactory) {
+                                    sigArgType = ColumnType.INT;
                                 } else {
                                     sigArgType = ColumnType.STRING;
                                 }
@@ -1742,11 +1768,17 @@ public class ExplainPlanTest extends AbstractGriffinTest {
 
                         argPositions.setAll(args.size(), 0);
 
-                        if (factory instanceof RowNumberFunctionFactory) {
-                            sqlExecutionContext.configureAnalyticContext(null, null, null, true, true);
+                        Function function;
+                        if (factory.isAnalytic()) {
+                            sqlExecutionContext.configureAnalyticContext(null, null, null, true, true, AnalyticColumn.FRAMING_DEFAULT, AnalyticColumn.FRAME_UNBOUNDED, false, -1);
+                            try {
+                                function = factory.newInstance(0, args, argPositions, engine.getConfiguration(), sqlExecutionContext);
+                            } finally {
+                                sqlExecutionContext.clearAnalyticContext();
+                            }
+                        } else {
+                            function = factory.newInstance(0, args, argPositions, engine.getConfiguration(), sqlExecutionContext);
                         }
-
-                        Function function = factory.newInstance(0, args, argPositions, engine.getConfiguration(), sqlExecutionContext);
                         function.toPlan(planSink);
                         goodArgsFound = true;
 
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultTestCairoConfiguration;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.std.Misc;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.*;
+
+import java.io.File;
+
+public class SpillTest extends AbstractGriffinTest {
+    private static SqlCompiler spillCompiler;
+    private static CairoEngine spillEngine;
+    private static SqlExecutionContext spillExecutionContext;
+    private static String spillRoot;
+
+    @BeforeClass
+    public static void setUpStatic() {
+        AbstractGriffinTest.setUpStatic();
+        CairoConfiguration spillConfiguration = new DefaultTestCairoConfiguration(root) {
+            @Override
+            public int getSqlMapMaxResizes() {
+                return 2;
+            }
+
+            @Override
+            public int getSqlMapPageSize() {
+                return 1024;
+            }
+
+            @Override
+            public int getSqlSmallMapPageSize() {
+                return 1024;
+            }
+
+            @Override
+            public int getSqlSortKeyMaxPages() {
+                return 2;
+            }
+
+            @Override
+            public long getSqlSortKeyPageSize() {
+                return 4096;
+            }
+
+            @Override
+            public int getSqlSortValueMaxPages() {
+                return 2;
+            }
+
+            @Override
+            public int getSqlSortValuePageSize() {
+                return 4096;
+            }
+
+            @Override
+            public boolean isSqlSpillEnabled() {
+                return true;
+            }
+        };
+        spillRoot = spillConfiguration.getSqlSpillRoot().toString();
+        spillEngine = new CairoEngine(spillConfiguration);
+        spillExecutionContext = new SqlExecutionContextImpl(spillEngine, 1)
+                .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+        spillCompiler = new SqlCompiler(spillEngine);
+    }
+
+    @AfterClass
+    public static void tearDownStatic() {
+        AbstractGriffinTest.tearDownStatic();
+        Misc.free(spillCompiler);
+        Misc.free(spillEngine);
+    }
+
+    @After
+    public void tearDown() {
+        spillEngine.getTableIdGenerator().close();
+        spillEngine.clear();
+        spillEngine.getTableSequencerAPI().releaseInactive();
+        spillEngine.closeNameRegistry();
+        super.tearDown();
+    }
+
+    @Test
+    public void testGroupByCursorReused() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = "select k, count(), sum(a), min(s) from (select a % 5000 k, a, s from x)";
+            final StringSink expected = new StringSink();
+            TestUtils.printSql(spillCompiler, spillExecutionContext, query, expected);
+
+            final StringSink actual = new StringSink();
+            try (RecordCursorFactory factory = spillCompiler.compile(query, spillExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(factory.recordCursorSupportsRandomAccess());
+                for (int i = 0; i < 2; i++) {
+                    try (RecordCursor cursor = factory.getCursor(spillExecutionContext)) {
+                        actual.clear();
+                        TestUtils.printCursor(cursor, factory.getMetadata(), true, actual, printer);
+                        TestUtils.assertEquals(expected, actual);
+
+                        cursor.toTop();
+                        actual.clear();
+                        TestUtils.printCursor(cursor, factory.getMetadata(), true, actual, printer);
+                        TestUtils.assertEquals(expected, actual);
+                    }
+                    assertSpillRootEmpty();
+                }
+            }
+            spillEngine.clear();
+        });
+    }
+
+    @Test
+    public void testGroupByLongKeySpilled() throws Exception {
+        assertSpilled("select k, count(), sum(a), first(a), last(b) from (select a % 5000 k, a, b from x) order by k");
+    }
+
+    @Test
+    public void testGroupByMultipleKeysSpilled() throws Exception {
+        assertSpilled("select sym, k, count(), sum(b) from (select sym, a % 7 k, b from x) order by sym, k");
+    }
+
+    @Test
+    public void testGroupByStrKeySpilled() throws Exception {
+        assertSpilled("select s, count(), max(a) from x order by s");
+    }
+
+    @Test
+    public void testGroupBySymbolKeySpilled() throws Exception {
+        assertSpilled("select sym, count(), avg(b) from x order by sym");
+    }
+
+    @Test
+    public void testOrderBySpilled() throws Exception {
+        assertSpilled("select * from x order by a");
+    }
+
+    @Test
+    public void testOrderByStrSpilled() throws Exception {
+        assertSpilled("select * from x order by s desc, ts");
+    }
+
+    @Test
+    public void testOrderBySymbolSpilled() throws Exception {
+        assertSpilled("select * from x order by sym, a desc");
+    }
+
+    @Test
+    public void testSpillDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            CairoConfiguration configuration = new DefaultTestCairoConfiguration(root) {
+                @Override
+                public int getSqlSortKeyMaxPages() {
+                    return 2;
+                }
+
+                @Override
+                public long getSqlSortKeyPageSize() {
+                    return 4096;
+                }
+            };
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+                        .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+                try {
+                    TestUtils.printSql(compiler, executionContext, "select * from x order by a", sink);
+                    Assert.fail();
+                } catch (LimitOverflowException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "Maximum number of pages (2) breached");
+                } finally {
+                    engine.getTableIdGenerator().close();
+                    engine.clear();
+                    engine.closeNameRegistry();
+                }
+            }
+        });
+    }
+
+    private static void assertSpillRootEmpty() {
+        String[] files = new File(spillRoot).list();
+        Assert.assertNotNull(files);
+        Assert.assertEquals(0, files.length);
+    }
+
+    private static void createTable() throws SqlException {
+        compiler.compile(
+                "create table x as (select" +
+                        " rnd_long(0, 100000, 0) a," +
+                        " rnd_double(2) b," +
+                        " rnd_str(4, 8, 2) s," +
+                        " rnd_symbol(2000, 4, 6, 1) sym," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(20000)" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+        spillEngine.reloadTableNames();
+    }
+
+    private void assertSpilled(String query) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final StringSink expected = new StringSink();
+            TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+            final StringSink actual = new StringSink();
+            TestUtils.printSql(spillCompiler, spillExecutionContext, query, actual);
+            TestUtils.assertEquals(expected, actual);
+            assertSpillRootEmpty();
+            spillEngine.clear();
+        });
+    }
+}
@@ -154,6 +154,41 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testAnalyticFrameRange() throws Exception {
+        assertQuery(
+                "select-analytic a, b, f(c) f over (partition by b order by ts range between 2000000 preceding and current row) from (select [a, b, c, ts] from xyz timestamp (ts))",
+                "select a,b, f(c) over (partition by b order by ts range 2 seconds preceding) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.INT)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameRows() throws Exception {
+        assertQuery(
+                "select-analytic a, b, f(c) f over (order by ts rows between 10 preceding and current row), d(c) d over (partition by b rows between unbounded preceding and unbounded following) from (select [a, b, c, ts] from xyz timestamp (ts))",
+                "select a,b, f(c) over (order by ts rows between 10 preceding and current row), d(c) over (partition by b rows between unbounded preceding and unbounded following) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.INT)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameUnboundedFollowingWithOffset() throws Exception {
+        assertSyntaxError(
+                "select a,b, f(c) over (order by ts rows between 1 preceding and unbounded following) from xyz",
+                74,
+                "UNBOUNDED FOLLOWING frame end requires UNBOUNDED PRECEDING frame start"
+        );
+    }
+
     @Test
     public void testAnalyticLiteralAfterFunction() throws Exception {
         assertQuery(
@@ -1224,6 +1259,50 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testCreateTableDedupKeys() throws SqlException {
+        assertCreateTable(
+                "create table x (a INT, b LONG, ts TIMESTAMP) timestamp(ts) partition by DAY wal dedup keys(a, ts)",
+                "create table x (a int, b long, ts timestamp) timestamp(ts) partition by DAY wal dedup keys(ts, a)"
+        );
+    }
+
+    @Test
+    public void testCreateTableDedupKeysBypassWal() throws Exception {
+        assertSyntaxError(
+                "create table x (a int, ts timestamp) timestamp(ts) partition by DAY bypass wal dedup keys(ts)",
+                79,
+                "deduplication is possible only on WAL tables"
+        );
+    }
+
+    @Test
+    public void testCreateTableDedupKeysInvalidColumn() throws Exception {
+        assertSyntaxError(
+                "create table x (a int, ts timestamp) timestamp(ts) partition by DAY wal dedup keys(ts, b)",
+                87,
+                "Invalid column: b"
+        );
+    }
+
+    @Test
+    public void testCreateTableDedupKeysNoDesignatedTimestamp() throws Exception {
+        assertSyntaxError(
+                "create table x (a int, ts timestamp) timestamp(ts) partition by DAY wal dedup keys(a)",
+                82,
+                "deduplicate key list must include designated timestamp column"
+        );
+    }
+
+    @Test
+    public void testCreateTableDedupKeysStringColumn() throws Exception {
+        assertSyntaxError(
+                "create table x (a int, s string, ts timestamp) timestamp(ts) partition by DAY wal dedup keys(ts, s)",
+                97,
+                "deduplicate key column can only be fixed size column [column=s, type=STRING]"
+        );
+    }
+
     @Test
     public void testCreateTableDuplicateCast() throws Exception {
         assertSyntaxError(
@@ -1677,7 +1756,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
                         "TIMESTAMP(t) " +
                         "PARTITION BY YEAR",
                 60,
-                "indexes are supported only for SYMBOL columns: b"
+                "indexes are supported only for SYMBOL, INT, LONG and UUID columns: b"
         );
     }
 
@@ -5105,7 +5184,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
     @Test
     public void testNonAnalyticFunctionInAnalyticContext() throws Exception {
         assertFailure(
-                "select avg(price) over (partition by symbol) from trades",
+                "select abs(price) over (partition by symbol) from trades",
                 "create table trades " +
                         "(" +
                         " price double," +
@@ -7598,7 +7677,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
     @Test
     public void testTooManyArgumentsInAnalyticFunction() throws Exception {
         assertFailure(
-                "select row_number(1,2,3) over (partition by symbol) from trades",
+                "select row_number(1,2,3,4) over (partition by symbol) from trades",
                 "create table trades " +
                         "(" +
                         " price double," +
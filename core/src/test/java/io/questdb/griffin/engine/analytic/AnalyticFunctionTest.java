@@ -33,6 +33,123 @@ import org.junit.Test;
 
 public class AnalyticFunctionTest extends AbstractGriffinTest {
 
+    @Test
+    public void testAggregatesOverOrderNotFollowedByBase() throws Exception {
+        assertQuery(
+                "price\ts\n" +
+                        "1.0\t3.0\n" +
+                        "2.0\t5.0\n" +
+                        "3.0\t7.0\n" +
+                        "4.0\t9.0\n" +
+                        "5.0\t11.0\n" +
+                        "6.0\t6.0\n",
+                "select price, sum(price) over (order by price desc rows 1 preceding) s from tab",
+                "create table tab as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " cast(case when x % 2 = 0 then 'A' else 'B' end as symbol) sym," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testAggregatesOverRangeFrame() throws Exception {
+        assertQuery(
+                "ts\tprice\ts\tmn\tmnp\n" +
+                        "1970-01-01T00:00:00.000000Z\t1.0\t1.0\t1.0\t1.0\n" +
+                        "1970-01-01T00:00:01.000000Z\t2.0\t3.0\t1.0\t2.0\n" +
+                        "1970-01-01T00:00:02.000000Z\t3.0\t6.0\t2.0\t1.0\n" +
+                        "1970-01-01T00:00:03.000000Z\t4.0\t9.0\t3.0\t2.0\n" +
+                        "1970-01-01T00:00:04.000000Z\t5.0\t12.0\t4.0\t3.0\n" +
+                        "1970-01-01T00:00:05.000000Z\t6.0\t15.0\t5.0\t4.0\n",
+                "select ts, price, " +
+                        "sum(price) over (order by ts range 2 seconds preceding) s, " +
+                        "min(price) over (order by ts range between 1 second preceding and current row) mn, " +
+                        "min(price) over (partition by sym order by ts range 2000000 preceding) mnp " +
+                        "from tab",
+                "create table tab as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " cast(case when x % 2 = 0 then 'A' else 'B' end as symbol) sym," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testAggregatesOverRowsFrame() throws Exception {
+        assertQuery(
+                "ts\tsym\tprice\ts\ta\tc\n" +
+                        "1970-01-01T00:00:00.000000Z\tB\t1.0\t1.0\t1.0\t1\n" +
+                        "1970-01-01T00:00:01.000000Z\tA\t2.0\t2.0\t2.0\t1\n" +
+                        "1970-01-01T00:00:02.000000Z\tB\t3.0\t4.0\t2.0\t2\n" +
+                        "1970-01-01T00:00:03.000000Z\tA\t4.0\t6.0\t3.0\t2\n" +
+                        "1970-01-01T00:00:04.000000Z\tB\t5.0\t8.0\t4.0\t2\n" +
+                        "1970-01-01T00:00:05.000000Z\tA\t6.0\t10.0\t5.0\t2\n",
+                "select ts, sym, price, " +
+                        "sum(price) over (partition by sym order by ts rows between 1 preceding and current row) s, " +
+                        "avg(price) over (partition by sym order by ts rows 1 preceding) a, " +
+                        "count() over (partition by sym order by ts rows 1 preceding) c " +
+                        "from tab",
+                "create table tab as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " cast(case when x % 2 = 0 then 'A' else 'B' end as symbol) sym," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testAggregatesOverWholePartition() throws Exception {
+        assertQuery(
+                "ts\tsym\tprice\tcs\tmx\tfv\tc\n" +
+                        "1970-01-01T00:00:00.000000Z\tB\t1.0\t1.0\t5.0\t1.0\t6\n" +
+                        "1970-01-01T00:00:01.000000Z\tA\t2.0\t2.0\t6.0\t2.0\t6\n" +
+                        "1970-01-01T00:00:02.000000Z\tB\t3.0\t4.0\t5.0\t1.0\t6\n" +
+                        "1970-01-01T00:00:03.000000Z\tA\t4.0\t6.0\t6.0\t2.0\t6\n" +
+                        "1970-01-01T00:00:04.000000Z\tB\t5.0\t9.0\t5.0\t1.0\t6\n" +
+                        "1970-01-01T00:00:05.000000Z\tA\t6.0\t12.0\t6.0\t2.0\t6\n",
+                "select ts, sym, price, " +
+                        "sum(price) over (partition by sym order by ts) cs, " +
+                        "max(price) over (partition by sym) mx, " +
+                        "first_value(price) over (partition by sym order by ts) fv, " +
+                        "count(price) over () c " +
+                        "from tab",
+                "create table tab as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " cast(case when x % 2 = 0 then 'A' else 'B' end as symbol) sym," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
     @Test
     public void testAnalyticContextCleanup() throws Exception {
         assertMemoryLeak(() -> {
@@ -66,6 +183,70 @@ public class AnalyticFunctionTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testLagAndLead() throws Exception {
+        assertQuery(
+                "ts\tprice\tl1\tl2\tld\n" +
+                        "1970-01-01T00:00:00.000000Z\t1.0\tNaN\t-1.0\t3.0\n" +
+                        "1970-01-01T00:00:01.000000Z\t2.0\t1.0\t-1.0\t4.0\n" +
+                        "1970-01-01T00:00:02.000000Z\t3.0\t2.0\t-1.0\t5.0\n" +
+                        "1970-01-01T00:00:03.000000Z\t4.0\t3.0\t-1.0\t6.0\n" +
+                        "1970-01-01T00:00:04.000000Z\t5.0\t4.0\t1.0\tNaN\n" +
+                        "1970-01-01T00:00:05.000000Z\t6.0\t5.0\t2.0\tNaN\n",
+                "select ts, price, " +
+                        "lag(price) over (order by ts) l1, " +
+                        "lag(price, 2, -1) over (partition by sym order by ts) l2, " +
+                        "lead(price) over (partition by sym order by ts) ld " +
+                        "from tab",
+                "create table tab as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " cast(case when x % 2 = 0 then 'A' else 'B' end as symbol) sym," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testLagOffsetMustBeConstant() throws Exception {
+        assertFailure(
+                "select lag(price, price::int) over () from tab",
+                "create table tab as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " cast(case when x % 2 = 0 then 'A' else 'B' end as symbol) sym," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                23,
+                "offset must be a constant integer"
+        );
+    }
+
+    @Test
+    public void testRangeFrameRequiresTimestampOrder() throws Exception {
+        assertFailure(
+                "select sum(price) over (order by price range 1 preceding) from tab",
+                "create table tab as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " cast(case when x % 2 = 0 then 'A' else 'B' end as symbol) sym," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                39,
+                "RANGE with offset requires ORDER BY on a single ascending timestamp column"
+        );
+    }
+
     @Test
     @Ignore
     public void testRankFailsInNonAnalyticContext() throws Exception {
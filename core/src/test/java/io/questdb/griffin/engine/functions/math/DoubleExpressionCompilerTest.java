@@ -0,0 +1,102 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.math;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlJitMode;
+import io.questdb.griffin.engine.table.VirtualRecordCursorFactory;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DoubleExpressionCompilerTest extends AbstractGriffinTest {
+
+    @Test
+    public void testCompiledMatchesInterpreted() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select rnd_double(2) d," +
+                            " rnd_float(2) f," +
+                            " rnd_int(-100, 100, 2) i," +
+                            " rnd_long(-100, 100, 2) l," +
+                            " rnd_short() s," +
+                            " rnd_byte() b" +
+                            " from long_sequence(1000))",
+                    sqlExecutionContext
+            );
+
+            final String[] expressions = {
+                    "d * i",
+                    "(d + f) / 2",
+                    "-(d - l)",
+                    "d * 2.5 + s - b",
+                    "abs(d) * l + 1",
+                    "d / (l + (i * (f - (s / (b + 1)))))",
+                    "sqrt(d) + null",
+            };
+
+            final StringSink expected = new StringSink();
+            for (String expression : expressions) {
+                final String query = "select " + expression + " v from x";
+
+                sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+                expected.clear();
+                TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+
+                sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_ENABLED);
+                assertCompiled(query);
+                TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+            }
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (a double, b int, c long)", sqlExecutionContext);
+            assertPlan(
+                    "select (a + b) * 2 v, -(a - c) / abs(a) w from x",
+                    "VirtualRecord\n" +
+                            "  functions: [a+b*2,-a-c/abs(a)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    private void assertCompiled(String query) throws Exception {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(factory instanceof VirtualRecordCursorFactory);
+            final Function function = ((VirtualRecordCursorFactory) factory).getFunctions().getQuick(0);
+            Assert.assertTrue(query, function instanceof CompiledDoubleFunction);
+        }
+    }
+}
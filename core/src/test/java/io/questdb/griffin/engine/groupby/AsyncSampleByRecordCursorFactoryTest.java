@@ -0,0 +1,285 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.*;
+import io.questdb.mp.TestWorkerPool;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class AsyncSampleByRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final int WORKER_COUNT = 4;
+
+    @BeforeClass
+    public static void setUpStatic() {
+        // Small reduce queue makes the owner thread steal work and exercises the queue full case.
+        pageFrameReduceQueueCapacity = 4;
+        AbstractGriffinTest.setUpStatic();
+    }
+
+    @Test
+    public void testAlignToCalendarWithOffset() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select t, count(), sum(l) from x sample by 7m fill(null) align to calendar with offset '00:15'", false);
+        });
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            compiler.compile("create table x (str string, a double, t timestamp) timestamp(t) partition by hour", sqlExecutionContext);
+            final String sql = "select t, str, count(), sum(a) from x sample by 1s fill(prev)";
+            try (RecordCursorFactory factory = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncSampleByRecordCursorFactory.class, factory.getClass());
+            }
+            TestUtils.assertSql(compiler, sqlExecutionContext, sql, sink, "t\tstr\tcount\tsum\n");
+        });
+    }
+
+    @Test
+    public void testFallbackToSerialOnCalendarSampler() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            // month buckets vary in size, so rows cannot be bucketed independently of each other
+            try (RecordCursorFactory factory = compiler.compile("select t, count() from x sample by 1M", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(SampleByFillNoneNotKeyedRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testFallbackToSerialOnFillLinear() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("select t, sum(l) from x sample by 1s fill(linear)", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(SampleByInterpolateRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testFallbackToSerialOnTimezone() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            try (
+                    RecordCursorFactory factory = compiler.compile(
+                            "select t, count() from x sample by 1h align to calendar time zone 'Europe/London'",
+                            sqlExecutionContext
+                    ).getRecordCursorFactory()
+            ) {
+                Assert.assertEquals(SampleByFillNoneNotKeyedRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testKeyedFillNone() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select t, s, count(), sum(a), min(i), max(i) from x sample by 1s", true);
+        });
+    }
+
+    @Test
+    public void testKeyedFillNull() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select t, s, str, count(), sum(a), max(i) from x sample by 1s fill(null)", true);
+        });
+    }
+
+    @Test
+    public void testKeyedFillPrev() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select s, t, count(), sum(l), min(a) from x sample by 3s fill(prev)", true);
+        });
+    }
+
+    @Test
+    public void testKeyedWithoutTimestamp() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select s, count(), sum(l) from x sample by 2s fill(null)", true);
+        });
+    }
+
+    @Test
+    public void testNotKeyedFillNone() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select t, count(), sum(a), avg(a), min(i), max(i), max(t) from x sample by 1s", false);
+        });
+    }
+
+    @Test
+    public void testNotKeyedFillNull() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select t, count(), sum(l), min(f), max(f) from x sample by 1s fill(null)", false);
+        });
+    }
+
+    @Test
+    public void testNotKeyedFillPrev() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select t, count(), ksum(a), nsum(a) from x sample by 1s fill(prev)", false);
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "explain select t, str, sum(a) from x sample by 1m fill(null)",
+                    sink,
+                    "QUERY PLAN\n" +
+                            "Async Sample By\n" +
+                            "  fill: null\n" +
+                            "  keys: [t,str]\n" +
+                            "  values: [sum(a)]\n" +
+                            "  workers: 4\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testRepeatedExecution() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            final String sql = "select t, s, count(), sum(l) from x sample by 1s fill(prev)";
+            try (RecordCursorFactory factory = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncSampleByRecordCursorFactory.class, factory.getClass());
+
+                final StringSink expected = new StringSink();
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    TestUtils.printCursor(cursor, factory.getMetadata(), true, expected, TestUtils.printer);
+                    // toTop() must replay the merged map without re-aggregating
+                    cursor.toTop();
+                    sink.clear();
+                    TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, TestUtils.printer);
+                    TestUtils.assertEquals(expected, sink);
+                }
+
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    sink.clear();
+                    TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, TestUtils.printer);
+                    // key order within a bucket depends on the order in which per-worker maps are merged
+                    Assert.assertArrayEquals(sortedLines(expected), sortedLines(sink));
+                }
+            }
+        });
+    }
+
+    private static void assertParallel(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String sql,
+            boolean keyed
+    ) throws SqlException {
+        final StringSink expected = new StringSink();
+        sqlExecutionContext.setParallelGroupByEnabled(false);
+        try {
+            TestUtils.printSql(compiler, sqlExecutionContext, sql, expected);
+        } finally {
+            sqlExecutionContext.setParallelGroupByEnabled(true);
+        }
+
+        final StringSink actual = new StringSink();
+        try (RecordCursorFactory factory = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(AsyncSampleByRecordCursorFactory.class, factory.getClass());
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                TestUtils.printCursor(cursor, factory.getMetadata(), true, actual, TestUtils.printer);
+            }
+        }
+        if (keyed) {
+            // buckets are in timestamp order, but key order within a bucket is not defined
+            Assert.assertArrayEquals(sortedLines(expected), sortedLines(actual));
+        } else {
+            TestUtils.assertEquals(expected, actual);
+        }
+    }
+
+    private static void createTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select * from (" +
+                        "select rnd_symbol('A','B','C','D',null) s," +
+                        " rnd_char() c," +
+                        " rnd_str('foo','bar','baz') str," +
+                        " rnd_int(0,1000,2) i," +
+                        " x l," +
+                        " rnd_float() f," +
+                        // multiples of 1/4 keep double sums exact regardless of the aggregation order
+                        " cast(rnd_int(0,1000,2) as double) / 4 a," +
+                        " timestamp_sequence(0, 100000) t" +
+                        " from long_sequence(150000)" +
+                        // leave 10 second gaps after every 5 seconds of data for fill to work on
+                        ") where (l / 50) % 3 = 0" +
+                        ") timestamp(t) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private static String[] sortedLines(CharSequence text) {
+        final String[] lines = text.toString().split("\n");
+        Arrays.sort(lines);
+        return lines;
+    }
+
+    private void withPool(CustomisableRunnable runnable) throws Exception {
+        assertMemoryLeak(() -> {
+            WorkerPool pool = new TestWorkerPool(WORKER_COUNT);
+            TestUtils.setupWorkerPool(pool, engine);
+            pool.start();
+
+            try (SqlExecutionContextImpl context = new SqlExecutionContextImpl(engine, WORKER_COUNT)) {
+                context.with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+                context.setParallelGroupByEnabled(true);
+                runnable.run(engine, compiler, context);
+            } finally {
+                pool.halt();
+            }
+        });
+    }
+}
@@ -252,6 +252,38 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testLateMaterializationColumnTops() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            compiler.compile("create table x as (select rnd_long(0, 100, 0) l, rnd_str(3, 5, 1) s, rnd_bin(2, 10, 1) b, timestamp_sequence(0, 100000000) t from long_sequence(20000)) timestamp(t) partition by day", sqlExecutionContext);
+            // projected columns with column tops in the older partitions, but none in the filter column
+            compile("alter table x add column s2 string", compiler, sqlExecutionContext);
+            compile("alter table x add column l2 long", compiler, sqlExecutionContext);
+            compiler.compile("insert into x select rnd_long(0, 100, 0), rnd_str(3, 5, 1), rnd_bin(2, 10, 1), timestamp_sequence(2000000000000, 100000000), rnd_str(3, 5, 1), rnd_long() from long_sequence(5000)", sqlExecutionContext);
+
+            final String[] queries = {
+                    "select * from x where l = 42",
+                    "select s2, b, s from x where l > 98",
+                    "select * from x where l2 > 0 and l < 10"
+            };
+            final int[] jitModes = JitUtil.isJitSupported()
+                    ? new int[]{SqlJitMode.JIT_MODE_ENABLED, SqlJitMode.JIT_MODE_DISABLED}
+                    : new int[]{SqlJitMode.JIT_MODE_DISABLED};
+            final StringSink expected = new StringSink();
+            for (String query : queries) {
+                sqlExecutionContext.setParallelFilterEnabled(false);
+                expected.clear();
+                TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+
+                sqlExecutionContext.setParallelFilterEnabled(true);
+                for (int jitMode : jitModes) {
+                    sqlExecutionContext.setJitMode(jitMode);
+                    TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+                }
+            }
+        });
+    }
+
     @Test
     public void testLimitBinVariable() throws Exception {
         withPool((engine, compiler, sqlExecutionContext) -> {
@@ -809,9 +841,23 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
                 @Nullable RecordSink partitionBySink,
                 @Nullable ColumnTypes keyTypes,
                 boolean isOrdered,
-                boolean baseSupportsRandomAccess
+                boolean baseSupportsRandomAccess,
+                int framingMode,
+                long framePreceding,
+                boolean wholePartitionFrame,
+                int orderByTimestampIndex
         ) {
-            sqlExecutionContext.configureAnalyticContext(partitionByRecord, partitionBySink, keyTypes, isOrdered, baseSupportsRandomAccess);
+            sqlExecutionContext.configureAnalyticContext(
+                    partitionByRecord,
+                    partitionBySink,
+                    keyTypes,
+                    isOrdered,
+                    baseSupportsRandomAccess,
+                    framingMode,
+                    framePreceding,
+                    wholePartitionFrame,
+                    orderByTimestampIndex
+            );
         }
 
         @Override
@@ -894,6 +940,11 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
             return sqlExecutionContext.isParallelFilterEnabled();
         }
 
+        @Override
+        public boolean isParallelGroupByEnabled() {
+            return sqlExecutionContext.isParallelGroupByEnabled();
+        }
+
         @Override
         public boolean isTimestampRequired() {
             return sqlExecutionContext.isTimestampRequired();
@@ -939,6 +990,11 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
             sqlExecutionContext.setParallelFilterEnabled(parallelFilterEnabled);
         }
 
+        @Override
+        public void setParallelGroupByEnabled(boolean parallelGroupByEnabled) {
+            sqlExecutionContext.setParallelGroupByEnabled(parallelGroupByEnabled);
+        }
+
         @Override
         public void setRandom(Rnd rnd) {
             sqlExecutionContext.setRandom(rnd);
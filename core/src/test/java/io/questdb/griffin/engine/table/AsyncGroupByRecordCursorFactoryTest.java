@@ -0,0 +1,284 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.*;
+import io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory;
+import io.questdb.mp.TestWorkerPool;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class AsyncGroupByRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final int WORKER_COUNT = 4;
+
+    @BeforeClass
+    public static void setUpStatic() {
+        // Small reduce queue makes the owner thread steal work and exercises the queue full case.
+        pageFrameReduceQueueCapacity = 4;
+        AbstractGriffinTest.setUpStatic();
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            compiler.compile("create table x (str string, a double, t timestamp) timestamp(t) partition by hour", sqlExecutionContext);
+            final String sql = "select str, count(), sum(a) from x";
+            try (RecordCursorFactory factory = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncGroupByRecordCursorFactory.class, factory.getClass());
+            }
+            TestUtils.assertSql(compiler, sqlExecutionContext, sql, sink, "str\tcount\tsum\n");
+        });
+    }
+
+    @Test
+    public void testFallbackToSerialOnUnsupportedFunction() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("select str, first(a) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(GroupByRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testFallbackToSerialWhenDisabled() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            sqlExecutionContext.setParallelGroupByEnabled(false);
+            try (RecordCursorFactory factory = compiler.compile("select str, sum(a) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(GroupByRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testFilteredKeyed() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select s, count(), sum(l), max(a) from x where i > 500 and c <> 'A' order by s");
+            assertParallel(compiler, sqlExecutionContext, "select str, count(), min(a) from x where str like 'A%' order by str");
+        });
+    }
+
+    @Test
+    public void testFilteredNotKeyed() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            final String sql = "select count(), sum(l), min(i), max(a), avg(a) from x where s = 'B'";
+            try (RecordCursorFactory factory = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncGroupByNotKeyedRecordCursorFactory.class, factory.getClass());
+            }
+            assertParallel(compiler, sqlExecutionContext, sql);
+            // no row passes the filter
+            assertParallel(compiler, sqlExecutionContext, "select count(), sum(l), max(a) from x where i > 5000");
+        });
+    }
+
+    @Test
+    public void testIntervalScan() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select s, count(), sum(l) from x where t in '1970-01-01T01' order by s");
+        });
+    }
+
+    @Test
+    public void testKeyedByLong() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select l % 100 k, count(), sum(l), min(i), max(i), sum(a), avg(a), ksum(a), nsum(a) from x order by k");
+        });
+    }
+
+    @Test
+    public void testKeyedByMultipleColumns() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select s, c, count(), min(t), max(t), min(f), max(f), round(stddev_samp(a), 6) from x order by s, c");
+        });
+    }
+
+    @Test
+    public void testKeyedByString() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select str, count(), sum(a), min(a), max(a) from x order by str");
+        });
+    }
+
+    @Test
+    public void testKeyedBySymbol() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select s, count(), count(a), sum(i), min(c), max(c) from x order by s");
+        });
+    }
+
+    @Test
+    public void testNotKeyed() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallel(compiler, sqlExecutionContext, "select count(), sum(l * 2), min(t), max(f), round(stddev_samp(a), 6) from x");
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "explain select str, sum(a) from x",
+                    sink,
+                    "QUERY PLAN\n" +
+                            "Async Group By\n" +
+                            "  keys: [str]\n" +
+                            "  values: [sum(a)]\n" +
+                            "  workers: 4\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testPlanFilteredNotKeyed() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            // filter is evaluated by the group by reduce task
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "explain select count(), sum(a) from x where str like 'A%'",
+                    sink,
+                    "QUERY PLAN\n" +
+                            "Async Group By\n" +
+                            "  values: [count(*),sum(a)]\n" +
+                            "  workers: 4\n" +
+                            "    Async Filter\n" +
+                            "      filter: str ~ A.*?\n" +
+                            "      workers: 4\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testRepeatedExecution() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            final String sql = "select str, count(), sum(l) from x";
+            try (RecordCursorFactory factory = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncGroupByRecordCursorFactory.class, factory.getClass());
+
+                final StringSink expected = new StringSink();
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    TestUtils.printCursor(cursor, factory.getMetadata(), true, expected, TestUtils.printer);
+                    // toTop() must replay the merged map without re-aggregating
+                    cursor.toTop();
+                    sink.clear();
+                    TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, TestUtils.printer);
+                    TestUtils.assertEquals(expected, sink);
+                }
+
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    sink.clear();
+                    TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, TestUtils.printer);
+                    // group order depends on the order in which per-worker maps are merged
+                    Assert.assertArrayEquals(sortedLines(expected), sortedLines(sink));
+                }
+            }
+        });
+    }
+
+    private static void assertParallel(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext, String sql) throws SqlException {
+        final StringSink expected = new StringSink();
+        sqlExecutionContext.setParallelGroupByEnabled(false);
+        try {
+            TestUtils.printSql(compiler, sqlExecutionContext, sql, expected);
+        } finally {
+            sqlExecutionContext.setParallelGroupByEnabled(true);
+        }
+
+        final StringSink actual = new StringSink();
+        TestUtils.printSql(compiler, sqlExecutionContext, sql, actual);
+        TestUtils.assertEquals(expected, actual);
+    }
+
+    private static void createTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select rnd_symbol('A','B','C','D',null) s," +
+                        " rnd_char() c," +
+                        " rnd_str(50,1,4,2) str," +
+                        " rnd_int(0,1000,2) i," +
+                        " x l," +
+                        " rnd_float() f," +
+                        // multiples of 1/4 keep double sums exact regardless of the aggregation order
+                        " cast(rnd_int(0,1000,2) as double) / 4 a," +
+                        " timestamp_sequence(0, 100000) t" +
+                        " from long_sequence(100000)" +
+                        ") timestamp(t) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private static String[] sortedLines(CharSequence text) {
+        final String[] lines = text.toString().split("\n");
+        Arrays.sort(lines);
+        return lines;
+    }
+
+    private void withPool(CustomisableRunnable runnable) throws Exception {
+        assertMemoryLeak(() -> {
+            WorkerPool pool = new TestWorkerPool(WORKER_COUNT);
+            TestUtils.setupWorkerPool(pool, engine);
+            pool.start();
+
+            try (SqlExecutionContextImpl context = new SqlExecutionContextImpl(engine, WORKER_COUNT)) {
+                context.with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+                context.setParallelGroupByEnabled(true);
+                runnable.run(engine, compiler, context);
+            } finally {
+                pool.halt();
+            }
+        });
+    }
+}
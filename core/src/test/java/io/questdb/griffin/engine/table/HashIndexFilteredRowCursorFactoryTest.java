@@ -0,0 +1,164 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HashIndexFilteredRowCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final String UUID = "11111111-1111-1111-1111-111111111111";
+
+    @Test
+    public void testAddIndexToColumnWithTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            compile("create table w as (" +
+                    "select rnd_int(0, 1000, 2) i, rnd_long(0, 500, 2) l, rnd_uuid4() u, timestamp_sequence(4000000000000, 10000000) ts, rnd_long(0, 100, 2) l2 " +
+                    "from long_sequence(20000))");
+            compile("alter table x add column l2 long", sqlExecutionContext);
+            compile("alter table y add column l2 long", sqlExecutionContext);
+            compile("insert into x select * from w");
+            compile("insert into y select * from w");
+            compile("alter table x alter column l2 add index", sqlExecutionContext);
+
+            assertIndexedQuery("l2 = 42");
+            assertIndexedQuery("l2 = 42 and l > 100");
+        });
+    }
+
+    @Test
+    public void testBindVariable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            bindVariableService.clear();
+            bindVariableService.setLong(0, 42);
+            assertIndexedQuery("l = $1");
+            bindVariableService.setLong(0, 43);
+            assertIndexedQuery("l = $1");
+        });
+    }
+
+    @Test
+    public void testIndexMatchesFullScan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertIndexedQuery("l = 42");
+            assertIndexedQuery("42 = l");
+            assertIndexedQuery("l = -1");
+            assertIndexedQuery("i = 5");
+            assertIndexedQuery("i = 5 and l < 100");
+            assertIndexedQuery("u = '" + UUID + "'");
+            assertIndexedQuery("ts in '1970-01-02' and l = 42");
+        });
+    }
+
+    @Test
+    public void testNonConstantValueDoesNotUseIndex() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlan(
+                    "x where l = i",
+                    "Async JIT Filter\n" +
+                            "  filter: l=i\n" +
+                            "  workers: 1\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testO3() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            compile("create table z as (" +
+                    "select rnd_int(0, 1000, 2) i, rnd_long(0, 500, 2) l, rnd_uuid4() u, timestamp_sequence(500000000, 17000000) ts " +
+                    "from long_sequence(20000))");
+            compile("insert into x select * from z");
+            compile("insert into y select * from z");
+            executeInsert("insert into x values (42, 42, '" + UUID + "', 100000000000)");
+            executeInsert("insert into y values (42, 42, '" + UUID + "', 100000000000)");
+
+            assertIndexedQuery("l = 42");
+            assertIndexedQuery("i = 42");
+            assertIndexedQuery("u = '" + UUID + "'");
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlan(
+                    "x where l = 42 and i > 10",
+                    "DataFrame\n" +
+                            "    Index forward scan on: l\n" +
+                            "      hashFilter: l=42\n" +
+                            "      filter: (l=42 and 10<i)\n" +
+                            "    Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUnsupportedColumnType() throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                compile("create table x (d double, ts timestamp), index(d) timestamp(ts) partition by day", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "indexes are supported only for SYMBOL, INT, LONG and UUID columns: d");
+            }
+        });
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            compile("update x set l = 42 where i = 7", sqlExecutionContext);
+            compile("update y set l = 42 where i = 7", sqlExecutionContext);
+            assertIndexedQuery("l = 42");
+        });
+    }
+
+    private void assertIndexedQuery(String filter) throws SqlException {
+        // y holds the same data as x, but has no indexes
+        TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y where " + filter, "x where " + filter, LOG);
+    }
+
+    private void createTables() throws SqlException {
+        compile("create table y as (" +
+                "select rnd_int(0, 1000, 2) i, rnd_long(0, 500, 2) l, rnd_uuid4() u, timestamp_sequence(0, 10000000) ts " +
+                "from long_sequence(30000)) timestamp(ts) partition by day");
+        executeInsert("insert into y values (7, 7, '" + UUID + "', 300000000000)");
+        compile("create table x as (select * from y), index(i), index(l), index(u) timestamp(ts) partition by day");
+    }
+}
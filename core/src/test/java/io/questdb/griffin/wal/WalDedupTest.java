@@ -0,0 +1,173 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.wal;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WalDedupTest extends AbstractGriffinTest {
+
+    @Test
+    public void testCreateTableAsSelectDedupKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table src as (select x, timestamp_sequence('2022-02-24', 1000000) ts from long_sequence(3))");
+            compile("create table dst as (select * from src) timestamp(ts) partition by DAY WAL dedup keys(ts, x)");
+
+            compile("insert into dst select * from src");
+            drainWalQueue();
+
+            assertSql("dst", "x\tts\n" +
+                    "1\t2022-02-24T00:00:00.000000Z\n" +
+                    "2\t2022-02-24T00:00:01.000000Z\n" +
+                    "3\t2022-02-24T00:00:02.000000Z\n");
+        });
+    }
+
+    @Test
+    public void testCreateTableAsSelectDedupKeysStringColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table src as (select x, 'abc' s, timestamp_sequence('2022-02-24', 1000000) ts from long_sequence(3))");
+            try {
+                compile("create table dst as (select * from src) timestamp(ts) partition by DAY WAL dedup keys(ts, s)");
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "deduplicate key column can only be fixed size column: s");
+            }
+        });
+    }
+
+    @Test
+    public void testDedupAcrossPartitionsWithLag() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tableName = testName.getMethodName();
+            createDedupTable(tableName);
+
+            // several small out-of-order transactions are squashed together in the lag
+            executeInsert("insert into " + tableName + " values ('2022-02-25T10', 'a', 1, 's1')");
+            executeInsert("insert into " + tableName + " values ('2022-02-24T10', 'a', 2, 's2')");
+            executeInsert("insert into " + tableName + " values ('2022-02-25T10', 'a', 3, 's3')");
+            executeInsert("insert into " + tableName + " values ('2022-02-24T10', 'b', 4, 's4')");
+            executeInsert("insert into " + tableName + " values ('2022-02-24T10', 'a', 5, 's5')");
+            drainWalQueue();
+
+            assertSql(tableName, "ts\tsym\tv\ts\n" +
+                    "2022-02-24T10:00:00.000000Z\tb\t4\ts4\n" +
+                    "2022-02-24T10:00:00.000000Z\ta\t5\ts5\n" +
+                    "2022-02-25T10:00:00.000000Z\ta\t3\ts3\n");
+        });
+    }
+
+    @Test
+    public void testDedupCommittedRowIsKept() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tableName = testName.getMethodName();
+            createDedupTable(tableName);
+
+            executeInsert("insert into " + tableName + " values ('2022-02-24T10', 'a', 1, 's1')");
+            drainWalQueue();
+
+            executeInsert("insert into " + tableName + " values ('2022-02-24T10', 'a', 2, 's2')");
+            executeInsert("insert into " + tableName + " values ('2022-02-24T09', 'a', 3, 's3')");
+            drainWalQueue();
+
+            assertSql(tableName, "ts\tsym\tv\ts\n" +
+                    "2022-02-24T09:00:00.000000Z\ta\t3\ts3\n" +
+                    "2022-02-24T10:00:00.000000Z\ta\t1\ts1\n");
+        });
+    }
+
+    @Test
+    public void testDedupInBatchLastRowWins() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tableName = testName.getMethodName();
+            createDedupTable(tableName);
+
+            compile("insert into " + tableName + " " +
+                    "select dateadd('s', cast(x % 3 as int), '2022-02-24T00:00:00.000000Z'), concat('k', x % 2), x, concat('s', x) " +
+                    "from long_sequence(10)"
+            );
+            drainWalQueue();
+
+            assertSql(tableName, "ts\tsym\tv\ts\n" +
+                    "2022-02-24T00:00:00.000000Z\tk0\t6\ts6\n" +
+                    "2022-02-24T00:00:00.000000Z\tk1\t9\ts9\n" +
+                    "2022-02-24T00:00:01.000000Z\tk1\t7\ts7\n" +
+                    "2022-02-24T00:00:01.000000Z\tk0\t10\ts10\n" +
+                    "2022-02-24T00:00:02.000000Z\tk1\t5\ts5\n" +
+                    "2022-02-24T00:00:02.000000Z\tk0\t8\ts8\n");
+        });
+    }
+
+    @Test
+    public void testDedupReplayIsIdempotent() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tableName = testName.getMethodName();
+            createDedupTable(tableName);
+
+            compile("create table expected as (" +
+                    "select timestamp_sequence('2022-02-24', 3600000000) ts, rnd_symbol('a', 'b', 'c') sym, x v, concat('s', x) s " +
+                    "from long_sequence(100))"
+            );
+            compile("insert into " + tableName + " select * from expected");
+            drainWalQueue();
+
+            // producer retries the whole batch and then a batch overlapping with new rows
+            compile("insert into " + tableName + " select * from expected");
+            drainWalQueue();
+            compile("insert into " + tableName + " select * from expected where v > 90");
+            compile("insert into " + tableName + " " +
+                    "select dateadd('h', 100, ts), sym, v + 100, concat('s', v + 100) from expected where v < 11");
+            drainWalQueue();
+
+            assertSql("select count() from " + tableName, "count\n110\n");
+            assertSql("select count() from (" + tableName + " where v <= 100 except expected)", "count\n0\n");
+            assertSql("select min(v), max(v) from " + tableName + " where v > 100", "min\tmax\n101\t110\n");
+        });
+    }
+
+    @Test
+    public void testNoDedupKeepsDuplicates() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tableName = testName.getMethodName();
+            compile("create table " + tableName + " (ts timestamp, sym symbol, v long) timestamp(ts) partition by DAY WAL");
+
+            executeInsert("insert into " + tableName + " values ('2022-02-24T10', 'a', 1)");
+            executeInsert("insert into " + tableName + " values ('2022-02-24T10', 'a', 1)");
+            drainWalQueue();
+            executeInsert("insert into " + tableName + " values ('2022-02-24T10', 'a', 1)");
+            drainWalQueue();
+
+            assertSql("select count() from " + tableName, "count\n3\n");
+        });
+    }
+
+    private void createDedupTable(String tableName) throws SqlException {
+        compile("create table " + tableName + " (ts timestamp, sym symbol, v long, s string) timestamp(ts) partition by DAY WAL dedup keys(ts, sym)");
+    }
+}
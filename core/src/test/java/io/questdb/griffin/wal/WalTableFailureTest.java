@@ -1041,7 +1041,7 @@ public class WalTableFailureTest extends AbstractGriffinTest {
             createStandardNonWalTable(nonWalTable);
 
             assertAlterTableTypeFail("alter table " + nonWalTable + " resume wal", nonWalTable + " is not a WAL table");
-            assertAlterTableTypeFail("alter table " + tableToken.getTableName() + " resum wal", "'add', 'drop', 'attach', 'detach', 'set', 'rename' or 'resume' expected");
+            assertAlterTableTypeFail("alter table " + tableToken.getTableName() + " resum wal", "'add', 'drop', 'attach', 'detach', 'compress', 'set', 'rename' or 'resume' expected");
             assertAlterTableTypeFail("alter table " + tableToken.getTableName() + " resume wall", "'wal' expected");
             assertAlterTableTypeFail("alter table " + tableToken.getTableName() + " resume wal frol", "'from' expected");
             assertAlterTableTypeFail("alter table " + tableToken.getTableName() + " resume wal from", "'transaction' or 'txn' expected");
@@ -124,6 +124,18 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         }
     }
 
+    @Test
+    public void testBetween() throws Exception {
+        serialize("atimestamp between 200 and 100");
+        assertIR("(i64 100L)(i64 atimestamp)(>=)(i64 200L)(i64 atimestamp)(<=)(&&)(ret)");
+    }
+
+    @Test
+    public void testBetweenTimestampLiterals() throws Exception {
+        serialize("not atimestamp between '1970-01-01T00:00:01' and '1970-01-01T00:00:02'");
+        assertIR("(i64 1000000L)(i64 atimestamp)(>=)(i64 2000000L)(i64 atimestamp)(<=)(&&)(!)(ret)");
+    }
+
     @Test
     public void testBindVariables() throws Exception {
         bindVariableService.clear();
@@ -281,6 +293,21 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         }
     }
 
+    @Test
+    public void testInList() throws Exception {
+        serialize("anint in (1, -2) and not achar in ('a')");
+        assertIR("(i16 97L)(i16 achar)(=)(!)(i32 1L)(i32 anint)(=)(i32 -2L)(i32 anint)(=)(||)(&&)(ret)");
+    }
+
+    @Test
+    public void testInListSymbols() throws Exception {
+        serialize("asymbol in ('" + KNOWN_SYMBOL_1 + "', '" + UNKNOWN_SYMBOL + "', null)");
+        assertIR("(i32 0L)(i32 asymbol)(=)(i32 :0)(i32 asymbol)(=)(||)(i32 -2147483648L)(i32 asymbol)(=)(||)(ret)");
+
+        Assert.assertEquals(1, bindVarFunctions.size());
+        Assert.assertEquals(UNKNOWN_SYMBOL, bindVarFunctions.get(0).getStr(null));
+    }
+
     @Test(expected = SqlException.class)
     public void testInvalidUuidConstant() throws Exception {
         serialize("auuid = '111111110111101111011110111111111111'");
@@ -492,6 +519,16 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         Assert.assertEquals(UNKNOWN_SYMBOL, bindVarFunctions.get(0).getStr(null));
     }
 
+    @Test(expected = SqlException.class)
+    public void testUnsupportedBetweenNonTimestampColumn() throws Exception {
+        serialize("along between 1 and 2");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedBetweenNullBound() throws Exception {
+        serialize("atimestamp between 1 and null");
+    }
+
     @Test(expected = SqlException.class)
     public void testUnsupportedBindVariableType() throws Exception {
         bindVariableService.clear();
@@ -579,6 +616,11 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         serialize("ageolong = ##11211");
     }
 
+    @Test(expected = SqlException.class)
+    public void testUnsupportedInListNullForNonSymbolColumn() throws Exception {
+        serialize("anint in (1, null)");
+    }
+
     @Test(expected = SqlException.class)
     public void testUnsupportedLong256Constant() throws Exception {
         serialize("along = 0x123");